@@ -0,0 +1,358 @@
+package com.github.tkurz.sesame.vocab;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.CaseFormat;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates many vocabularies in one run, listed in a manifest or found in a directory.
+ * <p/>
+ * A manifest is a JSON file, an array of vocabularies or an object with a {@code vocabularies} array, or a properties
+ * file with the keys {@code <name>.<option>}. A vocabulary has the options of the maven plugin ({@code file} or
+ * {@code url}, {@code mirrors}, {@code hedgeDelay}, {@code accept}, {@code name}, {@code className},
+ * {@code packageName}, {@code prefix}, {@code mimeType}, {@code preferredLanguage}, {@code createResourceBundles},
+ * {@code createTermEnum}, {@code constantCase}), the command line options are the defaults for all of them. In a
+ * directory, every file of a known RDF format is a vocabulary named after the file.
+ * <p/>
+ * The vocabularies are generated on a work-stealing pool into {@code <output-dir>/<package>/<className>.java}. A
+ * vocabulary that fails does not stop the others, all results are reported at the end.
+ */
+public class BatchGenerator {
+
+    /**
+     * A vocabulary of the manifest, with the properties of the maven plugin {@code Vocabulary}.
+     */
+    static class Vocabulary {
+        String url;
+        List<String> mirrors = Collections.emptyList();
+        long hedgeDelay;
+        String accept;
+        String file;
+        String name;
+        String className;
+        String packageName;
+        String prefix;
+        String mimeType;
+        String preferredLanguage;
+        Boolean createResourceBundles;
+        Boolean createTermEnum;
+        String constantCase;
+    }
+
+    /**
+     * The outcome of a vocabulary, with the messages of generating it, reported in manifest order.
+     */
+    static final class Result {
+        final String name;
+        final String status;
+        final long millis;
+        final List<String> messages;
+
+        private Result(String name, String status, long millis, List<String> messages) {
+            this.name = name;
+            this.status = status;
+            this.millis = millis;
+            this.messages = messages;
+        }
+    }
+
+    static final String GENERATED = "generated", UP_TO_DATE = "up to date";
+
+    private final CommandLine cli;
+    private final Path outputDirectory;
+    private final ObjectMapper mapper;
+
+    public BatchGenerator(CommandLine cli, Path outputDirectory) {
+        this.cli = cli;
+        this.outputDirectory = outputDirectory;
+        this.mapper = new ObjectMapper();
+        this.mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+    }
+
+    /**
+     * Generate all vocabularies of a manifest or directory, and print a report.
+     *
+     * @return whether all vocabularies were generated or up to date
+     */
+    public boolean run(Path manifest) throws IOException, ParseException {
+        final List<Vocabulary> vocabularies = load(manifest);
+        if (vocabularies.isEmpty()) {
+            throw new ParseException("No vocabularies in " + manifest);
+        }
+        System.out.printf("Generating %d vocabularies into '%s'%n", vocabularies.size(), outputDirectory);
+        final long start = System.nanoTime();
+        final List<Result> results = generate(vocabularies);
+
+        int generated = 0, upToDate = 0, failed = 0;
+        for (Result result : results) {
+            System.out.printf("  %-24s %s (%d ms)%n", result.name, result.status, result.millis);
+            for (String message : result.messages) {
+                System.out.printf("      %s%n", message);
+            }
+            if (GENERATED.equals(result.status)) {
+                generated++;
+            } else if (UP_TO_DATE.equals(result.status)) {
+                upToDate++;
+            } else {
+                failed++;
+            }
+        }
+        System.out.printf("%d generated, %d up to date, %d failed in %d ms%n",
+                generated, upToDate, failed, (System.nanoTime() - start) / 1000000);
+        return failed == 0;
+    }
+
+    /**
+     * The vocabularies of a manifest or directory.
+     */
+    List<Vocabulary> load(Path manifest) throws IOException, ParseException {
+        return Files.isDirectory(manifest) ? scan(manifest) : read(manifest);
+    }
+
+    /**
+     * Generate the vocabularies in parallel. A failing vocabulary does not stop the others.
+     *
+     * @return the results, in the order of the vocabularies
+     */
+    List<Result> generate(List<Vocabulary> vocabularies) throws IOException, ParseException {
+        final int threads = Main.getNumber(cli, "threads", Runtime.getRuntime().availableProcessors());
+        final ModelCache cache = cli.hasOption("noCache") ? null : new ModelCache(ModelCache.getUserCacheDirectory());
+        final RemoteVocabularyCache vocabularyCache = new RemoteVocabularyCache(RemoteVocabularyCache.getDefaultDirectory(), RemoteVocabularyCache.DEFAULT_MAX_SIZE);
+        final List<Result> results = new ArrayList<>();
+        final ExecutorService pool = Executors.newWorkStealingPool(Math.max(1, threads));
+        try (VocabularyFetcher fetcher = cli.hasOption("offline") ? null : Main.createFetcher(vocabularyCache, cli)) {
+            final List<Future<Result>> futures = new ArrayList<>();
+            for (final Vocabulary vocabulary : vocabularies) {
+                futures.add(pool.submit(() -> generate(vocabulary, cache, vocabularyCache, fetcher)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted", e);
+                } catch (ExecutionException e) {
+                    // an error escaping generate(), the other vocabularies are still reported
+                    results.add(new Result(vocabularies.get(i).name, "FAILED: " + e.getCause(), 0, Collections.<String>emptyList()));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Generate a single vocabulary, failures are reported in the result.
+     */
+    private Result generate(Vocabulary vocabulary, ModelCache cache, RemoteVocabularyCache vocabularyCache, VocabularyFetcher fetcher) {
+        final long start = System.nanoTime();
+        // printed with the report, messages of parallel vocabularies must not interleave
+        final List<String> messages = new ArrayList<>();
+        String status;
+        try {
+            RDFFormat format = Rio.getParserFormatForMIMEType(cli.getOptionValue('f', null)).orElse(null);
+            if (vocabulary.mimeType != null) {
+                format = Rio.getParserFormatForMIMEType(vocabulary.mimeType).orElse(null);
+                if (format == null) {
+                    throw new ParseException("Unknown mimeType " + vocabulary.mimeType);
+                }
+            }
+            final Main.Input in;
+            if (vocabulary.url != null) {
+                final List<URL> mirrors = new ArrayList<>();
+                for (String mirror : vocabulary.mirrors) {
+                    mirrors.add(new URL(mirror));
+                }
+                in = Main.loadRemote(new URL(vocabulary.url), format, cache, vocabularyCache, fetcher,
+                        vocabulary.accept != null ? vocabulary.accept : cli.getOptionValue("accept"), mirrors, vocabulary.hedgeDelay, messages::add);
+            } else {
+                in = new Main.Input(Paths.get(vocabulary.file), new VocabBuilder(vocabulary.file, format, cache));
+            }
+
+            final VocabBuilder builder = in.builder;
+            Main.configure(builder, cli);
+            builder.setName(vocabulary.name);
+            if (vocabulary.packageName != null) {
+                builder.setPackageName(vocabulary.packageName);
+            }
+            if (vocabulary.prefix != null) {
+                builder.setPrefix(vocabulary.prefix);
+            }
+            if (vocabulary.preferredLanguage != null) {
+                builder.setPreferredLanguage(vocabulary.preferredLanguage);
+            }
+            if (vocabulary.constantCase != null) {
+                try {
+                    builder.setConstantCase(CaseFormat.valueOf(vocabulary.constantCase));
+                } catch (IllegalArgumentException e) {
+                    throw new ParseException("Did not recognise constantCase: Must be one of " + Arrays.asList(CaseFormat.values()));
+                }
+            }
+            if (vocabulary.createTermEnum != null) {
+                builder.setGenerateTermEnum(vocabulary.createTermEnum);
+            }
+            final boolean resourceBundles = vocabulary.createResourceBundles != null ? vocabulary.createResourceBundles : cli.hasOption('b');
+
+            Path target = outputDirectory;
+            if (builder.getPackageName() != null) {
+                target = target.resolve(builder.getPackageName().replaceAll("\\.", "/"));
+            }
+            status = Main.generate(builder, in.file, target.resolve(vocabulary.className + ".java"), resourceBundles, cli.hasOption("force"))
+                    ? GENERATED : UP_TO_DATE;
+        } catch (Exception e) {
+            status = "FAILED: " + e.getMessage();
+        }
+        return new Result(vocabulary.name, status, (System.nanoTime() - start) / 1000000, messages);
+    }
+
+    /**
+     * Every file of a known RDF format in the directory and its sub-directories.
+     */
+    private List<Vocabulary> scan(Path directory) throws IOException, ParseException {
+        final List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(file -> Rio.getParserFormatForFileName(file.getFileName().toString()).isPresent())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        final List<Vocabulary> vocabularies = new ArrayList<>();
+        for (Path file : files) {
+            final Vocabulary vocabulary = new Vocabulary();
+            vocabulary.file = directory.relativize(file).toString();
+            vocabularies.add(vocabulary);
+        }
+        return complete(vocabularies, directory.toAbsolutePath().normalize());
+    }
+
+    /**
+     * The vocabularies of a JSON or properties manifest.
+     */
+    private List<Vocabulary> read(Path manifest) throws IOException, ParseException {
+        final List<Vocabulary> vocabularies = new ArrayList<>();
+        if (manifest.getFileName().toString().endsWith(".properties")) {
+            final Properties properties = new Properties();
+            try (Reader in = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+                properties.load(in);
+            }
+            final Map<String, Map<String, Object>> byName = new LinkedHashMap<>();
+            for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+                final int dot = key.indexOf('.');
+                if (dot <= 0) {
+                    throw new ParseException(String.format("Invalid key %s in %s, expected <name>.<option>", key, manifest));
+                }
+                final String name = key.substring(0, dot), option = key.substring(dot + 1);
+                if (!byName.containsKey(name)) {
+                    byName.put(name, new LinkedHashMap<String, Object>());
+                    byName.get(name).put("name", name);
+                }
+                final String value = properties.getProperty(key).trim();
+                byName.get(name).put(option, "mirrors".equals(option) ? Arrays.asList(value.split("\\s*,\\s*")) : value);
+            }
+            for (Map<String, Object> options : byName.values()) {
+                try {
+                    vocabularies.add(mapper.convertValue(options, Vocabulary.class));
+                } catch (IllegalArgumentException e) {
+                    throw new ParseException(String.format("Invalid vocabulary %s in %s: %s", options.get("name"), manifest, e.getMessage()));
+                }
+            }
+        } else {
+            final JsonNode root;
+            try (InputStream in = Files.newInputStream(manifest)) {
+                root = mapper.readTree(in);
+            }
+            final JsonNode list = root != null && root.isObject() ? root.get("vocabularies") : root;
+            if (list == null || !list.isArray()) {
+                throw new ParseException(String.format("%s must be a JSON array of vocabularies or an object with a vocabularies array", manifest));
+            }
+            for (Iterator<JsonNode> it = list.elements(); it.hasNext(); ) {
+                try {
+                    vocabularies.add(mapper.treeToValue(it.next(), Vocabulary.class));
+                } catch (IOException e) {
+                    throw new ParseException(String.format("Invalid vocabulary in %s: %s", manifest, e.getMessage()));
+                }
+            }
+        }
+        return complete(vocabularies, manifest.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Check the vocabularies, resolve their files against the base directory and name them after their file or url.
+     */
+    private List<Vocabulary> complete(List<Vocabulary> vocabularies, Path base) throws ParseException {
+        final Set<String> classes = new HashSet<>();
+        for (Vocabulary vocabulary : vocabularies) {
+            if ((vocabulary.file == null) == (vocabulary.url == null)) {
+                throw new ParseException(String.format("Vocabulary %s must have either a file or an url",
+                        vocabulary.name != null ? vocabulary.name : vocabulary.className));
+            }
+            final String source;
+            if (vocabulary.file != null) {
+                vocabulary.file = base.resolve(vocabulary.file).toString();
+                source = Paths.get(vocabulary.file).getFileName().toString();
+            } else {
+                source = vocabulary.url.replaceFirst("[?#].*$", "").replaceFirst("/+$", "").replaceFirst("^.*/", "");
+            }
+            if (vocabulary.name == null) {
+                vocabulary.name = vocabulary.className != null ? vocabulary.className : source.replaceFirst("\\.[^.]+$", "");
+            }
+            if (vocabulary.className == null) {
+                vocabulary.className = toClassName(vocabulary.name);
+            }
+            final String packageName = vocabulary.packageName != null ? vocabulary.packageName : cli.getOptionValue('p');
+            if (!classes.add(packageName != null ? packageName + "." + vocabulary.className : vocabulary.className)) {
+                throw new ParseException(String.format("Vocabulary %s would overwrite the class %s of another vocabulary, set its className",
+                        vocabulary.name, vocabulary.className));
+            }
+        }
+        return vocabularies;
+    }
+
+    /**
+     * The name in upper camel case, without the characters that are not allowed in a class name.
+     */
+    private static String toClassName(String name) {
+        final StringBuilder className = new StringBuilder();
+        for (String part : name.split("[^\\p{Alnum}]+")) {
+            className.append(StringUtils.capitalize(part));
+        }
+        if (className.length() == 0 || Character.isDigit(className.charAt(0))) {
+            className.insert(0, '_');
+        }
+        return className.toString();
+    }
+}
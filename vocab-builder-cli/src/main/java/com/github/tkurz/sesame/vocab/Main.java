@@ -1,36 +1,30 @@
 package com.github.tkurz.sesame.vocab;
 
 import org.apache.commons.cli.*;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.HttpHeaders;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.ResponseHandler;
-import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.client.methods.RequestBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFParseException;
-import org.eclipse.rdf4j.rio.RDFParserRegistry;
 import org.eclipse.rdf4j.rio.Rio;
 import org.eclipse.rdf4j.rio.UnsupportedRDFormatException;
 
 import com.google.common.base.CaseFormat;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
+import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * ...
@@ -42,7 +36,6 @@ import java.util.Set;
 public class Main {
 
     public static void main(String[] args) {
-        Path tempFile = null;
         try {
             CommandLineParser parser = new PosixParser();
             CommandLine cli = parser.parse(getCliOpts(), args);
@@ -52,6 +45,16 @@ public class Main {
                 return;
             }
 
+            if (cli.hasOption("batch")) {
+                if (cli.getArgs().length != 1) {
+                    throw new ParseException("--batch requires an output-directory");
+                }
+                if (!new BatchGenerator(cli, Paths.get(cli.getArgs()[0])).run(Paths.get(cli.getOptionValue("batch")))) {
+                    System.exit(1);
+                }
+                return;
+            }
+
             // two args must be left over: <input-inputFile> <output-inputFile>
             String[] cliArgs = cli.getArgs();
             final String input, output;
@@ -72,96 +75,30 @@ public class Main {
 
             RDFFormat format = Rio.getParserFormatForMIMEType(cli.getOptionValue('f', null)).orElse(null);
 
-            final VocabBuilder builder;
-            if (input.startsWith("http://")) {
-                URL url = new URL(input);
-
-                //try to guess format
-                //format = RDFFormat.forFileName(url.getFile());
-                format = Rio.getParserFormatForMIMEType(url.getFile()).orElse(null);
-
-                tempFile = Files.createTempFile("vocab-builder", "." + (format != null ? format.getDefaultFileExtension() : "cache"));
-
-                try {
-                    fetchVocab(url, tempFile);
-                } catch (URISyntaxException e) {
-                    throw new ParseException("Invalid input URL: " + e.getMessage());
+            final ModelCache cache = cli.hasOption("noCache") ? null : new ModelCache(ModelCache.getUserCacheDirectory());
+            final Input in;
+            if (isRemote(input)) {
+                final RemoteVocabularyCache vocabularyCache = new RemoteVocabularyCache(RemoteVocabularyCache.getDefaultDirectory(), RemoteVocabularyCache.DEFAULT_MAX_SIZE);
+                try (VocabularyFetcher fetcher = cli.hasOption("offline") ? null : createFetcher(vocabularyCache, cli)) {
+                    in = loadRemote(new URL(input), format, cache, vocabularyCache, fetcher,
+                            cli.getOptionValue("accept"), getMirrors(cli), getNumber(cli, "hedgeDelay", 0), System.out::println);
                 }
-
-                builder = new VocabBuilder(tempFile.toString(), format);
-            } else
-                builder = new VocabBuilder(input, format);
-
-            if (cli.hasOption('p')) {
-                builder.setPackageName(cli.getOptionValue('p'));
-            }
-            if (cli.hasOption('n')) {
-                builder.setName(cli.getOptionValue('n'));
-            }
-            if (cli.hasOption('u')) {
-                builder.setPrefix(cli.getOptionValue('u'));
-            }
-            if (cli.hasOption('l')) {
-                builder.setPreferredLanguage(cli.getOptionValue('l'));
-            }
-            if (cli.hasOption('S')) {
-                builder.setStringPropertySuffix(cli.getOptionValue('S'));
-            } else {
-                builder.setStringPropertySuffix(null);
-            }
-            if (cli.hasOption('P')) {
-                builder.setStringPropertyPrefix(cli.getOptionValue('P'));
             } else {
-                builder.setStringPropertyPrefix(null);
-            }
-            if (cli.hasOption('c')) {
-                try {
-                    final CaseFormat caseFormat = CaseFormat.valueOf(cli.getOptionValue('c'));
-                    if (caseFormat == null) {
-                        throw new ParseException("Did not recognise constantCase: Must be one of " + Arrays.asList(CaseFormat.values()));
-                    }
-                    builder.setConstantCase(caseFormat);
-                } catch (IllegalArgumentException e) {
-                    throw new ParseException("Did not recognise constantCase: Must be one of " + Arrays.asList(CaseFormat.values()));
-                }
-            }
-            if (cli.hasOption('C')) {
-                try {
-                    final CaseFormat caseFormat = CaseFormat.valueOf(cli.getOptionValue('C'));
-                    if (caseFormat == null) {
-                        throw new ParseException("Did not recognise constantCase: Must be one of " + Arrays.asList(CaseFormat.values()));
-                    }
-                    builder.setStringConstantCase(caseFormat);
-                } catch (IllegalArgumentException e) {
-                    throw new ParseException("Did not recognise constantCase: Must be one of " + Arrays.asList(CaseFormat.values()));
-                }
+                in = new Input(Paths.get(input), new VocabBuilder(input, format, cache));
             }
-            if (cli.hasOption('s')) {
-                try {
-                    builder.setIndent(StringUtils.repeat(' ', Integer.parseInt(cli.getOptionValue('s', "4"))));
-                } catch (NumberFormatException e) {
-                    throw new ParseException("indent must be numeric");
-                }
-            } else {
-                builder.setIndent("\t");
+            final VocabBuilder builder = in.builder;
+            configure(builder, cli);
+            if (output == null && cli.hasOption("pack")) {
+                throw new ParseException("--pack requires an output-file");
             }
 
             if (output != null) {
                 System.out.printf("Starting generation%n");
-                Path outFile = Paths.get(output);
-                if (outFile.getParent() != null) {
-                    if (!Files.exists(outFile.getParent())) {
-                        Files.createDirectories(outFile.getParent());
-                    } else if (!Files.isDirectory(outFile.getParent())) {
-                        throw new IOException(String.format("%s is not a directory", outFile.getParent()));
-                    }
+                if (generate(builder, in.file, Paths.get(output), cli.hasOption('b'), cli.hasOption("force"))) {
+                    System.out.printf("Generation finished, result available in '%s'%n", output);
+                } else {
+                    System.out.printf("Vocabulary and options did not change, '%s' is up to date%n", output);
                 }
-                builder.generate(outFile);
-                if (cli.hasOption('b')) {
-                    System.out.printf("Generate ResourceBundles%n");
-                    builder.generateResourceBundle(outFile.getFileName().toString().replaceAll("\\.[^.]+$", ""), outFile.toAbsolutePath().getParent());
-                }
-                System.out.printf("Generation finished, result available in '%s'%n", output);
             } else {
                 builder.generate(System.out);
             }
@@ -178,15 +115,127 @@ public class Main {
             System.err.println("Error during file-access: " + e.getMessage());
         } catch (GenerationException e) {
             System.err.println(e.getMessage());
-        } finally {
-            if (tempFile != null) {
-                try {
-                    Files.deleteIfExists(tempFile);
-                } catch (IOException e) {
-                    System.err.println("Error while deleting temp-file " + tempFile + ": "+ e.getMessage());
+        }
+    }
+
+    /**
+     * A vocabulary to generate: the input file and the parsed vocabulary.
+     */
+    static final class Input {
+        final Path file;
+        final VocabBuilder builder;
+
+        Input(Path file, VocabBuilder builder) {
+            this.file = file;
+            this.builder = builder;
+        }
+    }
+
+    static boolean isRemote(String input) {
+        return input.startsWith("http://") || input.startsWith("https://");
+    }
+
+    /**
+     * Apply the generation options of the command line to a builder.
+     */
+    static void configure(VocabBuilder builder, CommandLine cli) throws ParseException {
+        if (cli.hasOption('p')) {
+            builder.setPackageName(cli.getOptionValue('p'));
+        }
+        if (cli.hasOption('n')) {
+            builder.setName(cli.getOptionValue('n'));
+        }
+        if (cli.hasOption('u')) {
+            builder.setPrefix(cli.getOptionValue('u'));
+        }
+        if (cli.hasOption('l')) {
+            builder.setPreferredLanguage(cli.getOptionValue('l'));
+        }
+        if (cli.hasOption('S')) {
+            builder.setStringPropertySuffix(cli.getOptionValue('S'));
+        } else {
+            builder.setStringPropertySuffix(null);
+        }
+        if (cli.hasOption('P')) {
+            builder.setStringPropertyPrefix(cli.getOptionValue('P'));
+        } else {
+            builder.setStringPropertyPrefix(null);
+        }
+        if (cli.hasOption('c')) {
+            try {
+                final CaseFormat caseFormat = CaseFormat.valueOf(cli.getOptionValue('c'));
+                if (caseFormat == null) {
+                    throw new ParseException("Did not recognise constantCase: Must be one of " + Arrays.asList(CaseFormat.values()));
+                }
+                builder.setConstantCase(caseFormat);
+            } catch (IllegalArgumentException e) {
+                throw new ParseException("Did not recognise constantCase: Must be one of " + Arrays.asList(CaseFormat.values()));
+            }
+        }
+        if (cli.hasOption('C')) {
+            try {
+                final CaseFormat caseFormat = CaseFormat.valueOf(cli.getOptionValue('C'));
+                if (caseFormat == null) {
+                    throw new ParseException("Did not recognise constantCase: Must be one of " + Arrays.asList(CaseFormat.values()));
                 }
+                builder.setStringConstantCase(caseFormat);
+            } catch (IllegalArgumentException e) {
+                throw new ParseException("Did not recognise constantCase: Must be one of " + Arrays.asList(CaseFormat.values()));
             }
         }
+        builder.setGenerateTermEnum(cli.hasOption('e'));
+        builder.setCompactIRIs(cli.hasOption("compactIRIs"));
+        builder.setGenerateLookup(cli.hasOption("lookup"));
+        builder.setGenerateHierarchy(cli.hasOption("hierarchy"));
+        builder.setGenerateCategories(cli.hasOption("categories"));
+        builder.setGenerateSignatures(cli.hasOption("signatures"));
+        builder.setGenerateCanonical(cli.hasOption("canonical"));
+        builder.setGenerateLabelIndex(cli.hasOption("labelIndex"));
+        builder.setGeneratePack(cli.hasOption("pack"));
+        if (cli.hasOption('s')) {
+            try {
+                builder.setIndent(StringUtils.repeat(' ', Integer.parseInt(cli.getOptionValue('s', "4"))));
+            } catch (NumberFormatException e) {
+                throw new ParseException("indent must be numeric");
+            }
+        } else {
+            builder.setIndent("\t");
+        }
+    }
+
+    /**
+     * Generate a vocabulary into the output file, with resource bundles and pack next to it, unless neither the input
+     * file nor the options changed since the last run.
+     *
+     * @return whether the vocabulary was generated, {@code false} if it is up to date
+     */
+    static boolean generate(VocabBuilder builder, Path inputFile, Path outFile, boolean resourceBundles, boolean force)
+            throws IOException, GenerationException {
+        if (outFile.getParent() != null) {
+            if (!Files.exists(outFile.getParent())) {
+                Files.createDirectories(outFile.getParent());
+            } else if (!Files.isDirectory(outFile.getParent())) {
+                throw new IOException(String.format("%s is not a directory", outFile.getParent()));
+            }
+        }
+        final String baseName = outFile.getFileName().toString().replaceAll("\\.[^.]+$", "");
+        final GenerationManifest manifest = new GenerationManifest(outFile.toAbsolutePath().getParent().resolve(".vocab-builder"));
+        final String fingerprint = GenerationManifest.fingerprint(inputFile, builder,
+                "resourceBundles=" + resourceBundles, "output=" + outFile.toAbsolutePath());
+        if (!force && manifest.isUpToDate(baseName, fingerprint)) {
+            return false;
+        }
+        final List<Path> outputs = new ArrayList<>();
+        outputs.add(outFile);
+        builder.generate(outFile);
+        if (builder.isGeneratePack()) {
+            outputs.add(outFile.resolveSibling(VocabBuilder.getPackResourceName(baseName)));
+        }
+        if (resourceBundles) {
+            outputs.addAll(builder.generateResourceBundle(baseName, outFile.toAbsolutePath().getParent()));
+        }
+        manifest.record(baseName, fingerprint, outputs);
+        return true;
     }
 
     private static void printHelp() {
@@ -201,6 +250,7 @@ public class Main {
             w.println();
         }
         hf.printWrapped(w, 80, 12, "usage: Main [options...] <input-file> [<output-file>]");
+        hf.printWrapped(w, 80, 12, "       Main [options...] --batch <manifest> <output-dir>");
         hf.printWrapped(w, 80, 42, "  <input-file>                            the input file to read from");
         hf.printWrapped(w, 80, 42, "  [<output-file>]                         the output file to write, StdOut if omitted");
         hf.printOptions(w, 80, getCliOpts(), 2, 2);
@@ -209,7 +259,7 @@ public class Main {
     }
 
     @SuppressWarnings({"static-access"})
-    private static Options getCliOpts() {
+    static Options getCliOpts() {
         Options o = new Options();
 
         o.addOption(OptionBuilder
@@ -259,6 +309,154 @@ public class Main {
                 .isRequired(false)
                 .create('b'));
 
+        o.addOption(OptionBuilder
+                .withLongOpt("termEnum")
+                .withDescription("generate an enum of all vocabulary terms")
+                .hasArg(false)
+                .isRequired(false)
+                .create('e'));
+
+        o.addOption(OptionBuilder
+                .withLongOpt("compactIRIs")
+                .withDescription("back the IRI constants with a compact IRI implementation")
+                .hasArg(false)
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("lookup")
+                .withDescription("generate byLocalName/byIRI lookup methods")
+                .hasArg(false)
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("hierarchy")
+                .withDescription("generate subClassOf/subPropertyOf closure methods")
+                .hasArg(false)
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("categories")
+                .withDescription("generate isClass/isProperty/... checks")
+                .hasArg(false)
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("signatures")
+                .withDescription("generate domain/range/functional/inverse tables")
+                .hasArg(false)
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("canonical")
+                .withDescription("generate canonical(IRI) for equivalent classes/properties")
+                .hasArg(false)
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("labelIndex")
+                .withDescription("generate searchByLabelPrefix(String, Locale)")
+                .hasArg(false)
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("force")
+                .withDescription("generate even if the input-file and options did not change since the last run")
+                .hasArg(false)
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("noCache")
+                .withDescription("always parse the input-file, do not use the cache of parsed vocabularies")
+                .hasArg(false)
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("offline")
+                .withDescription("use the cached copy of a remote input-file instead of fetching it")
+                .hasArg(false)
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("accept")
+                .withDescription("Accept header for a remote input-file (default: the format, or all formats weighted by parse speed)")
+                .hasArg()
+                .withArgName("media-range")
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("mirror")
+                .withDescription("alternative URL of a remote input-file, tried if it fails (repeatable)")
+                .hasArg()
+                .withArgName("url")
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("hedgeDelay")
+                .withDescription("also request the next mirror if there is no response within this time (default: only after a failure)")
+                .hasArg()
+                .withArgName("millis")
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("connectTimeout")
+                .withDescription("time to connect to the server of a remote input-file (default: " + VocabularyFetcher.DEFAULT_CONNECT_TIMEOUT + ")")
+                .hasArg()
+                .withArgName("millis")
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("readTimeout")
+                .withDescription("time to wait for data from the server of a remote input-file (default: " + VocabularyFetcher.DEFAULT_READ_TIMEOUT + ")")
+                .hasArg()
+                .withArgName("millis")
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("retries")
+                .withDescription("how often a failed download is retried, with exponential backoff (default: " + VocabularyFetcher.DEFAULT_RETRIES + ")")
+                .hasArg()
+                .withArgName("count")
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("batch")
+                .withDescription("generate all vocabularies of a JSON or properties manifest, or all RDF files in a directory, into the output-dir")
+                .hasArg()
+                .withArgName("manifest")
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("threads")
+                .withDescription("number of vocabularies generated in parallel by --batch (default: number of processors)")
+                .hasArg()
+                .withArgName("count")
+                .isRequired(false)
+                .create());
+
+        o.addOption(OptionBuilder
+                .withLongOpt("pack")
+                .withDescription("load the terms from a binary resource written next to the output-file, for very large vocabularies")
+                .hasArg(false)
+                .isRequired(false)
+                .create());
+
         o.addOption(OptionBuilder
                 .withLongOpt("language")
                 .withDescription("preferred language for vocabulary labels")
@@ -307,35 +505,143 @@ public class Main {
         return o;
     }
 
-    private static File fetchVocab(URL url, final Path tempFile) throws URISyntaxException, IOException {
-        System.out.printf("Fetching remote vocabulary <%s>%n", url);
+    /**
+     * A fetcher for remote vocabularies with the timeouts and retries of the command line.
+     */
+    static VocabularyFetcher createFetcher(RemoteVocabularyCache vocabularyCache, CommandLine cli) throws ParseException {
         final Properties buildProperties = getBuildProperties();
-        final HttpClientBuilder clientBuilder = HttpClientBuilder.create()
-                .setUserAgent(
-                        String.format("%s:%s/%s (%s)",
-                                buildProperties.getProperty("groupId", "unknown"),
-                                buildProperties.getProperty("artifactId", "unknown"),
-                                buildProperties.getProperty("version", "unknown"),
-                                buildProperties.getProperty("name", "unknown"))
-                );
-
-        try (CloseableHttpClient client = clientBuilder.build()) {
-            final HttpUriRequest request = RequestBuilder.get()
-                    .setUri(url.toURI())
-                    .setHeader(HttpHeaders.ACCEPT, getAcceptHeaderValue())
-                    .build();
-
-            return client.execute(request, new ResponseHandler<File>() {
-                @Override
-                public File handleResponse(HttpResponse response) throws IOException {
-                    final File cf = tempFile.toFile();
-                    FileUtils.copyInputStreamToFile(response.getEntity().getContent(), cf);
-                    return cf;
+        final String userAgent = String.format("%s:%s/%s (%s)",
+                buildProperties.getProperty("groupId", "unknown"),
+                buildProperties.getProperty("artifactId", "unknown"),
+                buildProperties.getProperty("version", "unknown"),
+                buildProperties.getProperty("name", "unknown"));
+        final VocabularyFetcher fetcher = new VocabularyFetcher(vocabularyCache, userAgent);
+        fetcher.setConnectTimeout(getNumber(cli, "connectTimeout", VocabularyFetcher.DEFAULT_CONNECT_TIMEOUT));
+        fetcher.setReadTimeout(getNumber(cli, "readTimeout", VocabularyFetcher.DEFAULT_READ_TIMEOUT));
+        fetcher.setRetries(getNumber(cli, "retries", VocabularyFetcher.DEFAULT_RETRIES));
+        return fetcher;
+    }
+
+    private static List<URL> getMirrors(CommandLine cli) throws MalformedURLException {
+        final List<URL> mirrors = new ArrayList<>();
+        if (cli.hasOption("mirror")) {
+            for (String mirror : cli.getOptionValues("mirror")) {
+                mirrors.add(new URL(mirror));
+            }
+        }
+        return mirrors;
+    }
+
+    /**
+     * Load a remote vocabulary: fetched into the vocabulary cache unless the cached copy is still valid, and parsed
+     * while it is downloaded. If the download fails, the cached copy is used.
+     *
+     * @param format  the format of the vocabulary, may be {@code null} to use the {@code Content-Type} of the response
+     * @param cache   the cache of parsed vocabularies, may be {@code null}
+     * @param fetcher the fetcher, {@code null} to use the cached copy only
+     * @param accept  the {@code Accept} header, may be {@code null} for the format or all formats
+     * @param log     receives the progress messages
+     */
+    static Input loadRemote(final URL url, RDFFormat format, final ModelCache cache, RemoteVocabularyCache vocabularyCache,
+                            VocabularyFetcher fetcher, String accept, List<URL> mirrors, long hedgeDelay, Consumer<String> log)
+            throws IOException, ParseException {
+        if (format == null) {
+            //try to guess format
+            format = Rio.getParserFormatForFileName(url.getFile()).orElse(null);
+        }
+        // the response is parsed as the given format, so request it
+        if (accept == null && format != null) {
+            accept = VocabularyFetcher.getAcceptHeaderValue(Collections.singleton(format));
+        }
+
+        RemoteVocabularyCache.Entry cached;
+        VocabBuilder downloaded = null;
+        if (fetcher == null) {
+            cached = vocabularyCache.get(url, accept);
+            if (cached == null) {
+                throw new FileNotFoundException(String.format("%s is not cached in %s", url, vocabularyCache.getDirectory()));
+            }
+        } else {
+            try {
+                final VocabularyFetcher.Result<VocabBuilder> fetched = fetchVocab(fetcher, url, format, cache, accept, mirrors, hedgeDelay, log);
+                cached = fetched.getEntry();
+                downloaded = fetched.getValue();
+            } catch (URISyntaxException e) {
+                throw new ParseException("Invalid input URL: " + e.getMessage());
+            } catch (IOException e) {
+                cached = vocabularyCache.get(url, accept);
+                if (cached == null) {
+                    throw e;
                 }
-            });
+                log.accept(String.format("Could not fetch remote vocabulary <%s>, using cached copy: %s", url, e.getMessage()));
+            }
+        }
+        if (format == null) {
+            format = getFormat(cached.getContentType());
+        }
+
+        if (downloaded != null) {
+            // parsed while it was downloaded
+            return new Input(cached.getFile(), downloaded);
+        } else if (cache != null && cache.get(cached.getHash(), format) != null) {
+            return new Input(cached.getFile(), new VocabBuilder(cache.get(cached.getHash(), format)));
+        } else {
+            // decompressed while parsing
+            try (InputStream in = cached.openStream()) {
+                return new Input(cached.getFile(), new VocabBuilder(in, format, cache, url.toString()));
+            }
         }
     }
 
+    /**
+     * Fetch a remote vocabulary into the vocabulary cache, unless the cached copy is still valid.
+     * A downloaded vocabulary is parsed while it arrives.
+     *
+     * @param format the format of the vocabulary, may be {@code null} to use the {@code Content-Type} of the response
+     * @param cache  the cache of parsed vocabularies, may be {@code null}
+     * @param accept the {@code Accept} header, may be {@code null} for all formats
+     * @param log    receives the progress messages
+     */
+    private static VocabularyFetcher.Result<VocabBuilder> fetchVocab(VocabularyFetcher fetcher, final URL url, final RDFFormat format,
+                                                                     final ModelCache cache, final String accept, List<URL> mirrors, long hedgeDelay,
+                                                                     Consumer<String> log)
+            throws URISyntaxException, IOException {
+        log.accept(String.format("Fetching remote vocabulary <%s>", url));
+        final VocabularyFetcher.Result<VocabBuilder> fetched = fetcher.fetch(url, accept, mirrors, hedgeDelay, new VocabularyFetcher.ContentHandler<VocabBuilder>() {
+            @Override
+            public VocabBuilder handle(InputStream content, String contentType) throws IOException {
+                final RDFFormat contentFormat = format != null ? format : getFormat(contentType);
+                if (contentFormat == null) {
+                    // parsed after the download
+                    return null;
+                }
+                return new VocabBuilder(content, contentFormat, cache, url.toString());
+            }
+        });
+        if (!fetched.isModified()) {
+            log.accept(String.format("<%s> is not modified, using cached copy", url));
+        }
+        return fetched;
+    }
+
+    static int getNumber(CommandLine cli, String option, int defaultValue) throws ParseException {
+        if (!cli.hasOption(option)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(cli.getOptionValue(option));
+        } catch (NumberFormatException e) {
+            throw new ParseException(option + " must be numeric");
+        }
+    }
+
+    private static RDFFormat getFormat(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        return Rio.getParserFormatForMIMEType(contentType.replaceFirst(";.*$", "").trim()).orElse(null);
+    }
+
     private static Properties getBuildProperties() {
         Properties p = new Properties();
         try {
@@ -346,21 +652,4 @@ public class Main {
         return p;
     }
 
-    private static String getAcceptHeaderValue() {
-        final Set<RDFFormat> rdfFormats = RDFParserRegistry.getInstance().getKeys();
-        final Iterator<String> acceptParams = RDFFormat.getAcceptParams(rdfFormats, false, RDFFormat.TURTLE).iterator();
-        if (acceptParams.hasNext()) {
-            final StringBuilder sb = new StringBuilder();
-            while (acceptParams.hasNext()) {
-                sb.append(acceptParams.next());
-                if (acceptParams.hasNext()) {
-                    sb.append(", ");
-                }
-            }
-            return sb.toString();
-        } else {
-            return null;
-        }
-    }
-
 }
@@ -0,0 +1,197 @@
+package com.github.tkurz.sesame.vocab;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.cli.PosixParser;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link BatchGenerator}: reading manifests, scanning directories and generating.
+ */
+public class BatchGeneratorTest {
+
+    private static final String VOCABULARY = "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n"
+            + "@prefix owl: <http://www.w3.org/2002/07/owl#> .\n"
+            + "<http://example.com/ns#> a owl:Ontology .\n"
+            + "<http://example.com/ns#Person> a rdfs:Class ; rdfs:label \"Person\" .\n";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Path output;
+
+    @Before
+    public void setUp() throws IOException {
+        output = temp.newFolder("out").toPath();
+    }
+
+    private BatchGenerator batch(String... args) throws ParseException {
+        final String[] options = Arrays.copyOf(args, args.length + 2);
+        options[args.length] = "--noCache";
+        options[args.length + 1] = "--offline";
+        final CommandLine cli = new PosixParser().parse(Main.getCliOpts(), options);
+        return new BatchGenerator(cli, output);
+    }
+
+    private File write(String name, String content) throws IOException {
+        final File file = new File(temp.getRoot(), name);
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    public void testJsonManifest() throws Exception {
+        write("vocabs/ex.ttl", VOCABULARY);
+        final File manifest = write("vocabs/manifest.json", "{\"vocabularies\": ["
+                + "{\"file\": \"ex.ttl\", \"packageName\": \"com.example\", \"createTermEnum\": true},"
+                + "{\"url\": \"http://example.com/dc-terms.ttl?format=ttl\", \"mirrors\": [\"http://mirror.example.com/dc.ttl\"], \"hedgeDelay\": 250}"
+                + "]}");
+
+        final List<BatchGenerator.Vocabulary> vocabularies = batch().load(manifest.toPath());
+        Assert.assertEquals(2, vocabularies.size());
+
+        final BatchGenerator.Vocabulary ex = vocabularies.get(0);
+        Assert.assertEquals(new File(temp.getRoot(), "vocabs/ex.ttl").getAbsolutePath(), ex.file);
+        Assert.assertEquals("ex", ex.name);
+        Assert.assertEquals("Ex", ex.className);
+        Assert.assertEquals("com.example", ex.packageName);
+        Assert.assertEquals(Boolean.TRUE, ex.createTermEnum);
+
+        final BatchGenerator.Vocabulary dc = vocabularies.get(1);
+        Assert.assertEquals("dc-terms", dc.name);
+        Assert.assertEquals("DcTerms", dc.className);
+        Assert.assertEquals(Arrays.asList("http://mirror.example.com/dc.ttl"), dc.mirrors);
+        Assert.assertEquals(250, dc.hedgeDelay);
+    }
+
+    @Test
+    public void testJsonArrayManifest() throws Exception {
+        final File manifest = write("manifest.json", "[{\"file\": \"ex.ttl\", \"className\": \"EX\"}]");
+        final List<BatchGenerator.Vocabulary> vocabularies = batch().load(manifest.toPath());
+        Assert.assertEquals(1, vocabularies.size());
+        Assert.assertEquals("EX", vocabularies.get(0).name);
+        Assert.assertEquals("EX", vocabularies.get(0).className);
+    }
+
+    @Test
+    public void testPropertiesManifest() throws Exception {
+        final File manifest = write("manifest.properties", "ex.file = ex.ttl\n"
+                + "ex.constantCase = UPPER_UNDERSCORE\n"
+                + "dc.url = http://example.com/dc.ttl\n"
+                + "dc.mirrors = http://a.example.com/dc.ttl, http://b.example.com/dc.ttl\n"
+                + "dc.hedgeDelay = 100\n");
+
+        final List<BatchGenerator.Vocabulary> vocabularies = batch().load(manifest.toPath());
+        Assert.assertEquals(2, vocabularies.size());
+        final BatchGenerator.Vocabulary dc = vocabularies.get(0);
+        Assert.assertEquals("dc", dc.name);
+        Assert.assertEquals("Dc", dc.className);
+        Assert.assertEquals(Arrays.asList("http://a.example.com/dc.ttl", "http://b.example.com/dc.ttl"), dc.mirrors);
+        Assert.assertEquals(100, dc.hedgeDelay);
+        final BatchGenerator.Vocabulary ex = vocabularies.get(1);
+        Assert.assertEquals("ex", ex.name);
+        Assert.assertEquals("UPPER_UNDERSCORE", ex.constantCase);
+    }
+
+    @Test(expected = ParseException.class)
+    public void testUnknownJsonKey() throws Exception {
+        batch().load(write("manifest.json", "[{\"file\": \"ex.ttl\", \"fiel\": \"typo.ttl\"}]").toPath());
+    }
+
+    @Test(expected = ParseException.class)
+    public void testUnknownPropertiesKey() throws Exception {
+        batch().load(write("manifest.properties", "ex.file = ex.ttl\nex.clasName = EX\n").toPath());
+    }
+
+    @Test(expected = ParseException.class)
+    public void testInvalidPropertiesKey() throws Exception {
+        batch().load(write("manifest.properties", "file = ex.ttl\n").toPath());
+    }
+
+    @Test(expected = ParseException.class)
+    public void testNoSource() throws Exception {
+        batch().load(write("manifest.json", "[{\"name\": \"ex\"}]").toPath());
+    }
+
+    @Test
+    public void testDuplicateClass() throws Exception {
+        final File manifest = write("manifest.json", "[{\"file\": \"a/ex.ttl\"}, {\"file\": \"b/ex.ttl\"}]");
+        try {
+            batch().load(manifest.toPath());
+            Assert.fail("two vocabularies generated into the same class");
+        } catch (ParseException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("Ex"));
+        }
+        // in different packages
+        write("manifest.json", "[{\"file\": \"a/ex.ttl\", \"packageName\": \"a\"}, {\"file\": \"b/ex.ttl\"}]");
+        Assert.assertEquals(2, batch("-p", "b").load(manifest.toPath()).size());
+        try {
+            batch("-p", "a").load(manifest.toPath());
+            Assert.fail("two vocabularies generated into the same class");
+        } catch (ParseException e) {
+            // the default package of the command line applies
+        }
+    }
+
+    @Test
+    public void testScanDirectory() throws Exception {
+        write("vocabs/b-vocab.ttl", VOCABULARY);
+        write("vocabs/nested/a.nt", "<http://example.com/ns#a> <http://www.w3.org/2000/01/rdf-schema#label> \"a\" .\n");
+        write("vocabs/README.txt", "not a vocabulary");
+
+        final List<BatchGenerator.Vocabulary> vocabularies = batch().load(new File(temp.getRoot(), "vocabs").toPath());
+        Assert.assertEquals(2, vocabularies.size());
+        Assert.assertEquals("b-vocab", vocabularies.get(0).name);
+        Assert.assertEquals("BVocab", vocabularies.get(0).className);
+        Assert.assertEquals("a", vocabularies.get(1).name);
+        Assert.assertEquals("A", vocabularies.get(1).className);
+    }
+
+    @Test
+    public void testScanRelativeDirectory() throws Exception {
+        write("vocabs/ex.ttl", VOCABULARY);
+        final Path directory = Paths.get("").toAbsolutePath().relativize(new File(temp.getRoot(), "vocabs").toPath());
+        Assert.assertFalse(directory.isAbsolute());
+
+        final List<BatchGenerator.Vocabulary> vocabularies = batch().load(directory);
+        Assert.assertEquals(1, vocabularies.size());
+        Assert.assertEquals(new File(temp.getRoot(), "vocabs/ex.ttl").getAbsolutePath(), vocabularies.get(0).file);
+        Assert.assertEquals(BatchGenerator.GENERATED, batch().generate(vocabularies).get(0).status);
+    }
+
+    @Test
+    public void testFailureIsolation() throws Exception {
+        write("vocabs/broken.ttl", "<http://example.com/ns#a> this is not turtle");
+        write("vocabs/good.ttl", VOCABULARY);
+        final BatchGenerator batch = batch("-p", "com.example");
+        final List<BatchGenerator.Vocabulary> vocabularies = batch.load(new File(temp.getRoot(), "vocabs").toPath());
+
+        final List<BatchGenerator.Result> results = batch.generate(vocabularies);
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals("broken", results.get(0).name);
+        Assert.assertTrue(results.get(0).status, results.get(0).status.startsWith("FAILED"));
+        Assert.assertEquals("good", results.get(1).name);
+        Assert.assertEquals(BatchGenerator.GENERATED, results.get(1).status);
+        Assert.assertTrue(Files.isRegularFile(output.resolve("com/example/Good.java")));
+        Assert.assertFalse(Files.exists(output.resolve("com/example/Broken.java")));
+
+        // the report of the whole batch
+        Assert.assertFalse(batch.run(new File(temp.getRoot(), "vocabs").toPath()));
+        Assert.assertEquals(BatchGenerator.UP_TO_DATE, batch.generate(vocabularies).get(1).status);
+    }
+
+}
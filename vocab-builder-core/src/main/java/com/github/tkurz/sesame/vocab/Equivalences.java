@@ -0,0 +1,133 @@
+package com.github.tkurz.sesame.vocab;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Equivalence classes of IRIs linked by {@code owl:equivalentClass}, {@code owl:equivalentProperty}
+ * or {@code owl:sameAs}, computed with union-find.
+ */
+final class Equivalences {
+
+    private static final IRI[] EQUIVALENCE_PROPERTIES = {OWL.EQUIVALENTCLASS, OWL.EQUIVALENTPROPERTY, OWL.SAMEAS};
+
+    private static final IRI DEPRECATED = SimpleValueFactory.getInstance().createIRI(OWL.NAMESPACE, "deprecated");
+
+    private final Map<String, String> parents = new HashMap<>();
+
+    /**
+     * Whether a term is marked {@code owl:deprecated true} or typed {@code owl:DeprecatedClass}/{@code owl:DeprecatedProperty}.
+     */
+    static boolean isDeprecated(Model model, IRI term) {
+        for (Value value : model.filter(term, DEPRECATED, null).objects()) {
+            if (value instanceof Literal && "true".equals(value.stringValue().trim())) {
+                return true;
+            }
+        }
+        return model.contains(term, RDF.TYPE, OWL.DEPRECATEDCLASS) || model.contains(term, RDF.TYPE, OWL.DEPRECATEDPROPERTY);
+    }
+
+    /**
+     * Add all equivalences between IRIs declared in the model.
+     */
+    void addAll(Model model) {
+        for (IRI property : EQUIVALENCE_PROPERTIES) {
+            for (Statement statement : model.filter(null, property, null)) {
+                if (statement.getSubject() instanceof IRI && statement.getObject() instanceof IRI) {
+                    add(statement.getSubject().stringValue(), statement.getObject().stringValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Declare two IRIs equivalent.
+     */
+    void add(String a, String b) {
+        final String rootA = find(a);
+        final String rootB = find(b);
+        if (!rootA.equals(rootB)) {
+            // keep the smaller root, so the result does not depend on the order of the statements
+            if (rootA.compareTo(rootB) < 0) {
+                parents.put(rootB, rootA);
+            } else {
+                parents.put(rootA, rootB);
+            }
+        }
+    }
+
+    private String find(String iri) {
+        String root = iri;
+        String parent;
+        while ((parent = parents.get(root)) != null) {
+            root = parent;
+        }
+        // path compression
+        String node = iri;
+        while (!node.equals(root)) {
+            final String next = parents.get(node);
+            parents.put(node, root);
+            node = next;
+        }
+        return root;
+    }
+
+    /**
+     * Map every IRI to the canonical member of its equivalence class.
+     * <p/>
+     * Only members listed in {@code candidates} can become canonical, the lowest rank wins.
+     * Equivalence classes without any candidate are ignored, as are the canonical members themselves.
+     *
+     * @param candidates the rank of the IRIs that may be canonical
+     * @return the canonical IRI for each non-canonical member, sorted by member
+     */
+    Map<String, String> getCanonicalMap(Map<String, Integer> candidates) {
+        final Map<String, Set<String>> classes = new TreeMap<>();
+        for (String iri : new ArrayList<>(parents.keySet())) {
+            addMember(classes, iri);
+            addMember(classes, parents.get(iri));
+        }
+
+        final Map<String, String> canonical = new TreeMap<>();
+        for (Set<String> members : classes.values()) {
+            String best = null;
+            for (String member : members) {
+                final Integer rank = candidates.get(member);
+                if (rank != null && (best == null || rank < candidates.get(best))) {
+                    best = member;
+                }
+            }
+            if (best != null) {
+                for (String member : members) {
+                    if (!member.equals(best)) {
+                        canonical.put(member, best);
+                    }
+                }
+            }
+        }
+        return canonical;
+    }
+
+    private void addMember(Map<String, Set<String>> classes, String iri) {
+        final String root = find(iri);
+        Set<String> members = classes.get(root);
+        if (members == null) {
+            members = new TreeSet<>();
+            classes.put(root, members);
+        }
+        members.add(iri);
+    }
+}
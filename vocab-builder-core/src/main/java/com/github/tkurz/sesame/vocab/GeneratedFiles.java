@@ -0,0 +1,102 @@
+package com.github.tkurz.sesame.vocab;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Reproducible output: generated files are only written if their content changed, so their modification
+ * time stays stable and downstream builds are not triggered needlessly.
+ */
+public final class GeneratedFiles {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneratedFiles.class);
+
+    private GeneratedFiles() {
+        // static access only
+    }
+
+    /**
+     * Whether the file exists with exactly the given content.
+     */
+    public static boolean hasContent(Path file, byte[] content) throws IOException {
+        return Files.isRegularFile(file) && Files.size(file) == content.length && Arrays.equals(Files.readAllBytes(file), content);
+    }
+
+    /**
+     * Write the file, unless it already has the given content.
+     *
+     * @return whether the file was written
+     */
+    public static boolean write(Path file, byte[] content) throws IOException {
+        if (hasContent(file, content)) {
+            log.debug("{} is unchanged", file);
+            return false;
+        }
+        Files.write(file, content);
+        return true;
+    }
+
+    /**
+     * Like {@link Properties#store(Writer, String)}, but reproducible: without timestamp, sorted by key
+     * and with {@code \n} line endings.
+     */
+    public static void storeProperties(Properties properties, Writer out, String comment) throws IOException {
+        if (comment != null) {
+            out.write("#" + comment.replaceAll("\\R", "\n#") + "\n");
+        }
+        for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+            out.write(escape(key, true));
+            out.write("=");
+            out.write(escape(properties.getProperty(key), false));
+            out.write("\n");
+        }
+        out.flush();
+    }
+
+    private static String escape(String string, boolean escapeSpace) {
+        final StringBuilder escaped = new StringBuilder(string.length());
+        for (int i = 0; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                case '\f':
+                    escaped.append("\\f");
+                    break;
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    escaped.append('\\').append(c);
+                    break;
+                case ' ':
+                    if (i == 0 || escapeSpace) {
+                        escaped.append('\\');
+                    }
+                    escaped.append(c);
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -5,6 +5,8 @@ package com.github.tkurz.sesame.vocab;
  */
 public class GenerationException extends Exception {
 
+    private static final long serialVersionUID = 1L;
+
     public GenerationException() {
         super();
     }
@@ -0,0 +1,177 @@
+package com.github.tkurz.sesame.vocab;
+
+import org.eclipse.rdf4j.common.io.MavenUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Fingerprints of generated vocabularies, to skip the generation if neither the input, the settings
+ * nor the generator changed.
+ * <p/>
+ * Each vocabulary has a manifest {@code <id>.fingerprint} in the manifest directory: the first line is the
+ * fingerprint, followed by the absolute paths of the generated files.
+ */
+public class GenerationManifest {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationManifest.class);
+
+    private static final String EXTENSION = ".fingerprint";
+
+    /**
+     * The version of the generator, part of every fingerprint.
+     */
+    public static final String GENERATOR_VERSION = MavenUtil.loadVersion("com.github.tkurz.sesame", "vocab-builder-core", "0.0.0-DEVELOP");
+
+    private final Path directory;
+
+    /**
+     * @param directory the manifest directory, created on first write
+     */
+    public GenerationManifest(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * The fingerprint of generating from an input file with the settings of a builder.
+     *
+     * @param input         the input file
+     * @param builder       the configured builder
+     * @param extraSettings settings that are not part of the builder, e.g. whether resource bundles are created
+     * @throws IOException if the input file could not be read
+     */
+    public static String fingerprint(Path input, VocabBuilder builder, String... extraSettings) throws IOException {
+        final MessageDigest digest = Sha256.createDigest();
+        final byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(input)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        update(digest, GENERATOR_VERSION);
+        for (Map.Entry<String, String> setting : builder.getSettings().entrySet()) {
+            update(digest, setting.getKey() + "=" + setting.getValue());
+        }
+        for (String setting : extraSettings) {
+            update(digest, setting);
+        }
+        return Sha256.toHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update((byte) 0);
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path getManifest(String id) {
+        return directory.resolve(id + EXTENSION);
+    }
+
+    /**
+     * Whether a vocabulary was generated with this fingerprint and all of its outputs still exist.
+     */
+    public boolean isUpToDate(String id, String fingerprint) {
+        final List<String> lines = read(id);
+        if (lines.isEmpty() || !lines.get(0).equals(fingerprint)) {
+            return false;
+        }
+        for (String output : lines.subList(1, lines.size())) {
+            if (!Files.exists(Paths.get(output))) {
+                log.debug("{} is missing, regenerating {}", output, id);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<String> read(String id) {
+        final Path manifest = getManifest(id);
+        if (!Files.isRegularFile(manifest)) {
+            return Collections.emptyList();
+        }
+        try {
+            return Files.readAllLines(manifest, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("ignoring unreadable manifest {}: {}", manifest, e.toString());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Record the outputs of a successful generation.
+     */
+    public void record(String id, String fingerprint, Collection<Path> outputs) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add(fingerprint);
+        for (Path output : outputs) {
+            lines.add(output.toAbsolutePath().normalize().toString());
+        }
+        Files.createDirectories(directory);
+        Files.write(getManifest(id), lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The ids of all recorded vocabularies, sorted.
+     */
+    public List<String> getIds() throws IOException {
+        final TreeSet<String> ids = new TreeSet<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> manifests = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+                for (Path manifest : manifests) {
+                    final String fileName = manifest.getFileName().toString();
+                    ids.add(fileName.substring(0, fileName.length() - EXTENSION.length()));
+                }
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Delete the recorded outputs of a vocabulary and its manifest.
+     */
+    public void remove(String id) throws IOException {
+        final List<String> lines = read(id);
+        if (!lines.isEmpty()) {
+            for (String output : lines.subList(1, lines.size())) {
+                log.debug("deleting stale output {}", output);
+                Files.deleteIfExists(Paths.get(output));
+            }
+        }
+        Files.deleteIfExists(getManifest(id));
+    }
+
+    /**
+     * Delete the outputs of all recorded vocabularies that are not part of {@code ids}.
+     *
+     * @return the removed ids
+     */
+    public List<String> removeStale(Collection<String> ids) throws IOException {
+        final List<String> removed = new ArrayList<>();
+        for (String id : getIds()) {
+            if (!ids.contains(id)) {
+                remove(id);
+                removed.add(id);
+            }
+        }
+        return removed;
+    }
+}
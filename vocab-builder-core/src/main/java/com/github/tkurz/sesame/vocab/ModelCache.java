@@ -0,0 +1,400 @@
+package com.github.tkurz.sesame.vocab;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Namespace;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.Rio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Persistent cache of parsed vocabularies, so unchanged input files are not parsed again.
+ * <p/>
+ * Entries are keyed by the SHA-256 of the input bytes (like {@link RemoteVocabularyCache.Entry#getHash()}) and the
+ * input format and stored as {@code <key>.model} in a compact binary form, which is memory-mapped when read:
+ * <pre>
+ * int    magic ({@value #MAGIC})
+ * ushort version ({@value #VERSION})
+ * int    n, n x (prefix, name)   namespaces
+ * int    n, n x value            values, a typed literal only references earlier values
+ * int    n, n x (int s, int p, int o, int c)   statements as value indices, c is -1 for the default context
+ * </pre>
+ * A value is a kind byte followed by its strings, a string is its length in bytes followed by the UTF-8 bytes.
+ * Unreadable entries are ignored and replaced.
+ * <p/>
+ * Loaded models are also kept in memory, shared by all caches of the class loader, so a multi-module build
+ * loads every distinct vocabulary only once. The shared models are unmodifiable.
+ */
+public class ModelCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelCache.class);
+
+    static final int MAGIC = 0x56424D43;
+
+    static final int VERSION = 1;
+
+    private static final String EXTENSION = ".model";
+
+    private static final byte IRI_VALUE = 0, BNODE_VALUE = 1, TYPED_LITERAL_VALUE = 2, LANGUAGE_LITERAL_VALUE = 3;
+
+    /**
+     * Models loaded in this class loader by key. Soft references let them be reclaimed under memory pressure.
+     */
+    private static final ConcurrentMap<String, SoftReference<Model>> LOADED = new ConcurrentHashMap<>();
+
+    private final Path directory;
+
+    /**
+     * @param directory the cache directory, created on first write
+     */
+    public ModelCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * The per-user cache directory: {@code $XDG_CACHE_HOME/vocab-builder}, defaulting to {@code ~/.cache/vocab-builder}.
+     */
+    public static Path getUserCacheDirectory() {
+        final String cacheHome = System.getenv("XDG_CACHE_HOME");
+        if (cacheHome != null && !cacheHome.trim().isEmpty()) {
+            return Paths.get(cacheHome, "vocab-builder");
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "vocab-builder");
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Load a vocabulary, from the cache if the same bytes were parsed with the same format before.
+     *
+     * @param file   the input file
+     * @param format the format of the input file, may be {@code null}
+     * @throws IOException       if the input file could not be read
+     * @throws RDFParseException if the input file could not be parsed
+     */
+    public Model load(Path file, RDFFormat format) throws IOException, RDFParseException {
+        final byte[] bytes = Files.readAllBytes(file);
+        final String key = getKey(Sha256.toHex(Sha256.createDigest().digest(bytes)), format);
+        final Model loaded = getLoaded(key);
+        if (loaded != null) {
+            log.debug("{} is already loaded", file);
+            return loaded;
+        }
+
+        final Model model = load(file, bytes, format, directory.resolve(key + EXTENSION)).unmodifiable();
+        LOADED.put(key, new SoftReference<>(model));
+        return model;
+    }
+
+    private static Model load(Path file, byte[] bytes, RDFFormat format, Path entry) throws IOException, RDFParseException {
+        final Model cached = read(entry, file.toString());
+        if (cached != null) {
+            return cached;
+        }
+
+        log.trace("Loading input file");
+        final Model model = Rio.parse(new ByteArrayInputStream(bytes), "", format);
+        write(model, entry, file.toString());
+        return model;
+    }
+
+    /**
+     * The vocabulary with the given content, if it was parsed with the same format before.
+     *
+     * @param contentHash the hex SHA-256 of the input bytes
+     * @param format      the format of the input, may be {@code null}
+     * @return the vocabulary, or {@code null} if it is not cached
+     */
+    public Model get(String contentHash, RDFFormat format) {
+        final String key = getKey(contentHash, format);
+        final Model loaded = getLoaded(key);
+        if (loaded != null) {
+            log.debug("{} is already loaded", contentHash);
+            return loaded;
+        }
+        final Model cached = read(directory.resolve(key + EXTENSION), contentHash);
+        if (cached == null) {
+            return null;
+        }
+        final Model model = cached.unmodifiable();
+        LOADED.put(key, new SoftReference<>(model));
+        return model;
+    }
+
+    /**
+     * Parse a vocabulary while it is read from a stream, e.g. while it is downloaded, and add it to the cache.
+     * The stream is read to its end, but not closed.
+     *
+     * @param in     the input
+     * @param format the format of the input, may be {@code null}
+     * @param name   the name of the input for logging
+     * @throws IOException       if the input could not be read
+     * @throws RDFParseException if the input could not be parsed
+     */
+    public Model parse(InputStream in, RDFFormat format, String name) throws IOException, RDFParseException {
+        final MessageDigest digest = Sha256.createDigest();
+        final InputStream digesting = new DigestInputStream(in, digest) {
+            @Override
+            public void close() {
+                // parsers may close their input, but the rest has to be digested
+            }
+        };
+        log.trace("Parsing {}", name);
+        final Model parsed = Rio.parse(digesting, "", format);
+        final byte[] buffer = new byte[8192];
+        while (digesting.read(buffer) >= 0) {
+            // digest trailing content the parser did not read
+        }
+
+        final String key = getKey(Sha256.toHex(digest.digest()), format);
+        write(parsed, directory.resolve(key + EXTENSION), name);
+        final Model model = parsed.unmodifiable();
+        LOADED.put(key, new SoftReference<>(model));
+        return model;
+    }
+
+    private static Model getLoaded(String key) {
+        final SoftReference<Model> loaded = LOADED.get(key);
+        if (loaded == null) {
+            return null;
+        }
+        final Model model = loaded.get();
+        if (model == null) {
+            // collected, unless it was replaced meanwhile
+            LOADED.remove(key, loaded);
+        }
+        return model;
+    }
+
+    /**
+     * Read an entry, {@code null} if it does not exist or can not be read.
+     */
+    private static Model read(Path entry, String name) {
+        if (Files.isRegularFile(entry)) {
+            try {
+                final Model model = read(entry);
+                log.debug("loaded {} from cache {}", name, entry);
+                return model;
+            } catch (IOException | RuntimeException e) {
+                log.warn("ignoring unreadable cache entry {}: {}", entry, e.toString());
+            }
+        }
+        return null;
+    }
+
+    private static void write(Model model, Path entry, String name) {
+        try {
+            write(model, entry);
+        } catch (IOException e) {
+            log.warn("could not write cache entry {} for {}: {}", entry, name, e.toString());
+        }
+    }
+
+    /**
+     * Drop all models kept in memory.
+     */
+    public static void clearLoaded() {
+        LOADED.clear();
+    }
+
+    /**
+     * The key of a vocabulary: the SHA-256 of the content hash and the input format.
+     */
+    private static String getKey(String contentHash, RDFFormat format) {
+        final MessageDigest digest = Sha256.createDigest();
+        digest.update(contentHash.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        if (format != null) {
+            digest.update(format.getDefaultMIMEType().getBytes(StandardCharsets.UTF_8));
+        }
+        return Sha256.toHex(digest.digest());
+    }
+
+    static Model read(Path entry) throws IOException {
+        final ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (in.getInt() != MAGIC || (in.getShort() & 0xffff) != VERSION) {
+                throw new IOException("unsupported format: " + entry);
+            }
+            final Model model = new LinkedHashModel();
+            for (int i = in.getInt(); i > 0; i--) {
+                model.setNamespace(readString(in), readString(in));
+            }
+
+            final ValueFactory factory = SimpleValueFactory.getInstance();
+            final Value[] values = new Value[in.getInt()];
+            for (int i = 0; i < values.length; i++) {
+                final byte kind = in.get();
+                switch (kind) {
+                    case IRI_VALUE:
+                        values[i] = factory.createIRI(readString(in));
+                        break;
+                    case BNODE_VALUE:
+                        values[i] = factory.createBNode(readString(in));
+                        break;
+                    case TYPED_LITERAL_VALUE:
+                        final String label = readString(in);
+                        values[i] = factory.createLiteral(label, (IRI) values[in.getInt()]);
+                        break;
+                    case LANGUAGE_LITERAL_VALUE:
+                        values[i] = factory.createLiteral(readString(in), readString(in));
+                        break;
+                    default:
+                        throw new IOException("unknown value kind " + kind + " in " + entry);
+                }
+            }
+
+            for (int i = in.getInt(); i > 0; i--) {
+                final Resource subject = (Resource) values[in.getInt()];
+                final IRI predicate = (IRI) values[in.getInt()];
+                final Value object = values[in.getInt()];
+                final int context = in.getInt();
+                if (context < 0) {
+                    model.add(subject, predicate, object);
+                } else {
+                    model.add(subject, predicate, object, (Resource) values[context]);
+                }
+            }
+            return model;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated cache entry " + entry, e);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        final byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write an entry via a temporary file, so concurrent builds never read a partial entry.
+     */
+    static void write(Model model, Path entry) throws IOException {
+        Files.createDirectories(entry.getParent());
+        final Path temp = Files.createTempFile(entry.getParent(), entry.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                write(model, out);
+            }
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static void write(Model model, OutputStream outputStream) throws IOException {
+        final Map<Value, Integer> index = new HashMap<>();
+        final List<Value> values = new ArrayList<>();
+        for (Statement statement : model) {
+            addValue(statement.getSubject(), index, values);
+            addValue(statement.getPredicate(), index, values);
+            addValue(statement.getObject(), index, values);
+            if (statement.getContext() != null) {
+                addValue(statement.getContext(), index, values);
+            }
+        }
+
+        final DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(model.getNamespaces().size());
+        for (Namespace namespace : model.getNamespaces()) {
+            writeString(out, namespace.getPrefix());
+            writeString(out, namespace.getName());
+        }
+
+        out.writeInt(values.size());
+        for (Value value : values) {
+            if (value instanceof IRI) {
+                out.writeByte(IRI_VALUE);
+                writeString(out, value.stringValue());
+            } else if (value instanceof BNode) {
+                out.writeByte(BNODE_VALUE);
+                writeString(out, ((BNode) value).getID());
+            } else {
+                final Literal literal = (Literal) value;
+                if (literal.getLanguage().isPresent()) {
+                    out.writeByte(LANGUAGE_LITERAL_VALUE);
+                    writeString(out, literal.getLabel());
+                    writeString(out, literal.getLanguage().get());
+                } else {
+                    out.writeByte(TYPED_LITERAL_VALUE);
+                    writeString(out, literal.getLabel());
+                    out.writeInt(index.get(literal.getDatatype()));
+                }
+            }
+        }
+
+        out.writeInt(model.size());
+        for (Statement statement : model) {
+            out.writeInt(index.get(statement.getSubject()));
+            out.writeInt(index.get(statement.getPredicate()));
+            out.writeInt(index.get(statement.getObject()));
+            out.writeInt(statement.getContext() != null ? index.get(statement.getContext()) : -1);
+        }
+        out.flush();
+    }
+
+    private static void addValue(Value value, Map<Value, Integer> index, List<Value> values) {
+        if (!index.containsKey(value)) {
+            if (value instanceof Literal && !((Literal) value).getLanguage().isPresent()) {
+                // the datatype must be read before the literal
+                addValue(((Literal) value).getDatatype(), index, values);
+            }
+            index.put(value, values.size());
+            values.add(value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
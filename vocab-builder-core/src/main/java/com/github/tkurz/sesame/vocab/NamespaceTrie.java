@@ -0,0 +1,142 @@
+package com.github.tkurz.sesame.vocab;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Character trie over namespaces, compiled into flat arrays for the generated code.
+ * <p/>
+ * Node {@code n} has the edges {@code offsets[n] .. offsets[n + 1] - 1}, sorted by {@code labels},
+ * leading to {@code targets}. {@code values[n]} is the value of the namespace ending in {@code n}, or {@code -1}.
+ * The generated code walks the arrays using {@link #LOOKUP_SOURCE}.
+ */
+final class NamespaceTrie {
+
+    /**
+     * Source of the longest-prefix lookup in the generated code, without indentation.
+     */
+    static final String[] LOOKUP_SOURCE = {
+            "private static int longestPrefix(String s) {",
+            "\tint node = 0;",
+            "\tint match = TRIE_VALUES[0];",
+            "\tfor (int i = 0; i < s.length(); i++) {",
+            "\t\tfinal char c = s.charAt(i);",
+            "\t\tint lo = TRIE_OFFSETS[node];",
+            "\t\tint hi = TRIE_OFFSETS[node + 1] - 1;",
+            "\t\tint next = -1;",
+            "\t\twhile (lo <= hi) {",
+            "\t\t\tfinal int mid = (lo + hi) >>> 1;",
+            "\t\t\tif (TRIE_LABELS[mid] < c) {",
+            "\t\t\t\tlo = mid + 1;",
+            "\t\t\t} else if (TRIE_LABELS[mid] > c) {",
+            "\t\t\t\thi = mid - 1;",
+            "\t\t\t} else {",
+            "\t\t\t\tnext = TRIE_TARGETS[mid];",
+            "\t\t\t\tbreak;",
+            "\t\t\t}",
+            "\t\t}",
+            "\t\tif (next < 0) {",
+            "\t\t\tbreak;",
+            "\t\t}",
+            "\t\tnode = next;",
+            "\t\tif (TRIE_VALUES[node] >= 0) {",
+            "\t\t\tmatch = TRIE_VALUES[node];",
+            "\t\t}",
+            "\t}",
+            "\treturn match;",
+            "}"
+    };
+
+    private final List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+    private final List<Integer> values = new ArrayList<>();
+
+    NamespaceTrie() {
+        addNode();
+    }
+
+    private int addNode() {
+        edges.add(new TreeMap<Character, Integer>());
+        values.add(-1);
+        return values.size() - 1;
+    }
+
+    /**
+     * Add a namespace.
+     *
+     * @return the value previously stored for this namespace, or {@code -1}
+     */
+    int put(String namespace, int value) {
+        int node = 0;
+        for (int i = 0; i < namespace.length(); i++) {
+            final Character c = namespace.charAt(i);
+            Integer next = edges.get(node).get(c);
+            if (next == null) {
+                next = addNode();
+                edges.get(node).put(c, next);
+            }
+            node = next;
+        }
+        return values.set(node, value);
+    }
+
+    /**
+     * The value of the longest namespace that is a prefix of {@code s}, or {@code -1}.
+     */
+    int longestPrefix(String s) {
+        int node = 0;
+        int match = values.get(0);
+        for (int i = 0; i < s.length(); i++) {
+            final Integer next = edges.get(node).get(s.charAt(i));
+            if (next == null) {
+                break;
+            }
+            node = next;
+            if (values.get(node) >= 0) {
+                match = values.get(node);
+            }
+        }
+        return match;
+    }
+
+    int[] getOffsets() {
+        final int[] offsets = new int[edges.size() + 1];
+        for (int n = 0; n < edges.size(); n++) {
+            offsets[n + 1] = offsets[n] + edges.get(n).size();
+        }
+        return offsets;
+    }
+
+    int[] getLabels() {
+        final List<Integer> labels = new ArrayList<>();
+        for (TreeMap<Character, Integer> nodeEdges : edges) {
+            for (Character c : nodeEdges.keySet()) {
+                labels.add((int) c);
+            }
+        }
+        return toArray(labels);
+    }
+
+    int[] getTargets() {
+        final List<Integer> targets = new ArrayList<>();
+        for (TreeMap<Character, Integer> nodeEdges : edges) {
+            for (Map.Entry<Character, Integer> edge : nodeEdges.entrySet()) {
+                targets.add(edge.getValue());
+            }
+        }
+        return toArray(targets);
+    }
+
+    int[] getValues() {
+        return toArray(values);
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        final int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+}
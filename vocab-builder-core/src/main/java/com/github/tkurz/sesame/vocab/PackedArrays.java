@@ -0,0 +1,143 @@
+package com.github.tkurz.sesame.vocab;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes constant arrays as string literals for the generated code.
+ * <p/>
+ * Array initializers cost several bytes of bytecode per element in the static initializer, which is
+ * limited to 64k. String literals instead go to the constant pool and are decoded once at class-load time.
+ * A single literal can hold at most 65535 bytes (modified UTF-8), so long data is split into chunks.
+ */
+final class PackedArrays {
+
+    /**
+     * Max. chars per literal: every char takes up to 3 bytes in the constant pool.
+     */
+    private static final int CHUNK_SIZE = 20000;
+
+    static final String UNPACK_INTS = "unpackInts";
+    static final String UNPACK_LONGS = "unpackLongs";
+    static final String UNPACK_STRINGS = "unpackStrings";
+
+    /**
+     * Separator for {@link #strings(List)}.
+     */
+    private static final char STRING_SEPARATOR = '\u0000';
+
+    private PackedArrays() {
+        // static access only
+    }
+
+    /**
+     * A Java expression evaluating to the given {@code int[]}, two chars per value.
+     */
+    static String ints(int[] values) {
+        final char[] chars = new char[values.length * 2];
+        for (int i = 0; i < values.length; i++) {
+            chars[2 * i] = (char) (values[i] >>> 16);
+            chars[2 * i + 1] = (char) values[i];
+        }
+        return UNPACK_INTS + "(" + literals(chars) + ")";
+    }
+
+    /**
+     * A Java expression evaluating to the given {@code long[]}, four chars per value.
+     */
+    static String longs(long[] values) {
+        final char[] chars = new char[values.length * 4];
+        for (int i = 0; i < values.length; i++) {
+            chars[4 * i] = (char) (values[i] >>> 48);
+            chars[4 * i + 1] = (char) (values[i] >>> 32);
+            chars[4 * i + 2] = (char) (values[i] >>> 16);
+            chars[4 * i + 3] = (char) values[i];
+        }
+        return UNPACK_LONGS + "(" + literals(chars) + ")";
+    }
+
+    /**
+     * A Java expression evaluating to the given {@code String[]}.
+     */
+    static String strings(List<String> values) {
+        final StringBuilder sb = new StringBuilder();
+        for (String value : values) {
+            sb.append(value).append(STRING_SEPARATOR);
+        }
+        return UNPACK_STRINGS + "(" + values.size() + ", " + literals(sb.toString().toCharArray()) + ")";
+    }
+
+    private static String literals(char[] chars) {
+        final List<String> chunks = new ArrayList<>();
+        for (int start = 0; start < chars.length || chunks.isEmpty(); start += CHUNK_SIZE) {
+            final StringBuilder sb = new StringBuilder("\"");
+            for (int i = start; i < Math.min(chars.length, start + CHUNK_SIZE); i++) {
+                final char c = chars[i];
+                if (c == '"' || c == '\\') {
+                    sb.append('\\').append(c);
+                } else if (c < 0x20) {
+                    // unicode escapes are resolved before parsing, so they cannot be used for line breaks
+                    sb.append(String.format("\\%03o", (int) c));
+                } else if (c < 0x7F) {
+                    sb.append(c);
+                } else {
+                    sb.append(String.format("\\u%04x", (int) c));
+                }
+            }
+            chunks.add(sb.append('"').toString());
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (String chunk : chunks) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(chunk);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Source of the decoder used by {@link #ints(int[])}, without indentation.
+     */
+    static final String[] UNPACK_INTS_SOURCE = {
+            "private static int[] " + UNPACK_INTS + "(String... chunks) {",
+            "\tfinal String data = chunks.length == 1 ? chunks[0] : String.join(\"\", chunks);",
+            "\tfinal int[] values = new int[data.length() / 2];",
+            "\tfor (int i = 0; i < values.length; i++) {",
+            "\t\tvalues[i] = data.charAt(2 * i) << 16 | data.charAt(2 * i + 1);",
+            "\t}",
+            "\treturn values;",
+            "}"
+    };
+
+    /**
+     * Source of the decoder used by {@link #longs(long[])}, without indentation.
+     */
+    static final String[] UNPACK_LONGS_SOURCE = {
+            "private static long[] " + UNPACK_LONGS + "(String... chunks) {",
+            "\tfinal String data = chunks.length == 1 ? chunks[0] : String.join(\"\", chunks);",
+            "\tfinal long[] values = new long[data.length() / 4];",
+            "\tfor (int i = 0; i < values.length; i++) {",
+            "\t\tvalues[i] = (long) data.charAt(4 * i) << 48 | (long) data.charAt(4 * i + 1) << 32",
+            "\t\t\t\t| (long) data.charAt(4 * i + 2) << 16 | data.charAt(4 * i + 3);",
+            "\t}",
+            "\treturn values;",
+            "}"
+    };
+
+    /**
+     * Source of the decoder used by {@link #strings(List)}, without indentation.
+     */
+    static final String[] UNPACK_STRINGS_SOURCE = {
+            "private static String[] " + UNPACK_STRINGS + "(int size, String... chunks) {",
+            "\tfinal String data = chunks.length == 1 ? chunks[0] : String.join(\"\", chunks);",
+            "\tfinal String[] values = new String[size];",
+            "\tfor (int i = 0, start = 0; i < size; i++) {",
+            "\t\tfinal int end = data.indexOf('\\u0000', start);",
+            "\t\tvalues[i] = data.substring(start, end);",
+            "\t\tstart = end + 1;",
+            "\t}",
+            "\treturn values;",
+            "}"
+    };
+}
@@ -0,0 +1,179 @@
+package com.github.tkurz.sesame.vocab;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Minimal perfect hash over a fixed set of keys, computed at generation time
+ * using hash-and-displace.
+ * <p/>
+ * Keys are first distributed into buckets using {@code hash(key, 0)}. Buckets with more than one key
+ * get a seed {@code d > 0} so that {@code hash(key, d) % size} places all their keys into free slots,
+ * single-key buckets point directly to a free slot, encoded as {@code -(slot + 1)}.
+ * The generated code repeats {@link #hash(CharSequence, int, int, int)} verbatim (see {@link #HASH_SOURCE}),
+ * so both sides must be kept in sync.
+ */
+final class PerfectHash {
+
+    /**
+     * Average number of keys per bucket.
+     */
+    private static final int BUCKET_LOAD = 3;
+
+    /**
+     * Give up searching a bucket seed after this many attempts.
+     */
+    private static final int MAX_SEED = 1 << 24;
+
+    /**
+     * Source of {@link #hash(CharSequence, int, int, int)}, without indentation.
+     */
+    static final String[] HASH_SOURCE = {
+            "private static int hash(CharSequence s, int from, int to, int seed) {",
+            "\tint h = 0x811C9DC5 ^ (seed * 0x9E3779B9);",
+            "\tfor (int i = from; i < to; i++) {",
+            "\t\th = (h ^ s.charAt(i)) * 0x01000193;",
+            "\t}",
+            "\th ^= h >>> 15;",
+            "\th *= 0x2C1B3C6D;",
+            "\th ^= h >>> 12;",
+            "\treturn h & 0x7FFFFFFF;",
+            "}"
+    };
+
+    private final int[] displacements;
+    private final int[] slots;
+
+    private PerfectHash(int[] displacements, int[] slots) {
+        this.displacements = displacements;
+        this.slots = slots;
+    }
+
+    static int hash(CharSequence s, int from, int to, int seed) {
+        int h = 0x811C9DC5 ^ (seed * 0x9E3779B9);
+        for (int i = from; i < to; i++) {
+            h = (h ^ s.charAt(i)) * 0x01000193;
+        }
+        h ^= h >>> 15;
+        h *= 0x2C1B3C6D;
+        h ^= h >>> 12;
+        return h & 0x7FFFFFFF;
+    }
+
+    /**
+     * Compute a minimal perfect hash for the given keys.
+     *
+     * @param keys the (distinct) keys, the index in this list is what the hash maps to
+     * @throws GenerationException if no perfect hash could be found
+     */
+    static PerfectHash build(List<String> keys) throws GenerationException {
+        final int size = keys.size();
+        if (size == 0) {
+            return new PerfectHash(new int[0], new int[0]);
+        }
+
+        final int bucketCount = (size + BUCKET_LOAD - 1) / BUCKET_LOAD;
+        final List<List<Integer>> buckets = new ArrayList<>(bucketCount);
+        for (int b = 0; b < bucketCount; b++) {
+            buckets.add(new ArrayList<Integer>());
+        }
+        for (int k = 0; k < size; k++) {
+            final String key = keys.get(k);
+            buckets.get(hash(key, 0, key.length(), 0) % bucketCount).add(k);
+        }
+
+        final Integer[] order = new Integer[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            order[b] = b;
+        }
+        // largest buckets first, ties by index to stay deterministic
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                final int cmp = Integer.compare(buckets.get(b).size(), buckets.get(a).size());
+                return cmp != 0 ? cmp : Integer.compare(a, b);
+            }
+        });
+
+        final int[] displacements = new int[bucketCount];
+        final int[] slots = new int[size];
+        Arrays.fill(slots, -1);
+        int nextFree = 0;
+        for (int b : order) {
+            final List<Integer> bucket = buckets.get(b);
+            if (bucket.isEmpty()) {
+                break;
+            } else if (bucket.size() == 1) {
+                while (slots[nextFree] >= 0) {
+                    nextFree++;
+                }
+                slots[nextFree] = bucket.get(0);
+                displacements[b] = -(nextFree + 1);
+            } else {
+                displacements[b] = placeBucket(keys, bucket, slots);
+            }
+        }
+        return new PerfectHash(displacements, slots);
+    }
+
+    private static int placeBucket(List<String> keys, List<Integer> bucket, int[] slots) throws GenerationException {
+        final int[] candidate = new int[bucket.size()];
+        seeds:
+        for (int seed = 1; seed < MAX_SEED; seed++) {
+            for (int i = 0; i < candidate.length; i++) {
+                final String key = keys.get(bucket.get(i));
+                final int slot = hash(key, 0, key.length(), seed) % slots.length;
+                if (slots[slot] >= 0) {
+                    continue seeds;
+                }
+                for (int j = 0; j < i; j++) {
+                    if (candidate[j] == slot) {
+                        continue seeds;
+                    }
+                }
+                candidate[i] = slot;
+            }
+            for (int i = 0; i < candidate.length; i++) {
+                slots[candidate[i]] = bucket.get(i);
+            }
+            return seed;
+        }
+        final List<String> bucketKeys = new ArrayList<>();
+        for (int k : bucket) {
+            bucketKeys.add(keys.get(k));
+        }
+        throw new GenerationException("could not compute perfect hash for keys " + Collections.unmodifiableList(bucketKeys));
+    }
+
+    /**
+     * The per-bucket seeds (if positive) or direct slots (if negative).
+     */
+    int[] getDisplacements() {
+        return displacements;
+    }
+
+    /**
+     * The key index stored in each slot.
+     */
+    int[] getSlots() {
+        return slots;
+    }
+
+    /**
+     * Look up a key the same way the generated code does.
+     *
+     * @return the index of the key, or {@code -1}
+     */
+    int indexOf(List<String> keys, CharSequence s) {
+        if (slots.length == 0) {
+            return -1;
+        }
+        final int d = displacements[hash(s, 0, s.length(), 0) % displacements.length];
+        final int slot = d < 0 ? -d - 1 : hash(s, 0, s.length(), d) % slots.length;
+        final int index = slots[slot];
+        return keys.get(index).contentEquals(s) ? index : -1;
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.tkurz.sesame.vocab;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.RDFCollections;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Domain, range, functional and inverse metadata of the terms of a vocabulary, as flat tables
+ * indexed by term ordinal.
+ * <p/>
+ * Referenced classes and properties are stored as <em>extended ordinals</em>: the ordinal of a vocabulary
+ * term, or {@code termCount + i} for the {@code i}-th entry of {@link #getExternalTerms()}.
+ * Domains and ranges are stored in compressed-row form: the values of term {@code t} are
+ * {@code domains[domainOffsets[t]] .. domains[domainOffsets[t + 1] - 1]}.
+ * A domain or range given as {@code owl:unionOf} is expanded to its members.
+ */
+final class PropertySignatures {
+
+    private static final Logger log = LoggerFactory.getLogger(PropertySignatures.class);
+
+    private final List<IRI> externalTerms = new ArrayList<>();
+    private final int[] domainOffsets;
+    private final int[] domains;
+    private final int[] rangeOffsets;
+    private final int[] ranges;
+    private final long[] functional;
+    private final int[] inverses;
+
+    /**
+     * @param model the vocabulary
+     * @param terms the terms, indexed by ordinal
+     */
+    PropertySignatures(Model model, List<IRI> terms) {
+        final Map<IRI, Integer> ordinals = new HashMap<>();
+        for (int ordinal = 0; ordinal < terms.size(); ordinal++) {
+            ordinals.put(terms.get(ordinal), ordinal);
+        }
+        // external terms are numbered in IRI order so that the output is stable
+        final TreeSet<String> external = new TreeSet<>();
+        for (IRI term : terms) {
+            for (IRI property : new IRI[]{RDFS.DOMAIN, RDFS.RANGE, OWL.INVERSEOF}) {
+                for (IRI value : getIRIs(model, term, property)) {
+                    if (!ordinals.containsKey(value)) {
+                        external.add(value.stringValue());
+                    }
+                }
+            }
+            for (Resource inverse : model.filter(null, OWL.INVERSEOF, term).subjects()) {
+                if (inverse instanceof IRI && !ordinals.containsKey(inverse)) {
+                    external.add(inverse.stringValue());
+                }
+            }
+        }
+        for (String iri : external) {
+            final IRI term = SimpleValueFactory.getInstance().createIRI(iri);
+            ordinals.put(term, terms.size() + externalTerms.size());
+            externalTerms.add(term);
+        }
+
+        final List<Integer> domainList = new ArrayList<>();
+        final List<Integer> rangeList = new ArrayList<>();
+        domainOffsets = new int[terms.size() + 1];
+        rangeOffsets = new int[terms.size() + 1];
+        functional = new long[(terms.size() + 63) / 64];
+        inverses = new int[terms.size()];
+        for (int ordinal = 0; ordinal < terms.size(); ordinal++) {
+            final IRI term = terms.get(ordinal);
+            domainList.addAll(getOrdinals(model, term, RDFS.DOMAIN, ordinals));
+            domainOffsets[ordinal + 1] = domainList.size();
+            rangeList.addAll(getOrdinals(model, term, RDFS.RANGE, ordinals));
+            rangeOffsets[ordinal + 1] = rangeList.size();
+            if (model.contains(term, RDF.TYPE, OWL.FUNCTIONALPROPERTY)) {
+                functional[ordinal >>> 6] |= 1L << ordinal;
+            }
+
+            final TreeSet<Integer> inverse = new TreeSet<>(getOrdinals(model, term, OWL.INVERSEOF, ordinals));
+            for (Resource subject : model.filter(null, OWL.INVERSEOF, term).subjects()) {
+                if (ordinals.containsKey(subject)) {
+                    inverse.add(ordinals.get(subject));
+                }
+            }
+            if (inverse.size() > 1) {
+                log.warn("{} has more than one owl:inverseOf, using the first", term);
+            }
+            inverses[ordinal] = inverse.isEmpty() ? -1 : inverse.first();
+        }
+        domains = toArray(domainList);
+        ranges = toArray(rangeList);
+    }
+
+    private static List<IRI> getIRIs(Model model, IRI term, IRI property) {
+        final List<IRI> iris = new ArrayList<>();
+        for (Value value : model.filter(term, property, null).objects()) {
+            if (value instanceof IRI) {
+                iris.add((IRI) value);
+            } else if (value instanceof Resource) {
+                for (Value union : model.filter((Resource) value, OWL.UNIONOF, null).objects()) {
+                    if (union instanceof Resource) {
+                        for (Value member : RDFCollections.asValues(model, (Resource) union, new ArrayList<Value>())) {
+                            if (member instanceof IRI) {
+                                iris.add((IRI) member);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return iris;
+    }
+
+    private static List<Integer> getOrdinals(Model model, IRI term, IRI property, Map<IRI, Integer> ordinals) {
+        final TreeSet<Integer> result = new TreeSet<>();
+        for (IRI iri : getIRIs(model, term, property)) {
+            result.add(ordinals.get(iri));
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        final int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Referenced IRIs that are not part of the vocabulary, in extended-ordinal order.
+     */
+    List<IRI> getExternalTerms() {
+        return Collections.unmodifiableList(externalTerms);
+    }
+
+    int[] getDomainOffsets() {
+        return domainOffsets;
+    }
+
+    int[] getDomains() {
+        return domains;
+    }
+
+    int[] getRangeOffsets() {
+        return rangeOffsets;
+    }
+
+    int[] getRanges() {
+        return ranges;
+    }
+
+    /**
+     * Bitset of the terms typed {@code owl:FunctionalProperty}.
+     */
+    long[] getFunctional() {
+        return functional;
+    }
+
+    /**
+     * The extended ordinal of the {@code owl:inverseOf} of each term (in either direction), or {@code -1}.
+     */
+    int[] getInverses() {
+        return inverses;
+    }
+}
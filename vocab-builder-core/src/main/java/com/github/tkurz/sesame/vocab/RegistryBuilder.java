@@ -0,0 +1,340 @@
+package com.github.tkurz.sesame.vocab;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.rdf4j.model.IRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates a registry class spanning several vocabularies generated by {@link VocabBuilder}.
+ * <p/>
+ * The registry implements {@value #SERVICE_INTERFACE} (from {@code vocab-builder-runtime}) and resolves
+ * arbitrary IRIs to the generated constants: a compiled namespace trie finds the vocabulary
+ * in a single longest-prefix walk, then a per-vocabulary perfect hash finds the term. If the vocabulary
+ * has no such term, the vocabularies with shorter namespaces matching the IRI are tried, longest first.
+ * To make the registry available through {@link java.util.ServiceLoader}, list it in
+ * {@code META-INF/services/}{@value #SERVICE_INTERFACE}.
+ */
+public class RegistryBuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistryBuilder.class);
+
+    /**
+     * The interface implemented by generated registries.
+     */
+    public static final String SERVICE_INTERFACE = "com.github.tkurz.sesame.vocab.runtime.VocabularyRegistry";
+
+    private static final String TERM_CLASS = "com.github.tkurz.sesame.vocab.runtime.VocabularyTerm";
+
+    private final List<Entry> vocabularies = new ArrayList<>();
+    private final Equivalences equivalences = new Equivalences();
+    private String packageName = null;
+    private String indent = "\t";
+    private boolean generateCanonical = false;
+
+    /**
+     * Add a vocabulary to the registry.
+     *
+     * @param builder   the builder used to generate the vocabulary
+     * @param className the (simple) name of the generated vocabulary class
+     * @throws GenerationException if the namespace of the vocabulary is unknown
+     */
+    public void addVocabulary(VocabBuilder builder, String className) throws GenerationException {
+        if (StringUtils.isBlank(builder.getPrefix())) {
+            throw new GenerationException("could not detect prefix of " + className + ", please set explicitly");
+        }
+        final Entry entry = new Entry();
+        entry.className = StringUtils.isNotBlank(builder.getPackageName()) ? builder.getPackageName() + "." + className : className;
+        entry.namespace = builder.getPrefix();
+
+        final Map<String, IRI> splitUris = builder.getSplitUris();
+        entry.localNames = VocabBuilder.getSortedKeys(splitUris);
+        entry.constants = new ArrayList<>();
+        entry.labels = new ArrayList<>();
+        entry.deprecated = new ArrayList<>();
+        for (String key : entry.localNames) {
+            entry.constants.add(builder.getConstantName(key));
+            entry.labels.add(StringUtils.defaultString(builder.getLabel(splitUris.get(key))).replaceAll("\\s+", " "));
+            entry.deprecated.add(Equivalences.isDeprecated(builder.getModel(), splitUris.get(key)));
+        }
+        vocabularies.add(entry);
+        equivalences.addAll(builder.getModel());
+    }
+
+    /**
+     * @return the number of vocabularies added so far
+     */
+    public int size() {
+        return vocabularies.size();
+    }
+
+    /**
+     * The fully qualified name of the registry class, as listed in the service file.
+     */
+    public String getQualifiedName(String className) {
+        return StringUtils.isNotBlank(packageName) ? packageName + "." + className : className;
+    }
+
+    public void generate(String className, PrintWriter out) throws GenerationException {
+        final NamespaceTrie trie = new NamespaceTrie();
+        final List<PerfectHash> hashes = new ArrayList<>();
+        for (int v = 0; v < vocabularies.size(); v++) {
+            final Entry entry = vocabularies.get(v);
+            final int previous = trie.put(entry.namespace, v);
+            if (previous >= 0) {
+                throw new GenerationException(String.format("namespace %s is used by %s and %s",
+                        entry.namespace, vocabularies.get(previous).className, entry.className));
+            }
+            hashes.add(PerfectHash.build(entry.localNames));
+        }
+        final int[] enclosing = new int[vocabularies.size()];
+        for (int v = 0; v < vocabularies.size(); v++) {
+            final String namespace = vocabularies.get(v).namespace;
+            enclosing[v] = trie.longestPrefix(namespace.substring(0, namespace.length() - 1));
+        }
+        log.debug("registry {} covers {} vocabularies", className, vocabularies.size());
+
+        if (StringUtils.isNotBlank(packageName)) {
+            out.printf("package %s;%n%n", packageName);
+        }
+        out.printf("import %s;%n", SERVICE_INTERFACE);
+        out.printf("import %s;%n", TERM_CLASS);
+        out.println("import org.eclipse.rdf4j.model.IRI;");
+        out.println();
+
+        out.println("/**");
+        out.println(" * Registry of the generated vocabularies");
+        out.println(" * <ul>");
+        for (Entry entry : vocabularies) {
+            out.printf(" * <li>{@link %s} {@code <%s>}</li>%n", entry.className, entry.namespace);
+        }
+        out.println(" * </ul>");
+        out.println(" */");
+        out.printf("public class %s implements VocabularyRegistry {%n", className);
+        out.println();
+
+        out.println(getIndent(1) + "/** namespace trie: first edge of each node, plus the end of the last one **/");
+        out.printf(getIndent(1) + "private static final int[] TRIE_OFFSETS = %s;%n", PackedArrays.ints(trie.getOffsets()));
+        out.println();
+        out.println(getIndent(1) + "/** namespace trie: the character of each edge, sorted per node **/");
+        out.printf(getIndent(1) + "private static final int[] TRIE_LABELS = %s;%n", PackedArrays.ints(trie.getLabels()));
+        out.println();
+        out.println(getIndent(1) + "/** namespace trie: the target node of each edge **/");
+        out.printf(getIndent(1) + "private static final int[] TRIE_TARGETS = %s;%n", PackedArrays.ints(trie.getTargets()));
+        out.println();
+        out.println(getIndent(1) + "/** namespace trie: the vocabulary whose namespace ends in each node, or -1 **/");
+        out.printf(getIndent(1) + "private static final int[] TRIE_VALUES = %s;%n", PackedArrays.ints(trie.getValues()));
+        out.println();
+
+        out.println(getIndent(1) + "/** the vocabulary with the longest namespace that is a proper prefix of each namespace, or -1 **/");
+        out.printf(getIndent(1) + "private static final int[] ENCLOSING = %s;%n", PackedArrays.ints(enclosing));
+        out.println();
+
+        out.println(getIndent(1) + "private static final String[] NAMESPACES = {");
+        for (Entry entry : vocabularies) {
+            out.printf(getIndent(3) + "%s.NAMESPACE,%n", entry.className);
+        }
+        out.println(getIndent(1) + "};");
+        out.println();
+
+        out.println(getIndent(1) + "/** per vocabulary: the terms, indexed by ordinal **/");
+        out.println(getIndent(1) + "private static final VocabularyTerm[][] TERMS = {");
+        for (int v = 0; v < vocabularies.size(); v++) {
+            out.printf(getIndent(3) + "terms%d(),%n", v);
+        }
+        out.println(getIndent(1) + "};");
+        out.println();
+
+        if (generateCanonical) {
+            printCanonical(out);
+        }
+
+        out.println(getIndent(1) + "/** per vocabulary: perfect hash over the local names, per-bucket seed or -(slot + 1) **/");
+        out.println(getIndent(1) + "private static final int[][] LOOKUP_DISPLACEMENTS = {");
+        for (PerfectHash hash : hashes) {
+            out.printf(getIndent(3) + "%s,%n", PackedArrays.ints(hash.getDisplacements()));
+        }
+        out.println(getIndent(1) + "};");
+        out.println();
+
+        out.println(getIndent(1) + "/** per vocabulary: perfect hash over the local names, the ordinal stored in each slot **/");
+        out.println(getIndent(1) + "private static final int[][] LOOKUP_SLOTS = {");
+        for (PerfectHash hash : hashes) {
+            out.printf(getIndent(3) + "%s,%n", PackedArrays.ints(hash.getSlots()));
+        }
+        out.println(getIndent(1) + "};");
+        out.println();
+
+        for (int v = 0; v < vocabularies.size(); v++) {
+            final Entry entry = vocabularies.get(v);
+            out.printf(getIndent(1) + "private static VocabularyTerm[] terms%d() {%n", v);
+            out.printf(getIndent(2) + "final String[] localNames = %s;%n", PackedArrays.strings(entry.localNames));
+            out.printf(getIndent(2) + "final String[] labels = %s;%n", PackedArrays.strings(entry.labels));
+            out.println(getIndent(2) + "final IRI[] iris = {");
+            for (String constant : entry.constants) {
+                out.printf(getIndent(4) + "%s.%s,%n", entry.className, constant);
+            }
+            out.println(getIndent(2) + "};");
+            out.println(getIndent(2) + "final VocabularyTerm[] terms = new VocabularyTerm[iris.length];");
+            out.println(getIndent(2) + "for (int i = 0; i < terms.length; i++) {");
+            out.printf(getIndent(3) + "terms[i] = new VocabularyTerm(iris[i], %1$s.class, %1$s.NAMESPACE, %1$s.PREFIX,%n", entry.className);
+            out.println(getIndent(5) + "localNames[i], labels[i].isEmpty() ? null : labels[i]);");
+            out.println(getIndent(2) + "}");
+            out.println(getIndent(2) + "return terms;");
+            out.println(getIndent(1) + "}");
+            out.println();
+        }
+
+        out.println(getIndent(1) + "@Override");
+        VocabBuilder.printSource(out, indent, 1,
+                "public VocabularyTerm resolve(String iri) {",
+                "\tif (iri == null) {",
+                "\t\treturn null;",
+                "\t}",
+                "\t// nested namespaces: a term of an enclosing vocabulary may match a longer namespace",
+                "\tfor (int vocabulary = longestPrefix(iri); vocabulary >= 0; vocabulary = ENCLOSING[vocabulary]) {",
+                "\t\tfinal VocabularyTerm term = resolve(vocabulary, iri);",
+                "\t\tif (term != null) {",
+                "\t\t\treturn term;",
+                "\t\t}",
+                "\t}",
+                "\treturn null;",
+                "}",
+                "",
+                "private static VocabularyTerm resolve(int vocabulary, String iri) {",
+                "\tif (LOOKUP_SLOTS[vocabulary].length == 0) {",
+                "\t\treturn null;",
+                "\t}",
+                "\tfinal int from = NAMESPACES[vocabulary].length();",
+                "\tfinal int to = iri.length();",
+                "\tfinal int[] displacements = LOOKUP_DISPLACEMENTS[vocabulary];",
+                "\tfinal int[] slots = LOOKUP_SLOTS[vocabulary];",
+                "\tfinal int d = displacements[hash(iri, from, to, 0) % displacements.length];",
+                "\tfinal VocabularyTerm term = TERMS[vocabulary][slots[d < 0 ? -d - 1 : hash(iri, from, to, d) % slots.length]];",
+                "\tfinal String localName = term.getLocalName();",
+                "\treturn localName.length() == to - from && iri.regionMatches(from, localName, 0, localName.length()) ? term : null;",
+                "}");
+        out.println();
+
+        VocabBuilder.printSource(out, indent, 1, NamespaceTrie.LOOKUP_SOURCE);
+        out.println();
+        VocabBuilder.printSource(out, indent, 1, PerfectHash.HASH_SOURCE);
+        out.println();
+        VocabBuilder.printSource(out, indent, 1, PackedArrays.UNPACK_INTS_SOURCE);
+        out.println();
+        VocabBuilder.printSource(out, indent, 1, PackedArrays.UNPACK_STRINGS_SOURCE);
+        out.println();
+
+        out.println("}");
+        out.flush();
+    }
+
+    /**
+     * Print the mapping of equivalent IRIs to their canonical term, across all vocabularies.
+     */
+    private void printCanonical(PrintWriter out) throws GenerationException {
+        int termCount = 0;
+        for (Entry entry : vocabularies) {
+            termCount += entry.localNames.size();
+        }
+        // rank by vocabulary and ordinal, deprecated terms only become canonical if there is no alternative
+        final Map<String, Integer> candidates = new HashMap<>();
+        final Map<String, int[]> terms = new HashMap<>();
+        int rank = 0;
+        for (int v = 0; v < vocabularies.size(); v++) {
+            final Entry entry = vocabularies.get(v);
+            for (int ordinal = 0; ordinal < entry.localNames.size(); ordinal++, rank++) {
+                final String iri = entry.namespace + entry.localNames.get(ordinal);
+                candidates.put(iri, entry.deprecated.get(ordinal) ? termCount + rank : rank);
+                terms.put(iri, new int[]{v, ordinal});
+            }
+        }
+
+        final Map<String, String> canonicalMap = equivalences.getCanonicalMap(candidates);
+        final List<String> iris = new ArrayList<>(canonicalMap.keySet());
+        final int[] canonicalVocabularies = new int[iris.size()];
+        final int[] canonicalOrdinals = new int[iris.size()];
+        for (int i = 0; i < iris.size(); i++) {
+            final int[] term = terms.get(canonicalMap.get(iris.get(i)));
+            canonicalVocabularies[i] = term[0];
+            canonicalOrdinals[i] = term[1];
+        }
+        final PerfectHash hash = PerfectHash.build(iris);
+
+        out.println(getIndent(1) + "/** IRIs equivalent to a term of one of the vocabularies **/");
+        out.printf(getIndent(1) + "private static final String[] CANONICAL_IRIS = %s;%n", PackedArrays.strings(iris));
+        out.println();
+        out.println(getIndent(1) + "/** perfect hash over CANONICAL_IRIS, per-bucket seed or -(slot + 1) **/");
+        out.printf(getIndent(1) + "private static final int[] CANONICAL_DISPLACEMENTS = %s;%n", PackedArrays.ints(hash.getDisplacements()));
+        out.println();
+        out.println(getIndent(1) + "/** perfect hash over CANONICAL_IRIS, the index stored in each slot **/");
+        out.printf(getIndent(1) + "private static final int[] CANONICAL_SLOTS = %s;%n", PackedArrays.ints(hash.getSlots()));
+        out.println();
+        out.println(getIndent(1) + "/** the vocabulary of the canonical term for each of CANONICAL_IRIS **/");
+        out.printf(getIndent(1) + "private static final int[] CANONICAL_VOCABULARIES = %s;%n", PackedArrays.ints(canonicalVocabularies));
+        out.println();
+        out.println(getIndent(1) + "/** the ordinal of the canonical term for each of CANONICAL_IRIS **/");
+        out.printf(getIndent(1) + "private static final int[] CANONICAL_ORDINALS = %s;%n", PackedArrays.ints(canonicalOrdinals));
+        out.println();
+
+        out.println(getIndent(1) + "@Override");
+        VocabBuilder.printSource(out, indent, 1,
+                "public IRI canonical(IRI iri) {",
+                "\tif (iri == null || CANONICAL_SLOTS.length == 0) {",
+                "\t\treturn iri;",
+                "\t}",
+                "\tfinal String s = iri.stringValue();",
+                "\tfinal int d = CANONICAL_DISPLACEMENTS[hash(s, 0, s.length(), 0) % CANONICAL_DISPLACEMENTS.length];",
+                "\tfinal int index = CANONICAL_SLOTS[d < 0 ? -d - 1 : hash(s, 0, s.length(), d) % CANONICAL_SLOTS.length];",
+                "\treturn CANONICAL_IRIS[index].equals(s) ? TERMS[CANONICAL_VOCABULARIES[index]][CANONICAL_ORDINALS[index]].getIRI() : iri;",
+                "}");
+        out.println();
+    }
+
+    private String getIndent(int level) {
+        return StringUtils.repeat(indent, level);
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    public String getIndent() {
+        return indent;
+    }
+
+    public void setIndent(String indent) {
+        this.indent = indent;
+    }
+
+    public boolean isGenerateCanonical() {
+        return generateCanonical;
+    }
+
+    /**
+     * Generate {@code canonical(IRI)}, mapping IRIs linked by {@code owl:equivalentClass}, {@code owl:equivalentProperty}
+     * or {@code owl:sameAs} in any of the vocabularies to the preferred term across all of them.
+     */
+    public void setGenerateCanonical(boolean generateCanonical) {
+        this.generateCanonical = generateCanonical;
+    }
+
+    private static class Entry {
+        private String className;
+        private String namespace;
+        private List<String> localNames;
+        private List<String> constants;
+        private List<String> labels;
+        private List<Boolean> deprecated;
+    }
+}
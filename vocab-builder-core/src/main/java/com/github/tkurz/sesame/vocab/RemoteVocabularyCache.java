@@ -0,0 +1,455 @@
+package com.github.tkurz.sesame.vocab;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * User-level cache of downloaded vocabularies, shared by all builds like {@code ~/.m2}.
+ * <p/>
+ * The content is stored gzip-compressed once per SHA-256 of the uncompressed content in {@code objects/<hash>.gz},
+ * the index {@code index/<hash of url>.properties} maps each URL to its content and the response headers. A URL requested
+ * with an explicit {@code Accept} header is indexed separately for each header, as the server may respond with another
+ * format, under {@code index/<hash of accept and url>.properties}. All files are written to a temporary file first and
+ * moved in place, so concurrent builds never see partial entries. If the objects exceed the maximum size,
+ * the least recently used ones are deleted under a file lock. Content used within the last
+ * {@value #IN_USE_MINUTES} minutes is kept, as running builds may still read it.
+ */
+public class RemoteVocabularyCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RemoteVocabularyCache.class);
+
+    /**
+     * The default maximum size of the cached content, 256MB.
+     */
+    public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+    static final int IN_USE_MINUTES = 10;
+
+    private static final String OBJECT_EXTENSION = ".gz";
+
+    private static final String URL = "url", ACCEPT = "accept", HASH = "hash", CONTENT_TYPE = "contentType", ETAG = "etag", LAST_MODIFIED = "lastModified";
+
+    /**
+     * File locks are held by the JVM, so threads of the same JVM have to be serialized separately.
+     */
+    private static final Object EVICTION_LOCK = new Object();
+
+    private final Path directory;
+    private final long maxSize;
+
+    /**
+     * @param directory the cache directory, created on first write
+     * @param maxSize   the maximum size of the cached content in bytes
+     */
+    public RemoteVocabularyCache(Path directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * The default cache directory, {@code ~/.vocab-builder}.
+     */
+    public static Path getDefaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".vocab-builder");
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * A cached vocabulary.
+     */
+    public static final class Entry {
+        private final Path file;
+        private final String hash;
+        private final String contentType;
+        private final String etag;
+        private final String lastModified;
+
+        private Entry(Path file, Properties properties) {
+            this.file = file;
+            this.hash = properties.getProperty(HASH);
+            this.contentType = properties.getProperty(CONTENT_TYPE);
+            this.etag = properties.getProperty(ETAG);
+            this.lastModified = properties.getProperty(LAST_MODIFIED);
+        }
+
+        /**
+         * The gzip-compressed content. Do not modify, it may be shared by several URLs.
+         *
+         * @see #openStream()
+         */
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * Read the content, decompressing it while reading.
+         */
+        public InputStream openStream() throws IOException {
+            return new GZIPInputStream(Files.newInputStream(file), 8192);
+        }
+
+        /**
+         * The SHA-256 of the content.
+         */
+        public String getHash() {
+            return hash;
+        }
+
+        /**
+         * The {@code Content-Type} of the response, may be {@code null}.
+         */
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * The {@code ETag} of the response, may be {@code null}.
+         */
+        public String getETag() {
+            return etag;
+        }
+
+        /**
+         * The {@code Last-Modified} header of the response, may be {@code null}.
+         */
+        public String getLastModified() {
+            return lastModified;
+        }
+    }
+
+    /**
+     * The cached vocabulary of an URL, requested with the default {@code Accept} header.
+     *
+     * @return the entry, or {@code null} if the URL is not cached
+     */
+    public Entry get(URL url) throws IOException {
+        return get(url, null);
+    }
+
+    /**
+     * The cached vocabulary of an URL, requested with an {@code Accept} header.
+     *
+     * @param accept the {@code Accept} header of the request, {@code null} for the default
+     * @return the entry, or {@code null} if the URL is not cached for the header
+     */
+    public Entry get(URL url, String accept) throws IOException {
+        final Path index = getIndexFile(url, accept);
+        final Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        final String hash = properties.getProperty(HASH);
+        if (hash == null || !url.toString().equals(properties.getProperty(URL)) || !Objects.equals(accept, properties.getProperty(ACCEPT))) {
+            return null;
+        }
+        final Path object = getObjectFile(hash);
+        try {
+            // the modification time of the objects is their last use
+            Files.setLastModifiedTime(object, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            log.debug("{} was evicted", url);
+            return null;
+        } catch (IOException e) {
+            log.debug("could not record the use of {}: {}", object, e.toString());
+        }
+        return new Entry(object, properties);
+    }
+
+    /**
+     * Store the vocabulary of an URL.
+     *
+     * @param content      the response body, not closed
+     * @param contentType  the {@code Content-Type} of the response, may be {@code null}
+     * @param etag         the {@code ETag} of the response, may be {@code null}
+     * @param lastModified the {@code Last-Modified} header of the response, may be {@code null}
+     */
+    public Entry put(URL url, InputStream content, String contentType, String etag, String lastModified) throws IOException {
+        return put(url, null, content, contentType, etag, lastModified);
+    }
+
+    /**
+     * Store the vocabulary of an URL, requested with an {@code Accept} header.
+     *
+     * @param accept       the {@code Accept} header of the request, {@code null} for the default
+     * @param content      the response body, not closed
+     * @param contentType  the {@code Content-Type} of the response, may be {@code null}
+     * @param etag         the {@code ETag} of the response, may be {@code null}
+     * @param lastModified the {@code Last-Modified} header of the response, may be {@code null}
+     */
+    public Entry put(URL url, String accept, InputStream content, String contentType, String etag, String lastModified) throws IOException {
+        final Download download = download(url, accept, content, contentType, etag, lastModified);
+        try {
+            return download.commit();
+        } finally {
+            download.discard();
+        }
+    }
+
+    /**
+     * Store the vocabulary of an URL while it is read, e.g. by a parser.
+     *
+     * @param content      the response body, not closed
+     * @param contentType  the {@code Content-Type} of the response, may be {@code null}
+     * @param etag         the {@code ETag} of the response, may be {@code null}
+     * @param lastModified the {@code Last-Modified} header of the response, may be {@code null}
+     * @return the content, to be {@link Download#commit() committed} or {@link Download#discard() discarded}
+     */
+    public Download download(URL url, InputStream content, String contentType, String etag, String lastModified) throws IOException {
+        return download(url, null, content, contentType, etag, lastModified);
+    }
+
+    /**
+     * Store the vocabulary of an URL, requested with an {@code Accept} header, while it is read.
+     *
+     * @param accept       the {@code Accept} header of the request, {@code null} for the default
+     * @param content      the response body, not closed
+     * @param contentType  the {@code Content-Type} of the response, may be {@code null}
+     * @param etag         the {@code ETag} of the response, may be {@code null}
+     * @param lastModified the {@code Last-Modified} header of the response, may be {@code null}
+     * @return the content, to be {@link Download#commit() committed} or {@link Download#discard() discarded}
+     */
+    public Download download(URL url, String accept, InputStream content, String contentType, String etag, String lastModified) throws IOException {
+        final Path objects = directory.resolve("objects");
+        Files.createDirectories(objects);
+        final Properties properties = new Properties();
+        properties.setProperty(URL, url.toString());
+        setIfNotNull(properties, ACCEPT, accept);
+        setIfNotNull(properties, CONTENT_TYPE, contentType);
+        setIfNotNull(properties, ETAG, etag);
+        setIfNotNull(properties, LAST_MODIFIED, lastModified);
+        return new Download(url, accept, content, Files.createTempFile(objects, "download", ".tmp"), properties);
+    }
+
+    /**
+     * A vocabulary being downloaded: everything read from it is written to the cache.
+     * Closing it has no effect, so parsers can not end the download early.
+     */
+    public final class Download extends FilterInputStream {
+        private final URL url;
+        private final String accept;
+        private final Path temp;
+        private final Properties properties;
+        private final MessageDigest digest = Sha256.createDigest();
+        private final OutputStream out;
+        private boolean done = false;
+
+        private Download(URL url, String accept, InputStream content, Path temp, Properties properties) throws IOException {
+            super(content);
+            this.url = url;
+            this.accept = accept;
+            this.temp = temp;
+            this.properties = properties;
+            // the digest is computed over the uncompressed content
+            this.out = new DigestOutputStream(new GZIPOutputStream(Files.newOutputStream(temp), 8192), digest);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                out.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            final int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                out.write(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped content has to be stored as well
+            final byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            final int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // see commit() and discard()
+        }
+
+        /**
+         * Read the rest of the content and add it to the cache.
+         */
+        public Entry commit() throws IOException {
+            if (done) {
+                throw new IllegalStateException("download of " + url + " is already finished");
+            }
+            final byte[] buffer = new byte[8192];
+            while (read(buffer, 0, buffer.length) >= 0) {
+                // store content the reader did not consume
+            }
+            out.close();
+            done = true;
+
+            final String hash = Sha256.toHex(digest.digest());
+            try {
+                move(temp, getObjectFile(hash));
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            properties.setProperty(HASH, hash);
+            final Path index = getIndexFile(url, accept);
+            Files.createDirectories(index.getParent());
+            final Path tempIndex = Files.createTempFile(index.getParent(), "index", ".tmp");
+            try {
+                try (Writer out = Files.newBufferedWriter(tempIndex, StandardCharsets.UTF_8)) {
+                    GeneratedFiles.storeProperties(properties, out, null);
+                }
+                move(tempIndex, index);
+            } finally {
+                Files.deleteIfExists(tempIndex);
+            }
+
+            evict(hash);
+            return new Entry(getObjectFile(hash), properties);
+        }
+
+        /**
+         * Discard the content, unless it was committed.
+         */
+        public void discard() throws IOException {
+            if (!done) {
+                done = true;
+                try {
+                    out.close();
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        }
+    }
+
+    private static void setIfNotNull(Properties properties, String key, String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    /**
+     * Delete the least recently used content until the cache is smaller than its maximum size.
+     */
+    public void evict() throws IOException {
+        evict(null);
+    }
+
+    private void evict(String keep) throws IOException {
+        final Path objects = directory.resolve("objects");
+        if (!Files.isDirectory(objects)) {
+            return;
+        }
+        // one eviction at a time, concurrent readers are not blocked
+        synchronized (EVICTION_LOCK) {
+            evictLocked(objects, keep);
+        }
+    }
+
+    private void evictLocked(Path objects, String keep) throws IOException {
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // released when the channel is closed
+            lockChannel.lock();
+            final List<Path> files = new ArrayList<>();
+            final FileTime inUse = FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(IN_USE_MINUTES));
+            long size = 0;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(objects)) {
+                for (Path file : stream) {
+                    if (file.getFileName().toString().endsWith(OBJECT_EXTENSION)) {
+                        size += Files.size(file);
+                        if (!file.getFileName().toString().equals(keep + OBJECT_EXTENSION) && Files.getLastModifiedTime(file).compareTo(inUse) < 0) {
+                            files.add(file);
+                        }
+                    } else if (!file.getFileName().toString().endsWith(".tmp")) {
+                        // uncompressed content of earlier versions is no longer referenced
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+            if (size <= maxSize) {
+                return;
+            }
+            Collections.sort(files, new Comparator<Path>() {
+                @Override
+                public int compare(Path a, Path b) {
+                    try {
+                        return Files.getLastModifiedTime(a).compareTo(Files.getLastModifiedTime(b));
+                    } catch (IOException e) {
+                        return 0;
+                    }
+                }
+            });
+            for (Path file : files) {
+                if (size <= maxSize) {
+                    break;
+                }
+                final long fileSize = Files.size(file);
+                Files.deleteIfExists(file);
+                size -= fileSize;
+                log.debug("evicted {} from the vocabulary cache", file.getFileName());
+            }
+        }
+    }
+
+    private Path getObjectFile(String hash) {
+        return directory.resolve("objects").resolve(hash + OBJECT_EXTENSION);
+    }
+
+    private Path getIndexFile(URL url, String accept) {
+        final String key = accept != null ? accept + " " + url : url.toString();
+        final MessageDigest digest = Sha256.createDigest();
+        return directory.resolve("index").resolve(Sha256.toHex(digest.digest(key.getBytes(StandardCharsets.UTF_8))) + ".properties");
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
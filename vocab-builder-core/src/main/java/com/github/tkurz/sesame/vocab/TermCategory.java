@@ -0,0 +1,99 @@
+package com.github.tkurz.sesame.vocab;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Categories of vocabulary terms, derived from their {@code rdf:type} statements.
+ * <p/>
+ * The order of the constants is the row order of the generated {@code CATEGORY_TABLE}.
+ */
+enum TermCategory {
+
+    CLASS("CLASS_TERMS", "isClass", "classes",
+            RDFS.CLASS, OWL.CLASS, RDFS.DATATYPE, OWL.RESTRICTION),
+    PROPERTY("PROPERTY_TERMS", "isProperty", "properties",
+            RDF.PROPERTY, OWL.OBJECTPROPERTY, OWL.DATATYPEPROPERTY, OWL.ANNOTATIONPROPERTY, OWL.ONTOLOGYPROPERTY,
+            OWL.FUNCTIONALPROPERTY, OWL.INVERSEFUNCTIONALPROPERTY, OWL.TRANSITIVEPROPERTY, OWL.SYMMETRICPROPERTY,
+            RDFS.CONTAINERMEMBERSHIPPROPERTY),
+    OBJECT_PROPERTY("OBJECT_PROPERTY_TERMS", "isObjectProperty", "object properties",
+            OWL.OBJECTPROPERTY, OWL.INVERSEFUNCTIONALPROPERTY, OWL.TRANSITIVEPROPERTY, OWL.SYMMETRICPROPERTY),
+    DATATYPE_PROPERTY("DATATYPE_PROPERTY_TERMS", "isDatatypeProperty", "datatype properties",
+            OWL.DATATYPEPROPERTY),
+    INDIVIDUAL("INDIVIDUAL_TERMS", "isIndividual", "individuals") {
+        /**
+         * Individuals are typed with {@code owl:NamedIndividual} or with anything that is not a meta-class.
+         */
+        @Override
+        boolean matches(Set<Value> types) {
+            for (Value type : types) {
+                if (!META_TYPES.contains(type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    };
+
+    /**
+     * {@code rdf:type}s that make a term part of the schema rather than an individual.
+     */
+    private static final Set<IRI> META_TYPES;
+
+    static {
+        final Set<IRI> metaTypes = new HashSet<>();
+        for (TermCategory category : values()) {
+            metaTypes.addAll(category.types);
+        }
+        metaTypes.add(OWL.ONTOLOGY);
+        metaTypes.add(OWL.ALLDIFFERENT);
+        metaTypes.add(OWL.DEPRECATEDCLASS);
+        metaTypes.add(OWL.DEPRECATEDPROPERTY);
+        META_TYPES = Collections.unmodifiableSet(metaTypes);
+    }
+
+    private final String setName;
+    private final String methodName;
+    private final String description;
+    private final Set<IRI> types;
+
+    TermCategory(String setName, String methodName, String description, IRI... types) {
+        this.setName = setName;
+        this.methodName = methodName;
+        this.description = description;
+        this.types = new HashSet<>(Arrays.asList(types));
+    }
+
+    /**
+     * @param types the {@code rdf:type}s of a term
+     */
+    boolean matches(Set<Value> types) {
+        return !Collections.disjoint(this.types, types);
+    }
+
+    /**
+     * The name of the generated {@code Set<IRI>} constant.
+     */
+    String getSetName() {
+        return setName;
+    }
+
+    /**
+     * The name of the generated membership check.
+     */
+    String getMethodName() {
+        return methodName;
+    }
+
+    String getDescription() {
+        return description;
+    }
+}
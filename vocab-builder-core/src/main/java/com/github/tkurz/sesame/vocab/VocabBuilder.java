@@ -1,6 +1,6 @@
 package com.github.tkurz.sesame.vocab;
 
-import com.google.common.collect.Sets;
+import com.google.common.collect.ImmutableSet;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.text.WordUtils;
@@ -26,7 +26,6 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.CaseFormat;
 
 import java.io.*;
-import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -49,6 +48,30 @@ public class VocabBuilder {
 
     private static final Logger log = LoggerFactory.getLogger(VocabBuilder.class);
 
+    /**
+     * Name of the nested enum created by {@link #setGenerateTermEnum(boolean)}.
+     */
+    public static final String TERM_ENUM_NAME = "Term";
+
+    /**
+     * Name of the nested {@link IRI} implementation created by {@link #setCompactIRIs(boolean)}.
+     */
+    public static final String COMPACT_IRI_NAME = "TermIRI";
+
+    private static final String TERM_SET_NAME = "TermSet";
+
+    /**
+     * In pack mode, the number of constants initialised per class: assigning a constant takes
+     * 8 bytes of bytecode, the static initialiser must stay below 64KB.
+     */
+    static final int PACK_CHUNK_SIZE = 5000;
+
+    /**
+     * The order of the terms: case-insensitive, keys that only differ in case are ordered case-sensitively,
+     * so the output does not depend on the order of the input.
+     */
+    static final Comparator<String> KEY_ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.<String>naturalOrder());
+
     private static final IRI[] COMMENT_PROPERTIES = new IRI[]{RDFS.COMMENT, DCTERMS.DESCRIPTION, SKOS.DEFINITION, DC.DESCRIPTION};
     private static final IRI[] LABEL_PROPERTIES = new IRI[]{RDFS.LABEL, DCTERMS.TITLE, DC.TITLE, SKOS.PREF_LABEL, SKOS.ALT_LABEL};
     private String name = null;
@@ -60,8 +83,19 @@ public class VocabBuilder {
     private CaseFormat caseFormat = null;
     private CaseFormat stringCaseFormat = null;
     private String stringPropertyPrefix, stringPropertySuffix;
+    private boolean generateTermEnum = false;
+    private boolean compactIRIs = false;
+    private boolean generateLookup = false;
+    private boolean generateHierarchy = false;
+    private boolean generateCategories = false;
+    private boolean generateSignatures = false;
+    private boolean generateCanonical = false;
+    private boolean generateLabelIndex = false;
+    private boolean generatePack = false;
+    private final Set<String[]> helperSources = new LinkedHashSet<>();
     private Set<String> createdFields = new HashSet<>();
-    private static Set<String> reservedWords = Sets.newHashSet("abstract","assert","boolean","break","byte","case","catch","char","class","const","default","do","double","else","enum","extends","false","final","finally","float","for","goto","if","implements","import","instanceof","int","interface","long","native","new","null","package","private","protected","public","return","short","static","strictfp","super","switch","synchronized","this","throw","throws","transient","true","try","void","volatile","while","continue","PREFIX","NAMESPACE");
+    private static final Set<String> enumMembers = ImmutableSet.of("BY_IRI", "VALUES", "iri", "localName");
+    private static final Set<String> reservedWords = ImmutableSet.of("abstract","assert","boolean","break","byte","case","catch","char","class","const","default","do","double","else","enum","extends","false","final","finally","float","for","goto","if","implements","import","instanceof","int","interface","long","native","new","null","package","private","protected","public","return","short","static","strictfp","super","switch","synchronized","this","throw","throws","transient","true","try","void","volatile","while","continue","PREFIX","NAMESPACE");
 
     /**
      * Create a new VocabularyBuilder, reading the vocab definition from the provided file
@@ -75,59 +109,1585 @@ public class VocabBuilder {
         this(filename, format != null ? Rio.getParserFormatForMIMEType(format).orElse(null) : null);
     }
 
-    public VocabBuilder(String filename, RDFFormat format) throws IOException, RDFParseException {
-        Path file = Paths.get(filename);
-        if (!Files.exists(file)) throw new FileNotFoundException(filename);
-
-        if (format == null) {
-            format = Rio.getParserFormatForFileName(filename).orElse(null);
-            log.trace("detected input format from filename {}: {}", filename, format);
-        }
+    public VocabBuilder(String filename, RDFFormat format) throws IOException, RDFParseException {
+        this(filename, format, null);
+    }
+
+    /**
+     * Create a new VocabularyBuilder, reading the vocab definition from the provided file
+     *
+     * @param filename the input file to read the vocab from
+     * @param format   the format of the vocab file, may be {@code null}
+     * @param cache    the cache of parsed vocabularies, may be {@code null}
+     * @throws java.io.IOException if the file could not be read
+     * @throws RDFParseException   if the format of the vocab could not be detected or is unknown.
+     */
+    public VocabBuilder(String filename, RDFFormat format, ModelCache cache) throws IOException, RDFParseException {
+        Path file = Paths.get(filename);
+        if (!Files.exists(file)) throw new FileNotFoundException(filename);
+
+        if (format == null) {
+            format = Rio.getParserFormatForFileName(filename).orElse(null);
+            log.trace("detected input format from filename {}: {}", filename, format);
+        }
+
+        if (cache != null) {
+            model = cache.load(file, format);
+        } else {
+            try (final InputStream inputStream = Files.newInputStream(file)) {
+                log.trace("Loading input file");
+                model = Rio.parse(inputStream, "", format);
+            }
+        }
+        detectPrefix();
+    }
+
+    /**
+     * Create a new VocabularyBuilder, parsing the vocab definition while it is read from a stream,
+     * e.g. while it is downloaded.
+     *
+     * @param inputStream the input to read the vocab from, not closed
+     * @param format      the format of the vocab, detected from the name if {@code null}
+     * @param cache       the cache of parsed vocabularies, may be {@code null}
+     * @param name        the name of the input for logging
+     * @throws java.io.IOException if the input could not be read
+     * @throws RDFParseException   if the vocab could not be parsed
+     */
+    public VocabBuilder(InputStream inputStream, RDFFormat format, ModelCache cache, String name) throws IOException, RDFParseException {
+        if (format == null) {
+            format = Rio.getParserFormatForFileName(name).orElse(null);
+            log.trace("detected input format from name {}: {}", name, format);
+        }
+        if (cache != null) {
+            model = cache.parse(inputStream, format, name);
+        } else {
+            log.trace("Loading input stream");
+            model = Rio.parse(inputStream, "", format);
+        }
+        detectPrefix();
+    }
+
+    /**
+     * Create a new VocabularyBuilder for an already parsed vocab definition.
+     *
+     * @param model the vocab definition, it is not modified
+     */
+    public VocabBuilder(Model model) {
+        this.model = model;
+        detectPrefix();
+    }
+
+    private void detectPrefix() {
+        //import
+        Set<Resource> owlOntologies = model.filter(null, RDF.TYPE, OWL.ONTOLOGY).subjects();
+        if (!owlOntologies.isEmpty()) {
+            setPrefix(owlOntologies.iterator().next().stringValue());
+        }
+    }
+
+    public void generate(OutputStream outputStream) throws GenerationException, IOException {
+        String cName = getName();
+        if (StringUtils.isBlank(cName)) {
+            throw new GenerationException("could not detect name, please set explicitly");
+        }
+        //noinspection ConstantConditions
+        cName = WordUtils.capitalize(cName.replaceAll("\\W+", " ")).replaceAll("\\s+", "");
+
+        generate(cName, new PrintWriter(outputStream));
+    }
+
+    /**
+     * Generate the vocabulary class into the given file. In pack mode, the pack resource
+     * is written next to it, see {@link #getPackResourceName(String)}.
+     * Files are only written if their content changed.
+     */
+    public void generate(Path output) throws IOException, GenerationException {
+        final String className = output.getFileName().toString().replaceFirst("\\.java$", "");
+        final ByteArrayOutputStream source = new ByteArrayOutputStream();
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(source, StandardCharsets.UTF_8))) {
+            generate(className, out);
+        }
+        GeneratedFiles.write(output, source.toByteArray());
+        if (generatePack) {
+            final ByteArrayOutputStream pack = new ByteArrayOutputStream();
+            generatePack(pack);
+            GeneratedFiles.write(output.resolveSibling(getPackResourceName(className)), pack.toByteArray());
+        }
+    }
+
+    /**
+     * Write the binary pack read by the class generated in pack mode.
+     * It must be available as resource {@link #getPackResourceName(String)} next to the class.
+     */
+    public void generatePack(OutputStream outputStream) throws IOException, GenerationException {
+        if (StringUtils.isBlank(prefix)) {
+            throw new GenerationException("could not detect prefix, please set explicitly");
+        }
+        final Map<String, IRI> splitUris = getSplitUris();
+        final VocabularyPack pack = new VocabularyPack();
+        for (String key : getSortedKeys(splitUris)) {
+            final Literal label = getFirstExistingObjectLiteral(model, splitUris.get(key), getPreferredLanguage(), LABEL_PROPERTIES);
+            final Literal comment = getFirstExistingObjectLiteral(model, splitUris.get(key), getPreferredLanguage(), COMMENT_PROPERTIES);
+            pack.add(key, label != null ? label.getLabel() : null, comment != null ? comment.getLabel() : null);
+        }
+        pack.write(outputStream);
+    }
+
+    /**
+     * The name of the pack resource, relative to the generated class.
+     */
+    public static String getPackResourceName(String className) {
+        return className + VocabularyPack.EXTENSION;
+    }
+
+    /**
+     *
+     */
+    public void generate(String className, PrintWriter out) throws IOException, GenerationException {
+        log.trace("classname: {}", className);
+        if (StringUtils.isBlank(name)) {
+            name = className;
+        }
+        if (StringUtils.isBlank(prefix)) {
+            throw new GenerationException("could not detect prefix, please set explicitly");
+        } else {
+            log.debug("prefix: {}", prefix);
+        }
+
+        final Map<String, IRI> splitUris = getSplitUris();
+
+        if (generatePack) {
+            printPack(className, splitUris, out);
+            return;
+        }
+
+        //print
+
+        //package is optional
+        if (StringUtils.isNotBlank(packageName)) {
+            out.printf("package %s;%n%n", getPackageName());
+        }
+        //imports
+        out.println("import org.eclipse.rdf4j.model.IRI;");
+        if (!compactIRIs) {
+            out.println("import org.eclipse.rdf4j.model.ValueFactory;");
+            out.println("import org.eclipse.rdf4j.model.impl.SimpleValueFactory;");
+        }
+        final Set<String> javaImports = new TreeSet<>();
+        if (generateTermEnum && !needsTermIndex()) {
+            javaImports.add("java.util.HashMap");
+            javaImports.add("java.util.Map");
+        }
+        if (generateLabelIndex) {
+            javaImports.add("java.util.ArrayList");
+            javaImports.add("java.util.Arrays");
+            javaImports.add("java.util.Collections");
+            javaImports.add("java.util.LinkedHashSet");
+            javaImports.add("java.util.List");
+            javaImports.add("java.util.Locale");
+            javaImports.add("java.util.Set");
+        }
+        if (generateSignatures) {
+            javaImports.add("java.util.ArrayList");
+            javaImports.add("java.util.Arrays");
+            javaImports.add("java.util.Collections");
+            javaImports.add("java.util.List");
+        }
+        if (needsTermSet()) {
+            javaImports.add("java.util.AbstractSet");
+            javaImports.add("java.util.Iterator");
+            javaImports.add("java.util.NoSuchElementException");
+            javaImports.add("java.util.Set");
+        }
+        if (!javaImports.isEmpty()) {
+            out.println();
+            for (String javaImport : javaImports) {
+                out.printf("import %s;%n", javaImport);
+            }
+        }
+        out.println();
+
+        printClassDoc(out, null);
+        //class Definition
+        out.printf("public class %s {%n", className);
+        out.println();
+
+        //constants
+        printNamespaceConstants(out);
+
+        final List<String> keys = getSortedKeys(splitUris);
+
+        //string constant values
+        printStringConstants(className, keys, splitUris, out, true);
+
+        //and now the resources
+        for (String key : keys) {
+            Literal comment = getFirstExistingObjectLiteral(model, splitUris.get(key), getPreferredLanguage(), COMMENT_PROPERTIES);
+            Literal label = getFirstExistingObjectLiteral(model, splitUris.get(key), getPreferredLanguage(), LABEL_PROPERTIES);
+
+            out.println(getIndent(1) + "/**");
+            if (label != null) {
+                out.printf(getIndent(1) + " * %s%n", label.getLabel());
+                out.println(getIndent(1) + " * <p>");
+            }
+            out.printf(getIndent(1) + " * {@code %s}.%n", splitUris.get(key).stringValue());
+            if (comment != null) {
+                out.println(getIndent(1) + " * <p>");
+                out.printf(getIndent(1) + " * %s%n", WordUtils.wrap(comment.getLabel().replaceAll("\\s+", " "), 70, "\n" + getIndent(1) + " * ", false));
+            }
+            out.println(getIndent(1) + " *");
+            out.printf(getIndent(1) + " * @see <a href=\"%s\">%s</a>%n", splitUris.get(key), key);
+            out.println(getIndent(1) + " */");
+
+            String nextKey = cleanKey(doCaseFormatting(key, getConstantCase()));
+            checkField(className, nextKey);
+            out.printf(getIndent(1) + "public static final IRI %s;%n", nextKey);
+            out.println();
+        }
+
+        //static init
+        out.println(getIndent(1) + "static {");
+        if (compactIRIs) {
+            for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+                final String key = keys.get(ordinal);
+                String nextKey = cleanKey(doCaseFormatting(key, getConstantCase()));
+                final IRI iri = splitUris.get(key);
+                final String ordinalArg = needsTermIndex() ? ", " + ordinal : "";
+                if (prefix.equals(iri.getNamespace())) {
+                    out.printf(getIndent(2) + "%s = new %s(%s.NAMESPACE, \"%s\"%s);%n", nextKey, COMPACT_IRI_NAME, className, iri.getLocalName(), ordinalArg);
+                } else {
+                    out.printf(getIndent(2) + "%s = new %s(\"%s\", \"%s\"%s);%n", nextKey, COMPACT_IRI_NAME, iri.getNamespace(), iri.getLocalName(), ordinalArg);
+                }
+            }
+        } else {
+            out.printf(getIndent(2) + "ValueFactory factory = SimpleValueFactory.getInstance();%n");
+            out.println();
+            for (String key : keys) {
+                String nextKey = cleanKey(doCaseFormatting(key, getConstantCase()));
+                out.printf(getIndent(2) + "%s = factory.createIRI(%s.NAMESPACE, \"%s\");%n", nextKey, className, key);
+            }
+        }
+        out.println(getIndent(1) + "}");
+        out.println();
+
+        helperSources.clear();
+        if (needsTermIndex()) {
+            printTermIndex(className, keys, out);
+        }
+        if (generateLookup) {
+            printLookup(out);
+        }
+        if (generateHierarchy) {
+            printHierarchy(className, keys, splitUris, out);
+        }
+        if (generateCategories) {
+            printCategories(className, keys, splitUris, out);
+        }
+        if (generateSignatures) {
+            printSignatures(className, keys, splitUris, out);
+        }
+        if (generateCanonical) {
+            printCanonical(className, keys, splitUris, out);
+        }
+        if (generateLabelIndex) {
+            printLabelIndex(className, keys, splitUris, out);
+        }
+
+        if (compactIRIs) {
+            printCompactIRI(out);
+        }
+        if (needsTermSet()) {
+            printTermSet(out);
+        }
+
+        if (generateTermEnum) {
+            printTermEnum(className, keys, splitUris, out);
+        }
+
+        //private contructor to avoid instances
+        out.printf(getIndent(1) + "private %s() {%n", className);
+        out.println(getIndent(2) + "//static access only");
+        out.println(getIndent(1) + "}");
+        out.println();
+
+        for (String[] source : helperSources) {
+            printSource(out, 1, source);
+            out.println();
+        }
+
+        //class end
+        out.println("}");
+        out.flush();
+    }
+
+    /**
+     * Print the class JavaDoc: title, description, namespace and see-also links of the vocabulary.
+     *
+     * @param note an additional paragraph, may be {@code null}
+     */
+    private void printClassDoc(PrintWriter out, String note) {
+        final IRI pfx = SimpleValueFactory.getInstance().createIRI(prefix);
+        Literal oTitle = getFirstExistingObjectLiteral(model, pfx, getPreferredLanguage(), LABEL_PROPERTIES);
+        Literal oDescr = getFirstExistingObjectLiteral(model, pfx, getPreferredLanguage(), COMMENT_PROPERTIES);
+        Set<Value> oSeeAlso = model.filter(pfx, RDFS.SEEALSO, null).objects();
+
+        //class JavaDoc
+        out.println("/**");
+        if (oTitle != null) {
+            out.printf(" * %s.%n", WordUtils.wrap(oTitle.getLabel().replaceAll("\\s+", " "), 70, "\n * ", false));
+            out.println(" * <p>");
+        }
+        if (oDescr != null) {
+            out.printf(" * %s.%n", WordUtils.wrap(oDescr.getLabel().replaceAll("\\s+", " "), 70, "\n * ", false));
+            out.println(" * <p>");
+        }
+        out.printf(" * Namespace %s.%n", name);
+        out.printf(" * Prefix: {@code <%s>}%n", prefix);
+        if (note != null) {
+            out.println(" * <p>");
+            out.printf(" * %s%n", note);
+        }
+        if (!oSeeAlso.isEmpty()) {
+            out.println(" *");
+            for (Value s : oSeeAlso) {
+                if (s instanceof IRI) {
+                    out.printf(" * @see <a href=\"%s\">%s</a>%n", s.stringValue(), s.stringValue());
+                }
+            }
+        }
+        out.println(" */");
+    }
+
+    private void printNamespaceConstants(PrintWriter out) {
+        out.printf(getIndent(1) + "/** {@code %s} **/%n", prefix);
+        out.printf(getIndent(1) + "public static final String NAMESPACE = \"%s\";%n", prefix);
+        out.println();
+        out.printf(getIndent(1) + "/** {@code %s} **/%n", name.toLowerCase());
+        out.printf(getIndent(1) + "public static final String PREFIX = \"%s\";%n", name.toLowerCase());
+        out.println();
+    }
+
+    /**
+     * Print the string constants, if configured.
+     *
+     * @param withDoc whether to add the label and comment as JavaDoc
+     */
+    private void printStringConstants(String className, List<String> keys, Map<String, IRI> splitUris, PrintWriter out, boolean withDoc) throws GenerationException {
+        if (stringCaseFormat != null || StringUtils.isNotBlank(stringPropertyPrefix) || (StringUtils.isNotBlank(stringPropertySuffix))) {
+            // add the possibility to add a string property with the namespace for usage in
+            for (String key : keys) {
+                if (withDoc) {
+                    final Literal comment = getFirstExistingObjectLiteral(model, splitUris.get(key), getPreferredLanguage(), COMMENT_PROPERTIES);
+                    final Literal label = getFirstExistingObjectLiteral(model, splitUris.get(key), getPreferredLanguage(), LABEL_PROPERTIES);
+
+                    out.println(getIndent(1) + "/**");
+                    if (label != null) {
+                        out.printf(getIndent(1) + " * %s%n", label.getLabel());
+                        out.println(getIndent(1) + " * <p>");
+                    }
+                    out.printf(getIndent(1) + " * {@code %s}.%n", splitUris.get(key).stringValue());
+                    if (comment != null) {
+                        out.println(getIndent(1) + " * <p>");
+                        out.printf(getIndent(1) + " * %s%n", WordUtils.wrap(comment.getLabel().replaceAll("\\s+", " "), 70, "\n" + getIndent(1) + " * ", false));
+                    }
+                    out.println(getIndent(1) + " *");
+                    out.printf(getIndent(1) + " * @see <a href=\"%s\">%s</a>%n", splitUris.get(key), key);
+                    out.println(getIndent(1) + " */");
+                }
+
+                final String nextKey = cleanKey(String.format("%s%s%s", StringUtils.defaultString(getStringPropertyPrefix()),
+                        doCaseFormatting(key, getStringConstantCase()),
+                        StringUtils.defaultString(getStringPropertySuffix())));
+                checkField(className, nextKey);
+                out.printf(getIndent(1) + "public static final String %s = %s.NAMESPACE + \"%s\";%n",
+                         nextKey, className, key);
+                if (withDoc) {
+                    out.println();
+                }
+            }
+            if (!withDoc) {
+                out.println();
+            }
+        }
+    }
+
+    /**
+     * Print the loader class of pack mode: the constants are assigned from {@code <className>_Pack}, which reads
+     * the local names from the pack resource. Labels and comments are only read when requested.
+     * Vocabularies with more than {@link #PACK_CHUNK_SIZE} terms spread their constants over a chain of superclasses.
+     */
+    private void printPack(String className, Map<String, IRI> splitUris, PrintWriter out) throws GenerationException {
+        if (generateTermEnum || compactIRIs || needsTermIndex()) {
+            throw new GenerationException("pack mode can not be combined with the term enum, compact IRIs or term tables");
+        }
+        final List<String> keys = getSortedKeys(splitUris);
+        final String packClass = className + "_Pack";
+        final String resource = getPackResourceName(className);
+        final int chunks = Math.max(1, (keys.size() + PACK_CHUNK_SIZE - 1) / PACK_CHUNK_SIZE);
+
+        if (StringUtils.isNotBlank(packageName)) {
+            out.printf("package %s;%n%n", getPackageName());
+        }
+        out.println("import org.eclipse.rdf4j.model.IRI;");
+        out.println("import org.eclipse.rdf4j.model.ValueFactory;");
+        out.println("import org.eclipse.rdf4j.model.impl.SimpleValueFactory;");
+        out.println();
+        out.println("import java.io.BufferedInputStream;");
+        out.println("import java.io.DataInputStream;");
+        out.println("import java.io.FileNotFoundException;");
+        out.println("import java.io.IOException;");
+        out.println("import java.io.InputStream;");
+        out.println("import java.nio.charset.StandardCharsets;");
+        out.println("import java.util.HashMap;");
+        out.println("import java.util.Map;");
+        out.println();
+
+        printClassDoc(out, String.format("The terms are loaded from the resource {@code %s}, labels and comments on first use.", resource));
+        if (chunks > 1) {
+            out.printf("public class %s extends %s_Terms%d {%n", className, className, chunks - 1);
+        } else {
+            out.printf("public class %s {%n", className);
+        }
+        out.println();
+        printNamespaceConstants(out);
+        printStringConstants(className, keys, splitUris, out, false);
+        printPackChunk(className, keys, chunks - 1, out);
+
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * The label of a term in the preferred language, read from the pack on first use.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param term the term, may be {@code null}");
+        out.println(getIndent(1) + " * @return the label, or {@code null} if the term has none or is not part of this vocabulary");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static String getLabel(IRI term) {",
+                "\treturn " + packClass + ".text(term, 0);",
+                "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * The comment of a term in the preferred language, read from the pack on first use.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param term the term, may be {@code null}");
+        out.println(getIndent(1) + " * @return the comment, or {@code null} if the term has none or is not part of this vocabulary");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static String getComment(IRI term) {",
+                "\treturn " + packClass + ".text(term, 1);",
+                "}");
+        out.println();
+        out.printf(getIndent(1) + "private %s() {%n", className);
+        out.println(getIndent(2) + "//static access only");
+        out.println(getIndent(1) + "}");
+        out.println();
+        out.println("}");
+
+        for (int chunk = chunks - 2; chunk >= 0; chunk--) {
+            out.println();
+            out.printf("/** Constants %d to %d of {@link %s}. **/%n", chunk * PACK_CHUNK_SIZE, (chunk + 1) * PACK_CHUNK_SIZE - 1, className);
+            if (chunk > 0) {
+                out.printf("class %s_Terms%d extends %s_Terms%d {%n", className, chunk + 1, className, chunk);
+            } else {
+                out.printf("class %s_Terms%d {%n", className, chunk + 1);
+            }
+            out.println();
+            printPackChunk(className, keys, chunk, out);
+            out.printf(getIndent(1) + "%s_Terms%d() {%n", className, chunk + 1);
+            out.println(getIndent(2) + "//static access only");
+            out.println(getIndent(1) + "}");
+            out.println();
+            out.println("}");
+        }
+
+        out.println();
+        out.printf("/** Reads {@link %s} from {@code %s}. **/%n", className, resource);
+        printSource(out, 0,
+                "final class " + packClass + " {",
+                "",
+                "\tstatic final IRI[] TERMS = loadTerms();",
+                "",
+                "\tprivate " + packClass + "() {",
+                "\t\t//static access only",
+                "\t}",
+                "",
+                "\tprivate static DataInputStream open() throws IOException {",
+                "\t\tfinal InputStream in = " + packClass + ".class.getResourceAsStream(\"" + resource + "\");",
+                "\t\tif (in == null) {",
+                "\t\t\tthrow new FileNotFoundException(\"" + resource + "\");",
+                "\t\t}",
+                "\t\tfinal DataInputStream data = new DataInputStream(new BufferedInputStream(in));",
+                "\t\tif (data.readInt() != " + String.format("0x%08X", VocabularyPack.MAGIC) + " || data.readUnsignedShort() != " + VocabularyPack.VERSION + ") {",
+                "\t\t\tdata.close();",
+                "\t\t\tthrow new IOException(\"unsupported format: " + resource + "\");",
+                "\t\t}",
+                "\t\treturn data;",
+                "\t}",
+                "",
+                "\tprivate static IRI[] loadTerms() {",
+                "\t\ttry (DataInputStream in = open()) {",
+                "\t\t\tfinal String[] localNames = readStrings(in);",
+                "\t\t\tif (localNames.length != " + keys.size() + ") {",
+                "\t\t\t\tthrow new IOException(\"" + resource + " does not match " + className + "\");",
+                "\t\t\t}",
+                "\t\t\tfinal ValueFactory factory = SimpleValueFactory.getInstance();",
+                "\t\t\tfinal IRI[] terms = new IRI[localNames.length];",
+                "\t\t\tfor (int i = 0; i < terms.length; i++) {",
+                "\t\t\t\tterms[i] = factory.createIRI(" + className + ".NAMESPACE, localNames[i]);",
+                "\t\t\t}",
+                "\t\t\treturn terms;",
+                "\t\t} catch (IOException e) {",
+                "\t\t\tthrow new IllegalStateException(\"could not load \" + " + className + ".class.getName(), e);",
+                "\t\t}",
+                "\t}",
+                "",
+                "\tstatic String text(IRI term, int kind) {",
+                "\t\tfinal Integer ordinal = term == null ? null : Texts.ORDINALS.get(term);",
+                "\t\tif (ordinal == null) {",
+                "\t\t\treturn null;",
+                "\t\t}",
+                "\t\tfinal int text = Texts.REFS[ordinal * 2 + kind];",
+                "\t\treturn text < 0 ? null : Texts.TEXTS[text];",
+                "\t}",
+                "",
+                "\tprivate static final class Texts {",
+                "\t\tstatic final Map<IRI, Integer> ORDINALS = new HashMap<>();",
+                "\t\tstatic final String[] TEXTS;",
+                "\t\tstatic final int[] REFS;",
+                "",
+                "\t\tstatic {",
+                "\t\t\tfor (int i = 0; i < TERMS.length; i++) {",
+                "\t\t\t\tORDINALS.put(TERMS[i], i);",
+                "\t\t\t}",
+                "\t\t\ttry (DataInputStream in = open()) {",
+                "\t\t\t\treadStrings(in);",
+                "\t\t\t\tTEXTS = readStrings(in);",
+                "\t\t\t\tREFS = new int[TERMS.length * 2];",
+                "\t\t\t\tfor (int i = 0; i < REFS.length; i++) {",
+                "\t\t\t\t\tREFS[i] = in.readInt();",
+                "\t\t\t\t}",
+                "\t\t\t} catch (IOException e) {",
+                "\t\t\t\tthrow new IllegalStateException(\"could not load \" + " + className + ".class.getName(), e);",
+                "\t\t\t}",
+                "\t\t}",
+                "\t}",
+                "");
+        printSource(out, 1, VocabularyPack.READ_STRINGS_SOURCE);
+        out.println("}");
+        out.flush();
+    }
+
+    /**
+     * Print the constants of one chunk of the pack mode class chain, assigned from the loaded terms.
+     */
+    private void printPackChunk(String className, List<String> keys, int chunk, PrintWriter out) throws GenerationException {
+        final int from = chunk * PACK_CHUNK_SIZE;
+        final int to = Math.min(keys.size(), from + PACK_CHUNK_SIZE);
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            final String nextKey = cleanKey(doCaseFormatting(keys.get(ordinal), getConstantCase()));
+            checkField(className, nextKey);
+            out.printf(getIndent(1) + "/** {@code <%s%s>} **/%n", prefix, keys.get(ordinal));
+            out.printf(getIndent(1) + "public static final IRI %s;%n", nextKey);
+        }
+        out.println();
+        if (from < to) {
+            out.println(getIndent(1) + "static {");
+            out.printf(getIndent(2) + "final IRI[] terms = %s_Pack.TERMS;%n", className);
+            for (int ordinal = from; ordinal < to; ordinal++) {
+                out.printf(getIndent(2) + "%s = terms[%d];%n", cleanKey(doCaseFormatting(keys.get(ordinal), getConstantCase())), ordinal);
+            }
+            out.println(getIndent(1) + "}");
+            out.println();
+        }
+    }
+
+    /**
+     * Whether the generated class needs the ordinal-based term tables.
+     */
+    private boolean needsTermIndex() {
+        return generateLookup || generateSignatures || generateCanonical || generateLabelIndex || needsTermSet();
+    }
+
+    /**
+     * Whether the generated class needs the bitset-backed {@value #TERM_SET_NAME}.
+     */
+    private boolean needsTermSet() {
+        return generateHierarchy || generateCategories;
+    }
+
+    /**
+     * Print the term tables: every term gets an ordinal (its index in {@code keys}) and can be found
+     * via a minimal perfect hash over the local names.
+     */
+    private void printTermIndex(String className, List<String> keys, PrintWriter out) throws GenerationException {
+        final PerfectHash hash = PerfectHash.build(keys);
+
+        checkField(className, "TERM_TABLE");
+        checkField(className, "LOCAL_NAME_TABLE");
+        checkField(className, "LOOKUP_DISPLACEMENTS");
+        checkField(className, "LOOKUP_SLOTS");
+        out.println(getIndent(1) + "/** all terms, indexed by ordinal **/");
+        out.println(getIndent(1) + "private static final IRI[] TERM_TABLE = termTable();");
+        out.println();
+        out.println(getIndent(1) + "/** the local names of all terms, indexed by ordinal **/");
+        out.printf(getIndent(1) + "private static final String[] LOCAL_NAME_TABLE = %s;%n", PackedArrays.strings(keys));
+        out.println();
+        out.println(getIndent(1) + "/** perfect hash over the local names: per-bucket seed, or -(slot + 1) **/");
+        out.printf(getIndent(1) + "private static final int[] LOOKUP_DISPLACEMENTS = %s;%n", PackedArrays.ints(hash.getDisplacements()));
+        out.println();
+        out.println(getIndent(1) + "/** perfect hash over the local names: the ordinal stored in each slot **/");
+        out.printf(getIndent(1) + "private static final int[] LOOKUP_SLOTS = %s;%n", PackedArrays.ints(hash.getSlots()));
+        out.println();
+
+        out.println(getIndent(1) + "private static IRI[] termTable() {");
+        out.println(getIndent(2) + "return new IRI[]{");
+        for (String key : keys) {
+            out.printf(getIndent(4) + "%s,%n", cleanKey(doCaseFormatting(key, getConstantCase())));
+        }
+        out.println(getIndent(2) + "};");
+        out.println(getIndent(1) + "}");
+        out.println();
+
+        printSource(out, 1,
+                "private static int ordinalOf(CharSequence s, int from, int to) {",
+                "\tif (LOOKUP_SLOTS.length == 0) {",
+                "\t\treturn -1;",
+                "\t}",
+                "\tfinal int d = LOOKUP_DISPLACEMENTS[hash(s, from, to, 0) % LOOKUP_DISPLACEMENTS.length];",
+                "\tfinal int ordinal = LOOKUP_SLOTS[d < 0 ? -d - 1 : hash(s, from, to, d) % LOOKUP_SLOTS.length];",
+                "\tfinal String localName = LOCAL_NAME_TABLE[ordinal];",
+                "\tif (localName.length() != to - from) {",
+                "\t\treturn -1;",
+                "\t}",
+                "\tfor (int i = 0; i < localName.length(); i++) {",
+                "\t\tif (localName.charAt(i) != s.charAt(from + i)) {",
+                "\t\t\treturn -1;",
+                "\t\t}",
+                "\t}",
+                "\treturn ordinal;",
+                "}");
+        out.println();
+        printSource(out, 1,
+                "private static int ordinalOf(String iri) {",
+                "\tif (iri == null || !iri.startsWith(NAMESPACE)) {",
+                "\t\treturn -1;",
+                "\t}",
+                "\treturn ordinalOf(iri, NAMESPACE.length(), iri.length());",
+                "}");
+        out.println();
+        if (compactIRIs) {
+            printSource(out, 1,
+                    "private static int ordinalOf(IRI iri) {",
+                    "\tif (iri instanceof " + COMPACT_IRI_NAME + ") {",
+                    "\t\treturn ((" + COMPACT_IRI_NAME + ") iri).ordinal;",
+                    "\t}",
+                    "\treturn iri == null ? -1 : ordinalOf(iri.stringValue());",
+                    "}");
+        } else {
+            printSource(out, 1,
+                    "private static int ordinalOf(IRI iri) {",
+                    "\treturn iri == null ? -1 : ordinalOf(iri.stringValue());",
+                    "}");
+        }
+        out.println();
+
+        if (needsTermSet()) {
+            checkField(className, "TERM_WORDS");
+            out.println(getIndent(1) + "/** number of {@code long}s per term bitset **/");
+            out.printf(getIndent(1) + "private static final int TERM_WORDS = %d;%n", getTermWords(keys));
+            out.println();
+        }
+
+        helperSources.add(PerfectHash.HASH_SOURCE);
+        helperSources.add(PackedArrays.UNPACK_INTS_SOURCE);
+        helperSources.add(PackedArrays.UNPACK_STRINGS_SOURCE);
+    }
+
+    /**
+     * Print one bitset per {@link TermCategory}, classifying the terms by their {@code rdf:type}.
+     */
+    private void printCategories(String className, List<String> keys, Map<String, IRI> splitUris, PrintWriter out) throws GenerationException {
+        final TermCategory[] categories = TermCategory.values();
+        final int words = getTermWords(keys);
+        final long[] table = new long[categories.length * words];
+        for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+            final Set<Value> types = model.filter(splitUris.get(keys.get(ordinal)), RDF.TYPE, null).objects();
+            for (TermCategory category : categories) {
+                if (category.matches(types)) {
+                    table[category.ordinal() * words + (ordinal >>> 6)] |= 1L << ordinal;
+                }
+            }
+        }
+
+        checkField(className, "CATEGORY_TABLE");
+        out.print(getIndent(1) + "/** one bitset per category, TERM_WORDS each:");
+        for (TermCategory category : categories) {
+            out.printf(" %s", category.getSetName());
+        }
+        out.println(" **/");
+        out.printf(getIndent(1) + "private static final long[] CATEGORY_TABLE = %s;%n", PackedArrays.longs(table));
+        out.println();
+        for (TermCategory category : categories) {
+            checkField(className, category.getSetName());
+            out.printf(getIndent(1) + "/** all %s of {@code <%s>} **/%n", category.getDescription(), prefix);
+            out.printf(getIndent(1) + "public static final Set<IRI> %s = new %s(CATEGORY_TABLE, %d * TERM_WORDS);%n",
+                    category.getSetName(), TERM_SET_NAME, category.ordinal());
+            out.println();
+        }
+        for (TermCategory category : categories) {
+            out.println(getIndent(1) + "/**");
+            out.printf(getIndent(1) + " * Check whether an IRI is one of the %s of {@code <%s>}.%n", category.getDescription(), prefix);
+            out.println(getIndent(1) + " *");
+            out.println(getIndent(1) + " * @param iri the IRI to check, may be {@code null}");
+            out.println(getIndent(1) + " */");
+            printSource(out, 1,
+                    "public static boolean " + category.getMethodName() + "(IRI iri) {",
+                    "\treturn inCategory(" + category.ordinal() + ", ordinalOf(iri));",
+                    "}");
+            out.println();
+        }
+        printSource(out, 1,
+                "private static boolean inCategory(int category, int ordinal) {",
+                "\treturn ordinal >= 0 && (CATEGORY_TABLE[category * TERM_WORDS + (ordinal >>> 6)] & 1L << ordinal) != 0;",
+                "}");
+        out.println();
+        helperSources.add(PackedArrays.UNPACK_LONGS_SOURCE);
+    }
+
+    /**
+     * Print the transitive closure of {@code rdfs:subClassOf} and {@code rdfs:subPropertyOf}
+     * as one bitset over the term ordinals per term.
+     */
+    private void printHierarchy(String className, List<String> keys, Map<String, IRI> splitUris, PrintWriter out) throws GenerationException {
+        out.println(getIndent(1) + "/** bitset without terms **/");
+        out.printf(getIndent(1) + "private static final %1$s NO_TERMS = new %1$s(new long[TERM_WORDS], 0);%n", TERM_SET_NAME);
+        out.println();
+        checkField(className, "NO_TERMS");
+        printClosureTable(className, "SUPER_CLASS", "rdfs:subClassOf", computeClosure(keys, splitUris, RDFS.SUBCLASSOF), out);
+        printClosureTable(className, "SUPER_PROPERTY", "rdfs:subPropertyOf", computeClosure(keys, splitUris, RDFS.SUBPROPERTYOF), out);
+
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * Check whether a class is a (transitive) {@code rdfs:subClassOf} another class, as declared");
+        out.printf(getIndent(1) + " * in {@code <%s>}. Every term of the vocabulary is a sub-class of itself.%n", prefix);
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param subClass   the sub-class, may be {@code null}");
+        out.println(getIndent(1) + " * @param superClass the super-class, may be {@code null}");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static boolean isSubClassOf(IRI subClass, IRI superClass) {",
+                "\treturn isSuper(SUPER_CLASS_ROWS, SUPER_CLASS_TABLE, ordinalOf(subClass), ordinalOf(superClass));",
+                "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * The (transitive) super-classes of a class, as declared in the vocabulary.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param subClass the class, may be {@code null}");
+        out.println(getIndent(1) + " * @return an immutable set of vocabulary terms, not including {@code subClass} itself unless it is part of a cycle");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static Set<IRI> superClassesOf(IRI subClass) {",
+                "\treturn supers(SUPER_CLASS_ROWS, SUPER_CLASS_SETS, ordinalOf(subClass));",
+                "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * Check whether a property is a (transitive) {@code rdfs:subPropertyOf} another property, as declared");
+        out.printf(getIndent(1) + " * in {@code <%s>}. Every term of the vocabulary is a sub-property of itself.%n", prefix);
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param subProperty   the sub-property, may be {@code null}");
+        out.println(getIndent(1) + " * @param superProperty the super-property, may be {@code null}");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static boolean isSubPropertyOf(IRI subProperty, IRI superProperty) {",
+                "\treturn isSuper(SUPER_PROPERTY_ROWS, SUPER_PROPERTY_TABLE, ordinalOf(subProperty), ordinalOf(superProperty));",
+                "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * The (transitive) super-properties of a property, as declared in the vocabulary.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param subProperty the property, may be {@code null}");
+        out.println(getIndent(1) + " * @return an immutable set of vocabulary terms, not including {@code subProperty} itself unless it is part of a cycle");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static Set<IRI> superPropertiesOf(IRI subProperty) {",
+                "\treturn supers(SUPER_PROPERTY_ROWS, SUPER_PROPERTY_SETS, ordinalOf(subProperty));",
+                "}");
+        out.println();
+        printSource(out, 1,
+                "private static boolean isSuper(int[] rows, long[] table, int sub, int sup) {",
+                "\tif (sub < 0 || sup < 0) {",
+                "\t\treturn false;",
+                "\t} else if (sub == sup) {",
+                "\t\treturn true;",
+                "\t}",
+                "\tfinal int row = rows[sub];",
+                "\treturn row >= 0 && (table[row * TERM_WORDS + (sup >>> 6)] & 1L << sup) != 0;",
+                "}");
+        out.println();
+        printSource(out, 1,
+                "private static Set<IRI> supers(int[] rows, " + TERM_SET_NAME + "[] sets, int sub) {",
+                "\treturn sub < 0 || rows[sub] < 0 ? NO_TERMS : sets[rows[sub]];",
+                "}");
+        out.println();
+        printSource(out, 1,
+                "private static " + TERM_SET_NAME + "[] termSets(long[] table) {",
+                "\tfinal " + TERM_SET_NAME + "[] sets = new " + TERM_SET_NAME + "[TERM_WORDS == 0 ? 0 : table.length / TERM_WORDS];",
+                "\tfor (int row = 0; row < sets.length; row++) {",
+                "\t\tsets[row] = new " + TERM_SET_NAME + "(table, row * TERM_WORDS);",
+                "\t}",
+                "\treturn sets;",
+                "}");
+        out.println();
+        helperSources.add(PackedArrays.UNPACK_LONGS_SOURCE);
+    }
+
+    private void printClosureTable(String className, String name, String property, long[][] closure, PrintWriter out) throws GenerationException {
+        final int[] rows = new int[closure.length];
+        final List<long[]> table = new ArrayList<>();
+        for (int ordinal = 0; ordinal < closure.length; ordinal++) {
+            if (closure[ordinal] == null) {
+                rows[ordinal] = -1;
+            } else {
+                rows[ordinal] = table.size();
+                table.add(closure[ordinal]);
+            }
+        }
+        checkField(className, name + "_ROWS");
+        checkField(className, name + "_TABLE");
+        checkField(className, name + "_SETS");
+        out.printf(getIndent(1) + "/** %s: the row in %s_TABLE for each term ordinal, or -1 **/%n", property, name);
+        out.printf(getIndent(1) + "private static final int[] %s_ROWS = %s;%n", name, PackedArrays.ints(rows));
+        out.println();
+        out.printf(getIndent(1) + "/** %s: bitsets of the transitive super-terms, TERM_WORDS per row **/%n", property);
+        out.printf(getIndent(1) + "private static final long[] %s_TABLE = %s;%n", name, PackedArrays.longs(concat(table)));
+        out.println();
+        out.printf(getIndent(1) + "private static final %s[] %s_SETS = termSets(%s_TABLE);%n", TERM_SET_NAME, name, name);
+        out.println();
+    }
+
+    /**
+     * For each term ordinal, the bitset of the terms reachable via {@code property}, or {@code null} if there are none.
+     * Intermediate resources that are not part of the vocabulary are followed, but not included.
+     */
+    private long[][] computeClosure(List<String> keys, Map<String, IRI> splitUris, IRI property) {
+        final Map<Resource, Integer> ordinals = getOrdinals(keys, splitUris);
+        final int words = getTermWords(keys);
+        final long[][] closure = new long[keys.size()][];
+        for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+            final Set<Resource> visited = new HashSet<>();
+            final Deque<Resource> queue = new ArrayDeque<>();
+            queue.add(splitUris.get(keys.get(ordinal)));
+            while (!queue.isEmpty()) {
+                for (Value sup : model.filter(queue.poll(), property, null).objects()) {
+                    if (sup instanceof Resource && visited.add((Resource) sup)) {
+                        queue.add((Resource) sup);
+                        final Integer supOrdinal = ordinals.get(sup);
+                        if (supOrdinal != null) {
+                            if (closure[ordinal] == null) {
+                                closure[ordinal] = new long[words];
+                            }
+                            closure[ordinal][supOrdinal >>> 6] |= 1L << supOrdinal;
+                        }
+                    }
+                }
+            }
+        }
+        return closure;
+    }
+
+    private static Map<Resource, Integer> getOrdinals(List<String> keys, Map<String, IRI> splitUris) {
+        final Map<Resource, Integer> ordinals = new HashMap<>();
+        for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+            ordinals.put(splitUris.get(keys.get(ordinal)), ordinal);
+        }
+        return ordinals;
+    }
+
+    private static int getTermWords(List<String> keys) {
+        return (keys.size() + 63) / 64;
+    }
+
+    private static long[] concat(List<long[]> arrays) {
+        int length = 0;
+        for (long[] array : arrays) {
+            length += array.length;
+        }
+        final long[] result = new long[length];
+        int pos = 0;
+        for (long[] array : arrays) {
+            System.arraycopy(array, 0, result, pos, array.length);
+            pos += array.length;
+        }
+        return result;
+    }
+
+    /**
+     * Print the domain, range, functional and inverse tables of the properties, see {@link PropertySignatures}.
+     */
+    private void printSignatures(String className, List<String> keys, Map<String, IRI> splitUris, PrintWriter out) throws GenerationException {
+        final List<IRI> terms = new ArrayList<>();
+        for (String key : keys) {
+            terms.add(splitUris.get(key));
+        }
+        final PropertySignatures signatures = new PropertySignatures(model, terms);
+        final List<IRI> externalTerms = signatures.getExternalTerms();
+        final List<String> externalNamespaces = new ArrayList<>();
+        final List<String> externalLocalNames = new ArrayList<>();
+        for (IRI term : externalTerms) {
+            externalNamespaces.add(term.getNamespace());
+            externalLocalNames.add(term.getLocalName());
+        }
+
+        for (String field : new String[]{"EXTERNAL_TERMS", "DOMAIN_OFFSETS", "DOMAIN_TABLE", "RANGE_OFFSETS", "RANGE_TABLE", "FUNCTIONAL_TABLE", "INVERSE_TABLE", "DOMAIN_LISTS", "RANGE_LISTS"}) {
+            checkField(className, field);
+        }
+        out.println(getIndent(1) + "/** IRIs referenced by the property tables that are not part of the vocabulary, ordinal - TERM_TABLE.length **/");
+        out.println(getIndent(1) + "private static final IRI[] EXTERNAL_TERMS = externalTerms();");
+        out.println();
+        out.println(getIndent(1) + "/** rdfs:domain: the first entry in DOMAIN_TABLE for each term ordinal, plus the end of the last one **/");
+        out.printf(getIndent(1) + "private static final int[] DOMAIN_OFFSETS = %s;%n", PackedArrays.ints(signatures.getDomainOffsets()));
+        out.println();
+        out.println(getIndent(1) + "/** rdfs:domain: the ordinals of the domains, EXTERNAL_TERMS continue after the vocabulary terms **/");
+        out.printf(getIndent(1) + "private static final int[] DOMAIN_TABLE = %s;%n", PackedArrays.ints(signatures.getDomains()));
+        out.println();
+        out.println(getIndent(1) + "/** rdfs:range: the first entry in RANGE_TABLE for each term ordinal, plus the end of the last one **/");
+        out.printf(getIndent(1) + "private static final int[] RANGE_OFFSETS = %s;%n", PackedArrays.ints(signatures.getRangeOffsets()));
+        out.println();
+        out.println(getIndent(1) + "/** rdfs:range: the ordinals of the ranges, EXTERNAL_TERMS continue after the vocabulary terms **/");
+        out.printf(getIndent(1) + "private static final int[] RANGE_TABLE = %s;%n", PackedArrays.ints(signatures.getRanges()));
+        out.println();
+        out.println(getIndent(1) + "/** owl:FunctionalProperty: bitset over the term ordinals **/");
+        out.printf(getIndent(1) + "private static final long[] FUNCTIONAL_TABLE = %s;%n", PackedArrays.longs(signatures.getFunctional()));
+        out.println();
+        out.println(getIndent(1) + "/** owl:inverseOf: the ordinal of the inverse for each term ordinal, or -1 **/");
+        out.printf(getIndent(1) + "private static final int[] INVERSE_TABLE = %s;%n", PackedArrays.ints(signatures.getInverses()));
+        out.println();
+        out.println(getIndent(1) + "/** rdfs:domain: the immutable list of domains for each term ordinal **/");
+        out.println(getIndent(1) + "private static final List<List<IRI>> DOMAIN_LISTS = signatures(DOMAIN_OFFSETS, DOMAIN_TABLE);");
+        out.println();
+        out.println(getIndent(1) + "/** rdfs:range: the immutable list of ranges for each term ordinal **/");
+        out.println(getIndent(1) + "private static final List<List<IRI>> RANGE_LISTS = signatures(RANGE_OFFSETS, RANGE_TABLE);");
+        out.println();
+
+        out.println(getIndent(1) + "private static IRI[] externalTerms() {");
+        out.printf(getIndent(2) + "final String[] namespaces = %s;%n", PackedArrays.strings(externalNamespaces));
+        out.printf(getIndent(2) + "final String[] localNames = %s;%n", PackedArrays.strings(externalLocalNames));
+        out.println(getIndent(2) + "final IRI[] terms = new IRI[namespaces.length];");
+        out.println(getIndent(2) + "for (int i = 0; i < terms.length; i++) {");
+        if (compactIRIs) {
+            out.printf(getIndent(3) + "terms[i] = new %s(namespaces[i], localNames[i], -1);%n", COMPACT_IRI_NAME);
+        } else {
+            out.println(getIndent(3) + "terms[i] = SimpleValueFactory.getInstance().createIRI(namespaces[i], localNames[i]);");
+        }
+        out.println(getIndent(2) + "}");
+        out.println(getIndent(2) + "return terms;");
+        out.println(getIndent(1) + "}");
+        out.println();
+
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * The declared {@code rdfs:domain}s of a property, {@code owl:unionOf}s are expanded.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param property the property, may be {@code null}");
+        out.println(getIndent(1) + " * @return an immutable list, empty if the property is unknown or has no domain");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static List<IRI> domainsOf(IRI property) {",
+                "\treturn signature(DOMAIN_LISTS, ordinalOf(property));",
+                "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * Check whether a class is one of the declared {@code rdfs:domain}s of a property.");
+        out.println(getIndent(1) + " * This is an exact check, combine with {@code isSubClassOf} to take the class hierarchy into account.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param property the property, may be {@code null}");
+        out.println(getIndent(1) + " * @param domain   the class, may be {@code null}");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static boolean hasDomain(IRI property, IRI domain) {",
+                "\treturn signatureContains(DOMAIN_OFFSETS, DOMAIN_TABLE, ordinalOf(property), domain);",
+                "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * The declared {@code rdfs:range}s of a property, {@code owl:unionOf}s are expanded.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param property the property, may be {@code null}");
+        out.println(getIndent(1) + " * @return an immutable list, empty if the property is unknown or has no range");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static List<IRI> rangesOf(IRI property) {",
+                "\treturn signature(RANGE_LISTS, ordinalOf(property));",
+                "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * Check whether a class or datatype is one of the declared {@code rdfs:range}s of a property.");
+        out.println(getIndent(1) + " * This is an exact check, combine with {@code isSubClassOf} to take the class hierarchy into account.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param property the property, may be {@code null}");
+        out.println(getIndent(1) + " * @param range    the class or datatype, may be {@code null}");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static boolean hasRange(IRI property, IRI range) {",
+                "\treturn signatureContains(RANGE_OFFSETS, RANGE_TABLE, ordinalOf(property), range);",
+                "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * Check whether a property is declared an {@code owl:FunctionalProperty}.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param property the property, may be {@code null}");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static boolean isFunctional(IRI property) {",
+                "\tfinal int ordinal = ordinalOf(property);",
+                "\treturn ordinal >= 0 && (FUNCTIONAL_TABLE[ordinal >>> 6] & 1L << ordinal) != 0;",
+                "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * The {@code owl:inverseOf} a property, declared in either direction.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param property the property, may be {@code null}");
+        out.println(getIndent(1) + " * @return the inverse property, or {@code null} if there is none");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static IRI inverseOf(IRI property) {",
+                "\tfinal int ordinal = ordinalOf(property);",
+                "\treturn ordinal < 0 || INVERSE_TABLE[ordinal] < 0 ? null : signatureTerm(INVERSE_TABLE[ordinal]);",
+                "}");
+        out.println();
+        printSource(out, 1,
+                "private static IRI signatureTerm(int ordinal) {",
+                "\treturn ordinal < TERM_TABLE.length ? TERM_TABLE[ordinal] : EXTERNAL_TERMS[ordinal - TERM_TABLE.length];",
+                "}");
+        out.println();
+        printSource(out, 1,
+                "private static List<IRI> signature(List<List<IRI>> lists, int ordinal) {",
+                "\treturn ordinal < 0 ? Collections.<IRI>emptyList() : lists.get(ordinal);",
+                "}");
+        out.println();
+        printSource(out, 1,
+                "private static List<List<IRI>> signatures(int[] offsets, int[] table) {",
+                "\tfinal List<List<IRI>> lists = new ArrayList<>(offsets.length - 1);",
+                "\tfor (int ordinal = 0; ordinal < offsets.length - 1; ordinal++) {",
+                "\t\tif (offsets[ordinal] == offsets[ordinal + 1]) {",
+                "\t\t\tlists.add(Collections.<IRI>emptyList());",
+                "\t\t\tcontinue;",
+                "\t\t}",
+                "\t\tfinal IRI[] terms = new IRI[offsets[ordinal + 1] - offsets[ordinal]];",
+                "\t\tfor (int i = 0; i < terms.length; i++) {",
+                "\t\t\tterms[i] = signatureTerm(table[offsets[ordinal] + i]);",
+                "\t\t}",
+                "\t\tlists.add(Collections.unmodifiableList(Arrays.asList(terms)));",
+                "\t}",
+                "\treturn lists;",
+                "}");
+        out.println();
+        printSource(out, 1,
+                "private static boolean signatureContains(int[] offsets, int[] table, int ordinal, IRI iri) {",
+                "\tif (ordinal < 0 || iri == null) {",
+                "\t\treturn false;",
+                "\t}",
+                "\tfinal int target = ordinalOf(iri);",
+                "\tfor (int i = offsets[ordinal]; i < offsets[ordinal + 1]; i++) {",
+                "\t\tfinal int entry = table[i];",
+                "\t\tif (entry < TERM_TABLE.length ? entry == target : target < 0 && EXTERNAL_TERMS[entry - TERM_TABLE.length].equals(iri)) {",
+                "\t\t\treturn true;",
+                "\t\t}",
+                "\t}",
+                "\treturn false;",
+                "}");
+        out.println();
+        helperSources.add(PackedArrays.UNPACK_LONGS_SOURCE);
+    }
+
+    /**
+     * Print the mapping of equivalent IRIs to their canonical term: vocabulary terms are mapped by ordinal,
+     * other IRIs via a minimal perfect hash over the full IRI.
+     */
+    private void printCanonical(String className, List<String> keys, Map<String, IRI> splitUris, PrintWriter out) throws GenerationException {
+        final Map<String, Integer> ordinals = new HashMap<>();
+        final Map<String, Integer> candidates = new HashMap<>();
+        for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+            final IRI term = splitUris.get(keys.get(ordinal));
+            ordinals.put(term.stringValue(), ordinal);
+            // deprecated terms only become canonical if there is no alternative
+            candidates.put(term.stringValue(), Equivalences.isDeprecated(model, term) ? keys.size() + ordinal : ordinal);
+        }
+        final Equivalences equivalences = new Equivalences();
+        equivalences.addAll(model);
+
+        final int[] canonicalTable = new int[keys.size()];
+        for (int ordinal = 0; ordinal < canonicalTable.length; ordinal++) {
+            canonicalTable[ordinal] = ordinal;
+        }
+        final List<String> equivalentIris = new ArrayList<>();
+        final List<Integer> equivalentCanonical = new ArrayList<>();
+        for (Map.Entry<String, String> entry : equivalences.getCanonicalMap(candidates).entrySet()) {
+            final Integer ordinal = ordinals.get(entry.getKey());
+            if (ordinal != null) {
+                canonicalTable[ordinal] = ordinals.get(entry.getValue());
+            } else {
+                equivalentIris.add(entry.getKey());
+                equivalentCanonical.add(ordinals.get(entry.getValue()));
+            }
+        }
+        final int[] canonicalOrdinals = new int[equivalentCanonical.size()];
+        for (int i = 0; i < canonicalOrdinals.length; i++) {
+            canonicalOrdinals[i] = equivalentCanonical.get(i);
+        }
+        final PerfectHash hash = PerfectHash.build(equivalentIris);
+
+        for (String field : new String[]{"CANONICAL_TABLE", "EQUIVALENT_IRIS", "EQUIVALENT_DISPLACEMENTS", "EQUIVALENT_SLOTS", "EQUIVALENT_CANONICAL"}) {
+            checkField(className, field);
+        }
+        out.println(getIndent(1) + "/** the ordinal of the canonical term for each term ordinal **/");
+        out.printf(getIndent(1) + "private static final int[] CANONICAL_TABLE = %s;%n", PackedArrays.ints(canonicalTable));
+        out.println();
+        out.println(getIndent(1) + "/** IRIs outside the vocabulary that are equivalent to a term **/");
+        out.printf(getIndent(1) + "private static final String[] EQUIVALENT_IRIS = %s;%n", PackedArrays.strings(equivalentIris));
+        out.println();
+        out.println(getIndent(1) + "/** perfect hash over EQUIVALENT_IRIS: per-bucket seed, or -(slot + 1) **/");
+        out.printf(getIndent(1) + "private static final int[] EQUIVALENT_DISPLACEMENTS = %s;%n", PackedArrays.ints(hash.getDisplacements()));
+        out.println();
+        out.println(getIndent(1) + "/** perfect hash over EQUIVALENT_IRIS: the index stored in each slot **/");
+        out.printf(getIndent(1) + "private static final int[] EQUIVALENT_SLOTS = %s;%n", PackedArrays.ints(hash.getSlots()));
+        out.println();
+        out.println(getIndent(1) + "/** the ordinal of the canonical term for each of EQUIVALENT_IRIS **/");
+        out.printf(getIndent(1) + "private static final int[] EQUIVALENT_CANONICAL = %s;%n", PackedArrays.ints(canonicalOrdinals));
+        out.println();
+
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * Map an IRI to the preferred term of its {@code owl:equivalentClass}, {@code owl:equivalentProperty}");
+        out.printf(getIndent(1) + " * or {@code owl:sameAs} equivalence class, as declared in {@code <%s>}.%n", prefix);
+        out.println(getIndent(1) + " * Non-deprecated terms of this vocabulary are preferred.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param iri the IRI, may be {@code null}");
+        out.println(getIndent(1) + " * @return the canonical term, or {@code iri} itself if it is not equivalent to any term");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static IRI canonical(IRI iri) {",
+                "\tfinal int ordinal = ordinalOf(iri);",
+                "\tif (ordinal >= 0) {",
+                "\t\treturn TERM_TABLE[CANONICAL_TABLE[ordinal]];",
+                "\t} else if (iri == null || EQUIVALENT_SLOTS.length == 0) {",
+                "\t\treturn iri;",
+                "\t}",
+                "\tfinal String s = iri.stringValue();",
+                "\tfinal int d = EQUIVALENT_DISPLACEMENTS[hash(s, 0, s.length(), 0) % EQUIVALENT_DISPLACEMENTS.length];",
+                "\tfinal int index = EQUIVALENT_SLOTS[d < 0 ? -d - 1 : hash(s, 0, s.length(), d) % EQUIVALENT_SLOTS.length];",
+                "\treturn EQUIVALENT_IRIS[index].equals(s) ? TERM_TABLE[EQUIVALENT_CANONICAL[index]] : iri;",
+                "}");
+        out.println();
+    }
+
+    /**
+     * Normalize whitespace and case-fold a label prefix, the generated {@code foldLabel} must do the same. Leading
+     * whitespace is dropped and runs of whitespace become a single space, also at the end: {@code "new "} is the
+     * prefix of a label with more than one word, unlike {@code "new"}. Indexed labels are trimmed as well.
+     */
+    static String foldLabel(String label) {
+        return label.replaceFirst("^\\s+", "").replaceAll("\\s+", " ").toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Print a sorted, case-folded index of all labels per language, searched by binary search.
+     */
+    private void printLabelIndex(String className, List<String> keys, Map<String, IRI> splitUris, PrintWriter out) throws GenerationException {
+        // language -> folded label -> ordinals
+        final Map<String, SortedMap<String, SortedSet<Integer>>> index = new TreeMap<>();
+        for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+            for (IRI p : LABEL_PROPERTIES) {
+                for (Value v : model.filter(splitUris.get(keys.get(ordinal)), p, null).objects()) {
+                    if (v instanceof Literal) {
+                        final Literal lit = (Literal) v;
+                        final String language = lit.getLanguage().orElse("").toLowerCase(Locale.ROOT);
+                        if (!index.containsKey(language)) {
+                            index.put(language, new TreeMap<String, SortedSet<Integer>>());
+                        }
+                        final String label = foldLabel(lit.getLabel()).trim();
+                        if (!index.get(language).containsKey(label)) {
+                            index.get(language).put(label, new TreeSet<Integer>());
+                        }
+                        index.get(language).get(label).add(ordinal);
+                    }
+                }
+            }
+        }
+
+        final List<String> languages = new ArrayList<>(index.keySet());
+        final int[] offsets = new int[languages.size() + 1];
+        final List<String> labels = new ArrayList<>();
+        final List<Integer> ordinals = new ArrayList<>();
+        for (int l = 0; l < languages.size(); l++) {
+            for (Map.Entry<String, SortedSet<Integer>> label : index.get(languages.get(l)).entrySet()) {
+                for (Integer ordinal : label.getValue()) {
+                    labels.add(label.getKey());
+                    ordinals.add(ordinal);
+                }
+            }
+            offsets[l + 1] = labels.size();
+        }
+        final int[] labelOrdinals = new int[ordinals.size()];
+        for (int i = 0; i < labelOrdinals.length; i++) {
+            labelOrdinals[i] = ordinals.get(i);
+        }
+
+        for (String field : new String[]{"LABEL_LANGUAGES", "LABEL_OFFSETS", "LABEL_KEYS", "LABEL_ORDINALS"}) {
+            checkField(className, field);
+        }
+        out.println(getIndent(1) + "/** label index: the languages (lower-case BCP 47, empty for plain literals), sorted **/");
+        out.printf(getIndent(1) + "private static final String[] LABEL_LANGUAGES = %s;%n", PackedArrays.strings(languages));
+        out.println();
+        out.println(getIndent(1) + "/** label index: the first entry for each language, plus the end of the last one **/");
+        out.printf(getIndent(1) + "private static final int[] LABEL_OFFSETS = %s;%n", PackedArrays.ints(offsets));
+        out.println();
+        out.println(getIndent(1) + "/** label index: the case-folded labels, sorted per language **/");
+        out.printf(getIndent(1) + "private static final String[] LABEL_KEYS = %s;%n", PackedArrays.strings(labels));
+        out.println();
+        out.println(getIndent(1) + "/** label index: the ordinal of the term of each label **/");
+        out.printf(getIndent(1) + "private static final int[] LABEL_ORDINALS = %s;%n", PackedArrays.ints(labelOrdinals));
+        out.println();
+
+        out.println(getIndent(1) + "/**");
+        out.printf(getIndent(1) + " * Find the terms of {@code <%s>} with a label starting with the given prefix, ignoring case and repeated whitespace.%n", prefix);
+        out.println(getIndent(1) + " * Labels in the language of the locale, its base language and without language are searched, in this order.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param prefix the label prefix, may be {@code null}");
+        out.println(getIndent(1) + " * @param locale the locale, {@code null} to search labels without language only");
+        out.println(getIndent(1) + " * @return the matching terms, ordered by language and label");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static List<IRI> searchByLabelPrefix(String prefix, Locale locale) {",
+                "\treturn searchByLabelPrefix(prefix, locale, Integer.MAX_VALUE);",
+                "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.printf(getIndent(1) + " * Find the terms of {@code <%s>} with a label starting with the given prefix, ignoring case and repeated whitespace.%n", prefix);
+        out.println(getIndent(1) + " * Labels in the language of the locale, its base language and without language are searched, in this order.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param prefix the label prefix, may be {@code null}");
+        out.println(getIndent(1) + " * @param locale the locale, {@code null} to search labels without language only");
+        out.println(getIndent(1) + " * @param limit  the maximum number of terms to return");
+        out.println(getIndent(1) + " * @return the matching terms, ordered by language and label");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static List<IRI> searchByLabelPrefix(String prefix, Locale locale, int limit) {",
+                "\tif (prefix == null || limit <= 0) {",
+                "\t\treturn Collections.emptyList();",
+                "\t}",
+                "\tfinal String key = foldLabel(prefix);",
+                "\tfinal Set<IRI> result = new LinkedHashSet<>();",
+                "\tif (locale != null) {",
+                "\t\tfinal String tag = locale.toLanguageTag().toLowerCase(Locale.ROOT);",
+                "\t\tfinal String language = locale.getLanguage().toLowerCase(Locale.ROOT);",
+                "\t\tsearchLabels(Arrays.binarySearch(LABEL_LANGUAGES, tag), key, result, limit);",
+                "\t\tif (!language.equals(tag)) {",
+                "\t\t\tsearchLabels(Arrays.binarySearch(LABEL_LANGUAGES, language), key, result, limit);",
+                "\t\t}",
+                "\t}",
+                "\tsearchLabels(Arrays.binarySearch(LABEL_LANGUAGES, \"\"), key, result, limit);",
+                "\treturn Collections.unmodifiableList(new ArrayList<>(result));",
+                "}");
+        out.println();
+        printSource(out, 1,
+                "private static void searchLabels(int language, String key, Set<IRI> result, int limit) {",
+                "\tif (language < 0) {",
+                "\t\treturn;",
+                "\t}",
+                "\tint lo = LABEL_OFFSETS[language];",
+                "\tint hi = LABEL_OFFSETS[language + 1];",
+                "\twhile (lo < hi) {",
+                "\t\tfinal int mid = (lo + hi) >>> 1;",
+                "\t\tif (LABEL_KEYS[mid].compareTo(key) < 0) {",
+                "\t\t\tlo = mid + 1;",
+                "\t\t} else {",
+                "\t\t\thi = mid;",
+                "\t\t}",
+                "\t}",
+                "\tfor (int i = lo; i < LABEL_OFFSETS[language + 1] && result.size() < limit && LABEL_KEYS[i].startsWith(key); i++) {",
+                "\t\tresult.add(TERM_TABLE[LABEL_ORDINALS[i]]);",
+                "\t}",
+                "}");
+        out.println();
+        printSource(out, 1,
+                "private static String foldLabel(String label) {",
+                "\treturn label.replaceFirst(\"^\\\\s+\", \"\").replaceAll(\"\\\\s+\", \" \").toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);",
+                "}");
+        out.println();
+    }
+
+    /**
+     * Print the immutable {@link Set} view on a term bitset.
+     */
+    private void printTermSet(PrintWriter out) {
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * Immutable set of terms, backed by a bitset over the term ordinals.");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "private static final class " + TERM_SET_NAME + " extends AbstractSet<IRI> {",
+                "",
+                "\tprivate final long[] bits;",
+                "\tprivate final int offset;",
+                "\tprivate final int size;",
+                "",
+                "\tprivate " + TERM_SET_NAME + "(long[] bits, int offset) {",
+                "\t\tthis.bits = bits;",
+                "\t\tthis.offset = offset;",
+                "\t\tint size = 0;",
+                "\t\tfor (int w = 0; w < TERM_WORDS; w++) {",
+                "\t\t\tsize += Long.bitCount(bits[offset + w]);",
+                "\t\t}",
+                "\t\tthis.size = size;",
+                "\t}",
+                "",
+                "\t@Override",
+                "\tpublic int size() {",
+                "\t\treturn size;",
+                "\t}",
+                "",
+                "\t@Override",
+                "\tpublic boolean contains(Object o) {",
+                "\t\tif (!(o instanceof IRI)) {",
+                "\t\t\treturn false;",
+                "\t\t}",
+                "\t\tfinal int ordinal = ordinalOf((IRI) o);",
+                "\t\treturn ordinal >= 0 && (bits[offset + (ordinal >>> 6)] & 1L << ordinal) != 0;",
+                "\t}",
+                "",
+                "\t@Override",
+                "\tpublic Iterator<IRI> iterator() {",
+                "\t\treturn new Iterator<IRI>() {",
+                "\t\t\tprivate int next = nextOrdinal(0);",
+                "",
+                "\t\t\t@Override",
+                "\t\t\tpublic boolean hasNext() {",
+                "\t\t\t\treturn next >= 0;",
+                "\t\t\t}",
+                "",
+                "\t\t\t@Override",
+                "\t\t\tpublic IRI next() {",
+                "\t\t\t\tif (next < 0) {",
+                "\t\t\t\t\tthrow new NoSuchElementException();",
+                "\t\t\t\t}",
+                "\t\t\t\tfinal IRI term = TERM_TABLE[next];",
+                "\t\t\t\tnext = nextOrdinal(next + 1);",
+                "\t\t\t\treturn term;",
+                "\t\t\t}",
+                "\t\t};",
+                "\t}",
+                "",
+                "\tprivate int nextOrdinal(int from) {",
+                "\t\tfor (int w = from >>> 6; w < TERM_WORDS; w++) {",
+                "\t\t\tlong word = bits[offset + w];",
+                "\t\t\tif (w == from >>> 6) {",
+                "\t\t\t\tword &= -1L << from;",
+                "\t\t\t}",
+                "\t\t\tif (word != 0) {",
+                "\t\t\t\treturn w * 64 + Long.numberOfTrailingZeros(word);",
+                "\t\t\t}",
+                "\t\t}",
+                "\t\treturn -1;",
+                "\t}",
+                "}");
+        out.println();
+    }
+
+    private void printLookup(PrintWriter out) {
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * Find a term by its local name.");
+        out.println(getIndent(1) + " *");
+        out.printf(getIndent(1) + " * @param localName the name relative to {@code <%s>}, may be {@code null}%n", prefix);
+        out.println(getIndent(1) + " * @return the matching constant, or {@code null} if there is no such term");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static IRI byLocalName(CharSequence localName) {",
+                "\tif (localName == null) {",
+                "\t\treturn null;",
+                "\t}",
+                "\tfinal int ordinal = ordinalOf(localName, 0, localName.length());",
+                "\treturn ordinal < 0 ? null : TERM_TABLE[ordinal];",
+                "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * Find a term by its full IRI.");
+        out.println(getIndent(1) + " *");
+        out.println(getIndent(1) + " * @param iri the IRI as string, may be {@code null}");
+        out.println(getIndent(1) + " * @return the matching constant, or {@code null} if there is no such term");
+        out.println(getIndent(1) + " */");
+        printSource(out, 1,
+                "public static IRI byIRI(String iri) {",
+                "\tfinal int ordinal = ordinalOf(iri);",
+                "\treturn ordinal < 0 ? null : TERM_TABLE[ordinal];",
+                "}");
+        out.println();
+    }
+
+    /**
+     * Print source lines, replacing leading tabs with the configured indentation.
+     */
+    private void printSource(PrintWriter out, int level, String... lines) {
+        printSource(out, getIndent(), level, lines);
+    }
 
-        try (final InputStream inputStream = Files.newInputStream(file)) {
-            log.trace("Loading input file");
-            model = Rio.parse(inputStream, "", format);
+    static void printSource(PrintWriter out, String indent, int level, String... lines) {
+        for (String line : lines) {
+            int depth = 0;
+            while (depth < line.length() && line.charAt(depth) == '\t') {
+                depth++;
+            }
+            out.println(StringUtils.repeat(indent, level + depth) + line.substring(depth));
         }
+    }
 
-        //import
-        Set<Resource> owlOntologies = model.filter(null, RDF.TYPE, OWL.ONTOLOGY).subjects();
-        if (!owlOntologies.isEmpty()) {
-            setPrefix(owlOntologies.iterator().next().stringValue());
+    private void printCompactIRI(PrintWriter out) {
+        out.println(getIndent(1) + "/**");
+        out.println(getIndent(1) + " * {@link IRI} implementation backing the constants: the namespace string is shared");
+        out.println(getIndent(1) + " * between all terms and the hash code is computed once. The string value is built on every");
+        out.println(getIndent(1) + " * call, keeping it would hold the full IRI in every used constant again.");
+        out.println(getIndent(1) + " */");
+        out.printf(getIndent(1) + "private static final class %s implements IRI {%n", COMPACT_IRI_NAME);
+        out.println();
+        out.println(getIndent(2) + "private static final long serialVersionUID = 1L;");
+        out.println();
+        out.println(getIndent(2) + "private final String namespace;");
+        out.println(getIndent(2) + "private final String localName;");
+        out.println(getIndent(2) + "private final int hashCode;");
+        if (needsTermIndex()) {
+            out.println(getIndent(2) + "private final int ordinal;");
+            out.println();
+            out.printf(getIndent(2) + "private %s(String namespace, String localName, int ordinal) {%n", COMPACT_IRI_NAME);
+            out.println(getIndent(3) + "this.ordinal = ordinal;");
+        } else {
+            out.println();
+            out.printf(getIndent(2) + "private %s(String namespace, String localName) {%n", COMPACT_IRI_NAME);
         }
+        out.println(getIndent(3) + "this.namespace = namespace;");
+        out.println(getIndent(3) + "this.localName = localName;");
+        out.println(getIndent(3) + "// same as stringValue().hashCode(), without building the string");
+        out.println(getIndent(3) + "int h = namespace.hashCode();");
+        out.println(getIndent(3) + "for (int i = 0; i < localName.length(); i++) {");
+        out.println(getIndent(4) + "h = 31 * h + localName.charAt(i);");
+        out.println(getIndent(3) + "}");
+        out.println(getIndent(3) + "this.hashCode = h;");
+        out.println(getIndent(2) + "}");
+        out.println();
+        out.println(getIndent(2) + "@Override");
+        out.println(getIndent(2) + "public String getNamespace() {");
+        out.println(getIndent(3) + "return namespace;");
+        out.println(getIndent(2) + "}");
+        out.println();
+        out.println(getIndent(2) + "@Override");
+        out.println(getIndent(2) + "public String getLocalName() {");
+        out.println(getIndent(3) + "return localName;");
+        out.println(getIndent(2) + "}");
+        out.println();
+        out.println(getIndent(2) + "@Override");
+        out.println(getIndent(2) + "public String stringValue() {");
+        out.println(getIndent(3) + "return namespace.concat(localName);");
+        out.println(getIndent(2) + "}");
+        out.println();
+        out.println(getIndent(2) + "@Override");
+        out.println(getIndent(2) + "public String toString() {");
+        out.println(getIndent(3) + "return stringValue();");
+        out.println(getIndent(2) + "}");
+        out.println();
+        out.println(getIndent(2) + "@Override");
+        out.println(getIndent(2) + "public int hashCode() {");
+        out.println(getIndent(3) + "return hashCode;");
+        out.println(getIndent(2) + "}");
+        out.println();
+        out.println(getIndent(2) + "@Override");
+        out.println(getIndent(2) + "public boolean equals(Object o) {");
+        out.println(getIndent(3) + "if (this == o) {");
+        out.println(getIndent(4) + "return true;");
+        out.printf(getIndent(3) + "} else if (o instanceof %s) {%n", COMPACT_IRI_NAME);
+        out.printf(getIndent(4) + "final %1$s other = (%1$s) o;%n", COMPACT_IRI_NAME);
+        out.println(getIndent(4) + "return hashCode == other.hashCode && localName.equals(other.localName) && namespace.equals(other.namespace);");
+        out.println(getIndent(3) + "} else if (o instanceof IRI) {");
+        out.println(getIndent(4) + "if (o.hashCode() != hashCode) {");
+        out.println(getIndent(5) + "return false;");
+        out.println(getIndent(4) + "}");
+        out.println(getIndent(4) + "final String other = ((IRI) o).stringValue();");
+        out.println(getIndent(4) + "return other.length() == namespace.length() + localName.length()");
+        out.println(getIndent(6) + "&& other.startsWith(namespace)");
+        out.println(getIndent(6) + "&& other.regionMatches(namespace.length(), localName, 0, localName.length());");
+        out.println(getIndent(3) + "}");
+        out.println(getIndent(3) + "return false;");
+        out.println(getIndent(2) + "}");
+        out.println(getIndent(1) + "}");
+        out.println();
     }
 
-    public void generate(OutputStream outputStream) throws GenerationException, IOException {
-        String cName = getName();
-        if (StringUtils.isBlank(cName)) {
-            throw new GenerationException("could not detect name, please set explicitly");
+    private void printTermEnum(String className, List<String> keys, Map<String, IRI> splitUris, PrintWriter out) {
+        out.println(getIndent(1) + "/**");
+        out.printf(getIndent(1) + " * All terms of {@code <%s>}, to be used with {@code switch}, {@link java.util.EnumSet} and {@link java.util.EnumMap}.%n", prefix);
+        out.println(getIndent(1) + " */");
+        out.printf(getIndent(1) + "public enum %s {%n", TERM_ENUM_NAME);
+        for (Iterator<String> it = keys.iterator(); it.hasNext(); ) {
+            final String key = it.next();
+            final String nextKey = cleanKey(doCaseFormatting(key, getConstantCase()));
+            out.printf(getIndent(2) + "/** {@code %s} **/%n", splitUris.get(key).stringValue());
+            out.printf(getIndent(2) + "%s(%s.%s, \"%s\")%s%n", cleanEnumKey(nextKey), className, nextKey, key, it.hasNext() ? "," : ";");
         }
-        //noinspection ConstantConditions
-        cName = WordUtils.capitalize(cName.replaceAll("\\W+", " ")).replaceAll("\\s+", "");
-
-        generate(cName, new PrintWriter(outputStream));
+        if (keys.isEmpty()) {
+            out.println(getIndent(2) + ";");
+        }
+        out.println();
+        if (needsTermIndex()) {
+            // ordinals of the enum are the term ordinals
+            out.println(getIndent(2) + "private static final " + TERM_ENUM_NAME + "[] VALUES = values();");
+        } else {
+            out.println(getIndent(2) + "private static final Map<IRI, " + TERM_ENUM_NAME + "> BY_IRI = new HashMap<>();");
+            out.println();
+            out.println(getIndent(2) + "static {");
+            out.printf(getIndent(3) + "for (%s term : values()) {%n", TERM_ENUM_NAME);
+            out.println(getIndent(4) + "BY_IRI.put(term.iri, term);");
+            out.println(getIndent(3) + "}");
+            out.println(getIndent(2) + "}");
+        }
+        out.println();
+        out.println(getIndent(2) + "private final IRI iri;");
+        out.println(getIndent(2) + "private final String localName;");
+        out.println();
+        out.printf(getIndent(2) + "%s(IRI iri, String localName) {%n", TERM_ENUM_NAME);
+        out.println(getIndent(3) + "this.iri = iri;");
+        out.println(getIndent(3) + "this.localName = localName;");
+        out.println(getIndent(2) + "}");
+        out.println();
+        out.println(getIndent(2) + "/** the IRI of this term **/");
+        out.println(getIndent(2) + "public IRI getIRI() {");
+        out.println(getIndent(3) + "return iri;");
+        out.println(getIndent(2) + "}");
+        out.println();
+        out.printf(getIndent(2) + "/** the name of this term, relative to {@code <%s>} **/%n", prefix);
+        out.println(getIndent(2) + "public String getLocalName() {");
+        out.println(getIndent(3) + "return localName;");
+        out.println(getIndent(2) + "}");
+        out.println();
+        out.println(getIndent(2) + "/**");
+        out.println(getIndent(2) + " * Resolve the term for the given IRI.");
+        out.println(getIndent(2) + " *");
+        out.println(getIndent(2) + " * @param iri the IRI to resolve, may be {@code null}");
+        out.printf(getIndent(2) + " * @return the matching term, or {@code null} if the IRI is not defined in {@code <%s>}%n", prefix);
+        out.println(getIndent(2) + " */");
+        out.printf(getIndent(2) + "public static %s fromIRI(IRI iri) {%n", TERM_ENUM_NAME);
+        if (needsTermIndex()) {
+            out.println(getIndent(3) + "final int ordinal = ordinalOf(iri);");
+            out.println(getIndent(3) + "return ordinal < 0 ? null : VALUES[ordinal];");
+        } else {
+            out.println(getIndent(3) + "return iri == null ? null : BY_IRI.get(iri);");
+        }
+        out.println(getIndent(2) + "}");
+        out.println(getIndent(1) + "}");
+        out.println();
     }
 
-    public void generate(Path output) throws IOException, GenerationException {
-        final String className = output.getFileName().toString().replaceFirst("\\.java$", "");
-        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
-            generate(className, out);
+    private String cleanEnumKey(String s) {
+        if (enumMembers.contains(s)) {
+            s = "_" + s;
         }
+        return s;
     }
 
     /**
-     *
+     * The terms of the vocabulary, keyed by their name relative to the prefix.
      */
-    public void generate(String className, PrintWriter out) throws IOException, GenerationException {
-        log.trace("classname: {}", className);
-        if (StringUtils.isBlank(name)) {
-            name = className;
-        }
-        if (StringUtils.isBlank(prefix)) {
-            throw new GenerationException("could not detect prefix, please set explicitly");
-        } else {
-            log.debug("prefix: {}", prefix);
-        }
-
+    Map<String, IRI> getSplitUris() {
         Pattern pattern = Pattern.compile(Pattern.quote(getPrefix()) + "(.+)");
         ConcurrentMap<String, IRI> splitUris = new ConcurrentHashMap<>();
         for (Resource nextSubject : model.subjects()) {
@@ -143,137 +1703,32 @@ public class VocabBuilder {
                 }
             }
         }
+        return splitUris;
+    }
 
-        //print
-
-        //package is optional
-        if (StringUtils.isNotBlank(packageName)) {
-            out.printf("package %s;%n%n", getPackageName());
-        }
-        //imports
-        out.println("import org.eclipse.rdf4j.model.IRI;");
-        out.println("import org.eclipse.rdf4j.model.ValueFactory;");
-        out.println("import org.eclipse.rdf4j.model.impl.SimpleValueFactory;");
-        out.println();
-
-        final IRI pfx = SimpleValueFactory.getInstance().createIRI(prefix);
-        Literal oTitle = getFirstExistingObjectLiteral(model, pfx, getPreferredLanguage(), LABEL_PROPERTIES);
-        Literal oDescr = getFirstExistingObjectLiteral(model, pfx, getPreferredLanguage(), COMMENT_PROPERTIES);
-        Set<Value> oSeeAlso = model.filter(pfx, RDFS.SEEALSO, null).objects();
-
-        //class JavaDoc
-        out.println("/**");
-        if (oTitle != null) {
-            out.printf(" * %s.%n", WordUtils.wrap(oTitle.getLabel().replaceAll("\\s+", " "), 70, "\n * ", false));
-            out.println(" * <p>");
-        }
-        if (oDescr != null) {
-            out.printf(" * %s.%n", WordUtils.wrap(oDescr.getLabel().replaceAll("\\s+", " "), 70, "\n * ", false));
-            out.println(" * <p>");
-        }
-        out.printf(" * Namespace %s.%n", name);
-        out.printf(" * Prefix: {@code <%s>}%n", prefix);
-        if (!oSeeAlso.isEmpty()) {
-            out.println(" *");
-            for (Value s : oSeeAlso) {
-                if (s instanceof IRI) {
-                    out.printf(" * @see <a href=\"%s\">%s</a>%n", s.stringValue(), s.stringValue());
-                }
-            }
-        }
-        out.println(" */");
-        //class Definition
-        out.printf("public class %s {%n", className);
-        out.println();
-
-        //constants
-        out.printf(getIndent(1) + "/** {@code %s} **/%n", prefix);
-        out.printf(getIndent(1) + "public static final String NAMESPACE = \"%s\";%n", prefix);
-        out.println();
-        out.printf(getIndent(1) + "/** {@code %s} **/%n", name.toLowerCase());
-        out.printf(getIndent(1) + "public static final String PREFIX = \"%s\";%n", name.toLowerCase());
-        out.println();
-
+    /**
+     * The keys of the given terms in the order they are generated, i.e. by term ordinal.
+     */
+    static List<String> getSortedKeys(Map<String, IRI> splitUris) {
         List<String> keys = new ArrayList<>();
         keys.addAll(splitUris.keySet());
-        Collections.sort(keys, String.CASE_INSENSITIVE_ORDER);
-
-        //string constant values
-        if (stringCaseFormat != null || StringUtils.isNotBlank(stringPropertyPrefix) || (StringUtils.isNotBlank(stringPropertySuffix))) {
-            // add the possibility to add a string property with the namespace for usage in
-            for (String key : keys) {
-                final Literal comment = getFirstExistingObjectLiteral(model, splitUris.get(key), getPreferredLanguage(), COMMENT_PROPERTIES);
-                final Literal label = getFirstExistingObjectLiteral(model, splitUris.get(key), getPreferredLanguage(), LABEL_PROPERTIES);
-
-                out.println(getIndent(1) + "/**");
-                if (label != null) {
-                    out.printf(getIndent(1) + " * %s%n", label.getLabel());
-                    out.println(getIndent(1) + " * <p>");
-                }
-                out.printf(getIndent(1) + " * {@code %s}.%n", splitUris.get(key).stringValue());
-                if (comment != null) {
-                    out.println(getIndent(1) + " * <p>");
-                    out.printf(getIndent(1) + " * %s%n", WordUtils.wrap(comment.getLabel().replaceAll("\\s+", " "), 70, "\n" + getIndent(1) + " * ", false));
-                }
-                out.println(getIndent(1) + " *");
-                out.printf(getIndent(1) + " * @see <a href=\"%s\">%s</a>%n", splitUris.get(key), key);
-                out.println(getIndent(1) + " */");
-
-                final String nextKey = cleanKey(String.format("%s%s%s", StringUtils.defaultString(getStringPropertyPrefix()),
-                        doCaseFormatting(key, getStringConstantCase()),
-                        StringUtils.defaultString(getStringPropertySuffix())));
-                checkField(className, nextKey);
-                out.printf(getIndent(1) + "public static final String %s = %s.NAMESPACE + \"%s\";%n",
-                         nextKey, className, key);
-                out.println();
-            }
-        }
-
-        //and now the resources
-        for (String key : keys) {
-            Literal comment = getFirstExistingObjectLiteral(model, splitUris.get(key), getPreferredLanguage(), COMMENT_PROPERTIES);
-            Literal label = getFirstExistingObjectLiteral(model, splitUris.get(key), getPreferredLanguage(), LABEL_PROPERTIES);
-
-            out.println(getIndent(1) + "/**");
-            if (label != null) {
-                out.printf(getIndent(1) + " * %s%n", label.getLabel());
-                out.println(getIndent(1) + " * <p>");
-            }
-            out.printf(getIndent(1) + " * {@code %s}.%n", splitUris.get(key).stringValue());
-            if (comment != null) {
-                out.println(getIndent(1) + " * <p>");
-                out.printf(getIndent(1) + " * %s%n", WordUtils.wrap(comment.getLabel().replaceAll("\\s+", " "), 70, "\n" + getIndent(1) + " * ", false));
-            }
-            out.println(getIndent(1) + " *");
-            out.printf(getIndent(1) + " * @see <a href=\"%s\">%s</a>%n", splitUris.get(key), key);
-            out.println(getIndent(1) + " */");
-
-            String nextKey = cleanKey(doCaseFormatting(key, getConstantCase()));
-            checkField(className, nextKey);
-            out.printf(getIndent(1) + "public static final IRI %s;%n", nextKey);
-            out.println();
-        }
-
-        //static init
-        out.println(getIndent(1) + "static {");
-        out.printf(getIndent(2) + "ValueFactory factory = SimpleValueFactory.getInstance();%n");
-        out.println();
-        for (String key : keys) {
-            String nextKey = cleanKey(doCaseFormatting(key, getConstantCase()));
-            out.printf(getIndent(2) + "%s = factory.createIRI(%s.NAMESPACE, \"%s\");%n", nextKey, className, key);
-        }
-        out.println(getIndent(1) + "}");
-        out.println();
+        Collections.sort(keys, KEY_ORDER);
+        return keys;
+    }
 
-        //private contructor to avoid instances
-        out.printf(getIndent(1) + "private %s() {%n", className);
-        out.println(getIndent(2) + "//static access only");
-        out.println(getIndent(1) + "}");
-        out.println();
+    /**
+     * The name of the IRI constant generated for the given key.
+     */
+    String getConstantName(String key) {
+        return cleanKey(doCaseFormatting(key, getConstantCase()));
+    }
 
-        //class end
-        out.println("}");
-        out.flush();
+    /**
+     * The label of a term in the preferred language, or {@code null}.
+     */
+    String getLabel(IRI term) {
+        final Literal label = getFirstExistingObjectLiteral(model, term, getPreferredLanguage(), LABEL_PROPERTIES);
+        return label != null ? label.getLabel() : null;
     }
 
     private void checkField(String className, String fieldName) throws GenerationException {
@@ -282,24 +1737,33 @@ public class VocabBuilder {
         }
     }
 
-    public void generateResourceBundle(String baseName, Path bundleDir) throws GenerationException, IOException {
+    /**
+     * Write the resource bundles into the given directory, skipping unchanged files.
+     *
+     * @return the bundle files
+     */
+    public List<Path> generateResourceBundle(String baseName, Path bundleDir) throws GenerationException, IOException {
         HashMap<String, Properties> bundles = generateResourceBundle(baseName);
+        final List<Path> files = new ArrayList<>();
 
-        for (String bKey : bundles.keySet()) {
+        for (String bKey : new TreeSet<>(bundles.keySet())) {
             final Properties bundle = bundles.get(bKey);
 
             final Path file = bundleDir.resolve(bKey + ".properties");
-            try (Writer w = Files.newBufferedWriter(file, Charset.forName("utf8"))) {
-                bundle.store(w, String.format("ResourceBundle (%s) for %s, generated by %s v%s",
+            files.add(file);
+            try {
+                final StringWriter w = new StringWriter();
+                GeneratedFiles.storeProperties(bundle, w, String.format("ResourceBundle (%s) for %s, generated by %s v%s",
                         bKey, baseName,
                         "com.github.tkurz.sesame:vocab-builder",
                         MavenUtil.loadVersion("com.github.tkurz.sesame", "vocab-builder", "0.0.0-DEVELOP")));
+                GeneratedFiles.write(file, w.toString().getBytes(StandardCharsets.UTF_8));
             } catch (IOException e) {
                 log.error("Could not write Bundle {} to {}: {}", bKey, file, e);
                 throw e;
             }
         }
-
+        return files;
     }
 
     public HashMap<String, Properties> generateResourceBundle(String baseName) throws GenerationException {
@@ -317,7 +1781,7 @@ public class VocabBuilder {
 
         List<String> keys = new ArrayList<>();
         keys.addAll(splitUris.keySet());
-        Collections.sort(keys, String.CASE_INSENSITIVE_ORDER);
+        Collections.sort(keys, KEY_ORDER);
 
         HashMap<String, Properties> bundles = new HashMap<>();
         // Default we have for sure
@@ -515,6 +1979,150 @@ public class VocabBuilder {
         this.stringPropertyPrefix = stringPropertyPrefix;
     }
 
+    public boolean isGenerateTermEnum() {
+        return generateTermEnum;
+    }
+
+    /**
+     * Also generate a nested enum {@value #TERM_ENUM_NAME} with one constant per term.
+     */
+    public void setGenerateTermEnum(boolean generateTermEnum) {
+        this.generateTermEnum = generateTermEnum;
+    }
+
+    public boolean isCompactIRIs() {
+        return compactIRIs;
+    }
+
+    /**
+     * Back the generated constants with a nested {@value #COMPACT_IRI_NAME} class instead of
+     * {@link SimpleValueFactory#createIRI(String, String)}.
+     */
+    public void setCompactIRIs(boolean compactIRIs) {
+        this.compactIRIs = compactIRIs;
+    }
+
+    public boolean isGenerateLookup() {
+        return generateLookup;
+    }
+
+    /**
+     * Generate static {@code byLocalName(CharSequence)} and {@code byIRI(String)} lookup methods,
+     * backed by a minimal perfect hash over the local names.
+     */
+    public void setGenerateLookup(boolean generateLookup) {
+        this.generateLookup = generateLookup;
+    }
+
+    public boolean isGenerateHierarchy() {
+        return generateHierarchy;
+    }
+
+    /**
+     * Generate the transitive closure of {@code rdfs:subClassOf} and {@code rdfs:subPropertyOf}
+     * with static {@code isSubClassOf}, {@code superClassesOf}, {@code isSubPropertyOf} and {@code superPropertiesOf} methods.
+     */
+    public void setGenerateHierarchy(boolean generateHierarchy) {
+        this.generateHierarchy = generateHierarchy;
+    }
+
+    public boolean isGenerateCategories() {
+        return generateCategories;
+    }
+
+    /**
+     * Classify the terms by their {@code rdf:type} and generate static {@code isClass}, {@code isProperty},
+     * {@code isObjectProperty}, {@code isDatatypeProperty} and {@code isIndividual} checks, plus an immutable
+     * {@code Set<IRI>} of the terms in each category.
+     */
+    public void setGenerateCategories(boolean generateCategories) {
+        this.generateCategories = generateCategories;
+    }
+
+    public boolean isGenerateSignatures() {
+        return generateSignatures;
+    }
+
+    /**
+     * Generate tables of the {@code rdfs:domain}, {@code rdfs:range}, {@code owl:FunctionalProperty} and
+     * {@code owl:inverseOf} declarations with static {@code domainsOf}, {@code hasDomain}, {@code rangesOf},
+     * {@code hasRange}, {@code isFunctional} and {@code inverseOf} accessors.
+     */
+    public void setGenerateSignatures(boolean generateSignatures) {
+        this.generateSignatures = generateSignatures;
+    }
+
+    public boolean isGenerateCanonical() {
+        return generateCanonical;
+    }
+
+    /**
+     * Generate a static {@code canonical(IRI)} method mapping IRIs linked by {@code owl:equivalentClass},
+     * {@code owl:equivalentProperty} or {@code owl:sameAs} to the preferred term of this vocabulary.
+     */
+    public void setGenerateCanonical(boolean generateCanonical) {
+        this.generateCanonical = generateCanonical;
+    }
+
+    /**
+     * The parsed vocabulary.
+     */
+    Model getModel() {
+        return model;
+    }
+
+    public boolean isGenerateLabelIndex() {
+        return generateLabelIndex;
+    }
+
+    /**
+     * Generate a sorted, case-folded index of the labels in all languages with static
+     * {@code searchByLabelPrefix(String, Locale)} methods.
+     */
+    public void setGenerateLabelIndex(boolean generateLabelIndex) {
+        this.generateLabelIndex = generateLabelIndex;
+    }
+
+    /**
+     * The effective generation settings, for {@link GenerationManifest#fingerprint(Path, VocabBuilder, String...)}.
+     */
+    Map<String, String> getSettings() {
+        final Map<String, String> settings = new TreeMap<>();
+        settings.put("name", name);
+        settings.put("prefix", prefix);
+        settings.put("packageName", packageName);
+        settings.put("indent", indent);
+        settings.put("language", language);
+        settings.put("constantCase", String.valueOf(caseFormat));
+        settings.put("stringConstantCase", String.valueOf(stringCaseFormat));
+        settings.put("stringPropertyPrefix", stringPropertyPrefix);
+        settings.put("stringPropertySuffix", stringPropertySuffix);
+        settings.put("termEnum", String.valueOf(generateTermEnum));
+        settings.put("compactIRIs", String.valueOf(compactIRIs));
+        settings.put("lookup", String.valueOf(generateLookup));
+        settings.put("hierarchy", String.valueOf(generateHierarchy));
+        settings.put("categories", String.valueOf(generateCategories));
+        settings.put("signatures", String.valueOf(generateSignatures));
+        settings.put("canonical", String.valueOf(generateCanonical));
+        settings.put("labelIndex", String.valueOf(generateLabelIndex));
+        settings.put("pack", String.valueOf(generatePack));
+        return settings;
+    }
+
+    public boolean isGeneratePack() {
+        return generatePack;
+    }
+
+    /**
+     * Pack mode for very large vocabularies: instead of one {@code createIRI} call and JavaDoc per term, the
+     * generated class assigns its constants from a binary resource written by {@link #generatePack(OutputStream)}
+     * and offers the labels and comments via {@code getLabel(IRI)} and {@code getComment(IRI)}.
+     * Can not be combined with the term enum, compact IRIs or the term tables.
+     */
+    public void setGeneratePack(boolean generatePack) {
+        this.generatePack = generatePack;
+    }
+
     public String getStringPropertySuffix() {
 		return stringPropertySuffix;
 	}
@@ -0,0 +1,544 @@
+package com.github.tkurz.sesame.vocab;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParserRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downloads remote vocabularies into a {@link RemoteVocabularyCache}.
+ * <p/>
+ * A fetcher keeps its connections alive and can be used by several threads, so it should be shared by all
+ * vocabularies of a build. Cached vocabularies are requested conditionally with the {@code ETag} and
+ * {@code Last-Modified} of the cached response; if the server answers {@code 304 Not Modified}, the cached
+ * copy is used without downloading it again. Responses are requested gzip or deflate compressed and
+ * decompressed while they are stored. The {@code Accept} header prefers the formats that are parsed fastest.
+ * <p/>
+ * Requests time out if the server does not connect or stops sending, and failed fetches are retried with
+ * exponential backoff. A vocabulary can be fetched from mirrors, which are tried one after another or, with a
+ * hedge delay, requested in parallel if the previous ones did not respond in time.
+ */
+public class VocabularyFetcher implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(VocabularyFetcher.class);
+
+    private static final int MAX_CONNECTIONS = 20, MAX_CONNECTIONS_PER_HOST = 4;
+
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10000, DEFAULT_READ_TIMEOUT = 30000, DEFAULT_RETRIES = 2;
+
+    public static final long DEFAULT_RETRY_DELAY = 1000;
+
+    private static final long MAX_RETRY_DELAY = 60000;
+
+    /**
+     * The parse throughput (statements per time) of the RDF formats relative to the fastest one, measured with the
+     * rdf4j 2.2 parsers of this build on the schema.org, OA, RDFS and LDP vocabularies, parsed into a model like a
+     * fetched vocabulary. Re-measure with {@code ParseThroughputBenchmark} of the tests when the parsers change.
+     */
+    private static final Map<RDFFormat, Double> PARSE_THROUGHPUT = ImmutableMap.<RDFFormat, Double>builder()
+            .put(RDFFormat.RDFJSON, 1.0)
+            .put(RDFFormat.TRIX, 0.55)
+            .put(RDFFormat.RDFXML, 0.5)
+            .put(RDFFormat.JSONLD, 0.45)
+            .put(RDFFormat.TURTLE, 0.35)
+            .put(RDFFormat.TRIG, 0.35)
+            .put(RDFFormat.NTRIPLES, 0.25)
+            .put(RDFFormat.NQUADS, 0.25)
+            .build();
+
+    /**
+     * The relative parse throughput of formats that were not measured.
+     */
+    private static final double UNKNOWN_THROUGHPUT = 0.1;
+
+    private final RemoteVocabularyCache cache;
+    private final CloseableHttpClient client;
+
+    // the requests of hedged fetches, waiting for a response
+    private final ExecutorService requests = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "vocabulary-fetcher");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private int readTimeout = DEFAULT_READ_TIMEOUT;
+    private int retries = DEFAULT_RETRIES;
+    private long retryDelay = DEFAULT_RETRY_DELAY;
+
+    /**
+     * @param cache     the cache the vocabularies are stored in
+     * @param userAgent the {@code User-Agent} of the requests
+     */
+    public VocabularyFetcher(RemoteVocabularyCache cache, String userAgent) {
+        this.cache = cache;
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_HOST);
+        this.client = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                // content compression is enabled: sends Accept-Encoding: gzip,deflate and decodes the response
+                .setUserAgent(userAgent)
+                // retried by fetch, for all kinds of failures
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    public RemoteVocabularyCache getCache() {
+        return cache;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * @param connectTimeout the time to connect to a server in milliseconds, {@code 0} to wait forever
+     */
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * @param readTimeout the time to wait for data from a server in milliseconds, {@code 0} to wait forever
+     */
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    /**
+     * @param retries how often a failed fetch is retried, with all mirrors
+     */
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+
+    /**
+     * @param retryDelay the delay before the first retry in milliseconds, doubled for every further retry
+     */
+    public void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * Reads a vocabulary while it is downloaded.
+     *
+     * @param <T> the type of the result, e.g. the parsed vocabulary
+     */
+    public interface ContentHandler<T> {
+        /**
+         * @param content     the response body, stored in the cache while it is read
+         * @param contentType the {@code Content-Type} of the response, may be {@code null}
+         */
+        T handle(InputStream content, String contentType) throws IOException;
+    }
+
+    /**
+     * The result of a fetch.
+     *
+     * @param <T> the type of the result of the {@link ContentHandler}
+     */
+    public static final class Result<T> {
+        private final RemoteVocabularyCache.Entry entry;
+        private final boolean modified;
+        private final T value;
+
+        private Result(RemoteVocabularyCache.Entry entry, boolean modified, T value) {
+            this.entry = entry;
+            this.modified = modified;
+            this.value = value;
+        }
+
+        /**
+         * The cached vocabulary.
+         */
+        public RemoteVocabularyCache.Entry getEntry() {
+            return entry;
+        }
+
+        /**
+         * Whether the vocabulary was downloaded, {@code false} if the server confirmed the cached copy.
+         */
+        public boolean isModified() {
+            return modified;
+        }
+
+        /**
+         * The result of the {@link ContentHandler}, {@code null} if the vocabulary was not downloaded.
+         */
+        public T getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Fetch a vocabulary, unless the cached copy is still valid.
+     *
+     * @throws IOException        if the vocabulary could not be fetched or the server responded with an error
+     * @throws URISyntaxException if the URL is not a valid URI
+     */
+    public Result<Void> fetch(URL url) throws IOException, URISyntaxException {
+        return fetch(url, null);
+    }
+
+    /**
+     * Fetch a vocabulary, unless the cached copy is still valid. A downloaded vocabulary is passed to the handler
+     * as it arrives, e.g. to parse it while it is downloaded, and stored in the cache at the same time. If the
+     * handler fails, the download is not cached.
+     *
+     * @param handler reads the downloaded vocabulary, may be {@code null}
+     * @throws IOException        if the vocabulary could not be fetched or the server responded with an error
+     * @throws URISyntaxException if the URL is not a valid URI
+     */
+    public <T> Result<T> fetch(URL url, ContentHandler<T> handler) throws IOException, URISyntaxException {
+        return fetch(url, null, Collections.<URL>emptyList(), 0, handler);
+    }
+
+    /**
+     * Fetch a vocabulary from its URL or one of its mirrors, unless the cached copy is still valid. The vocabulary
+     * is cached for its URL and the {@code Accept} header, whichever server it was downloaded from.
+     * <p/>
+     * With a hedge delay, the next mirror is requested whenever none of the previous ones responded within the
+     * delay, and the first successful response is used; otherwise the mirrors are only requested after the previous
+     * ones failed. If all fail, the fetch is retried after a delay growing exponentially. Errors of the server that
+     * will not go away, like {@code 404 Not Found}, are not retried.
+     *
+     * @param accept     the {@code Accept} header, {@code null} for all formats with an available parser, weighted
+     *                   by their {@link #getParseThroughput(RDFFormat) parse throughput}
+     * @param mirrors    alternative URLs serving the same vocabulary, in order of preference
+     * @param hedgeDelay the time in milliseconds to wait for a response before also requesting the next mirror,
+     *                   {@code 0} to request the mirrors only if the previous ones failed
+     * @param handler    reads the downloaded vocabulary, may be {@code null}
+     * @throws IOException        if the vocabulary could not be fetched or the servers responded with an error
+     * @throws URISyntaxException if an URL is not a valid URI
+     */
+    public <T> Result<T> fetch(URL url, String accept, List<URL> mirrors, long hedgeDelay, ContentHandler<T> handler)
+            throws IOException, URISyntaxException {
+        final List<URL> urls = new ArrayList<>();
+        urls.add(url);
+        urls.addAll(mirrors);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                if (hedgeDelay > 0 && urls.size() > 1) {
+                    return fetchHedged(url, accept, urls, hedgeDelay, handler);
+                } else {
+                    return fetchInOrder(url, accept, urls, handler);
+                }
+            } catch (IOException e) {
+                if (attempt >= retries || !isRetriable(e)) {
+                    throw e;
+                }
+                final long delay = Math.min(retryDelay << Math.min(attempt, 30), MAX_RETRY_DELAY);
+                log.warn("Could not fetch {}, retrying in {}ms: {}", url, delay, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while fetching " + url);
+                }
+            }
+        }
+    }
+
+    private <T> Result<T> fetchInOrder(URL url, String accept, List<URL> urls, ContentHandler<T> handler) throws IOException, URISyntaxException {
+        final RemoteVocabularyCache.Entry cached = cache.get(url, accept);
+        IOException failure = null;
+        for (URL source : urls) {
+            try {
+                return handleResponse(url, accept, execute(createRequest(source, accept, cached), cached), cached, handler);
+            } catch (IOException e) {
+                failure = addFailure(failure, source, e);
+            }
+        }
+        throw failure;
+    }
+
+    private <T> Result<T> fetchHedged(URL url, String accept, List<URL> urls, long hedgeDelay, ContentHandler<T> handler) throws IOException, URISyntaxException {
+        final RemoteVocabularyCache.Entry cached = cache.get(url, accept);
+        final CompletionService<CloseableHttpResponse> responses = new ExecutorCompletionService<>(requests);
+        final Map<Future<CloseableHttpResponse>, Attempt> pending = new HashMap<>();
+        int next = 0;
+        IOException failure = null;
+        try {
+            while (true) {
+                if (pending.isEmpty()) {
+                    if (next == urls.size()) {
+                        throw failure;
+                    }
+                    final Attempt attempt = new Attempt(urls.get(next++), accept, cached);
+                    pending.put(responses.submit(attempt), attempt);
+                }
+                final Future<CloseableHttpResponse> done = next < urls.size() ? responses.poll(hedgeDelay, TimeUnit.MILLISECONDS) : responses.take();
+                if (done == null) {
+                    final Attempt attempt = new Attempt(urls.get(next++), accept, cached);
+                    log.debug("No response for {} within {}ms, also requesting {}", url, hedgeDelay, attempt.source);
+                    pending.put(responses.submit(attempt), attempt);
+                    continue;
+                }
+                final Attempt attempt = pending.remove(done);
+                final CloseableHttpResponse response;
+                try {
+                    response = done.get();
+                } catch (ExecutionException e) {
+                    failure = addFailure(failure, attempt.source, e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause()));
+                    if (next < urls.size()) {
+                        // do not wait for the hedge delay
+                        final Attempt mirror = new Attempt(urls.get(next++), accept, cached);
+                        pending.put(responses.submit(mirror), mirror);
+                    }
+                    continue;
+                }
+                // the first successful response wins, the other requests are aborted before it is read
+                abort(pending);
+                return handleResponse(url, accept, response, cached, handler);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching " + url);
+        } finally {
+            abort(pending);
+        }
+    }
+
+    private static void abort(Map<Future<CloseableHttpResponse>, Attempt> attempts) {
+        for (Map.Entry<Future<CloseableHttpResponse>, Attempt> attempt : attempts.entrySet()) {
+            attempt.getValue().request.abort();
+            attempt.getKey().cancel(true);
+        }
+        attempts.clear();
+    }
+
+    /**
+     * A request of a hedged fetch.
+     */
+    private final class Attempt implements Callable<CloseableHttpResponse> {
+        private final URL source;
+        private final HttpUriRequest request;
+        private final RemoteVocabularyCache.Entry cached;
+
+        private Attempt(URL source, String accept, RemoteVocabularyCache.Entry cached) throws URISyntaxException {
+            this.source = source;
+            this.request = createRequest(source, accept, cached);
+            this.cached = cached;
+        }
+
+        @Override
+        public CloseableHttpResponse call() throws IOException {
+            return execute(request, cached);
+        }
+    }
+
+    private HttpUriRequest createRequest(URL source, String accept, RemoteVocabularyCache.Entry cached) throws URISyntaxException {
+        final RequestBuilder requestBuilder = RequestBuilder.get().setUri(source.toURI());
+        requestBuilder.setConfig(RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .build());
+        final String acceptHeader = accept != null ? accept : getAcceptHeaderValue();
+        if (acceptHeader != null) {
+            requestBuilder.setHeader(HttpHeaders.ACCEPT, acceptHeader);
+        }
+        if (cached != null) {
+            if (cached.getETag() != null) {
+                requestBuilder.setHeader(HttpHeaders.IF_NONE_MATCH, cached.getETag());
+            }
+            if (cached.getLastModified() != null) {
+                requestBuilder.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.getLastModified());
+            }
+        }
+        return requestBuilder.build();
+    }
+
+    /**
+     * Send a request, failing for an unsuccessful response.
+     */
+    private CloseableHttpResponse execute(HttpUriRequest request, RemoteVocabularyCache.Entry cached) throws IOException {
+        final CloseableHttpResponse response = client.execute(request);
+        final int status = response.getStatusLine().getStatusCode();
+        if (status == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+            return response;
+        }
+        if (status >= 300 || response.getEntity() == null) {
+            response.close();
+            throw new StatusException(String.format("%s returned %s", request.getURI(), response.getStatusLine()), status);
+        }
+        return response;
+    }
+
+    private <T> Result<T> handleResponse(URL url, String accept, CloseableHttpResponse response, RemoteVocabularyCache.Entry cached,
+                                         ContentHandler<T> handler) throws IOException {
+        try {
+            if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                log.debug("{} is not modified", url);
+                return new Result<>(cached, false, null);
+            }
+            final String contentType = getHeaderValue(response, HttpHeaders.CONTENT_TYPE);
+            try (InputStream in = response.getEntity().getContent()) {
+                final RemoteVocabularyCache.Download download = cache.download(url, accept, in, contentType,
+                        getHeaderValue(response, HttpHeaders.ETAG), getHeaderValue(response, HttpHeaders.LAST_MODIFIED));
+                try {
+                    final T value = handler != null ? handler.handle(download, contentType) : null;
+                    return new Result<>(download.commit(), true, value);
+                } finally {
+                    download.discard();
+                }
+            }
+        } finally {
+            response.close();
+        }
+    }
+
+    private static IOException addFailure(IOException failure, URL source, IOException e) {
+        log.debug("Could not fetch {}: {}", source, e.getMessage());
+        if (failure == null) {
+            return e;
+        }
+        failure.addSuppressed(e);
+        return failure;
+    }
+
+    /**
+     * Whether a fetch may succeed if it is repeated: after timeouts, connection failures and server errors.
+     */
+    private static boolean isRetriable(IOException failure) {
+        if (!(failure instanceof StatusException) || ((StatusException) failure).isRetriable()) {
+            return true;
+        }
+        for (Throwable suppressed : failure.getSuppressed()) {
+            if (!(suppressed instanceof StatusException) || ((StatusException) suppressed).isRetriable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An unsuccessful response.
+     */
+    private static final class StatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private StatusException(String message, int status) {
+            super(message);
+            this.status = status;
+        }
+
+        private boolean isRetriable() {
+            return status >= 500 || status == HttpStatus.SC_REQUEST_TIMEOUT || status == 429;
+        }
+    }
+
+    private static String getHeaderValue(HttpResponse response, String header) {
+        final Header h = response.getFirstHeader(header);
+        return h != null ? h.getValue() : null;
+    }
+
+    /**
+     * The {@code Accept} header for all RDF formats with an available parser, weighted by their
+     * {@link #getParseThroughput(RDFFormat) parse throughput}, so servers send the format that is parsed fastest.
+     *
+     * @return the header, {@code null} if there are no parsers
+     */
+    public static String getAcceptHeaderValue() {
+        return getAcceptHeaderValue(RDFParserRegistry.getInstance().getKeys());
+    }
+
+    /**
+     * The {@code Accept} header for the given formats, weighted by their
+     * {@link #getParseThroughput(RDFFormat) parse throughput}.
+     *
+     * @return the header, {@code null} if there are no formats
+     */
+    public static String getAcceptHeaderValue(Collection<RDFFormat> formats) {
+        final List<RDFFormat> sorted = new ArrayList<>(formats);
+        Collections.sort(sorted, new Comparator<RDFFormat>() {
+            @Override
+            public int compare(RDFFormat a, RDFFormat b) {
+                final int cmp = Double.compare(getParseThroughput(b), getParseThroughput(a));
+                return cmp != 0 ? cmp : a.getName().compareTo(b.getName());
+            }
+        });
+        final StringBuilder sb = new StringBuilder();
+        for (RDFFormat format : sorted) {
+            final double throughput = getParseThroughput(format);
+            for (String mimeType : format.getMIMETypes()) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(mimeType);
+                if (throughput < 1) {
+                    sb.append(String.format(Locale.ROOT, ";q=%.2f", throughput).replaceFirst("0+$", ""));
+                }
+            }
+        }
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+
+    /**
+     * The parse throughput of a format relative to the fastest one, between {@code 0} and {@code 1}.
+     */
+    public static double getParseThroughput(RDFFormat format) {
+        final Double throughput = PARSE_THROUGHPUT.get(format);
+        return throughput != null ? throughput : UNKNOWN_THROUGHPUT;
+    }
+
+    @Override
+    public void close() throws IOException {
+        requests.shutdownNow();
+        client.close();
+    }
+}
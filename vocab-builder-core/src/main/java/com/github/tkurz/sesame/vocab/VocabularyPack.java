@@ -0,0 +1,103 @@
+package com.github.tkurz.sesame.vocab;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary resource holding the local names, labels and comments of a vocabulary, read by the
+ * loader class generated in pack mode (see {@link VocabBuilder#setGeneratePack(boolean)}).
+ * <p/>
+ * Layout (big-endian, as written by {@link DataOutputStream}):
+ * <pre>
+ * int    magic ({@value #MAGIC})
+ * ushort version ({@value #VERSION})
+ * int    n, n x string     local names, by ordinal
+ * int    m, m x string     interned labels and comments
+ * n x (int label, int comment)   index into the interned strings, or -1
+ * </pre>
+ * A string is its length in bytes followed by the UTF-8 bytes. The local names come first, so the
+ * constants can be created without reading the texts.
+ */
+final class VocabularyPack {
+
+    static final int MAGIC = 0x564F4350;
+
+    static final int VERSION = 1;
+
+    /**
+     * The file extension of packs, resources are named {@code <className>.vocab}.
+     */
+    static final String EXTENSION = ".vocab";
+
+    /**
+     * Source of the string reader in the generated loader, without indentation.
+     */
+    static final String[] READ_STRINGS_SOURCE = {
+            "private static String[] readStrings(DataInputStream in) throws IOException {",
+            "\tfinal String[] strings = new String[in.readInt()];",
+            "\tfor (int i = 0; i < strings.length; i++) {",
+            "\t\tfinal byte[] bytes = new byte[in.readInt()];",
+            "\t\tin.readFully(bytes);",
+            "\t\tstrings[i] = new String(bytes, StandardCharsets.UTF_8);",
+            "\t}",
+            "\treturn strings;",
+            "}"
+    };
+
+    private final List<String> localNames = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final Map<String, Integer> textIndex = new HashMap<>();
+    private final List<int[]> textRefs = new ArrayList<>();
+
+    /**
+     * Add the next term.
+     *
+     * @param label   the label, may be {@code null}
+     * @param comment the comment, may be {@code null}
+     */
+    void add(String localName, String label, String comment) {
+        localNames.add(localName);
+        textRefs.add(new int[]{intern(label), intern(comment)});
+    }
+
+    private int intern(String text) {
+        if (text == null) {
+            return -1;
+        }
+        Integer index = textIndex.get(text);
+        if (index == null) {
+            index = texts.size();
+            texts.add(text);
+            textIndex.put(text, index);
+        }
+        return index;
+    }
+
+    void write(OutputStream outputStream) throws IOException {
+        final DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        writeStrings(out, localNames);
+        writeStrings(out, texts);
+        for (int[] refs : textRefs) {
+            out.writeInt(refs[0]);
+            out.writeInt(refs[1]);
+        }
+        out.flush();
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.GeneratedFiles;
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Properties;
+
+/**
+ * Tests for {@link GeneratedFiles} and the reproducibility of the generated files.
+ */
+public class GeneratedFilesTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testStoreProperties() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("b.label", "second");
+        properties.setProperty("a.label", " leading space, = : # ! \\ \t\nünïcode");
+        properties.setProperty("key with space", "x");
+
+        final StringWriter out = new StringWriter();
+        GeneratedFiles.storeProperties(properties, out, "comment");
+        final String stored = out.toString();
+        Assert.assertEquals("#comment\n"
+                + "a.label=\\ leading space, \\= \\: \\# \\! \\\\ \\t\\nünïcode\n"
+                + "b.label=second\n"
+                + "key\\ with\\ space=x\n", stored);
+
+        final Properties loaded = new Properties();
+        loaded.load(new StringReader(stored));
+        Assert.assertEquals(properties, loaded);
+    }
+
+    @Test
+    public void testWriteIfChanged() throws Exception {
+        final Path file = temp.getRoot().toPath().resolve("EX.java");
+        Assert.assertTrue(GeneratedFiles.write(file, "class EX {}".getBytes(StandardCharsets.UTF_8)));
+        final FileTime modified = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(file, modified);
+
+        Assert.assertFalse(GeneratedFiles.write(file, "class EX {}".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(modified, Files.getLastModifiedTime(file));
+
+        Assert.assertTrue(GeneratedFiles.write(file, "class EX { }".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals("class EX { }", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReproducible() throws Exception {
+        final String[] statements = {
+                "<http://example.com/ns#label> <http://www.w3.org/2000/01/rdf-schema#label> \"lower\"@en .",
+                "<http://example.com/ns#Label> <http://www.w3.org/2000/01/rdf-schema#label> \"upper\"@en .",
+                "<http://example.com/ns#Label> <http://www.w3.org/2000/01/rdf-schema#comment> \"Großbuchstabe\"@de ."
+        };
+        final String forward = generate("forward", statements[0] + "\n" + statements[1] + "\n" + statements[2]);
+        final String backward = generate("backward", statements[2] + "\n" + statements[1] + "\n" + statements[0]);
+        Assert.assertEquals(forward, backward);
+        Assert.assertTrue(forward.indexOf("{@code http://example.com/ns#Label}") < forward.indexOf("{@code http://example.com/ns#label}"));
+    }
+
+    private String generate(String name, String vocabulary) throws Exception {
+        final File input = temp.newFile(name + ".nt");
+        FileUtils.writeStringToFile(input, vocabulary, StandardCharsets.UTF_8);
+        final Path dir = temp.newFolder(name).toPath();
+
+        final VocabBuilder builder = new VocabBuilder(input.getAbsolutePath(), "application/n-triples");
+        builder.setPrefix("http://example.com/ns#");
+        builder.setGenerateLookup(true);
+        builder.generate(dir.resolve("EX.java"));
+        builder.generateResourceBundle("EX", dir);
+
+        final StringBuilder output = new StringBuilder(new String(Files.readAllBytes(dir.resolve("EX.java")), StandardCharsets.UTF_8));
+        for (String bundle : new String[]{"EX", "EX_en", "EX_de"}) {
+            output.append(new String(Files.readAllBytes(dir.resolve(bundle + ".properties")), StandardCharsets.UTF_8));
+        }
+        return output.toString();
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.GenerationManifest;
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.google.common.base.CaseFormat;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests for {@link GenerationManifest}.
+ */
+public class GenerationManifestTest {
+
+    private static final String VOCABULARY = "<http://example.com/ns#a> <http://example.com/ns#b> <http://example.com/ns#c> .";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File input;
+    private GenerationManifest manifest;
+
+    @Before
+    public void setUp() throws Exception {
+        input = temp.newFile("ex.ttl");
+        FileUtils.writeStringToFile(input, VOCABULARY, StandardCharsets.UTF_8);
+        manifest = new GenerationManifest(temp.getRoot().toPath().resolve("manifests"));
+    }
+
+    private VocabBuilder createBuilder() throws Exception {
+        final VocabBuilder builder = new VocabBuilder(input.getAbsolutePath(), "text/turtle");
+        builder.setPrefix("http://example.com/ns#");
+        return builder;
+    }
+
+    @Test
+    public void testFingerprint() throws Exception {
+        final String fingerprint = GenerationManifest.fingerprint(input.toPath(), createBuilder());
+        Assert.assertEquals(fingerprint, GenerationManifest.fingerprint(input.toPath(), createBuilder()));
+        Assert.assertNotEquals(fingerprint, GenerationManifest.fingerprint(input.toPath(), createBuilder(), "resourceBundles=true"));
+
+        final VocabBuilder builder = createBuilder();
+        builder.setConstantCase(CaseFormat.UPPER_UNDERSCORE);
+        Assert.assertNotEquals(fingerprint, GenerationManifest.fingerprint(input.toPath(), builder));
+
+        builder.setConstantCase(null);
+        builder.setPackageName("com.example");
+        Assert.assertNotEquals(fingerprint, GenerationManifest.fingerprint(input.toPath(), builder));
+
+        FileUtils.writeStringToFile(input, VOCABULARY + "\n", StandardCharsets.UTF_8);
+        Assert.assertNotEquals(fingerprint, GenerationManifest.fingerprint(input.toPath(), createBuilder()));
+    }
+
+    @Test
+    public void testUpToDate() throws Exception {
+        final Path output = temp.newFile("EX.java").toPath();
+        Assert.assertFalse(manifest.isUpToDate("EX", "1234"));
+
+        manifest.record("EX", "1234", Collections.singletonList(output));
+        Assert.assertTrue(manifest.isUpToDate("EX", "1234"));
+        Assert.assertFalse(manifest.isUpToDate("EX", "5678"));
+        Assert.assertFalse(manifest.isUpToDate("OTHER", "1234"));
+
+        Files.delete(output);
+        Assert.assertFalse(manifest.isUpToDate("EX", "1234"));
+    }
+
+    @Test
+    public void testRemoveStale() throws Exception {
+        final Path kept = temp.newFile("Kept.java").toPath();
+        final Path removed = temp.newFile("Removed.java").toPath();
+        final Path bundle = temp.newFile("Removed.properties").toPath();
+        manifest.record("com.example.Kept", "1", Collections.singletonList(kept));
+        manifest.record("com.example.Removed", "2", Arrays.asList(removed, bundle));
+        Assert.assertEquals(Arrays.asList("com.example.Kept", "com.example.Removed"), manifest.getIds());
+
+        Assert.assertEquals(Collections.singletonList("com.example.Removed"), manifest.removeStale(Collections.singleton("com.example.Kept")));
+        Assert.assertTrue(Files.exists(kept));
+        Assert.assertFalse(Files.exists(removed));
+        Assert.assertFalse(Files.exists(bundle));
+        Assert.assertEquals(Collections.singletonList("com.example.Kept"), manifest.getIds());
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.ModelCache;
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link ModelCache}.
+ */
+public class ModelCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Path input;
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        input = temp.newFile("schema.rdf").toPath();
+        try (InputStream in = getClass().getResourceAsStream("/schema.rdf")) {
+            Files.copy(in, input, StandardCopyOption.REPLACE_EXISTING);
+        }
+        directory = temp.getRoot().toPath().resolve("cache");
+        ModelCache.clearLoaded();
+    }
+
+    private List<Path> getEntries() throws IOException {
+        final List<Path> entries = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path entry : stream) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final Model parsed;
+        try (InputStream in = Files.newInputStream(input)) {
+            parsed = Rio.parse(in, "", RDFFormat.RDFXML);
+        }
+
+        final ModelCache cache = new ModelCache(directory);
+        Assert.assertTrue(Models.isomorphic(parsed, cache.load(input, RDFFormat.RDFXML)));
+        Assert.assertEquals(1, getEntries().size());
+
+        ModelCache.clearLoaded();
+        final Model cached = cache.load(input, RDFFormat.RDFXML);
+        Assert.assertEquals(1, getEntries().size());
+        Assert.assertTrue(Models.isomorphic(parsed, cached));
+        Assert.assertEquals(parsed.getNamespaces(), cached.getNamespaces());
+    }
+
+    @Test
+    public void testSharedInMemory() throws Exception {
+        final Model model = new ModelCache(directory).load(input, RDFFormat.RDFXML);
+        final Path other = temp.getRoot().toPath().resolve("other");
+        Assert.assertSame(model, new ModelCache(other).load(input, RDFFormat.RDFXML));
+        Assert.assertFalse(Files.exists(other));
+
+        try {
+            model.clear();
+            Assert.fail("shared models must not be modifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testGeneratedClassUnchanged() throws Exception {
+        final ModelCache cache = new ModelCache(directory);
+        new VocabBuilder(input.toString(), RDFFormat.RDFXML, cache);
+
+        final String expected = generate(new VocabBuilder(input.toString(), RDFFormat.RDFXML));
+        Assert.assertEquals(expected, generate(new VocabBuilder(input.toString(), RDFFormat.RDFXML, cache)));
+        Assert.assertEquals(expected, generate(new VocabBuilder(cache.load(input, RDFFormat.RDFXML))));
+    }
+
+    @Test
+    public void testParseStream() throws Exception {
+        final ModelCache cache = new ModelCache(directory);
+        final Model parsed;
+        try (InputStream in = Files.newInputStream(input)) {
+            parsed = cache.parse(in, RDFFormat.RDFXML, input.toString());
+        }
+        final String hash = DigestUtils.sha256Hex(Files.readAllBytes(input));
+        Assert.assertSame(parsed, cache.get(hash, RDFFormat.RDFXML));
+        Assert.assertSame(parsed, cache.load(input, RDFFormat.RDFXML));
+        Assert.assertNull(cache.get(hash, RDFFormat.TURTLE));
+
+        ModelCache.clearLoaded();
+        Assert.assertTrue(Models.isomorphic(parsed, cache.get(hash, RDFFormat.RDFXML)));
+
+        try (InputStream in = Files.newInputStream(input)) {
+            Assert.assertEquals(generate(new VocabBuilder(input.toString(), RDFFormat.RDFXML)),
+                    generate(new VocabBuilder(in, RDFFormat.RDFXML, null, input.toString())));
+        }
+    }
+
+    private static String generate(VocabBuilder builder) throws Exception {
+        final StringWriter out = new StringWriter();
+        builder.generate("Schema", new PrintWriter(out));
+        return out.toString();
+    }
+
+    @Test
+    public void testKeyedByContent() throws Exception {
+        final ModelCache cache = new ModelCache(directory);
+        cache.load(input, RDFFormat.RDFXML);
+
+        final File turtle = temp.newFile("ex.ttl");
+        FileUtils.writeStringToFile(turtle, "<http://example.com/a> <http://example.com/b> \"c\"@en .", StandardCharsets.UTF_8);
+        final Model model = cache.load(turtle.toPath(), RDFFormat.TURTLE);
+        Assert.assertEquals(1, model.size());
+        Assert.assertEquals(2, getEntries().size());
+
+        FileUtils.writeStringToFile(turtle, "<http://example.com/a> <http://example.com/b> 1 .", StandardCharsets.UTF_8);
+        Assert.assertEquals("1", cache.load(turtle.toPath(), RDFFormat.TURTLE).objects().iterator().next().stringValue());
+        Assert.assertEquals(3, getEntries().size());
+    }
+
+    @Test
+    public void testCorruptEntry() throws Exception {
+        final ModelCache cache = new ModelCache(directory);
+        final Model parsed = cache.load(input, RDFFormat.RDFXML);
+
+        final Path entry = getEntries().get(0);
+        final byte[] bytes = Files.readAllBytes(entry);
+        Files.write(entry, Arrays.copyOf(bytes, bytes.length / 2));
+        ModelCache.clearLoaded();
+
+        Assert.assertTrue(Models.isomorphic(parsed, cache.load(input, RDFFormat.RDFXML)));
+        Assert.assertEquals(bytes.length, Files.size(entry));
+    }
+
+}
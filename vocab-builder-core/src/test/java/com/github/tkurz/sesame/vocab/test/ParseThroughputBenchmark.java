@@ -0,0 +1,85 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.VocabularyFetcher;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParserRegistry;
+import org.eclipse.rdf4j.rio.Rio;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the parse throughput behind {@link VocabularyFetcher#getParseThroughput(RDFFormat)}. The bundled
+ * vocabularies are serialized into every format with a parser and a writer, then parsed into a {@link Model} with the
+ * default parser settings, like a fetched vocabulary. Every format is timed in several runs after warm-up, and the
+ * best run counts. Prints the time per round and the throughput relative to the fastest format, next to the table.
+ * <p/>
+ * Not a unit test, run it with the test classpath on Java 8 (later JDKs need JAXB for the blank node ids):
+ * {@code java -cp <test-classpath> com.github.tkurz.sesame.vocab.test.ParseThroughputBenchmark}
+ */
+public class ParseThroughputBenchmark {
+
+    private static final String[] VOCABULARIES = {"/schema.rdf", "/oa.ttl", "/rdfs.ttl", "/ldp.ttl"};
+
+    private static final int WARMUP = 100, ROUNDS = 100, RUNS = 3;
+
+    public static void main(String[] args) throws Exception {
+        final List<Model> models = new ArrayList<>();
+        for (String vocabulary : VOCABULARIES) {
+            try (InputStream in = ParseThroughputBenchmark.class.getResourceAsStream(vocabulary)) {
+                models.add(Rio.parse(in, "", Rio.getParserFormatForFileName(vocabulary).get()));
+            }
+        }
+
+        final Map<RDFFormat, byte[][]> documents = new LinkedHashMap<>();
+        for (RDFFormat format : RDFParserRegistry.getInstance().getKeys()) {
+            if (!Rio.getWriterFormatForMIMEType(format.getDefaultMIMEType()).isPresent()) {
+                continue;
+            }
+            final byte[][] serialized = new byte[models.size()][];
+            for (int i = 0; i < models.size(); i++) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                Rio.write(models.get(i), out, format);
+                serialized[i] = out.toByteArray();
+            }
+            documents.put(format, serialized);
+            for (int i = 0; i < WARMUP; i++) {
+                parse(format, serialized);
+            }
+        }
+
+        final Map<RDFFormat, Double> millis = new LinkedHashMap<>();
+        for (int run = 0; run < RUNS; run++) {
+            for (Map.Entry<RDFFormat, byte[][]> entry : documents.entrySet()) {
+                final long start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    parse(entry.getKey(), entry.getValue());
+                }
+                final double time = (System.nanoTime() - start) / 1e6 / ROUNDS;
+                final Double best = millis.get(entry.getKey());
+                millis.put(entry.getKey(), best == null ? time : Math.min(best, time));
+            }
+        }
+
+        double fastest = Double.MAX_VALUE;
+        for (double time : millis.values()) {
+            fastest = Math.min(fastest, time);
+        }
+        for (Map.Entry<RDFFormat, Double> entry : millis.entrySet()) {
+            System.out.printf("%-10s %7.2f ms  %.2f (table: %.2f)%n", entry.getKey().getName(), entry.getValue(),
+                    fastest / entry.getValue(), VocabularyFetcher.getParseThroughput(entry.getKey()));
+        }
+    }
+
+    private static void parse(RDFFormat format, byte[][] documents) throws Exception {
+        for (byte[] document : documents) {
+            Rio.parse(new ByteArrayInputStream(document), "", format);
+        }
+    }
+}
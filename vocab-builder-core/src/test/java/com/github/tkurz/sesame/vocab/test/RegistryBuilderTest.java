@@ -0,0 +1,128 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.RegistryBuilder;
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.github.tkurz.sesame.vocab.runtime.VocabularyRegistry;
+import com.github.tkurz.sesame.vocab.runtime.VocabularyTerm;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link RegistryBuilder}.
+ */
+public class RegistryBuilderTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private VocabularyRegistry registry;
+
+    @Before
+    public void setUp() throws Exception {
+        final Path src = temp.newFolder("src").toPath();
+        final Path pkg = Files.createDirectories(src.resolve("com/example"));
+        final List<Path> sources = new ArrayList<>();
+
+        final RegistryBuilder registryBuilder = new RegistryBuilder();
+        registryBuilder.setPackageName("com.example");
+        for (String name : new String[]{"ldp", "rdfs"}) {
+            final File input = temp.newFile(name + ".ttl");
+            FileUtils.copyInputStreamToFile(getClass().getResourceAsStream("/" + name + ".ttl"), input);
+
+            final VocabBuilder vb = new VocabBuilder(input.getAbsolutePath(), (String) null);
+            vb.setPackageName("com.example");
+            vb.setPreferredLanguage("en");
+            final String className = name.toUpperCase();
+            final Path output = pkg.resolve(className + ".java");
+            vb.generate(output);
+            sources.add(output);
+            registryBuilder.addVocabulary(vb, className);
+        }
+
+        final Path registryFile = pkg.resolve("Vocabularies.java");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(registryFile, StandardCharsets.UTF_8))) {
+            registryBuilder.generate("Vocabularies", out);
+        }
+        sources.add(registryFile);
+        Assert.assertEquals("com.example.Vocabularies", registryBuilder.getQualifiedName("Vocabularies"));
+
+        registry = (VocabularyRegistry) VocabCompiler.compileAndLoad(sources, temp.newFolder("classes").toPath(), "com.example.Vocabularies").getDeclaredConstructor().newInstance();
+    }
+
+    @Test
+    public void testResolve() throws Exception {
+        final VocabularyTerm label = registry.resolve(RDFS.LABEL);
+        Assert.assertNotNull(label);
+        Assert.assertEquals(RDFS.LABEL, label.getIRI());
+        Assert.assertEquals("com.example.RDFS", label.getVocabulary().getName());
+        Assert.assertSame(label.getVocabulary().getField("label").get(null), label.getIRI());
+        Assert.assertEquals("http://www.w3.org/2000/01/rdf-schema#", label.getNamespace());
+        Assert.assertEquals("label", label.getLocalName());
+        Assert.assertEquals("label", label.getLabel());
+        Assert.assertEquals("rdfs:label", label.getPrefixedName());
+
+        final VocabularyTerm container = registry.resolve("http://www.w3.org/ns/ldp#Container");
+        Assert.assertNotNull(container);
+        Assert.assertEquals("com.example.LDP", container.getVocabulary().getName());
+        Assert.assertEquals("Container", container.getLocalName());
+        Assert.assertEquals("ldp", container.getPrefix());
+
+        Assert.assertNull(registry.resolve("http://www.w3.org/ns/ldp#Unknown"));
+        Assert.assertNull(registry.resolve("http://www.w3.org/ns/ldp#"));
+        Assert.assertNull(registry.resolve("http://www.w3.org/ns/"));
+        Assert.assertNull(registry.resolve("http://example.com/"));
+        Assert.assertNull(registry.resolve((String) null));
+        Assert.assertNull(registry.resolve((IRI) null));
+    }
+
+    @Test
+    public void testResolveNestedNamespaces() throws Exception {
+        final Path src = temp.newFolder("nested").toPath();
+        final RegistryBuilder registryBuilder = new RegistryBuilder();
+        final List<Path> sources = new ArrayList<>();
+        // "subject" belongs to the outer vocabulary, although the inner namespace is its longest matching prefix
+        final String[][] vocabularies = {
+                {"Outer", "http://example.com/ns/", "<http://example.com/ns/subject> a <http://www.w3.org/2000/01/rdf-schema#Class> ."},
+                {"Inner", "http://example.com/ns/sub", "<http://example.com/ns/subItem> a <http://www.w3.org/2000/01/rdf-schema#Class> ."},
+        };
+        for (String[] vocabulary : vocabularies) {
+            final File input = temp.newFile(vocabulary[0] + ".ttl");
+            FileUtils.writeStringToFile(input, vocabulary[2], StandardCharsets.UTF_8);
+            final VocabBuilder vb = new VocabBuilder(input.getAbsolutePath(), "text/turtle");
+            vb.setPrefix(vocabulary[1]);
+            final Path output = src.resolve(vocabulary[0] + ".java");
+            vb.generate(output);
+            sources.add(output);
+            registryBuilder.addVocabulary(vb, vocabulary[0]);
+        }
+        final Path registryFile = src.resolve("Nested.java");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(registryFile, StandardCharsets.UTF_8))) {
+            registryBuilder.generate("Nested", out);
+        }
+        sources.add(registryFile);
+        final VocabularyRegistry nested = (VocabularyRegistry) VocabCompiler.compileAndLoad(sources, temp.newFolder("nested-classes").toPath(), "Nested").getDeclaredConstructor().newInstance();
+
+        Assert.assertEquals("Inner", nested.resolve("http://example.com/ns/subItem").getVocabulary().getName());
+        final VocabularyTerm subject = nested.resolve("http://example.com/ns/subject");
+        Assert.assertNotNull(subject);
+        Assert.assertEquals("Outer", subject.getVocabulary().getName());
+        Assert.assertEquals("subject", subject.getLocalName());
+        Assert.assertNull(nested.resolve("http://example.com/ns/subUnknown"));
+        Assert.assertNull(nested.resolve("http://example.com/other"));
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.RemoteVocabularyCache;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Tests for {@link RemoteVocabularyCache}.
+ */
+public class RemoteVocabularyCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testPutGet() throws Exception {
+        final RemoteVocabularyCache cache = new RemoteVocabularyCache(temp.getRoot().toPath(), RemoteVocabularyCache.DEFAULT_MAX_SIZE);
+        final URL url = new URL("http://example.com/ns");
+        Assert.assertNull(cache.get(url));
+
+        cache.put(url, content("<a> <b> <c> ."), "text/turtle", "\"v1\"", "Tue, 01 Aug 2017 00:00:00 GMT");
+        final RemoteVocabularyCache.Entry entry = cache.get(url);
+        Assert.assertNotNull(entry);
+        Assert.assertEquals("<a> <b> <c> .", read(entry));
+        // stored compressed
+        Assert.assertEquals((byte) 0x1f, Files.readAllBytes(entry.getFile())[0]);
+        Assert.assertEquals("text/turtle", entry.getContentType());
+        Assert.assertEquals("\"v1\"", entry.getETag());
+        Assert.assertEquals("Tue, 01 Aug 2017 00:00:00 GMT", entry.getLastModified());
+
+        cache.put(url, content("<a> <b> <d> ."), null, null, null);
+        final RemoteVocabularyCache.Entry updated = cache.get(url);
+        Assert.assertNotEquals(entry.getHash(), updated.getHash());
+        Assert.assertNull(updated.getETag());
+        Assert.assertNull(cache.get(new URL("http://example.com/other")));
+    }
+
+    @Test
+    public void testPerAcceptHeader() throws Exception {
+        final RemoteVocabularyCache cache = new RemoteVocabularyCache(temp.getRoot().toPath(), RemoteVocabularyCache.DEFAULT_MAX_SIZE);
+        final URL url = new URL("http://example.com/ns");
+        cache.put(url, "text/turtle", content("<a> <b> <c> ."), "text/turtle", "\"ttl\"", null);
+        Assert.assertNull(cache.get(url));
+        Assert.assertNull(cache.get(url, "application/rdf+xml"));
+
+        cache.put(url, "application/rdf+xml", content("<rdf:RDF/>"), "application/rdf+xml", "\"rdf\"", null);
+        Assert.assertEquals("<a> <b> <c> .", read(cache.get(url, "text/turtle")));
+        Assert.assertEquals("\"ttl\"", cache.get(url, "text/turtle").getETag());
+        Assert.assertEquals("<rdf:RDF/>", read(cache.get(url, "application/rdf+xml")));
+        Assert.assertEquals("\"rdf\"", cache.get(url, "application/rdf+xml").getETag());
+    }
+
+    @Test
+    public void testSharedContent() throws Exception {
+        final RemoteVocabularyCache cache = new RemoteVocabularyCache(temp.getRoot().toPath(), RemoteVocabularyCache.DEFAULT_MAX_SIZE);
+        final RemoteVocabularyCache.Entry first = cache.put(new URL("http://example.com/ns"), content("<a> <b> <c> ."), null, null, null);
+        final RemoteVocabularyCache.Entry second = cache.put(new URL("https://example.com/ns"), content("<a> <b> <c> ."), null, null, null);
+        Assert.assertEquals(first.getFile(), second.getFile());
+        Assert.assertEquals(1, temp.getRoot().toPath().resolve("objects").toFile().list().length);
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        final RemoteVocabularyCache cache = new RemoteVocabularyCache(temp.getRoot().toPath(), 10);
+        final URL old = new URL("http://example.com/old"), used = new URL("http://example.com/used"), added = new URL("http://example.com/new");
+        final Path oldFile = cache.put(old, content("12345"), null, null, null).getFile();
+        final Path usedFile = cache.put(used, content("67890"), null, null, null).getFile();
+        Files.setLastModifiedTime(oldFile, FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(usedFile, FileTime.fromMillis(1000));
+        // reading records the use
+        Assert.assertNotNull(cache.get(used));
+
+        cache.put(added, content("abcde"), null, null, null);
+        Assert.assertNull(cache.get(old));
+        Assert.assertNotNull(cache.get(used));
+        Assert.assertNotNull(cache.get(added));
+    }
+
+    @Test
+    public void testKeepInUse() throws Exception {
+        final RemoteVocabularyCache cache = new RemoteVocabularyCache(temp.getRoot().toPath(), 1);
+        cache.put(new URL("http://example.com/first"), content("12345"), null, null, null);
+        cache.put(new URL("http://example.com/second"), content("67890"), null, null, null);
+        // both may still be read by a running build
+        Assert.assertNotNull(cache.get(new URL("http://example.com/first")));
+        Assert.assertNotNull(cache.get(new URL("http://example.com/second")));
+    }
+
+    @Test
+    public void testDownload() throws Exception {
+        final RemoteVocabularyCache cache = new RemoteVocabularyCache(temp.getRoot().toPath(), RemoteVocabularyCache.DEFAULT_MAX_SIZE);
+        final URL url = new URL("http://example.com/ns");
+        final RemoteVocabularyCache.Download download = cache.download(url, content("<a> <b> <c> ."), null, null, null);
+        try {
+            // the reader stops early, the rest is stored anyway
+            Assert.assertEquals('<', download.read());
+            Assert.assertNull(cache.get(url));
+            Assert.assertEquals("<a> <b> <c> .", read(download.commit()));
+        } finally {
+            download.discard();
+        }
+
+        final URL failed = new URL("http://example.com/failed");
+        final RemoteVocabularyCache.Download discarded = cache.download(failed, content("<a> <b> <d> ."), null, null, null);
+        Assert.assertEquals("<a> <b> <d> .", IOUtils.toString(discarded, StandardCharsets.UTF_8));
+        discarded.discard();
+        Assert.assertNull(cache.get(failed));
+        Assert.assertEquals(1, temp.getRoot().toPath().resolve("objects").toFile().list().length);
+    }
+
+    static String read(RemoteVocabularyCache.Entry entry) throws IOException {
+        try (InputStream in = entry.openStream()) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static ByteArrayInputStream content(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.RegistryBuilder;
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.github.tkurz.sesame.vocab.runtime.VocabularyRegistry;
+import com.google.common.base.CaseFormat;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link VocabBuilder#setGenerateCanonical(boolean)} and {@link RegistryBuilder#setGenerateCanonical(boolean)}.
+ */
+public class VocabBuilderCanonicalTest {
+
+    private static final String NS = "http://example.com/ns#";
+    private static final String FOAF = "http://xmlns.com/foaf/0.1/";
+
+    private static final String PREFIXES = "@prefix : <" + NS + "> .\n"
+            + "@prefix foaf: <" + FOAF + "> .\n"
+            + "@prefix old: <http://example.com/old#> .\n"
+            + "@prefix owl: <http://www.w3.org/2002/07/owl#> .\n"
+            + "@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n";
+
+    private static final String EXAMPLE = PREFIXES
+            + ":Person a owl:Class ; owl:equivalentClass foaf:Person .\n"
+            + ":Agent a owl:Class ; owl:deprecated \"true\"^^xsd:boolean ; owl:equivalentClass :Person .\n"
+            + "old:Human owl:sameAs :Agent .\n"
+            + ":name a owl:DatatypeProperty ; owl:equivalentProperty foaf:name .\n"
+            + ":knows a owl:ObjectProperty .\n";
+
+    private static final String FOAF_VOCABULARY = PREFIXES
+            + "foaf:Person a owl:Class .\n"
+            + "foaf:name a owl:DatatypeProperty .\n"
+            + "foaf:knows a owl:ObjectProperty ; owl:equivalentProperty :knows .\n";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final VocabFixture fixture = new VocabFixture(temp);
+
+    private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+    @Test
+    public void testCanonical() throws Exception {
+        final Class<?> vocabClass = fixture.generate(fixture.write("ex.ttl", EXAMPLE), "text/turtle", "EX", vb -> {
+            vb.setPrefix(NS);
+            vb.setConstantCase(CaseFormat.UPPER_UNDERSCORE);
+            vb.setGenerateCanonical(true);
+        });
+
+        final Method canonical = vocabClass.getMethod("canonical", IRI.class);
+        final IRI person = (IRI) vocabClass.getField("PERSON").get(null);
+        Assert.assertSame(person, canonical.invoke(null, person));
+        Assert.assertSame(person, canonical.invoke(null, vf.createIRI(NS, "Person")));
+        Assert.assertSame(person, canonical.invoke(null, vf.createIRI(NS, "Agent")));
+        Assert.assertSame(person, canonical.invoke(null, vf.createIRI(FOAF, "Person")));
+        Assert.assertSame(person, canonical.invoke(null, vf.createIRI("http://example.com/old#Human")));
+        Assert.assertSame(vocabClass.getField("NAME").get(null), canonical.invoke(null, vf.createIRI(FOAF, "name")));
+
+        final IRI other = vf.createIRI(FOAF, "knows");
+        Assert.assertSame(other, canonical.invoke(null, other));
+        Assert.assertNull(canonical.invoke(null, (Object) null));
+    }
+
+    @Test
+    public void testRegistryCanonical() throws Exception {
+        final RegistryBuilder registryBuilder = new RegistryBuilder();
+        registryBuilder.setGenerateCanonical(true);
+        final Map<String, VocabBuilder> vocabularies = new LinkedHashMap<>();
+        vocabularies.put("EX", fixture.builder(fixture.write("ex.ttl", EXAMPLE), "text/turtle", vb -> {
+            vb.setPrefix(NS);
+            vb.setConstantCase(CaseFormat.UPPER_UNDERSCORE);
+        }));
+        vocabularies.put("FOAF", fixture.builder(fixture.write("foaf.ttl", FOAF_VOCABULARY), "text/turtle", vb -> {
+            vb.setPrefix(FOAF);
+            vb.setConstantCase(CaseFormat.UPPER_UNDERSCORE);
+        }));
+        final VocabularyRegistry registry = fixture.generateRegistry(registryBuilder, "Vocabularies", vocabularies);
+
+        final IRI person = vf.createIRI(NS, "Person");
+        Assert.assertEquals(person, registry.canonical(vf.createIRI(FOAF, "Person")));
+        Assert.assertEquals(person, registry.canonical(vf.createIRI("http://example.com/old#Human")));
+        Assert.assertEquals(vf.createIRI(NS, "name"), registry.canonical(vf.createIRI(FOAF, "name")));
+        // the first vocabulary wins
+        Assert.assertEquals(vf.createIRI(NS, "knows"), registry.canonical(vf.createIRI(FOAF, "knows")));
+
+        final IRI person2 = vf.createIRI(NS, "Person");
+        Assert.assertSame(person2, registry.canonical(person2));
+        final IRI unrelated = vf.createIRI("http://example.com/unrelated");
+        Assert.assertSame(unrelated, registry.canonical(unrelated));
+    }
+
+}
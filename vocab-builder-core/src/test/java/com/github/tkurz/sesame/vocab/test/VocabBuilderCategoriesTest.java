@@ -0,0 +1,79 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.google.common.base.CaseFormat;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+
+/**
+ * Tests for the term categories created by {@link VocabBuilder#setGenerateCategories(boolean)}.
+ */
+public class VocabBuilderCategoriesTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final VocabFixture fixture = new VocabFixture(temp);
+
+    private Class<?> vocabClass;
+
+    @Before
+    public void setUp() throws Exception {
+        vocabClass = fixture.generate(fixture.copy("oa.ttl"), "text/turtle", "OA", vb -> {
+            vb.setConstantCase(CaseFormat.UPPER_UNDERSCORE);
+            vb.setGenerateCategories(true);
+        });
+    }
+
+    @Test
+    public void testCategories() throws Exception {
+        final IRI annotation = term("ANNOTATION");
+        final IRI hasBody = term("HAS_BODY");
+        final IRI start = term("START");
+        final IRI commenting = term("COMMENTING");
+
+        assertCategory("isClass", "CLASS_TERMS", annotation, hasBody, start, commenting);
+        assertCategory("isProperty", "PROPERTY_TERMS", hasBody, annotation, commenting);
+        assertCategory("isProperty", "PROPERTY_TERMS", start, annotation, commenting);
+        assertCategory("isObjectProperty", "OBJECT_PROPERTY_TERMS", hasBody, start, annotation, commenting);
+        assertCategory("isDatatypeProperty", "DATATYPE_PROPERTY_TERMS", start, hasBody, annotation, commenting);
+        assertCategory("isIndividual", "INDIVIDUAL_TERMS", commenting, annotation, hasBody, start);
+
+        final Method isClass = vocabClass.getMethod("isClass", IRI.class);
+        Assert.assertTrue((Boolean) isClass.invoke(null, SimpleValueFactory.getInstance().createIRI(annotation.stringValue())));
+        Assert.assertFalse((Boolean) isClass.invoke(null, SimpleValueFactory.getInstance().createIRI("http://example.com/Annotation")));
+        Assert.assertFalse((Boolean) isClass.invoke(null, (Object) null));
+    }
+
+    private IRI term(String constant) throws Exception {
+        return (IRI) vocabClass.getField(constant).get(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertCategory(String method, String field, IRI member, IRI... nonMembers) throws Exception {
+        final Method check = vocabClass.getMethod(method, IRI.class);
+        final Set<IRI> terms = (Set<IRI>) vocabClass.getField(field).get(null);
+        Assert.assertTrue(method + " " + member, (Boolean) check.invoke(null, member));
+        Assert.assertTrue(field + " " + member, terms.contains(member));
+        for (IRI nonMember : nonMembers) {
+            Assert.assertFalse(method + " " + nonMember, (Boolean) check.invoke(null, nonMember));
+            Assert.assertFalse(field + " " + nonMember, terms.contains(nonMember));
+        }
+
+        int size = 0;
+        for (IRI term : terms) {
+            Assert.assertTrue(method + " " + term, (Boolean) check.invoke(null, term));
+            size++;
+        }
+        Assert.assertEquals(terms.size(), size);
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.google.common.base.CaseFormat;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for the constants created with {@link VocabBuilder#setCompactIRIs(boolean)}.
+ */
+public class VocabBuilderCompactIRITest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final VocabFixture fixture = new VocabFixture(temp);
+
+    private Class<?> vocabClass;
+
+    @Before
+    public void setUp() throws Exception {
+        vocabClass = fixture.generate(fixture.copy("ldp.ttl"), null, "LDP", vb -> {
+            vb.setConstantCase(CaseFormat.UPPER_UNDERSCORE);
+            vb.setCompactIRIs(true);
+        });
+    }
+
+    @Test
+    public void testCompactIRI() throws Exception {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+        final IRI container = (IRI) vocabClass.getField("CONTAINER").get(null);
+        final IRI simple = vf.createIRI("http://www.w3.org/ns/ldp#Container");
+
+        Assert.assertNotEquals(simple.getClass(), container.getClass());
+        Assert.assertEquals("http://www.w3.org/ns/ldp#Container", container.stringValue());
+        Assert.assertEquals("http://www.w3.org/ns/ldp#Container", container.toString());
+        Assert.assertEquals(simple.getNamespace(), container.getNamespace());
+        Assert.assertEquals(simple.getLocalName(), container.getLocalName());
+        Assert.assertSame(vocabClass.getField("NAMESPACE").get(null), container.getNamespace());
+
+        Assert.assertEquals(simple.hashCode(), container.hashCode());
+        Assert.assertEquals(container, container);
+        Assert.assertEquals(container, simple);
+        Assert.assertEquals(simple, container);
+
+        final IRI resource = (IRI) vocabClass.getField("RESOURCE").get(null);
+        Assert.assertNotEquals(container, resource);
+        Assert.assertNotEquals(container, vf.createIRI("http://www.w3.org/ns/ldp#Containe"));
+        Assert.assertNotEquals(container, vf.createLiteral("http://www.w3.org/ns/ldp#Container"));
+
+        final Set<IRI> set = new HashSet<>();
+        set.add(simple);
+        Assert.assertTrue(set.contains(container));
+    }
+
+}
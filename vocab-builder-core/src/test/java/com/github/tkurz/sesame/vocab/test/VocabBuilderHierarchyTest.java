@@ -0,0 +1,91 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.google.common.base.CaseFormat;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for the closure tables created by {@link VocabBuilder#setGenerateHierarchy(boolean)}.
+ */
+public class VocabBuilderHierarchyTest {
+
+    private static final String RDFS = "http://www.w3.org/2000/01/rdf-schema#";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final VocabFixture fixture = new VocabFixture(temp);
+
+    private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+    private Class<?> generate(boolean compactIRIs) throws Exception {
+        return fixture.generate(fixture.copy("rdfs.ttl"), "text/turtle", "RDFS", vb -> {
+            vb.setConstantCase(CaseFormat.UPPER_UNDERSCORE);
+            vb.setGenerateHierarchy(true);
+            vb.setCompactIRIs(compactIRIs);
+        });
+    }
+
+    @Test
+    public void testHierarchy() throws Exception {
+        checkHierarchy(generate(false));
+    }
+
+    @Test
+    public void testHierarchyCompact() throws Exception {
+        checkHierarchy(generate(true));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void checkHierarchy(Class<?> vocabClass) throws Exception {
+        final Method isSubClassOf = vocabClass.getMethod("isSubClassOf", IRI.class, IRI.class);
+        final Method superClassesOf = vocabClass.getMethod("superClassesOf", IRI.class);
+
+        final IRI datatype = (IRI) vocabClass.getField("DATATYPE").get(null);
+        final IRI rdfsClass = (IRI) vocabClass.getField("CLASS").get(null);
+        final IRI resource = (IRI) vocabClass.getField("RESOURCE").get(null);
+
+        Assert.assertTrue((Boolean) isSubClassOf.invoke(null, datatype, rdfsClass));
+        Assert.assertTrue((Boolean) isSubClassOf.invoke(null, datatype, resource));
+        Assert.assertTrue((Boolean) isSubClassOf.invoke(null, vf.createIRI(RDFS + "Datatype"), vf.createIRI(RDFS + "Resource")));
+        Assert.assertTrue((Boolean) isSubClassOf.invoke(null, rdfsClass, rdfsClass));
+        Assert.assertFalse((Boolean) isSubClassOf.invoke(null, resource, rdfsClass));
+        Assert.assertFalse((Boolean) isSubClassOf.invoke(null, vf.createIRI("http://example.com/Foo"), resource));
+        Assert.assertFalse((Boolean) isSubClassOf.invoke(null, null, resource));
+
+        final Set<IRI> supers = (Set<IRI>) superClassesOf.invoke(null, datatype);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(rdfsClass, resource)), new HashSet<>(supers));
+        Assert.assertEquals(2, supers.size());
+        Assert.assertTrue(supers.contains(vf.createIRI(RDFS + "Resource")));
+        Assert.assertFalse(supers.contains(datatype));
+        Assert.assertTrue(((Set<IRI>) superClassesOf.invoke(null, resource)).isEmpty());
+        Assert.assertTrue(((Set<IRI>) superClassesOf.invoke(null, (Object) null)).isEmpty());
+
+        try {
+            supers.clear();
+            Assert.fail("expected an immutable set");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        final Method isSubPropertyOf = vocabClass.getMethod("isSubPropertyOf", IRI.class, IRI.class);
+        final IRI isDefinedBy = (IRI) vocabClass.getField("IS_DEFINED_BY").get(null);
+        final IRI seeAlso = (IRI) vocabClass.getField("SEE_ALSO").get(null);
+        Assert.assertTrue((Boolean) isSubPropertyOf.invoke(null, isDefinedBy, seeAlso));
+        Assert.assertFalse((Boolean) isSubPropertyOf.invoke(null, seeAlso, isDefinedBy));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(seeAlso)),
+                new HashSet<>((Set<IRI>) vocabClass.getMethod("superPropertiesOf", IRI.class).invoke(null, isDefinedBy)));
+    }
+
+}
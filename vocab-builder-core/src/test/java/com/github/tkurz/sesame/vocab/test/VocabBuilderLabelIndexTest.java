@@ -0,0 +1,105 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.google.common.base.CaseFormat;
+import org.eclipse.rdf4j.model.IRI;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tests for the label index created by {@link VocabBuilder#setGenerateLabelIndex(boolean)}.
+ */
+public class VocabBuilderLabelIndexTest {
+
+    private static final String NS = "http://example.com/ns#";
+
+    private static final String VOCABULARY = "@prefix : <" + NS + "> .\n"
+            + "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n"
+            + "@prefix skos: <http://www.w3.org/2004/02/skos/core#> .\n"
+            + ":Person rdfs:label \"Person\"@en, \"Person\"@de, \"Personne\"@fr ; skos:altLabel \"Human\"@en .\n"
+            + ":Document rdfs:label \"Document\"@en, \"Dokument\"@de, \"Document\"@fr .\n"
+            + ":Place rdfs:label \"Place\"@en, \"Ort\"@de, \"Lieu\"@fr .\n"
+            + ":Color rdfs:label \"Color\"@en-US, \"Colour\"@en, \"ÄRGER\" .\n"
+            + ":ZipCode rdfs:label \" Zip \\t code\"@en .\n"
+            + ":Newton rdfs:label \"Newton\"@en .\n"
+            + ":NewYork rdfs:label \"New  York \"@en .\n";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final VocabFixture fixture = new VocabFixture(temp);
+
+    private Class<?> vocabClass;
+    private Method search;
+
+    @Before
+    public void setUp() throws Exception {
+        vocabClass = fixture.generate(fixture.write("ex.ttl", VOCABULARY), "text/turtle", "EX", vb -> {
+            vb.setPrefix(NS);
+            vb.setConstantCase(CaseFormat.UPPER_UNDERSCORE);
+            vb.setGenerateLabelIndex(true);
+        });
+        search = vocabClass.getMethod("searchByLabelPrefix", String.class, Locale.class);
+    }
+
+    private IRI term(String constant) throws Exception {
+        return (IRI) vocabClass.getField(constant).get(null);
+    }
+
+    @Test
+    public void testSearch() throws Exception {
+        Assert.assertEquals(Arrays.asList(term("PERSON"), term("PLACE")), search.invoke(null, "p", Locale.ENGLISH));
+        Assert.assertEquals(Collections.singletonList(term("PERSON")), search.invoke(null, "PERS", Locale.GERMAN));
+        Assert.assertEquals(Collections.singletonList(term("PERSON")), search.invoke(null, "hu", Locale.ENGLISH));
+        Assert.assertEquals(Collections.singletonList(term("PLACE")), search.invoke(null, "Ort", Locale.GERMANY));
+        Assert.assertEquals(Collections.singletonList(term("PLACE")), search.invoke(null, "lieu", Locale.FRENCH));
+        Assert.assertEquals(Collections.emptyList(), search.invoke(null, "ort", Locale.FRENCH));
+        Assert.assertEquals(Collections.emptyList(), search.invoke(null, "x", Locale.ENGLISH));
+        Assert.assertEquals(Collections.emptyList(), search.invoke(null, null, Locale.ENGLISH));
+    }
+
+    @Test
+    public void testWhitespace() throws Exception {
+        // normalized like the indexed labels
+        Assert.assertEquals(Collections.singletonList(term("ZIP_CODE")), search.invoke(null, "zip c", Locale.ENGLISH));
+        Assert.assertEquals(Collections.singletonList(term("ZIP_CODE")), search.invoke(null, "  Zip \n\t CO", Locale.ENGLISH));
+        Assert.assertEquals(Collections.singletonList(term("ZIP_CODE")), search.invoke(null, "zip code", Locale.ENGLISH));
+        Assert.assertEquals(Collections.emptyList(), search.invoke(null, "zipc", Locale.ENGLISH));
+        // a trailing space ends the word
+        Assert.assertEquals(Arrays.asList(term("NEW_YORK"), term("NEWTON")), search.invoke(null, "New", Locale.ENGLISH));
+        Assert.assertEquals(Collections.singletonList(term("NEW_YORK")), search.invoke(null, "new ", Locale.ENGLISH));
+        Assert.assertEquals(Collections.singletonList(term("NEW_YORK")), search.invoke(null, " new \t y", Locale.ENGLISH));
+        Assert.assertEquals(Collections.singletonList(term("NEW_YORK")), search.invoke(null, "new york", Locale.ENGLISH));
+        Assert.assertEquals(Collections.emptyList(), search.invoke(null, "zip code ", Locale.ENGLISH));
+        Assert.assertEquals(Collections.emptyList(), search.invoke(null, "new york ", Locale.ENGLISH));
+    }
+
+    @Test
+    public void testLanguageFallback() throws Exception {
+        // en-US first, then en, then plain literals
+        Assert.assertEquals(Collections.singletonList(term("COLOR")), search.invoke(null, "color", Locale.US));
+        Assert.assertEquals(Collections.emptyList(), search.invoke(null, "color", Locale.UK));
+        Assert.assertEquals(Collections.singletonList(term("COLOR")), search.invoke(null, "colou", Locale.UK));
+        Assert.assertEquals(Collections.singletonList(term("COLOR")), search.invoke(null, "ärg", Locale.GERMAN));
+        Assert.assertEquals(Collections.singletonList(term("COLOR")), search.invoke(null, "Är", null));
+        Assert.assertEquals(Collections.emptyList(), search.invoke(null, "p", null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLimit() throws Exception {
+        final Method limited = vocabClass.getMethod("searchByLabelPrefix", String.class, Locale.class, int.class);
+        Assert.assertEquals(4, ((List<IRI>) limited.invoke(null, "", Locale.FRENCH, 10)).size());
+        Assert.assertEquals(2, ((List<IRI>) limited.invoke(null, "", Locale.FRENCH, 2)).size());
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.rio.Rio;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Tests for the lookup methods created by {@link VocabBuilder#setGenerateLookup(boolean)}.
+ */
+public class VocabBuilderLookupTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final VocabFixture fixture = new VocabFixture(temp);
+
+    @Test
+    public void testLookup() throws Exception {
+        final Class<?> vocabClass = generate("ldp.ttl", "LDP", null, false);
+        final Method byLocalName = vocabClass.getMethod("byLocalName", CharSequence.class);
+        final Method byIRI = vocabClass.getMethod("byIRI", String.class);
+
+        final IRI container = (IRI) vocabClass.getField("Container").get(null);
+        Assert.assertSame(container, byLocalName.invoke(null, "Container"));
+        Assert.assertSame(container, byLocalName.invoke(null, new StringBuilder("Container")));
+        Assert.assertSame(container, byIRI.invoke(null, "http://www.w3.org/ns/ldp#Container"));
+
+        Assert.assertNull(byLocalName.invoke(null, "container"));
+        Assert.assertNull(byLocalName.invoke(null, ""));
+        Assert.assertNull(byLocalName.invoke(null, (Object) null));
+        Assert.assertNull(byIRI.invoke(null, "http://www.w3.org/ns/ldp#"));
+        Assert.assertNull(byIRI.invoke(null, "http://example.com/ns#Container"));
+        Assert.assertNull(byIRI.invoke(null, (Object) null));
+
+        assertAllTermsFound(vocabClass);
+    }
+
+    @Test
+    public void testLargeVocabulary() throws Exception {
+        final Class<?> vocabClass = generate("schema.rdf", "SCHEMA", "http://schema.org/", true);
+        assertAllTermsFound(vocabClass);
+    }
+
+    private void assertAllTermsFound(Class<?> vocabClass) throws Exception {
+        final String namespace = (String) vocabClass.getField("NAMESPACE").get(null);
+        final Method byLocalName = vocabClass.getMethod("byLocalName", CharSequence.class);
+        final Method byIRI = vocabClass.getMethod("byIRI", String.class);
+        int count = 0;
+        for (Field field : vocabClass.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == IRI.class) {
+                final IRI iri = (IRI) field.get(null);
+                final String localName = iri.stringValue().substring(namespace.length());
+                Assert.assertSame(iri, byLocalName.invoke(null, localName));
+                Assert.assertSame(iri, byIRI.invoke(null, iri.stringValue()));
+                count++;
+            }
+        }
+        Assert.assertTrue(count > 0);
+    }
+
+    private Class<?> generate(String resource, String className, String prefix, boolean termEnum) throws Exception {
+        return fixture.generate(fixture.copy(resource), null, className, vb -> {
+            if (prefix != null) {
+                vb.setPrefix(prefix);
+            }
+            vb.setGenerateLookup(true);
+            vb.setGenerateTermEnum(termEnum);
+        });
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.GenerationException;
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.google.common.base.CaseFormat;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Tests for the pack mode enabled by {@link VocabBuilder#setGeneratePack(boolean)}.
+ */
+public class VocabBuilderPackTest {
+
+    private static final String NS = "http://example.com/ns#";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final VocabFixture fixture = new VocabFixture(temp);
+
+    private Class<?> generate(String vocabulary, String className) throws Exception {
+        final Class<?> vocabClass = fixture.generate(fixture.write(className + ".ttl", vocabulary), "text/turtle", className, vb -> {
+            vb.setPrefix(NS);
+            vb.setConstantCase(CaseFormat.UPPER_UNDERSCORE);
+            vb.setStringConstantCase(CaseFormat.UPPER_UNDERSCORE);
+            vb.setStringPropertySuffix("_STRING");
+            vb.setGeneratePack(true);
+        });
+        Assert.assertNotNull(vocabClass.getClassLoader().getResource(VocabBuilder.getPackResourceName(className)));
+        return vocabClass;
+    }
+
+    @Test
+    public void testPack() throws Exception {
+        final Class<?> vocabClass = generate("@prefix : <" + NS + "> .\n"
+                + "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n"
+                + ":Person rdfs:label \"Person\"@en ; rdfs:comment \"A human being\"@en .\n"
+                + ":Document rdfs:label \"Document\"@en ; rdfs:comment \"A human being\"@en .\n"
+                + ":name rdfs:comment \"Ünïcode\"@en .\n", "EX");
+
+        final IRI person = (IRI) vocabClass.getField("PERSON").get(null);
+        Assert.assertEquals(SimpleValueFactory.getInstance().createIRI(NS, "Person"), person);
+        Assert.assertEquals(NS + "name", ((IRI) vocabClass.getField("NAME").get(null)).stringValue());
+        Assert.assertEquals(NS + "Document", vocabClass.getField("DOCUMENT_STRING").get(null));
+
+        final Method getLabel = vocabClass.getMethod("getLabel", IRI.class);
+        final Method getComment = vocabClass.getMethod("getComment", IRI.class);
+        Assert.assertEquals("Person", getLabel.invoke(null, person));
+        Assert.assertEquals("A human being", getComment.invoke(null, vocabClass.getField("DOCUMENT").get(null)));
+        Assert.assertEquals("Ünïcode", getComment.invoke(null, vocabClass.getField("NAME").get(null)));
+        Assert.assertNull(getLabel.invoke(null, vocabClass.getField("NAME").get(null)));
+        Assert.assertNull(getLabel.invoke(null, SimpleValueFactory.getInstance().createIRI(NS, "Unknown")));
+        Assert.assertNull(getLabel.invoke(null, (IRI) null));
+    }
+
+    @Test
+    public void testChunks() throws Exception {
+        final int count = 12000;
+        final StringBuilder vocabulary = new StringBuilder("@prefix : <" + NS + "> .\n"
+                + "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n");
+        for (int i = 0; i < count; i++) {
+            vocabulary.append(String.format(":term%05d rdfs:label \"Term %d\" .%n", i, i));
+        }
+        final Class<?> vocabClass = generate(vocabulary.toString(), "Big");
+
+        final Method getLabel = vocabClass.getMethod("getLabel", IRI.class);
+        for (int i : new int[]{0, 4999, 5000, 11999}) {
+            // inherited from the package-private chunk classes, which reflection does not see through
+            final Field field = vocabClass.getField(String.format("TERM%05d", i));
+            field.setAccessible(true);
+            final IRI term = (IRI) field.get(null);
+            Assert.assertEquals(String.format("%sterm%05d", NS, i), term.stringValue());
+            Assert.assertEquals("Term " + i, getLabel.invoke(null, term));
+        }
+    }
+
+    @Test(expected = GenerationException.class)
+    public void testTermEnumNotSupported() throws Exception {
+        fixture.generate(fixture.write("ex.ttl", "<" + NS + "a> <" + NS + "b> <" + NS + "c> ."), "text/turtle", "EX", vb -> {
+            vb.setPrefix(NS);
+            vb.setGeneratePack(true);
+            vb.setGenerateTermEnum(true);
+        });
+    }
+
+}
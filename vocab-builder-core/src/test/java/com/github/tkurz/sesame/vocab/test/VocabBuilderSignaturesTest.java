@@ -0,0 +1,109 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.google.common.base.CaseFormat;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Tests for the property tables created by {@link VocabBuilder#setGenerateSignatures(boolean)}.
+ */
+public class VocabBuilderSignaturesTest {
+
+    private static final String NS = "http://example.com/ns#";
+
+    private static final String VOCABULARY = "@prefix : <" + NS + "> .\n"
+            + "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n"
+            + "@prefix owl: <http://www.w3.org/2002/07/owl#> .\n"
+            + "@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n"
+            + ":Person a owl:Class .\n"
+            + ":Document a owl:Class .\n"
+            + ":author a owl:ObjectProperty ; rdfs:domain :Document ; rdfs:range :Person ; owl:inverseOf :wrote .\n"
+            + ":wrote a owl:ObjectProperty .\n"
+            + ":age a owl:DatatypeProperty, owl:FunctionalProperty ; rdfs:domain :Person ; rdfs:range xsd:integer .\n"
+            + ":topic a owl:ObjectProperty ; rdfs:domain [ owl:unionOf ( :Person :Document ) ] .\n";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final VocabFixture fixture = new VocabFixture(temp);
+
+    private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+    private Class<?> generate(boolean compactIRIs) throws Exception {
+        return fixture.generate(fixture.write("ex.ttl", VOCABULARY), "text/turtle", "EX", vb -> {
+            vb.setPrefix(NS);
+            vb.setConstantCase(CaseFormat.UPPER_UNDERSCORE);
+            vb.setCompactIRIs(compactIRIs);
+            vb.setGenerateSignatures(true);
+        });
+    }
+
+    @Test
+    public void testSignatures() throws Exception {
+        checkSignatures(generate(false));
+    }
+
+    @Test
+    public void testSignaturesCompact() throws Exception {
+        checkSignatures(generate(true));
+    }
+
+    private void checkSignatures(Class<?> vocabClass) throws Exception {
+        final IRI person = vf.createIRI(NS, "Person");
+        final IRI document = vf.createIRI(NS, "Document");
+        final IRI author = vf.createIRI(NS, "author");
+        final IRI wrote = vf.createIRI(NS, "wrote");
+        final IRI age = vf.createIRI(NS, "age");
+        final IRI topic = vf.createIRI(NS, "topic");
+
+        Assert.assertEquals(Collections.singletonList(document), invoke(vocabClass, "domainsOf", author));
+        Assert.assertEquals(Collections.singletonList(person), invoke(vocabClass, "rangesOf", author));
+        Assert.assertEquals(Collections.singletonList(XMLSchema.INTEGER), invoke(vocabClass, "rangesOf", age));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(person, document)), new HashSet<>((List<?>) invoke(vocabClass, "domainsOf", topic)));
+        Assert.assertEquals(Collections.emptyList(), invoke(vocabClass, "domainsOf", wrote));
+        Assert.assertEquals(Collections.emptyList(), invoke(vocabClass, "domainsOf", vf.createIRI("http://example.com/other")));
+
+        Assert.assertEquals(true, invoke(vocabClass, "hasDomain", author, document));
+        Assert.assertEquals(false, invoke(vocabClass, "hasDomain", author, person));
+        Assert.assertEquals(true, invoke(vocabClass, "hasRange", age, XMLSchema.INTEGER));
+        Assert.assertEquals(false, invoke(vocabClass, "hasRange", age, XMLSchema.STRING));
+        Assert.assertEquals(false, invoke(vocabClass, "hasRange", age, null));
+        Assert.assertSame(vocabClass.getField("DOCUMENT").get(null), ((List<?>) invoke(vocabClass, "domainsOf", author)).get(0));
+        // precomputed, not built per call
+        Assert.assertSame(invoke(vocabClass, "domainsOf", author), invoke(vocabClass, "domainsOf", author));
+        Assert.assertSame(invoke(vocabClass, "rangesOf", age), invoke(vocabClass, "rangesOf", age));
+        try {
+            ((List<?>) invoke(vocabClass, "rangesOf", age)).clear();
+            Assert.fail("modified the ranges of a property");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        Assert.assertEquals(true, invoke(vocabClass, "isFunctional", age));
+        Assert.assertEquals(false, invoke(vocabClass, "isFunctional", author));
+
+        Assert.assertEquals(wrote, invoke(vocabClass, "inverseOf", author));
+        Assert.assertEquals(author, invoke(vocabClass, "inverseOf", wrote));
+        Assert.assertNull(invoke(vocabClass, "inverseOf", age));
+        Assert.assertNull(invoke(vocabClass, "inverseOf", (IRI) null));
+    }
+
+    private static Object invoke(Class<?> vocabClass, String method, IRI... args) throws Exception {
+        final Class<?>[] types = new Class<?>[args.length];
+        Arrays.fill(types, IRI.class);
+        return vocabClass.getMethod(method, types).invoke(null, (Object[]) args);
+    }
+
+}
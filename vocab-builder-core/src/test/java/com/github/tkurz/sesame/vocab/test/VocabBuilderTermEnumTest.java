@@ -0,0 +1,55 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.google.common.base.CaseFormat;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.Method;
+import java.util.EnumSet;
+
+/**
+ * Tests for the term enum created by {@link VocabBuilder#setGenerateTermEnum(boolean)}.
+ */
+public class VocabBuilderTermEnumTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final VocabFixture fixture = new VocabFixture(temp);
+
+    private Class<?> vocabClass;
+
+    @Before
+    public void setUp() throws Exception {
+        vocabClass = fixture.generate(fixture.copy("ldp.ttl"), null, "LDP", vb -> {
+            vb.setConstantCase(CaseFormat.UPPER_UNDERSCORE);
+            vb.setGenerateTermEnum(true);
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTermEnum() throws Exception {
+        final Class<? extends Enum> termClass = (Class<? extends Enum>) Class.forName("LDP$" + VocabBuilder.TERM_ENUM_NAME, true, vocabClass.getClassLoader());
+        Assert.assertTrue(termClass.isEnum());
+
+        final IRI container = (IRI) vocabClass.getField("CONTAINER").get(null);
+        final Enum term = Enum.valueOf(termClass, "CONTAINER");
+        Assert.assertSame(container, termClass.getMethod("getIRI").invoke(term));
+        Assert.assertEquals("Container", termClass.getMethod("getLocalName").invoke(term));
+
+        final Method fromIRI = termClass.getMethod("fromIRI", IRI.class);
+        Assert.assertSame(term, fromIRI.invoke(null, SimpleValueFactory.getInstance().createIRI("http://www.w3.org/ns/ldp#Container")));
+        Assert.assertNull(fromIRI.invoke(null, SimpleValueFactory.getInstance().createIRI("http://example.com/ns#Container")));
+        Assert.assertNull(fromIRI.invoke(null, (Object) null));
+
+        Assert.assertEquals(termClass.getEnumConstants().length, EnumSet.allOf((Class) termClass).size());
+    }
+
+}
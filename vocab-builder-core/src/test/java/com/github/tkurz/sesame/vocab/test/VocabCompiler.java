@@ -0,0 +1,42 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import org.junit.Assert;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiles generated vocabularies and loads the resulting classes.
+ */
+public final class VocabCompiler {
+
+    private VocabCompiler() {
+        // static access only
+    }
+
+    public static Class<?> compileAndLoad(Path source, Path classes, String className) throws IOException, ClassNotFoundException {
+        return compileAndLoad(Collections.singletonList(source), classes, className);
+    }
+
+    public static Class<?> compileAndLoad(List<Path> sources, Path classes, String className) throws IOException, ClassNotFoundException {
+        final List<String> args = new ArrayList<>(Arrays.asList("-encoding", "UTF-8", "-d", classes.toString()));
+        for (Path source : sources) {
+            args.add(source.toString());
+        }
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int result = compiler.run(null, null, null, args.toArray(new String[args.size()]));
+        Assert.assertEquals("Compiling the Vocab failed", 0, result);
+
+        final URLClassLoader cl = new URLClassLoader(new URL[]{classes.toUri().toURL()}, VocabCompiler.class.getClassLoader());
+        return Class.forName(className, true, cl);
+    }
+
+}
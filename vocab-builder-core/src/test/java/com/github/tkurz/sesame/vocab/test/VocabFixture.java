@@ -0,0 +1,112 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.RegistryBuilder;
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.github.tkurz.sesame.vocab.runtime.VocabularyRegistry;
+import org.apache.commons.io.FileUtils;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Generates vocabularies, and registries of them, into a {@link TemporaryFolder}, then compiles and loads them with
+ * {@link VocabCompiler}.
+ */
+public final class VocabFixture {
+
+    private final TemporaryFolder temp;
+
+    public VocabFixture(TemporaryFolder temp) {
+        this.temp = temp;
+    }
+
+    /**
+     * Copy a resource of the tests into the temporary folder.
+     */
+    public File copy(String resource) throws IOException {
+        final File file = temp.newFile(resource);
+        try (InputStream in = getClass().getResourceAsStream("/" + resource)) {
+            FileUtils.copyInputStreamToFile(in, file);
+        }
+        return file;
+    }
+
+    /**
+     * Write a vocabulary into the temporary folder.
+     */
+    public File write(String fileName, String content) throws IOException {
+        final File file = temp.newFile(fileName);
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Create a builder for a vocabulary.
+     *
+     * @param mimeType      the format of the input, {@code null} to guess it from the file name
+     * @param configuration the options of the builder
+     */
+    public VocabBuilder builder(File input, String mimeType, Consumer<VocabBuilder> configuration) throws Exception {
+        final VocabBuilder vb = new VocabBuilder(input.getAbsolutePath(), mimeType);
+        configuration.accept(vb);
+        return vb;
+    }
+
+    /**
+     * Generate a vocabulary, compile it and load the class.
+     * Other generated files, like the {@link VocabBuilder#setGeneratePack(boolean) pack}, are added to the classpath.
+     *
+     * @param mimeType      the format of the input, {@code null} to guess it from the file name
+     * @param configuration the options of the builder
+     */
+    public Class<?> generate(File input, String mimeType, String className, Consumer<VocabBuilder> configuration) throws Exception {
+        final Path output = temp.newFolder().toPath().resolve(className + ".java");
+        final Path classes = temp.newFolder().toPath();
+
+        builder(input, mimeType, configuration).generate(output);
+
+        try (DirectoryStream<Path> generated = Files.newDirectoryStream(output.getParent(), "*")) {
+            for (Path file : generated) {
+                if (!file.equals(output)) {
+                    Files.copy(file, classes.resolve(file.getFileName()));
+                }
+            }
+        }
+        return VocabCompiler.compileAndLoad(output, classes, className);
+    }
+
+    /**
+     * Generate vocabularies and their registry, compile them and create the registry.
+     *
+     * @param vocabularies the builders by class name, added to the registry in this order
+     */
+    public VocabularyRegistry generateRegistry(RegistryBuilder registry, String className, Map<String, VocabBuilder> vocabularies) throws Exception {
+        final Path src = temp.newFolder().toPath();
+        final List<Path> sources = new ArrayList<>();
+        for (Map.Entry<String, VocabBuilder> vocabulary : vocabularies.entrySet()) {
+            final Path output = src.resolve(vocabulary.getKey() + ".java");
+            vocabulary.getValue().generate(output);
+            sources.add(output);
+            registry.addVocabulary(vocabulary.getValue(), vocabulary.getKey());
+        }
+        final Path output = src.resolve(className + ".java");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            registry.generate(className, out);
+        }
+        sources.add(output);
+        return (VocabularyRegistry) VocabCompiler.compileAndLoad(sources, temp.newFolder().toPath(), className)
+                .getDeclaredConstructor().newInstance();
+    }
+
+}
@@ -0,0 +1,324 @@
+package com.github.tkurz.sesame.vocab.test;
+
+import com.github.tkurz.sesame.vocab.RemoteVocabularyCache;
+import com.github.tkurz.sesame.vocab.VocabularyFetcher;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tests for {@link VocabularyFetcher} against an embedded HTTP server.
+ */
+public class VocabularyFetcherTest {
+
+    private static final String VOCABULARY = "<http://example.com/ns#a> <http://www.w3.org/2000/01/rdf-schema#label> \"a\" .";
+
+    private static final String RDF_XML = "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"/>";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private HttpServer server;
+
+    /**
+     * The conditional headers of all requests, {@code null} for unconditional ones.
+     */
+    private final List<String> conditions = new CopyOnWriteArrayList<>();
+
+    /**
+     * The {@code Accept} headers of all requests to {@code /ns}.
+     */
+    private final List<String> accepts = new CopyOnWriteArrayList<>();
+
+    private volatile String etag = "\"v1\"";
+
+    /**
+     * The number of requests to {@code /flaky} failing before it responds.
+     */
+    private volatile int flakyFailures = 0;
+
+    private final AtomicInteger flakyRequests = new AtomicInteger(), missingRequests = new AtomicInteger();
+
+    private ExecutorService executor;
+
+    private VocabularyFetcher fetcher;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/ns", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+                conditions.add(ifNoneMatch);
+                accepts.add(exchange.getRequestHeaders().getFirst("Accept"));
+                exchange.getResponseHeaders().set("ETag", etag);
+                if (etag.equals(ifNoneMatch)) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    final byte[] body = VOCABULARY.getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "application/n-triples");
+                    exchange.getResponseHeaders().set("Last-Modified", "Tue, 01 Aug 2017 00:00:00 GMT");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+                exchange.close();
+            }
+        });
+        server.createContext("/negotiated", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                // the vocabulary never changes, in the format of the Accept header
+                conditions.add(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+                if (exchange.getRequestHeaders().containsKey("If-Modified-Since")) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    final boolean rdfXml = exchange.getRequestHeaders().getFirst("Accept").startsWith("application/rdf+xml");
+                    final byte[] body = (rdfXml ? RDF_XML : VOCABULARY).getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", rdfXml ? "application/rdf+xml" : "application/n-triples");
+                    exchange.getResponseHeaders().set("Last-Modified", "Tue, 01 Aug 2017 00:00:00 GMT");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+                exchange.close();
+            }
+        });
+        server.createContext("/compressed", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+                    exchange.sendResponseHeaders(406, -1);
+                } else {
+                    exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                    exchange.sendResponseHeaders(200, 0);
+                    try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+                        out.write(VOCABULARY.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                exchange.close();
+            }
+        });
+        server.createContext("/missing", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                missingRequests.incrementAndGet();
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            }
+        });
+        server.createContext("/flaky", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if (flakyRequests.incrementAndGet() <= flakyFailures) {
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+                } else {
+                    send(exchange);
+                }
+            }
+        });
+        server.createContext("/slow", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                send(exchange);
+            }
+        });
+        // slow requests must not block the others
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+        fetcher = new VocabularyFetcher(new RemoteVocabularyCache(temp.getRoot().toPath(), RemoteVocabularyCache.DEFAULT_MAX_SIZE), "test");
+        fetcher.setRetryDelay(10);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        fetcher.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void send(HttpExchange exchange) throws IOException {
+        final byte[] body = VOCABULARY.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/n-triples");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        exchange.close();
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), path);
+    }
+
+    @Test
+    public void testConditionalGet() throws Exception {
+        final VocabularyFetcher.Result first = fetcher.fetch(url("/ns"));
+        Assert.assertTrue(first.isModified());
+        Assert.assertEquals(VOCABULARY, RemoteVocabularyCacheTest.read(first.getEntry()));
+        Assert.assertEquals("application/n-triples", first.getEntry().getContentType());
+        Assert.assertEquals("\"v1\"", first.getEntry().getETag());
+
+        final VocabularyFetcher.Result second = fetcher.fetch(url("/ns"));
+        Assert.assertFalse(second.isModified());
+        Assert.assertEquals(first.getEntry().getFile(), second.getEntry().getFile());
+        Assert.assertEquals("application/n-triples", second.getEntry().getContentType());
+
+        etag = "\"v2\"";
+        final VocabularyFetcher.Result third = fetcher.fetch(url("/ns"));
+        Assert.assertTrue(third.isModified());
+        Assert.assertEquals("\"v2\"", third.getEntry().getETag());
+
+        Assert.assertEquals(3, conditions.size());
+        Assert.assertNull(conditions.get(0));
+        Assert.assertEquals("\"v1\"", conditions.get(1));
+        Assert.assertEquals("\"v1\"", conditions.get(2));
+    }
+
+    @Test
+    public void testCompressedTransfer() throws Exception {
+        final VocabularyFetcher.Result fetched = fetcher.fetch(url("/compressed"));
+        Assert.assertEquals(VOCABULARY, RemoteVocabularyCacheTest.read(fetched.getEntry()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testError() throws Exception {
+        fetcher.fetch(url("/missing"));
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        flakyFailures = 2;
+        final VocabularyFetcher.Result fetched = fetcher.fetch(url("/flaky"));
+        Assert.assertEquals(VOCABULARY, RemoteVocabularyCacheTest.read(fetched.getEntry()));
+        Assert.assertEquals(3, flakyRequests.get());
+    }
+
+    @Test
+    public void testRetryLimit() throws Exception {
+        flakyFailures = 10;
+        fetcher.setRetries(3);
+        try {
+            fetcher.fetch(url("/flaky"));
+            Assert.fail("fetched a failing vocabulary");
+        } catch (IOException e) {
+            Assert.assertEquals(4, flakyRequests.get());
+        }
+    }
+
+    @Test
+    public void testNoRetryOnClientError() throws Exception {
+        try {
+            fetcher.fetch(url("/missing"));
+            Assert.fail("fetched a missing vocabulary");
+        } catch (IOException e) {
+            Assert.assertEquals(1, missingRequests.get());
+        }
+    }
+
+    @Test
+    public void testReadTimeout() throws Exception {
+        fetcher.setReadTimeout(200);
+        fetcher.setRetries(1);
+        final long start = System.currentTimeMillis();
+        try {
+            fetcher.fetch(url("/slow"));
+            Assert.fail("fetched a hanging vocabulary");
+        } catch (IOException e) {
+            Assert.assertTrue(System.currentTimeMillis() - start < 4000);
+        }
+    }
+
+    @Test
+    public void testMirror() throws Exception {
+        final VocabularyFetcher.Result<Void> fetched = fetcher.fetch(url("/missing"), null, Collections.singletonList(url("/flaky")), 0, null);
+        Assert.assertEquals(VOCABULARY, RemoteVocabularyCacheTest.read(fetched.getEntry()));
+        Assert.assertEquals(1, missingRequests.get());
+        // cached for the URL of the vocabulary
+        Assert.assertNotNull(fetcher.getCache().get(url("/missing")));
+        Assert.assertNull(fetcher.getCache().get(url("/flaky")));
+    }
+
+    @Test
+    public void testHedgedMirror() throws Exception {
+        final long start = System.currentTimeMillis();
+        final VocabularyFetcher.Result<Void> fetched = fetcher.fetch(url("/slow"), null, Arrays.asList(url("/slow"), url("/flaky")), 100, null);
+        Assert.assertEquals(VOCABULARY, RemoteVocabularyCacheTest.read(fetched.getEntry()));
+        Assert.assertTrue(System.currentTimeMillis() - start < 4000);
+        Assert.assertEquals(1, flakyRequests.get());
+    }
+
+    @Test
+    public void testAcceptHeader() throws Exception {
+        final String accept = VocabularyFetcher.getAcceptHeaderValue();
+        // the fastest parser first, without a q-value
+        Assert.assertTrue(accept, accept.startsWith(RDFFormat.RDFJSON.getDefaultMIMEType() + ", "));
+        Assert.assertTrue(accept, accept.contains("application/rdf+xml;q=0.5"));
+        Assert.assertTrue(accept, accept.indexOf("application/rdf+xml") < accept.indexOf("text/turtle"));
+        Assert.assertTrue(accept, accept.indexOf("text/turtle") < accept.indexOf("application/n-triples"));
+        Assert.assertEquals("text/turtle;q=0.35, application/x-turtle;q=0.35",
+                VocabularyFetcher.getAcceptHeaderValue(Collections.singleton(RDFFormat.TURTLE)));
+        Assert.assertTrue(VocabularyFetcher.getParseThroughput(RDFFormat.NTRIPLES) < VocabularyFetcher.getParseThroughput(RDFFormat.RDFXML));
+
+        fetcher.fetch(url("/ns"));
+        Assert.assertEquals(accept, accepts.get(0));
+    }
+
+    @Test
+    public void testAcceptHeaderPerVocabulary() throws Exception {
+        fetcher.fetch(url("/ns"), "application/n-triples", Collections.<URL>emptyList(), 0, null);
+        Assert.assertEquals("application/n-triples", accepts.get(0));
+    }
+
+    @Test
+    public void testCachedPerAcceptHeader() throws Exception {
+        final VocabularyFetcher.Result nTriples = fetcher.fetch(url("/negotiated"), "application/n-triples", Collections.<URL>emptyList(), 0, null);
+        Assert.assertTrue(nTriples.isModified());
+
+        // the validators of the N-Triples are not sent for RDF/XML
+        final VocabularyFetcher.Result rdfXml = fetcher.fetch(url("/negotiated"), "application/rdf+xml", Collections.<URL>emptyList(), 0, null);
+        Assert.assertTrue(rdfXml.isModified());
+        Assert.assertEquals(RDF_XML, RemoteVocabularyCacheTest.read(rdfXml.getEntry()));
+        Assert.assertEquals("application/rdf+xml", rdfXml.getEntry().getContentType());
+
+        final VocabularyFetcher.Result cached = fetcher.fetch(url("/negotiated"), "application/n-triples", Collections.<URL>emptyList(), 0, null);
+        Assert.assertFalse(cached.isModified());
+        Assert.assertEquals(VOCABULARY, RemoteVocabularyCacheTest.read(cached.getEntry()));
+        Assert.assertEquals("application/n-triples", cached.getEntry().getContentType());
+        Assert.assertEquals(Arrays.asList(null, null, "Tue, 01 Aug 2017 00:00:00 GMT"), conditions);
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.github.tkurz.sesame.vocab.gradle;
+
+import com.github.tkurz.sesame.vocab.GeneratedFiles;
+import com.github.tkurz.sesame.vocab.RemoteVocabularyCache;
+import com.github.tkurz.sesame.vocab.VocabularyFetcher;
+import com.google.common.io.ByteStreams;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.DisableCachingByDefault;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Downloads the remote vocabularies into the vocabulary cache of the user, and copies them into
+ * {@code <outputDirectory>/<name>/<name>.<extension>} for {@link GenerateVocabulariesTask}.
+ * <p/>
+ * Remote vocabularies can change at any time, so the task always runs; but it requests the vocabularies
+ * conditionally and leaves unchanged copies untouched, so the generation stays up to date. With
+ * {@code --offline}, the vocabularies are taken from the cache.
+ */
+@DisableCachingByDefault(because = "Remote vocabularies are fetched conditionally from the vocabulary cache")
+public abstract class FetchVocabulariesTask extends DefaultTask {
+
+    public FetchVocabulariesTask() {
+        getOutputs().upToDateWhen(task -> false);
+    }
+
+    @Nested
+    public abstract ListProperty<RemoteVocabulary> getVocabularies();
+
+    @Internal
+    public abstract DirectoryProperty getVocabularyCache();
+
+    @Internal
+    public abstract Property<Long> getVocabularyCacheSize();
+
+    @Input
+    public abstract Property<Integer> getConnectTimeout();
+
+    @Input
+    public abstract Property<Integer> getReadTimeout();
+
+    @Input
+    public abstract Property<Integer> getRetries();
+
+    @Input
+    public abstract Property<Long> getRetryDelay();
+
+    @Internal
+    public abstract Property<Boolean> getOffline();
+
+    @Internal
+    public abstract Property<String> getUserAgent();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    @TaskAction
+    public void fetch() throws IOException {
+        final RemoteVocabularyCache cache = new RemoteVocabularyCache(getVocabularyCache().get().getAsFile().toPath(),
+                getVocabularyCacheSize().get() * 1024 * 1024);
+        final Path output = getOutputDirectory().get().getAsFile().toPath();
+        final Set<String> names = new HashSet<>();
+        try (VocabularyFetcher fetcher = new VocabularyFetcher(cache, getUserAgent().get())) {
+            fetcher.setConnectTimeout(getConnectTimeout().get());
+            fetcher.setReadTimeout(getReadTimeout().get());
+            fetcher.setRetries(getRetries().get());
+            fetcher.setRetryDelay(getRetryDelay().get());
+            for (RemoteVocabulary vocabulary : getVocabularies().get()) {
+                names.add(vocabulary.getName());
+                final RemoteVocabularyCache.Entry cached = fetch(vocabulary, fetcher);
+                final URL url = new URL(vocabulary.getUrl());
+                final String mime = vocabulary.getMimeType() != null ? vocabulary.getMimeType() : getMimeType(cached.getContentType());
+                RDFFormat format = mime != null ? Rio.getParserFormatForMIMEType(mime).orElse(null) : null;
+                if (format == null) {
+                    format = Rio.getParserFormatForFileName(url.getPath()).orElse(null);
+                }
+                if (format == null) {
+                    throw new GradleException(String.format("Unknown format of vocabulary %s (%s), configure its mimeType", vocabulary.getName(), cached.getContentType()));
+                }
+
+                // the name of the copy tells the generation the format
+                final Path dir = output.resolve(vocabulary.getName());
+                final Path copy = dir.resolve(vocabulary.getName() + "." + format.getDefaultFileExtension());
+                Files.createDirectories(dir);
+                deleteAll(dir, copy);
+                try (InputStream in = cached.openStream()) {
+                    if (GeneratedFiles.write(copy, ByteStreams.toByteArray(in))) {
+                        getLogger().info("Updated vocabulary {} from {}", vocabulary.getName(), url);
+                    }
+                }
+            }
+        }
+
+        // vocabularies that are no longer configured
+        final File[] dirs = output.toFile().listFiles();
+        if (dirs != null) {
+            for (File dir : dirs) {
+                if (!names.contains(dir.getName())) {
+                    deleteAll(dir.toPath(), null);
+                    Files.deleteIfExists(dir.toPath());
+                }
+            }
+        }
+    }
+
+    private RemoteVocabularyCache.Entry fetch(RemoteVocabulary vocabulary, VocabularyFetcher fetcher) throws IOException {
+        final URL url = new URL(vocabulary.getUrl());
+        if (getOffline().get()) {
+            final RemoteVocabularyCache.Entry cached = fetcher.getCache().get(url);
+            if (cached == null) {
+                throw new GradleException(String.format("Offline: vocabulary %s is not cached, %s", vocabulary.getName(), url));
+            }
+            return cached;
+        }
+        final List<URL> mirrors = new ArrayList<>();
+        for (String mirror : vocabulary.getMirrors()) {
+            mirrors.add(new URL(mirror));
+        }
+        // the response is parsed as the configured mime-type, so request it
+        final String accept = vocabulary.getAccept() != null ? vocabulary.getAccept() : vocabulary.getMimeType();
+        try {
+            final VocabularyFetcher.Result<Void> fetched = fetcher.fetch(url, accept, mirrors, vocabulary.getHedgeDelay(), null);
+            if (fetched.isModified()) {
+                getLogger().lifecycle("Fetched vocabulary {} from {}", vocabulary.getName(), url);
+            }
+            return fetched.getEntry();
+        } catch (URISyntaxException e) {
+            throw new GradleException(String.format("Invalid URL for vocabulary %s: %s", vocabulary.getName(), url), e);
+        } catch (IOException e) {
+            final RemoteVocabularyCache.Entry cached = fetcher.getCache().get(url);
+            if (cached == null) {
+                throw new GradleException(String.format("Could not fetch vocabulary %s: %s", vocabulary.getName(), e.getMessage()), e);
+            }
+            getLogger().warn("Could not fetch vocabulary {}, using cached copy: {}", vocabulary.getName(), e.getMessage());
+            return cached;
+        }
+    }
+
+    private static void deleteAll(Path dir, Path keep) throws IOException {
+        final File[] files = dir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (keep == null || !file.toPath().equals(keep)) {
+                    Files.deleteIfExists(file.toPath());
+                }
+            }
+        }
+    }
+
+    private static String getMimeType(String contentType) {
+        return contentType != null ? contentType.replaceFirst(";.*$", "").trim() : null;
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.tkurz.sesame.vocab.gradle;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.ChangeType;
+import org.gradle.work.FileChange;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates the vocabulary classes and resource bundles.
+ * <p/>
+ * The task is cacheable: its inputs are the {@link #getVocabularies() options} and the contents of the
+ * {@link #getSources() vocabulary files}, relative to the project, so the outputs are shared with other
+ * checkouts through the build cache. It is also incremental, if only some vocabulary files changed, only
+ * these vocabularies are generated again.
+ */
+@CacheableTask
+public abstract class GenerateVocabulariesTask extends DefaultTask {
+
+    @Nested
+    public abstract ListProperty<VocabularyOptions> getVocabularies();
+
+    /**
+     * The local vocabulary files and the {@link #getDownloadDirectory() downloaded} ones.
+     */
+    @Incremental
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getSources();
+
+    /**
+     * The output directory of {@link FetchVocabulariesTask}, with a directory for every remote vocabulary.
+     */
+    @Internal
+    public abstract DirectoryProperty getDownloadDirectory();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getBundleOutputDirectory();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    @Inject
+    protected abstract FileSystemOperations getFileSystemOperations();
+
+    @TaskAction
+    public void generate(InputChanges changes) {
+        final List<VocabularyOptions> vocabularies = getVocabularies().get();
+        Set<File> changed = null;
+        if (changes.isIncremental()) {
+            changed = new HashSet<>();
+            for (FileChange change : changes.getFileChanges(getSources())) {
+                if (change.getChangeType() == ChangeType.REMOVED) {
+                    // the outputs of a removed vocabulary are unknown by now
+                    changed = null;
+                    break;
+                }
+                changed.add(change.getFile().getAbsoluteFile());
+            }
+        }
+        if (changed == null) {
+            getFileSystemOperations().delete(spec -> spec.delete(
+                    getOutputDirectory().get().getAsFileTree(), getBundleOutputDirectory().get().getAsFileTree()));
+        }
+
+        final WorkQueue queue = getWorkerExecutor().noIsolation();
+        int submitted = 0;
+        for (final VocabularyOptions options : vocabularies) {
+            final File source = getSource(options);
+            if (changed != null && !changed.contains(source)) {
+                getLogger().info("Skipping {}, vocabulary did not change", options.getName());
+                continue;
+            }
+            queue.submit(GenerateVocabularyAction.class, parameters -> {
+                parameters.getSource().set(source);
+                parameters.getOptions().set(options);
+                parameters.getOutputDirectory().set(getOutputDirectory());
+                parameters.getBundleOutputDirectory().set(getBundleOutputDirectory());
+            });
+            submitted++;
+        }
+        queue.await();
+        getLogger().info("Generated {} of {} vocabularies", submitted, vocabularies.size());
+    }
+
+    private File getSource(VocabularyOptions options) {
+        if (options.getFile() != null) {
+            return options.getFile().getAbsoluteFile();
+        }
+        final File dir = new File(getDownloadDirectory().get().getAsFile(), options.getName());
+        final List<File> files = new ArrayList<>();
+        final File[] listed = dir.listFiles();
+        if (listed != null) {
+            for (File file : listed) {
+                if (file.isFile()) {
+                    files.add(file);
+                }
+            }
+        }
+        if (files.size() != 1) {
+            throw new GradleException(String.format("Vocabulary %s was not downloaded to %s", options.getName(), dir));
+        }
+        return files.get(0).getAbsoluteFile();
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.tkurz.sesame.vocab.gradle;
+
+import com.github.tkurz.sesame.vocab.GeneratedFiles;
+import com.github.tkurz.sesame.vocab.GenerationException;
+import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.google.common.base.CaseFormat;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.Rio;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates the class, and the resource bundles if configured, of a single vocabulary. The actions of a
+ * {@link GenerateVocabulariesTask} run in parallel, as far as the workers of the build allow.
+ */
+public abstract class GenerateVocabularyAction implements WorkAction<GenerateVocabularyAction.Parameters> {
+
+    private static final Logger log = Logging.getLogger(GenerateVocabularyAction.class);
+
+    public interface Parameters extends WorkParameters {
+
+        RegularFileProperty getSource();
+
+        Property<VocabularyOptions> getOptions();
+
+        DirectoryProperty getOutputDirectory();
+
+        DirectoryProperty getBundleOutputDirectory();
+    }
+
+    @Override
+    public void execute() {
+        final VocabularyOptions options = getParameters().getOptions().get();
+        final File source = getParameters().getSource().get().getAsFile();
+        try {
+            final RDFFormat format = options.getMimeType() != null ? Rio.getParserFormatForMIMEType(options.getMimeType()).orElse(null) : null;
+            final VocabBuilder builder = new VocabBuilder(source.getAbsolutePath(), format, null);
+            builder.setName(options.getName());
+            if (options.getPreferredLanguage() != null) {
+                builder.setPreferredLanguage(options.getPreferredLanguage());
+            }
+            if (options.getPackageName() != null) {
+                builder.setPackageName(options.getPackageName());
+            }
+            if (options.getPrefix() != null) {
+                builder.setPrefix(options.getPrefix());
+            }
+            if (options.getConstantCase() != null) {
+                builder.setConstantCase(CaseFormat.valueOf(options.getConstantCase()));
+            }
+            if (options.isCreateStringConstants()) {
+                builder.setStringPropertyPrefix(options.getStringConstantPrefix());
+                builder.setStringPropertySuffix(options.getStringConstantSuffix());
+                builder.setStringConstantCase(options.getStringConstantCase() != null ? CaseFormat.valueOf(options.getStringConstantCase()) : null);
+            } else {
+                builder.setStringPropertyPrefix(null);
+                builder.setStringPropertySuffix(null);
+                builder.setStringConstantCase(null);
+            }
+            builder.setGenerateTermEnum(options.isCreateTermEnum());
+            builder.setCompactIRIs(options.isCompactIRIs());
+            builder.setGenerateLookup(options.isCreateLookup());
+            builder.setGenerateHierarchy(options.isCreateHierarchy());
+            builder.setGenerateCategories(options.isCreateCategories());
+            builder.setGenerateSignatures(options.isCreateSignatures());
+            builder.setGenerateCanonical(options.isCreateCanonical());
+            builder.setGenerateLabelIndex(options.isCreateLabelIndex());
+
+            final String className = options.getClassName();
+            final Path target = getPackageDirectory(getParameters().getOutputDirectory(), builder);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                builder.generate(className, writer);
+            }
+            Files.createDirectories(target);
+            GeneratedFiles.write(target.resolve(className + ".java"), out.toByteArray());
+            log.info("Generated vocabulary {} from {}", className, source);
+
+            final Path bundleTarget = getPackageDirectory(getParameters().getBundleOutputDirectory(), builder);
+            deleteBundles(bundleTarget, className);
+            if (options.isCreateResourceBundles()) {
+                Files.createDirectories(bundleTarget);
+                builder.generateResourceBundle(className, bundleTarget);
+            }
+        } catch (RDFParseException e) {
+            throw new GradleException(String.format("Could not parse vocabulary %s: %s", options.getName(), e.getMessage()), e);
+        } catch (GenerationException e) {
+            throw new GradleException(String.format("Could not generate vocabulary %s: %s", options.getName(), e.getMessage()), e);
+        } catch (IOException e) {
+            throw new GradleException(String.format("Could not generate vocabulary %s: %s", options.getName(), e.getMessage()), e);
+        }
+    }
+
+    private static Path getPackageDirectory(DirectoryProperty directory, VocabBuilder builder) {
+        Path target = directory.get().getAsFile().toPath();
+        if (builder.getPackageName() != null) {
+            target = target.resolve(builder.getPackageName().replaceAll("\\.", "/"));
+        }
+        return target;
+    }
+
+    /**
+     * Bundles of a previous generation, the languages of the vocabulary may have changed.
+     */
+    private static void deleteBundles(Path dir, String className) throws IOException {
+        final File[] files = dir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                final String name = file.getName();
+                if (name.equals(className + ".properties") || name.startsWith(className + "_") && name.endsWith(".properties")) {
+                    Files.delete(file.toPath());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.tkurz.sesame.vocab.gradle;
+
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Optional;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A vocabulary downloaded by {@link FetchVocabulariesTask}.
+ */
+public class RemoteVocabulary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final String url;
+    private final List<String> mirrors;
+    private final long hedgeDelay;
+    private final String accept;
+    private final String mimeType;
+
+    public RemoteVocabulary(String name, String url, List<String> mirrors, long hedgeDelay, String accept, String mimeType) {
+        this.name = name;
+        this.url = url;
+        this.mirrors = new ArrayList<>(mirrors);
+        this.hedgeDelay = hedgeDelay;
+        this.accept = accept;
+        this.mimeType = mimeType;
+    }
+
+    @Input
+    public String getName() {
+        return name;
+    }
+
+    @Input
+    public String getUrl() {
+        return url;
+    }
+
+    @Input
+    public List<String> getMirrors() {
+        return mirrors;
+    }
+
+    @Input
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    @Input
+    @Optional
+    public String getAccept() {
+        return accept;
+    }
+
+    /**
+     * The configured or guessed mime-type, {@code null} to use the {@code Content-Type} of the response.
+     */
+    @Input
+    @Optional
+    public String getMimeType() {
+        return mimeType;
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.tkurz.sesame.vocab.gradle;
+
+import org.gradle.api.Action;
+import org.gradle.api.NamedDomainObjectContainer;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+
+import javax.inject.Inject;
+
+/**
+ * The {@code vocabBuilder} extension: the vocabularies to generate and the defaults for all of them.
+ */
+public abstract class VocabBuilderExtension {
+
+    private final NamedDomainObjectContainer<VocabularySpec> vocabularies;
+
+    @Inject
+    public VocabBuilderExtension(ObjectFactory objects) {
+        this.vocabularies = objects.domainObjectContainer(VocabularySpec.class);
+    }
+
+    public NamedDomainObjectContainer<VocabularySpec> getVocabularies() {
+        return vocabularies;
+    }
+
+    public void vocabularies(Action<? super NamedDomainObjectContainer<VocabularySpec>> action) {
+        action.execute(vocabularies);
+    }
+
+    public abstract Property<String> getPackageName();
+
+    public abstract Property<String> getPreferredLanguage();
+
+    /**
+     * The mime-type of vocabularies whose format can not be guessed.
+     */
+    public abstract Property<String> getMimeType();
+
+    public abstract Property<Boolean> getCreateResourceBundles();
+
+    public abstract Property<Boolean> getCreateTermEnum();
+
+    public abstract Property<Boolean> getCompactIRIs();
+
+    public abstract Property<Boolean> getCreateLookup();
+
+    public abstract Property<Boolean> getCreateHierarchy();
+
+    public abstract Property<Boolean> getCreateCategories();
+
+    public abstract Property<Boolean> getCreateSignatures();
+
+    public abstract Property<Boolean> getCreateCanonical();
+
+    public abstract Property<Boolean> getCreateLabelIndex();
+
+    /**
+     * The case of the IRI constants, a {@link com.google.common.base.CaseFormat}.
+     */
+    public abstract Property<String> getConstantCase();
+
+    public abstract Property<Boolean> getCreateStringConstants();
+
+    public abstract Property<String> getStringConstantPrefix();
+
+    public abstract Property<String> getStringConstantSuffix();
+
+    /**
+     * The case of the String constants, a {@link com.google.common.base.CaseFormat}.
+     */
+    public abstract Property<String> getStringConstantCase();
+
+    /**
+     * Downloaded vocabularies, shared by all builds of the user.
+     */
+    public abstract DirectoryProperty getVocabularyCache();
+
+    /**
+     * The maximum size of the downloaded vocabularies in MB, least recently used ones are deleted.
+     */
+    public abstract Property<Long> getVocabularyCacheSize();
+
+    /**
+     * The time in milliseconds to connect to the server of a remote vocabulary, {@code 0} to wait forever.
+     */
+    public abstract Property<Integer> getConnectTimeout();
+
+    /**
+     * The time in milliseconds to wait for data from the server of a remote vocabulary, {@code 0} to wait forever.
+     */
+    public abstract Property<Integer> getReadTimeout();
+
+    /**
+     * How often a failed download is retried.
+     */
+    public abstract Property<Integer> getRetries();
+
+    /**
+     * The delay in milliseconds before the first retry of a download, doubled for every further retry.
+     */
+    public abstract Property<Long> getRetryDelay();
+}
@@ -0,0 +1,175 @@
+package com.github.tkurz.sesame.vocab.gradle;
+
+import com.github.tkurz.sesame.vocab.RemoteVocabularyCache;
+import com.github.tkurz.sesame.vocab.VocabularyFetcher;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.gradle.api.GradleException;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.TaskProvider;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds the {@code vocabBuilder} extension, and the tasks {@code fetchVocabularies} and {@code generateVocabularies}.
+ * With the {@code java} plugin, the generated classes and resource bundles are added to the {@code main} source set.
+ */
+public class VocabBuilderPlugin implements Plugin<Project> {
+
+    public static final String EXTENSION_NAME = "vocabBuilder";
+    public static final String FETCH_TASK_NAME = "fetchVocabularies";
+    public static final String GENERATE_TASK_NAME = "generateVocabularies";
+
+    @Override
+    public void apply(final Project project) {
+        final VocabBuilderExtension extension = project.getExtensions().create(EXTENSION_NAME, VocabBuilderExtension.class);
+        extension.getCreateStringConstants().convention(true);
+        extension.getStringConstantPrefix().convention("");
+        extension.getStringConstantSuffix().convention("_STRING");
+        extension.getStringConstantCase().convention("UPPER_UNDERSCORE");
+        extension.getCreateResourceBundles().convention(false);
+        extension.getCreateTermEnum().convention(false);
+        extension.getCompactIRIs().convention(false);
+        extension.getCreateLookup().convention(false);
+        extension.getCreateHierarchy().convention(false);
+        extension.getCreateCategories().convention(false);
+        extension.getCreateSignatures().convention(false);
+        extension.getCreateCanonical().convention(false);
+        extension.getCreateLabelIndex().convention(false);
+        extension.getVocabularyCache().convention(project.getLayout().dir(project.provider(
+                () -> RemoteVocabularyCache.getDefaultDirectory().toFile())));
+        extension.getVocabularyCacheSize().convention(256L);
+        extension.getConnectTimeout().convention(VocabularyFetcher.DEFAULT_CONNECT_TIMEOUT);
+        extension.getReadTimeout().convention(VocabularyFetcher.DEFAULT_READ_TIMEOUT);
+        extension.getRetries().convention(VocabularyFetcher.DEFAULT_RETRIES);
+        extension.getRetryDelay().convention(VocabularyFetcher.DEFAULT_RETRY_DELAY);
+
+        final String userAgent = String.format("com.github.tkurz.sesame:vocab-builder-gradle-plugin/%s (Gradle %s) %s:%s/%s (%s)",
+                VocabBuilderPlugin.class.getPackage().getImplementationVersion(), project.getGradle().getGradleVersion(),
+                project.getGroup(), project.getName(), project.getVersion(), project.getPath());
+
+        final TaskProvider<FetchVocabulariesTask> fetch = project.getTasks().register(FETCH_TASK_NAME, FetchVocabulariesTask.class, task -> {
+            task.setGroup("build");
+            task.setDescription("Downloads the remote vocabularies.");
+            task.getVocabularies().set(project.provider(() -> {
+                final List<RemoteVocabulary> remote = new ArrayList<>();
+                for (VocabularySpec spec : extension.getVocabularies()) {
+                    if (spec.getUrl().isPresent()) {
+                        remote.add(new RemoteVocabulary(spec.getName(), spec.getUrl().get(), spec.getMirrors().getOrElse(new ArrayList<String>()),
+                                spec.getHedgeDelay().getOrElse(0L), spec.getAccept().getOrNull(), getMimeType(spec, extension)));
+                    }
+                }
+                return remote;
+            }));
+            task.getVocabularyCache().set(extension.getVocabularyCache());
+            task.getVocabularyCacheSize().set(extension.getVocabularyCacheSize());
+            task.getConnectTimeout().set(extension.getConnectTimeout());
+            task.getReadTimeout().set(extension.getReadTimeout());
+            task.getRetries().set(extension.getRetries());
+            task.getRetryDelay().set(extension.getRetryDelay());
+            task.getOffline().set(project.getGradle().getStartParameter().isOffline());
+            task.getUserAgent().set(userAgent);
+            task.getOutputDirectory().set(project.getLayout().getBuildDirectory().dir("vocab-builder/downloads"));
+        });
+
+        final TaskProvider<GenerateVocabulariesTask> generate = project.getTasks().register(GENERATE_TASK_NAME, GenerateVocabulariesTask.class, task -> {
+            task.setGroup("build");
+            task.setDescription("Generates the vocabulary classes.");
+            task.getVocabularies().set(project.provider(() -> {
+                final List<VocabularyOptions> vocabularies = new ArrayList<>();
+                for (VocabularySpec spec : extension.getVocabularies()) {
+                    vocabularies.add(getOptions(spec, extension));
+                }
+                return vocabularies;
+            }));
+            task.getSources().from(project.provider(() -> {
+                final List<Object> files = new ArrayList<>();
+                for (VocabularySpec spec : extension.getVocabularies()) {
+                    if (spec.getFile().isPresent()) {
+                        files.add(spec.getFile());
+                    }
+                }
+                return files;
+            }));
+            task.getSources().from(fetch.flatMap(FetchVocabulariesTask::getOutputDirectory));
+            task.getDownloadDirectory().set(fetch.flatMap(FetchVocabulariesTask::getOutputDirectory));
+            task.getOutputDirectory().set(project.getLayout().getBuildDirectory().dir("generated/sources/vocab-builder/java/main"));
+            task.getBundleOutputDirectory().set(project.getLayout().getBuildDirectory().dir("generated/resources/vocab-builder"));
+        });
+
+        project.getPlugins().withType(JavaPlugin.class, java -> {
+            final SourceSet main = project.getExtensions().getByType(JavaPluginExtension.class)
+                    .getSourceSets().getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+            main.getJava().srcDir(generate.flatMap(GenerateVocabulariesTask::getOutputDirectory));
+            main.getResources().srcDir(generate.flatMap(GenerateVocabulariesTask::getBundleOutputDirectory));
+        });
+    }
+
+    private static VocabularyOptions getOptions(VocabularySpec spec, VocabBuilderExtension extension) {
+        if (spec.getFile().isPresent() == spec.getUrl().isPresent()) {
+            throw new GradleException(String.format("Vocabulary %s must have either a file or an url", spec.getName()));
+        }
+        final VocabularyOptions options = new VocabularyOptions();
+        options.setName(spec.getName());
+        if (spec.getFile().isPresent()) {
+            options.setFile(spec.getFile().get().getAsFile());
+        }
+        options.setClassName(spec.getClassName().getOrElse(capitalize(spec.getName())));
+        options.setPackageName(spec.getPackageName().orElse(extension.getPackageName()).getOrNull());
+        options.setPrefix(spec.getPrefix().getOrNull());
+        options.setMimeType(getMimeType(spec, extension));
+        options.setPreferredLanguage(spec.getPreferredLanguage().orElse(extension.getPreferredLanguage()).getOrNull());
+        options.setConstantCase(spec.getConstantCase().orElse(extension.getConstantCase()).getOrNull());
+        options.setCreateStringConstants(extension.getCreateStringConstants().get());
+        options.setStringConstantPrefix(extension.getStringConstantPrefix().getOrNull());
+        options.setStringConstantSuffix(extension.getStringConstantSuffix().getOrNull());
+        options.setStringConstantCase(extension.getStringConstantCase().getOrNull());
+        options.setCreateResourceBundles(spec.getCreateResourceBundles().orElse(extension.getCreateResourceBundles()).get());
+        options.setCreateTermEnum(spec.getCreateTermEnum().orElse(extension.getCreateTermEnum()).get());
+        options.setCompactIRIs(extension.getCompactIRIs().get());
+        options.setCreateLookup(extension.getCreateLookup().get());
+        options.setCreateHierarchy(extension.getCreateHierarchy().get());
+        options.setCreateCategories(extension.getCreateCategories().get());
+        options.setCreateSignatures(extension.getCreateSignatures().get());
+        options.setCreateCanonical(extension.getCreateCanonical().get());
+        options.setCreateLabelIndex(extension.getCreateLabelIndex().get());
+        return options;
+    }
+
+    /**
+     * The configured mime-type, otherwise the one guessed from the file name or URL, otherwise the default
+     * of the extension. {@code null} for a remote vocabulary lets the {@code Content-Type} decide.
+     */
+    private static String getMimeType(VocabularySpec spec, VocabBuilderExtension extension) {
+        if (spec.getMimeType().isPresent()) {
+            return spec.getMimeType().get();
+        }
+        final String name;
+        if (spec.getUrl().isPresent()) {
+            try {
+                name = new URL(spec.getUrl().get()).getPath();
+            } catch (MalformedURLException e) {
+                throw new GradleException(String.format("Invalid URL for vocabulary %s: %s", spec.getName(), spec.getUrl().get()), e);
+            }
+        } else {
+            name = spec.getFile().get().getAsFile().getName();
+        }
+        final RDFFormat format = Rio.getParserFormatForFileName(name).orElse(null);
+        if (format != null) {
+            return format.getDefaultMIMEType();
+        }
+        return extension.getMimeType().getOrNull();
+    }
+
+    private static String capitalize(String name) {
+        return name.isEmpty() ? name : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
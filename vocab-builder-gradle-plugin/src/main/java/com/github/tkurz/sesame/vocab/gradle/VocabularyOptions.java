@@ -0,0 +1,240 @@
+package com.github.tkurz.sesame.vocab.gradle;
+
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+
+import java.io.File;
+import java.io.Serializable;
+
+/**
+ * The options of a vocabulary generated by {@link GenerateVocabulariesTask}, with the defaults of the extension
+ * applied. The input file is tracked by the task, independent of its location, so the outputs can be reused by
+ * other checkouts.
+ */
+public class VocabularyOptions implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String name;
+    private File file;
+    private String className;
+    private String packageName;
+    private String prefix;
+    private String mimeType;
+    private String preferredLanguage;
+    private String constantCase;
+    private boolean createStringConstants;
+    private String stringConstantPrefix;
+    private String stringConstantSuffix;
+    private String stringConstantCase;
+    private boolean createResourceBundles;
+    private boolean createTermEnum;
+    private boolean compactIRIs;
+    private boolean createLookup;
+    private boolean createHierarchy;
+    private boolean createCategories;
+    private boolean createSignatures;
+    private boolean createCanonical;
+    private boolean createLabelIndex;
+
+    @Input
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * The input file, {@code null} for a remote vocabulary downloaded by {@link FetchVocabulariesTask}.
+     */
+    @Internal
+    public File getFile() {
+        return file;
+    }
+
+    public void setFile(File file) {
+        this.file = file;
+    }
+
+    @Input
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    @Input
+    @Optional
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    @Input
+    @Optional
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Input
+    @Optional
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    @Input
+    @Optional
+    public String getPreferredLanguage() {
+        return preferredLanguage;
+    }
+
+    public void setPreferredLanguage(String preferredLanguage) {
+        this.preferredLanguage = preferredLanguage;
+    }
+
+    @Input
+    @Optional
+    public String getConstantCase() {
+        return constantCase;
+    }
+
+    public void setConstantCase(String constantCase) {
+        this.constantCase = constantCase;
+    }
+
+    @Input
+    public boolean isCreateStringConstants() {
+        return createStringConstants;
+    }
+
+    public void setCreateStringConstants(boolean createStringConstants) {
+        this.createStringConstants = createStringConstants;
+    }
+
+    @Input
+    @Optional
+    public String getStringConstantPrefix() {
+        return stringConstantPrefix;
+    }
+
+    public void setStringConstantPrefix(String stringConstantPrefix) {
+        this.stringConstantPrefix = stringConstantPrefix;
+    }
+
+    @Input
+    @Optional
+    public String getStringConstantSuffix() {
+        return stringConstantSuffix;
+    }
+
+    public void setStringConstantSuffix(String stringConstantSuffix) {
+        this.stringConstantSuffix = stringConstantSuffix;
+    }
+
+    @Input
+    @Optional
+    public String getStringConstantCase() {
+        return stringConstantCase;
+    }
+
+    public void setStringConstantCase(String stringConstantCase) {
+        this.stringConstantCase = stringConstantCase;
+    }
+
+    @Input
+    public boolean isCreateResourceBundles() {
+        return createResourceBundles;
+    }
+
+    public void setCreateResourceBundles(boolean createResourceBundles) {
+        this.createResourceBundles = createResourceBundles;
+    }
+
+    @Input
+    public boolean isCreateTermEnum() {
+        return createTermEnum;
+    }
+
+    public void setCreateTermEnum(boolean createTermEnum) {
+        this.createTermEnum = createTermEnum;
+    }
+
+    @Input
+    public boolean isCompactIRIs() {
+        return compactIRIs;
+    }
+
+    public void setCompactIRIs(boolean compactIRIs) {
+        this.compactIRIs = compactIRIs;
+    }
+
+    @Input
+    public boolean isCreateLookup() {
+        return createLookup;
+    }
+
+    public void setCreateLookup(boolean createLookup) {
+        this.createLookup = createLookup;
+    }
+
+    @Input
+    public boolean isCreateHierarchy() {
+        return createHierarchy;
+    }
+
+    public void setCreateHierarchy(boolean createHierarchy) {
+        this.createHierarchy = createHierarchy;
+    }
+
+    @Input
+    public boolean isCreateCategories() {
+        return createCategories;
+    }
+
+    public void setCreateCategories(boolean createCategories) {
+        this.createCategories = createCategories;
+    }
+
+    @Input
+    public boolean isCreateSignatures() {
+        return createSignatures;
+    }
+
+    public void setCreateSignatures(boolean createSignatures) {
+        this.createSignatures = createSignatures;
+    }
+
+    @Input
+    public boolean isCreateCanonical() {
+        return createCanonical;
+    }
+
+    public void setCreateCanonical(boolean createCanonical) {
+        this.createCanonical = createCanonical;
+    }
+
+    @Input
+    public boolean isCreateLabelIndex() {
+        return createLabelIndex;
+    }
+
+    public void setCreateLabelIndex(boolean createLabelIndex) {
+        this.createLabelIndex = createLabelIndex;
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.tkurz.sesame.vocab.gradle;
+
+import org.gradle.api.Named;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+
+import javax.inject.Inject;
+
+/**
+ * Configuration for a Vocabulary to be generated, read from a {@link #getFile() file} or downloaded from an
+ * {@link #getUrl() url}. Unset options default to the ones of the {@link VocabBuilderExtension extension}.
+ */
+public abstract class VocabularySpec implements Named {
+
+    private final String name;
+
+    @Inject
+    public VocabularySpec(String name) {
+        this.name = name;
+    }
+
+    /**
+     * The name of the vocabulary, also the default of the {@link #getClassName() className}.
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public abstract RegularFileProperty getFile();
+
+    public abstract Property<String> getUrl();
+
+    /**
+     * Alternative URLs serving the same vocabulary, tried if the {@link #getUrl() url} fails.
+     */
+    public abstract ListProperty<String> getMirrors();
+
+    /**
+     * The time in milliseconds to wait for a response before also requesting the next mirror, {@code 0} to
+     * request the mirrors only if the previous ones failed.
+     */
+    public abstract Property<Long> getHedgeDelay();
+
+    /**
+     * The {@code Accept} header for the {@link #getUrl() url}, by default the {@link #getMimeType() mimeType} if set,
+     * otherwise all formats weighted by parse throughput.
+     */
+    public abstract Property<String> getAccept();
+
+    public abstract Property<String> getClassName();
+
+    public abstract Property<String> getPackageName();
+
+    public abstract Property<String> getPrefix();
+
+    public abstract Property<String> getMimeType();
+
+    public abstract Property<String> getPreferredLanguage();
+
+    public abstract Property<Boolean> getCreateResourceBundles();
+
+    public abstract Property<Boolean> getCreateTermEnum();
+
+    public abstract Property<String> getConstantCase();
+}
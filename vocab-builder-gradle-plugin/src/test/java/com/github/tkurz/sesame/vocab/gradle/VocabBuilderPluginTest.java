@@ -0,0 +1,156 @@
+package com.github.tkurz.sesame.vocab.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Functional tests of the {@code generateVocabularies} task, run with the Gradle TestKit: up-to-date checks,
+ * build cache relocation and incremental generation.
+ */
+public class VocabBuilderPluginTest {
+
+    private static final String TASK = ":" + VocabBuilderPlugin.GENERATE_TASK_NAME;
+
+    private static final String GENERATED = "build/generated/sources/vocab-builder/java/main/com/example/vocab/";
+
+    private static final String BUILD = "plugins {\n"
+            + "    id 'java'\n"
+            + "    id 'com.github.tkurz.sesame.vocab-builder'\n"
+            + "}\n"
+            + "\n"
+            + "vocabBuilder {\n"
+            + "    packageName = 'com.example.vocab'\n"
+            + "    vocabularies {\n"
+            + "        foo {\n"
+            + "            file = file('src/main/vocab/foo.ttl')\n"
+            + "        }\n"
+            + "        bar {\n"
+            + "            file = file('src/main/vocab/bar.ttl')\n"
+            + "        }\n"
+            + "    }\n"
+            + "}\n";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File cache;
+
+    @Before
+    public void setUp() throws IOException {
+        cache = temp.newFolder("build-cache");
+    }
+
+    private static String vocabulary(String name, String... classes) {
+        final StringBuilder turtle = new StringBuilder()
+                .append("@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n")
+                .append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n")
+                .append("<http://example.com/").append(name).append("#> a owl:Ontology .\n");
+        for (String c : classes) {
+            turtle.append("<http://example.com/").append(name).append('#').append(c).append("> a rdfs:Class .\n");
+        }
+        return turtle.toString();
+    }
+
+    private File createProject(String name) throws IOException {
+        final File project = temp.newFolder(name);
+        write(project, "settings.gradle", "rootProject.name = 'vocabularies'\n"
+                + "buildCache {\n"
+                + "    local {\n"
+                + "        directory = file('" + cache.getAbsolutePath().replace("\\", "/") + "')\n"
+                + "    }\n"
+                + "}\n");
+        write(project, "build.gradle", BUILD);
+        write(project, "src/main/vocab/foo.ttl", vocabulary("foo", "Alpha"));
+        write(project, "src/main/vocab/bar.ttl", vocabulary("bar", "Beta"));
+        return project;
+    }
+
+    private static void write(File project, String path, String content) throws IOException {
+        final File file = new File(project, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File project, String path) throws IOException {
+        return new String(Files.readAllBytes(new File(project, path).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static BuildResult build(File project, String... arguments) {
+        final String[] tasks = new String[arguments.length + 2];
+        tasks[0] = VocabBuilderPlugin.GENERATE_TASK_NAME;
+        tasks[1] = "--info";
+        System.arraycopy(arguments, 0, tasks, 2, arguments.length);
+        return GradleRunner.create()
+                .withProjectDir(project)
+                .withPluginClasspath()
+                .withArguments(tasks)
+                .build();
+    }
+
+    @Test
+    public void testUpToDate() throws Exception {
+        final File project = createProject("project");
+
+        Assert.assertEquals(TaskOutcome.SUCCESS, build(project).task(TASK).getOutcome());
+        Assert.assertTrue(read(project, GENERATED + "Foo.java").contains("ALPHA"));
+        Assert.assertTrue(read(project, GENERATED + "Bar.java").contains("BETA"));
+        Assert.assertEquals(TaskOutcome.UP_TO_DATE, build(project).task(TASK).getOutcome());
+
+        // a changed option generates again
+        write(project, "build.gradle", BUILD.replace("packageName = 'com.example.vocab'",
+                "packageName = 'com.example.vocab'\n    createCanonical = true"));
+        Assert.assertEquals(TaskOutcome.SUCCESS, build(project).task(TASK).getOutcome());
+        Assert.assertEquals(TaskOutcome.UP_TO_DATE, build(project).task(TASK).getOutcome());
+    }
+
+    @Test
+    public void testBuildCacheRelocation() throws Exception {
+        final File first = createProject("first");
+        final File second = createProject("second");
+
+        Assert.assertEquals(TaskOutcome.SUCCESS, build(first, "--build-cache").task(TASK).getOutcome());
+        // the same sources in another directory
+        Assert.assertEquals(TaskOutcome.FROM_CACHE, build(second, "--build-cache").task(TASK).getOutcome());
+        Assert.assertEquals(read(first, GENERATED + "Foo.java"), read(second, GENERATED + "Foo.java"));
+        Assert.assertEquals(read(first, GENERATED + "Bar.java"), read(second, GENERATED + "Bar.java"));
+
+        // other contents of a vocabulary are not
+        write(second, "src/main/vocab/foo.ttl", vocabulary("foo", "Alpha", "Gamma"));
+        Assert.assertEquals(TaskOutcome.SUCCESS, build(second, "--build-cache").task(TASK).getOutcome());
+    }
+
+    @Test
+    public void testIncremental() throws Exception {
+        final File project = createProject("project");
+        build(project);
+        final File bar = new File(project, GENERATED + "Bar.java");
+        Assert.assertTrue(bar.setLastModified(0));
+
+        write(project, "src/main/vocab/foo.ttl", vocabulary("foo", "Alpha", "Gamma"));
+        BuildResult result = build(project);
+        Assert.assertEquals(TaskOutcome.SUCCESS, result.task(TASK).getOutcome());
+        Assert.assertTrue(result.getOutput(), result.getOutput().contains("Skipping bar, vocabulary did not change"));
+        Assert.assertTrue(result.getOutput(), result.getOutput().contains("Generated 1 of 2 vocabularies"));
+        Assert.assertTrue(read(project, GENERATED + "Foo.java").contains("GAMMA"));
+        Assert.assertEquals(0, bar.lastModified());
+
+        // the outputs of a removed vocabulary are deleted
+        Assert.assertTrue(new File(project, "src/main/vocab/foo.ttl").delete());
+        write(project, "build.gradle", BUILD.replace("        foo {\n            file = file('src/main/vocab/foo.ttl')\n        }\n", ""));
+        result = build(project);
+        Assert.assertTrue(result.getOutput(), result.getOutput().contains("Generated 1 of 1 vocabularies"));
+        Assert.assertFalse(new File(project, GENERATED + "Foo.java").exists());
+        Assert.assertTrue(bar.exists());
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.tkurz.sesame.vocab.plugin;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the log messages of one vocabulary, so vocabularies generated in parallel can be logged one after another.
+ */
+final class BufferedLog implements Log {
+
+    private enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private static final class Message {
+        private final Level level;
+        private final CharSequence content;
+        private final Throwable error;
+
+        private Message(Level level, CharSequence content, Throwable error) {
+            this.level = level;
+            this.content = content;
+            this.error = error;
+        }
+    }
+
+    private final Log target;
+    private final List<Message> messages = new ArrayList<>();
+
+    /**
+     * @param target the log the messages are written to by {@link #flush()}
+     */
+    BufferedLog(Log target) {
+        this.target = target;
+    }
+
+    private synchronized void add(Level level, CharSequence content, Throwable error) {
+        messages.add(new Message(level, content, error));
+    }
+
+    /**
+     * Write all collected messages to the target log.
+     */
+    synchronized void flush() {
+        for (Message message : messages) {
+            switch (message.level) {
+                case DEBUG:
+                    if (message.error == null) {
+                        target.debug(message.content);
+                    } else if (message.content == null) {
+                        target.debug(message.error);
+                    } else {
+                        target.debug(message.content, message.error);
+                    }
+                    break;
+                case INFO:
+                    if (message.error == null) {
+                        target.info(message.content);
+                    } else if (message.content == null) {
+                        target.info(message.error);
+                    } else {
+                        target.info(message.content, message.error);
+                    }
+                    break;
+                case WARN:
+                    if (message.error == null) {
+                        target.warn(message.content);
+                    } else if (message.content == null) {
+                        target.warn(message.error);
+                    } else {
+                        target.warn(message.content, message.error);
+                    }
+                    break;
+                default:
+                    if (message.error == null) {
+                        target.error(message.content);
+                    } else if (message.content == null) {
+                        target.error(message.error);
+                    } else {
+                        target.error(message.content, message.error);
+                    }
+            }
+        }
+        messages.clear();
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return target.isDebugEnabled();
+    }
+
+    @Override
+    public void debug(CharSequence content) {
+        debug(content, null);
+    }
+
+    @Override
+    public void debug(CharSequence content, Throwable error) {
+        if (isDebugEnabled()) {
+            add(Level.DEBUG, content, error);
+        }
+    }
+
+    @Override
+    public void debug(Throwable error) {
+        debug(null, error);
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return target.isInfoEnabled();
+    }
+
+    @Override
+    public void info(CharSequence content) {
+        info(content, null);
+    }
+
+    @Override
+    public void info(CharSequence content, Throwable error) {
+        if (isInfoEnabled()) {
+            add(Level.INFO, content, error);
+        }
+    }
+
+    @Override
+    public void info(Throwable error) {
+        info(null, error);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return target.isWarnEnabled();
+    }
+
+    @Override
+    public void warn(CharSequence content) {
+        warn(content, null);
+    }
+
+    @Override
+    public void warn(CharSequence content, Throwable error) {
+        if (isWarnEnabled()) {
+            add(Level.WARN, content, error);
+        }
+    }
+
+    @Override
+    public void warn(Throwable error) {
+        warn(null, error);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return target.isErrorEnabled();
+    }
+
+    @Override
+    public void error(CharSequence content) {
+        error(content, null);
+    }
+
+    @Override
+    public void error(CharSequence content, Throwable error) {
+        if (isErrorEnabled()) {
+            add(Level.ERROR, content, error);
+        }
+    }
+
+    @Override
+    public void error(Throwable error) {
+        error(null, error);
+    }
+}
@@ -0,0 +1,393 @@
+package com.github.tkurz.sesame.vocab.plugin;
+
+import com.github.tkurz.sesame.vocab.RemoteVocabularyCache;
+import com.github.tkurz.sesame.vocab.VocabularyFetcher;
+import com.google.common.io.CountingInputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.UnsupportedRDFormatException;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maven Plugin to download the remote vocabularies of all projects of the build into the vocabulary cache, e.g.
+ * before the network is cut off. The vocabularies are fetched in parallel and must parse; a later {@code generate}
+ * can then run offline from the cache.
+ */
+@Mojo(name = "prefetch",
+        aggregator = true,
+        requiresProject = true,
+        threadSafe = true)
+public class PrefetchMojo extends AbstractMojo {
+
+    /**
+     * Downloaded vocabularies, shared by all projects of the user. Projects configuring a different
+     * {@code vocabularyCache} for the generate goal are prefetched into theirs.
+     */
+    @Parameter(property = "vocabularyCache", defaultValue = "${user.home}/.vocab-builder")
+    private File vocabularyCacheDir;
+
+    /**
+     * The maximum size of the downloaded vocabularies in MB, least recently used ones are deleted.
+     */
+    @Parameter(property = "vocabularyCacheSize", defaultValue = "256")
+    private long vocabularyCacheSize;
+
+    /**
+     * The number of vocabularies fetched in parallel, {@code 0} for one per processor.
+     */
+    @Parameter(property = "threads", defaultValue = "0")
+    private int threads;
+
+    /**
+     * The time in milliseconds to connect to the server of a remote vocabulary, {@code 0} to wait forever.
+     */
+    @Parameter(property = "connectTimeout", defaultValue = "10000")
+    private int connectTimeout;
+
+    /**
+     * The time in milliseconds to wait for data from the server of a remote vocabulary, {@code 0} to wait forever.
+     */
+    @Parameter(property = "readTimeout", defaultValue = "30000")
+    private int readTimeout;
+
+    /**
+     * How often a failed download is retried.
+     */
+    @Parameter(property = "retries", defaultValue = "2")
+    private int retries;
+
+    /**
+     * The delay in milliseconds before the first retry of a download, doubled for every further retry.
+     */
+    @Parameter(property = "retryDelay", defaultValue = "1000")
+    private long retryDelay;
+
+    @Parameter(property = "project", required = true, readonly = true)
+    private MavenProject project;
+
+    @Component
+    private MavenSession mavenSession;
+
+    @Component
+    private PluginDescriptor pluginDescriptor;
+
+    /**
+     * A remote vocabulary of the build.
+     */
+    private static final class RemoteVocabulary {
+        private final Vocabulary vocabulary;
+        private final String mime;
+        private final String accept;
+        private final Path cacheDir;
+
+        private RemoteVocabulary(Vocabulary vocabulary, String mime, String accept, Path cacheDir) {
+            this.vocabulary = vocabulary;
+            this.mime = mime;
+            this.accept = accept;
+            this.cacheDir = cacheDir;
+        }
+    }
+
+    /**
+     * The outcome of prefetching one vocabulary.
+     */
+    private static final class PrefetchResult {
+        private long statements, bytes, millis;
+        private boolean downloaded;
+        private Exception failure;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        ThreadLocalLog.install();
+        final Log previousLog = ThreadLocalLog.set(getLog());
+        try {
+            final Log log = getLog();
+            final List<RemoteVocabulary> vocabularies = new ArrayList<>(collectVocabularies().values());
+            if (vocabularies.isEmpty()) {
+                log.info("No remote vocabularies to prefetch");
+                return;
+            }
+            if (mavenSession.isOffline()) {
+                log.info(String.format("Offline-Mode: Validating %d cached remote vocabularies", vocabularies.size()));
+            } else {
+                log.info(String.format("Prefetching %d remote vocabularies", vocabularies.size()));
+            }
+
+            final long start = System.nanoTime();
+            final Map<Path, VocabularyFetcher> fetchers = new HashMap<>();
+            final int poolSize = Math.max(1, Math.min(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), vocabularies.size()));
+            final ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+            try {
+                final List<Future<PrefetchResult>> results = new ArrayList<>();
+                for (final RemoteVocabulary vocabulary : vocabularies) {
+                    VocabularyFetcher fetcher = fetchers.get(vocabulary.cacheDir);
+                    if (fetcher == null) {
+                        fetcher = createFetcher(vocabulary.cacheDir);
+                        fetchers.put(vocabulary.cacheDir, fetcher);
+                    }
+                    final VocabularyFetcher vocabularyFetcher = fetcher;
+                    results.add(executor.submit(new Callable<PrefetchResult>() {
+                        @Override
+                        public PrefetchResult call() {
+                            final PrefetchResult result = new PrefetchResult();
+                            final Log previous = ThreadLocalLog.set(log);
+                            final long vocabularyStart = System.nanoTime();
+                            try {
+                                prefetch(vocabulary, vocabularyFetcher, result);
+                            } catch (Exception e) {
+                                result.failure = e;
+                            } finally {
+                                result.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - vocabularyStart);
+                                ThreadLocalLog.restore(previous);
+                            }
+                            return result;
+                        }
+                    }));
+                }
+
+                int failed = 0, downloaded = 0;
+                long bytes = 0;
+                for (int i = 0; i < vocabularies.size(); i++) {
+                    final URL url = vocabularies.get(i).vocabulary.getUrl();
+                    final PrefetchResult result = results.get(i).get();
+                    if (result.failure != null) {
+                        log.error(String.format("Could not prefetch %s: %s", url, result.failure.getMessage()));
+                        failed++;
+                        continue;
+                    }
+                    final String status = result.downloaded ? "downloaded" : mavenSession.isOffline() ? "cached" : "not modified";
+                    log.info(String.format("%s: %d statements, %s, %s in %d ms", url, result.statements,
+                            FileUtils.byteCountToDisplaySize(result.bytes), status, result.millis));
+                    bytes += result.bytes;
+                    if (result.downloaded) {
+                        downloaded++;
+                    }
+                }
+                log.info(String.format("Prefetched %d remote vocabularies (%d downloaded), %s in %d ms",
+                        vocabularies.size() - failed, downloaded, FileUtils.byteCountToDisplaySize(bytes),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+                if (failed > 0) {
+                    throw new MojoFailureException(String.format("%d of %d remote vocabularies could not be prefetched", failed, vocabularies.size()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Prefetching was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new MojoExecutionException("Could not prefetch vocabularies", e.getCause());
+            } finally {
+                executor.shutdownNow();
+                for (VocabularyFetcher fetcher : fetchers.values()) {
+                    try {
+                        fetcher.close();
+                    } catch (IOException e) {
+                        log.debug("Could not close the vocabulary fetcher", e);
+                    }
+                }
+            }
+        } finally {
+            ThreadLocalLog.restore(previousLog);
+        }
+    }
+
+    /**
+     * The remote vocabularies configured for this plugin in all projects of the build, by cache and URL.
+     */
+    private Map<String, RemoteVocabulary> collectVocabularies() throws MojoFailureException {
+        final Map<String, RemoteVocabulary> vocabularies = new LinkedHashMap<>();
+        for (MavenProject reactorProject : mavenSession.getProjects()) {
+            for (Plugin plugin : reactorProject.getBuildPlugins()) {
+                if (!pluginDescriptor.getGroupId().equals(plugin.getGroupId()) || !pluginDescriptor.getArtifactId().equals(plugin.getArtifactId())) {
+                    continue;
+                }
+                collectVocabularies(reactorProject, plugin.getConfiguration(), vocabularies);
+                for (PluginExecution execution : plugin.getExecutions()) {
+                    collectVocabularies(reactorProject, execution.getConfiguration(), vocabularies);
+                }
+            }
+        }
+        return vocabularies;
+    }
+
+    private void collectVocabularies(MavenProject reactorProject, Object configuration, Map<String, RemoteVocabulary> vocabularies)
+            throws MojoFailureException {
+        if (!(configuration instanceof Xpp3Dom)) {
+            return;
+        }
+        final Xpp3Dom config = (Xpp3Dom) configuration;
+        final String cache = getValue(config, "vocabularyCache");
+        final Path cacheDir = cache != null ? reactorProject.getBasedir().toPath().resolve(cache) : vocabularyCacheDir.toPath();
+        final String mimeType = getValue(config, "mimeType") != null ? getValue(config, "mimeType") : getValue(config, "format");
+
+        final List<Vocabulary> remote = new ArrayList<>();
+        if (getValue(config, "url") != null) {
+            remote.add(Vocabulary.create(toURL(getValue(config, "url"), reactorProject), null, null));
+        }
+        final Xpp3Dom list = config.getChild("vocabularies");
+        if (list != null) {
+            for (Xpp3Dom child : list.getChildren()) {
+                if (getValue(child, "url") == null) {
+                    continue;
+                }
+                final Vocabulary vocabulary = Vocabulary.create(toURL(getValue(child, "url"), reactorProject), null, null);
+                vocabulary.setMimeType(getValue(child, "mimeType"));
+                vocabulary.setAccept(getValue(child, "accept"));
+                if (getValue(child, "hedgeDelay") != null) {
+                    try {
+                        vocabulary.setHedgeDelay(Long.parseLong(getValue(child, "hedgeDelay")));
+                    } catch (NumberFormatException e) {
+                        throw new MojoFailureException(String.format("Invalid hedgeDelay for %s in %s", vocabulary.getUrl(), reactorProject.getId()));
+                    }
+                }
+                final Xpp3Dom mirrors = child.getChild("mirrors");
+                if (mirrors != null) {
+                    final List<URL> mirrorUrls = new ArrayList<>();
+                    for (Xpp3Dom mirror : mirrors.getChildren()) {
+                        if (StringUtils.isNotBlank(mirror.getValue())) {
+                            mirrorUrls.add(toURL(mirror.getValue().trim(), reactorProject));
+                        }
+                    }
+                    vocabulary.setMirrors(mirrorUrls);
+                }
+                remote.add(vocabulary);
+            }
+        }
+
+        for (Vocabulary vocabulary : remote) {
+            // as the generate goal: configured, guessed from the URL, or the default of the execution
+            String mime = vocabulary.getMimeType();
+            if (mime == null) {
+                final RDFFormat guess = Rio.getParserFormatForFileName(vocabulary.getUrl().toString()).orElse(null);
+                mime = guess != null ? guess.getDefaultMIMEType() : mimeType;
+            }
+            // fetched once per Accept header, as the generate goal does
+            final String accept = vocabulary.getAccept() != null ? vocabulary.getAccept() : mime;
+            final String key = cacheDir + " " + accept + " " + vocabulary.getUrl();
+            if (!vocabularies.containsKey(key)) {
+                vocabularies.put(key, new RemoteVocabulary(vocabulary, mime, accept, cacheDir));
+            }
+        }
+    }
+
+    private static String getValue(Xpp3Dom config, String name) {
+        final Xpp3Dom child = config.getChild(name);
+        return child != null && StringUtils.isNotBlank(child.getValue()) ? child.getValue().trim() : null;
+    }
+
+    private static URL toURL(String url, MavenProject reactorProject) throws MojoFailureException {
+        try {
+            return new URL(url);
+        } catch (MalformedURLException e) {
+            throw new MojoFailureException(String.format("Invalid URL for vocabulary in %s: %s", reactorProject.getId(), url));
+        }
+    }
+
+    private VocabularyFetcher createFetcher(Path cacheDir) {
+        final VocabularyFetcher fetcher = new VocabularyFetcher(new RemoteVocabularyCache(cacheDir, vocabularyCacheSize * 1024 * 1024), getUserAgent());
+        fetcher.setConnectTimeout(connectTimeout);
+        fetcher.setReadTimeout(readTimeout);
+        fetcher.setRetries(retries);
+        fetcher.setRetryDelay(retryDelay);
+        return fetcher;
+    }
+
+    /**
+     * Fetch a vocabulary into the cache, unless the cached copy is still valid, and parse it. A download that does
+     * not parse is not cached.
+     */
+    private void prefetch(final RemoteVocabulary remote, VocabularyFetcher fetcher, PrefetchResult result) throws Exception {
+        final Vocabulary vocabulary = remote.vocabulary;
+        final URL url = vocabulary.getUrl();
+        final RemoteVocabularyCache.Entry cached;
+        if (mavenSession.isOffline()) {
+            cached = fetcher.getCache().get(url, remote.accept);
+            if (cached == null) {
+                throw new FileNotFoundException(String.format("%s is not cached in %s", url, remote.cacheDir));
+            }
+        } else {
+            final VocabularyFetcher.Result<PrefetchResult> fetched = fetcher.fetch(url, remote.accept, vocabulary.getMirrors(), vocabulary.getHedgeDelay(),
+                    new VocabularyFetcher.ContentHandler<PrefetchResult>() {
+                        @Override
+                        public PrefetchResult handle(InputStream content, String contentType) throws IOException {
+                            return validate(content, remote, contentType, result);
+                        }
+                    });
+            if (fetched.isModified()) {
+                result.downloaded = true;
+                return;
+            }
+            cached = fetched.getEntry();
+        }
+        try (InputStream in = cached.openStream()) {
+            validate(in, remote, cached.getContentType(), result);
+        }
+    }
+
+    /**
+     * Parse a vocabulary, counting its statements and bytes.
+     */
+    private static PrefetchResult validate(InputStream content, RemoteVocabulary remote, String contentType, PrefetchResult result) throws IOException {
+        final URL url = remote.vocabulary.getUrl();
+        final RDFFormat format = VocabularyBuilderMojo.getFormat(remote.mime != null ? remote.mime : VocabularyBuilderMojo.getMimeType(contentType), url);
+        if (format == null) {
+            throw new UnsupportedRDFormatException(String.format("Unknown format (%s), configure the mimeType of the vocabulary", contentType));
+        }
+        // a retried download is parsed again
+        result.statements = 0;
+        final CountingInputStream counting = new CountingInputStream(content);
+        final RDFParser parser = Rio.createParser(format);
+        parser.setRDFHandler(new AbstractRDFHandler() {
+            @Override
+            public void handleStatement(Statement st) {
+                result.statements++;
+            }
+        });
+        parser.parse(counting, url.toString());
+        result.bytes = counting.getCount();
+        return result;
+    }
+
+    private String getUserAgent() {
+        return String.format("%s:%s/%s (%s) %s:%s/%s (%s)",
+                pluginDescriptor.getGroupId(), pluginDescriptor.getArtifactId(), pluginDescriptor.getVersion(), pluginDescriptor.getName(),
+                project.getGroupId(), project.getArtifactId(), project.getVersion(), project.getName());
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.github.tkurz.sesame.vocab.plugin;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.slf4j.impl.StaticLoggerBinder;
+
+/**
+ * Routes the SLF4J logging of the generator to the log of the current thread.
+ * <p/>
+ * The SLF4J binding holds a single global log, but in a parallel build every execution, and every vocabulary
+ * generated in parallel, has its own. The binding is therefore set once to this log, which forwards to the log
+ * set for the current thread.
+ */
+final class ThreadLocalLog implements Log {
+
+    private static final ThreadLocalLog INSTANCE = new ThreadLocalLog();
+
+    private static final Log FALLBACK = new SystemStreamLog();
+
+    private static boolean installed = false;
+
+    private final ThreadLocal<Log> current = new ThreadLocal<>();
+
+    private ThreadLocalLog() {
+    }
+
+    /**
+     * Set the SLF4J binding to forward to the log of the current thread, once per class loader.
+     */
+    static synchronized void install() {
+        if (!installed) {
+            StaticLoggerBinder.getSingleton().setLog(INSTANCE);
+            installed = true;
+        }
+    }
+
+    /**
+     * Log the messages of the current thread to {@code log}.
+     *
+     * @return the previous log of the thread, to be restored by {@link #restore(Log)}
+     */
+    static Log set(Log log) {
+        final Log previous = INSTANCE.current.get();
+        INSTANCE.current.set(log);
+        return previous;
+    }
+
+    static void restore(Log previous) {
+        if (previous != null) {
+            INSTANCE.current.set(previous);
+        } else {
+            INSTANCE.current.remove();
+        }
+    }
+
+    private Log get() {
+        final Log log = current.get();
+        return log != null ? log : FALLBACK;
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return get().isDebugEnabled();
+    }
+
+    @Override
+    public void debug(CharSequence content) {
+        get().debug(content);
+    }
+
+    @Override
+    public void debug(CharSequence content, Throwable error) {
+        get().debug(content, error);
+    }
+
+    @Override
+    public void debug(Throwable error) {
+        get().debug(error);
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return get().isInfoEnabled();
+    }
+
+    @Override
+    public void info(CharSequence content) {
+        get().info(content);
+    }
+
+    @Override
+    public void info(CharSequence content, Throwable error) {
+        get().info(content, error);
+    }
+
+    @Override
+    public void info(Throwable error) {
+        get().info(error);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return get().isWarnEnabled();
+    }
+
+    @Override
+    public void warn(CharSequence content) {
+        get().warn(content);
+    }
+
+    @Override
+    public void warn(CharSequence content, Throwable error) {
+        get().warn(content, error);
+    }
+
+    @Override
+    public void warn(Throwable error) {
+        get().warn(error);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return get().isErrorEnabled();
+    }
+
+    @Override
+    public void error(CharSequence content) {
+        get().error(content);
+    }
+
+    @Override
+    public void error(CharSequence content, Throwable error) {
+        get().error(content, error);
+    }
+
+    @Override
+    public void error(Throwable error) {
+        get().error(error);
+    }
+}
@@ -2,6 +2,8 @@ package com.github.tkurz.sesame.vocab.plugin;
 
 import java.io.File;
 import java.net.URL;
+import java.util.Collections;
+import java.util.List;
 
 import com.google.common.base.CaseFormat;
 
@@ -13,6 +15,8 @@ import com.google.common.base.CaseFormat;
 public class Vocabulary {
 
     private URL url;
+    private List<URL> mirrors;
+    private long hedgeDelay;
     private File file;
 
     private String name;
@@ -21,9 +25,11 @@ public class Vocabulary {
     private String className;
 
     private String mimeType;
+    private String accept;
 
     private String preferredLanguage;
     private Boolean createResourceBundles;
+    private Boolean createTermEnum;
     private CaseFormat caseFormat;
     private String prefix;
 
@@ -35,6 +41,29 @@ public class Vocabulary {
         this.url = url;
     }
 
+    /**
+     * Alternative URLs serving the same vocabulary, tried if the {@link #getUrl() url} fails.
+     */
+    public List<URL> getMirrors() {
+        return mirrors != null ? mirrors : Collections.<URL>emptyList();
+    }
+
+    public void setMirrors(List<URL> mirrors) {
+        this.mirrors = mirrors;
+    }
+
+    /**
+     * The time in milliseconds to wait for a response before also requesting the next mirror, {@code 0} to
+     * request the mirrors only if the previous ones failed.
+     */
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    public void setHedgeDelay(long hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+    }
+
     public File getFile() {
         return file;
     }
@@ -83,6 +112,18 @@ public class Vocabulary {
         this.mimeType = mimeType;
     }
 
+    /**
+     * The {@code Accept} header for the {@link #getUrl() url}, by default the {@link #getMimeType() mimeType} if set,
+     * otherwise all formats weighted by parse throughput.
+     */
+    public String getAccept() {
+        return accept;
+    }
+
+    public void setAccept(String accept) {
+        this.accept = accept;
+    }
+
     public void setPreferredLanguage(String language) {
         this.preferredLanguage = language;
     }
@@ -126,4 +167,16 @@ public class Vocabulary {
     public void setCreateResourceBundles(boolean createResourceBundles) {
         this.createResourceBundles = createResourceBundles;
     }
+
+    public boolean isCreateTermEnum() {
+        return createTermEnum;
+    }
+
+    public boolean isCreateTermEnumSet() {
+        return createTermEnum != null;
+    }
+
+    public void setCreateTermEnum(boolean createTermEnum) {
+        this.createTermEnum = createTermEnum;
+    }
 }
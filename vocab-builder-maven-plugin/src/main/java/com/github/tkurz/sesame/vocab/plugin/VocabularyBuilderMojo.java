@@ -1,34 +1,31 @@
 package com.github.tkurz.sesame.vocab.plugin;
 
+import com.github.tkurz.sesame.vocab.GeneratedFiles;
 import com.github.tkurz.sesame.vocab.GenerationException;
+import com.github.tkurz.sesame.vocab.GenerationManifest;
+import com.github.tkurz.sesame.vocab.ModelCache;
+import com.github.tkurz.sesame.vocab.RegistryBuilder;
+import com.github.tkurz.sesame.vocab.RemoteVocabularyCache;
 import com.github.tkurz.sesame.vocab.VocabBuilder;
+import com.github.tkurz.sesame.vocab.VocabularyFetcher;
 import com.google.common.base.CaseFormat;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.Header;
-import org.apache.http.HttpHeaders;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.ResponseHandler;
-import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.client.methods.RequestBuilder;
-import org.apache.http.client.utils.DateUtils;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.*;
 import org.apache.maven.project.MavenProject;
+import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFParseException;
-import org.eclipse.rdf4j.rio.RDFParserRegistry;
 import org.eclipse.rdf4j.rio.Rio;
-import org.slf4j.impl.StaticLoggerBinder;
 import org.sonatype.plexus.build.incremental.BuildContext;
 
 import java.io.*;
@@ -37,8 +34,15 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Maven Plugin to generate Sesame Vocabulary Classes.
@@ -48,9 +52,18 @@ import java.util.*;
 @Mojo(name = "generate",
         defaultPhase = LifecyclePhase.GENERATE_SOURCES,
         requiresDependencyResolution = ResolutionScope.COMPILE,
-        requiresProject = true)
+        requiresProject = true,
+        threadSafe = true)
 public class VocabularyBuilderMojo extends AbstractMojo {
 
+    /**
+     * Downloads by vocabulary cache, URL and {@code Accept} header for every build, shared by all executions, so a
+     * vocabulary configured more than once, even by different modules of a parallel build, is fetched only once.
+     * A download is made with the timeouts and retries of the execution starting it; failed downloads are not shared,
+     * they are tried again by the next vocabulary.
+     */
+    private static final Map<MavenExecutionRequest, ConcurrentMap<String, FutureTask<RemoteVocabularyCache.Entry>>> FETCHES = new WeakHashMap<>();
+
     @Parameter(property = "output", defaultValue = "${project.build.directory}/generated-sources/sesame-vocabs")
     private File outputDirectory;
 
@@ -60,6 +73,48 @@ public class VocabularyBuilderMojo extends AbstractMojo {
     @Parameter(property = "remoteCacheDir", defaultValue = "${project.build.directory}/vocab-builder-maven-plugin.cache")
     private File remoteCacheDir;
 
+    /**
+     * Downloaded vocabularies, shared by all projects of the user.
+     */
+    @Parameter(property = "vocabularyCache", defaultValue = "${user.home}/.vocab-builder")
+    private File vocabularyCacheDir;
+
+    /**
+     * The maximum size of the downloaded vocabularies in MB, least recently used ones are deleted.
+     */
+    @Parameter(property = "vocabularyCacheSize", defaultValue = "256")
+    private long vocabularyCacheSize;
+
+    /**
+     * The number of vocabularies generated in parallel, {@code 0} for one per processor.
+     */
+    @Parameter(property = "threads", defaultValue = "0")
+    private int threads;
+
+    /**
+     * The time in milliseconds to connect to the server of a remote vocabulary, {@code 0} to wait forever.
+     */
+    @Parameter(property = "connectTimeout", defaultValue = "10000")
+    private int connectTimeout;
+
+    /**
+     * The time in milliseconds to wait for data from the server of a remote vocabulary, {@code 0} to wait forever.
+     */
+    @Parameter(property = "readTimeout", defaultValue = "30000")
+    private int readTimeout;
+
+    /**
+     * How often a failed download is retried.
+     */
+    @Parameter(property = "retries", defaultValue = "2")
+    private int retries;
+
+    /**
+     * The delay in milliseconds before the first retry of a download, doubled for every further retry.
+     */
+    @Parameter(property = "retryDelay", defaultValue = "1000")
+    private long retryDelay;
+
     @Parameter
     private List<Vocabulary> vocabularies;
 
@@ -84,6 +139,39 @@ public class VocabularyBuilderMojo extends AbstractMojo {
     @Parameter(property = "createResourceBundles", defaultValue = "false")
     private boolean createResourceBundles;
 
+    @Parameter(property = "createTermEnum", defaultValue = "false")
+    private boolean createTermEnum;
+
+    @Parameter(property = "compactIRIs", defaultValue = "false")
+    private boolean compactIRIs;
+
+    @Parameter(property = "createLookup", defaultValue = "false")
+    private boolean createLookup;
+
+    @Parameter(property = "createHierarchy", defaultValue = "false")
+    private boolean createHierarchy;
+
+    @Parameter(property = "createCategories", defaultValue = "false")
+    private boolean createCategories;
+
+    @Parameter(property = "createSignatures", defaultValue = "false")
+    private boolean createSignatures;
+
+    @Parameter(property = "createCanonical", defaultValue = "false")
+    private boolean createCanonical;
+
+    @Parameter(property = "createLabelIndex", defaultValue = "false")
+    private boolean createLabelIndex;
+
+    @Parameter(property = "createPack", defaultValue = "false")
+    private boolean createPack;
+
+    @Parameter(property = "createRegistry", defaultValue = "false")
+    private boolean createRegistry;
+
+    @Parameter(property = "registryClassName", defaultValue = "Vocabularies")
+    private String registryClassName;
+
     @Parameter(property = "createStringConstants", defaultValue = "true")
     private boolean createStringConstants;
     @Parameter(property = "stringConstantPrefix", defaultValue = "")
@@ -109,21 +197,26 @@ public class VocabularyBuilderMojo extends AbstractMojo {
     @Component
     private PluginDescriptor pluginDescriptor;
 
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    private MojoExecution mojoExecution;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        StaticLoggerBinder.getSingleton().setLog(getLog());
+        ThreadLocalLog.install();
+        final Log previousLog = ThreadLocalLog.set(getLog());
         try {
             final Path output = outputDirectory.toPath();
             final Path bundleOutput = bundleOutputDirectory.toPath();
 
-            if (vocabularies == null) {
-                vocabularies = new ArrayList<>();
-            }
-
+            // the injected configuration is left untouched
+            final List<Vocabulary> vocabularies = new ArrayList<>();
             if (url != null) {
-                vocabularies.add(0, Vocabulary.create(url, name, className));
+                vocabularies.add(Vocabulary.create(url, name, className));
             } else if (file != null) {
-                vocabularies.add(0, Vocabulary.create(file, name, className));
+                vocabularies.add(Vocabulary.create(file, name, className));
+            }
+            if (this.vocabularies != null) {
+                vocabularies.addAll(this.vocabularies);
             }
 
 
@@ -134,172 +227,119 @@ public class VocabularyBuilderMojo extends AbstractMojo {
             final Log log = getLog();
             log.info(String.format("Generating %d vocabularies", vocabularies.size()));
 
-            for (Vocabulary vocab : vocabularies) {
-                final String displayName = vocab.getName() != null ? vocab.getName() : vocab.getClassName();
-                if (displayName == null) {
-                    log.error("Incomplete Configuration: Vocabulary without className or name");
-                    throw new MojoExecutionException("Incomplete Configuration: Vocabulary without className or name");
-                }
-                try {
-                    String language = preferredLanguage;
-                    if (vocab.getPreferredLanguage() != null) {
-                        language = vocab.getPreferredLanguage();
-                    }
-
-                    String mime = vocab.getMimeType();
-
-                    if (mime == null) {
-                        if (vocab.getUrl() != null) {
-                            RDFFormat guess = Rio.getParserFormatForFileName(vocab.getUrl().toString()).orElse(null);
-                            if (guess != null) {
-                                mime = guess.getDefaultMIMEType();
-                            }
-                        } else if (vocab.getFile() != null) {
-                            RDFFormat guess = Rio.getParserFormatForFileName(vocab.getFile().toString()).orElse(null);
-                            if (guess != null) {
-                                mime = guess.getDefaultMIMEType();
-                            }
-                        }
+            // the registry needs all vocabularies, so nothing can be skipped
+            final RegistryBuilder registry = createRegistry ? new RegistryBuilder() : null;
+            if (registry != null) {
+                registry.setGenerateCanonical(createCanonical);
+            }
+            boolean registryComplete = true;
+
+            // one connection pool for all downloads of the execution
+            final VocabularyFetcher fetcher = new VocabularyFetcher(new RemoteVocabularyCache(vocabularyCacheDir.toPath(), vocabularyCacheSize * 1024 * 1024), getUserAgent());
+            fetcher.setConnectTimeout(connectTimeout);
+            fetcher.setReadTimeout(readTimeout);
+            fetcher.setRetries(retries);
+            fetcher.setRetryDelay(retryDelay);
+            final Generation generation = new Generation(output, bundleOutput, registry != null,
+                    // parsed vocabularies, keyed by content, so unchanged inputs are not parsed again
+                    new ModelCache(remoteCacheDir.toPath().resolve("models")),
+                    fetcher,
+                    // fingerprints of the vocabularies generated by this execution
+                    new GenerationManifest(output.resolve(".vocab-builder").resolve(mojoExecution.getExecutionId())),
+                    getFetches(mavenSession.getRequest()));
+            final Set<String> vocabularyIds = new HashSet<>();
+
+            // the vocabularies are independent: generate them in parallel, but log and write them in configured order
+            final int poolSize = Math.max(1, Math.min(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), vocabularies.size()));
+            log.debug(String.format("Using %d threads", poolSize));
+            final ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+            try {
+                final List<Future<VocabularyResult>> results = new ArrayList<>();
+                for (final Vocabulary vocab : vocabularies) {
+                    final String displayName = vocab.getName() != null ? vocab.getName() : vocab.getClassName();
+                    if (displayName == null) {
+                        log.error("Incomplete Configuration: Vocabulary without className or name");
+                        throw new MojoExecutionException("Incomplete Configuration: Vocabulary without className or name");
                     }
+                    vocabularyIds.add(getVocabularyId(vocab));
 
-                    if (mime == null) {
-                        mime = mimeType;
+                    // Incremental builds can skip this file if the following returns false
+                    final boolean changed = vocab.getUrl() != null || vocab.getFile() == null || registry != null || buildContext.hasDelta(vocab.getFile());
+                    if (vocab.getUrl() == null && vocab.getFile() != null && changed) {
+                        buildContext.removeMessages(vocab.getFile());
                     }
-
-                    final VocabBuilder builder;
-                    if (vocab.getUrl() != null) {
-                        if (mavenSession.isOffline()) {
-                            log.info(String.format("Offline-Mode: Skipping generation of %s from %s", displayName, vocab.getUrl()));
-                            continue;
-                        } else {
+                    results.add(executor.submit(new Callable<VocabularyResult>() {
+                        @Override
+                        public VocabularyResult call() {
+                            final VocabularyResult result = new VocabularyResult(displayName, new BufferedLog(log));
+                            final Log previous = ThreadLocalLog.set(result.log);
                             try {
-
-                                File cache = fetchVocab(vocab.getUrl(), displayName, vocab);
-                                if (cache != null) {
-                                    builder = new VocabBuilder(cache.getAbsolutePath(), mime);
-                                } else {
-                                    log.info(String.format("Skipping %s, vocabulary is did not change", displayName));
-                                    continue;
-                                }
-                            } catch (IOException e) {
-                                final String msg = String.format("Error fetching remote vocabulary %s: %s", displayName, e.getMessage());
-                                log.error(msg);
-                                throw new MojoFailureException(msg, e);
+                                generateVocabulary(vocab, displayName, changed, generation, result);
+                            } catch (Exception e) {
+                                result.failure = e;
+                            } finally {
+                                ThreadLocalLog.restore(previous);
                             }
+                            return result;
                         }
-                    } else if (vocab.getFile() != null) {
-                        // Incremental builds can skip this file if the following returns true
-                        if (!buildContext.hasDelta(vocab.getFile())) {
-                            log.debug(String.format("Skipping %s, vocabulary is did not change", displayName));
-                            continue;
-                        }
-                        log.info(String.format("Generating %s vocabulary", displayName));
-                        buildContext.removeMessages(vocab.getFile());
-
-                        builder = new VocabBuilder(vocab.getFile().getAbsolutePath(), mime);
-                    } else {
-                        final String msg = String.format("Incomplete Configuration for %s: Vocabulary without URL or FILE param!", displayName);
-                        log.error(msg);
-                        throw new MojoExecutionException(msg);
-                    }
-
-                    log.debug(String.format("    Setting default preferred language: %s", language));
-                    builder.setPreferredLanguage(language);
-
-                    if (vocab.getPackageName() != null) {
-                        log.debug(String.format("    Setting package: %s", vocab.getPackageName()));
-                        builder.setPackageName(vocab.getPackageName());
-                    } else if (packageName != null) {
-                        log.debug(String.format("    Setting default package: %s", packageName));
-                        builder.setPackageName(packageName);
-                    } else {
-                        log.warn(String.format("%s is using discouraged default package", displayName));
-                    }
-
-                    if (vocab.getConstantCase() != null) {
-                        log.debug(String.format("    Setting constant case: %s", vocab.getConstantCase()));
-                        builder.setConstantCase(vocab.getConstantCase());
-                    } else {
-                        log.debug(String.format("    Setting default constant case: %s", constantCase));
-                        builder.setConstantCase(constantCase);
-                    }
-
-                    if (vocab.getPrefix() != null) {
-                        builder.setPrefix(vocab.getPrefix());
-                    }
-
-                    builder.setName(vocab.getName());
+                    }));
+                }
 
-                    String fName;
-                    if (vocab.getClassName() != null) {
-                        fName = vocab.getClassName() + ".java";
-                    } else if (vocab.getName() != null) {
-                        fName = StringUtils.capitalize(vocab.getName()) + ".java";
-                    } else {
-                        throw new MojoExecutionException("Incomplete Configuration: Vocabulary without className or name");
+                for (Future<VocabularyResult> future : results) {
+                    final VocabularyResult result = future.get();
+                    result.log.flush();
+                    if (result.failure instanceof MojoFailureException) {
+                        throw (MojoFailureException) result.failure;
+                    } else if (result.failure instanceof MojoExecutionException) {
+                        throw (MojoExecutionException) result.failure;
+                    } else if (result.failure instanceof IOException) {
+                        throw (IOException) result.failure;
+                    } else if (result.failure != null) {
+                        throw new MojoExecutionException("Could not generate vocabulary", result.failure);
                     }
 
-                    Path target = output;
-                    if (builder.getPackageName() != null) {
-                        target = target.resolve(builder.getPackageName().replaceAll("\\.", "/"));
-                        Files.createDirectories(target);
-                    }
-                    // when string constant generation set, specify prefix and suffix
-                    if (createStringConstants) {
-                        // when prefix set, the builder will generate string constants in addition to the URI's
-                        // when no string constant prefix set, use a single underscore by default
-                        builder.setStringPropertyPrefix(stringConstantPrefix);
-                        builder.setStringPropertySuffix(stringConstantSuffix);
-                        builder.setStringConstantCase(stringConstantCase);
-                    } else {
-                        // be sure to not generate String constants
-                        builder.setStringPropertyPrefix(null);
-                        builder.setStringPropertySuffix(null);
-                        builder.setStringConstantCase(null);
+                    for (Map.Entry<Path, byte[]> generated : result.files.entrySet()) {
+                        Files.createDirectories(generated.getKey().getParent());
+                        writeIfChanged(generated.getKey(), generated.getValue());
                     }
-                    final Path vFile = target.resolve(fName);
-                    final String className = vFile.getFileName().toString().replaceFirst("\\.java$", "");
-                    try (final PrintWriter out = new PrintWriter(
-                            new OutputStreamWriter(
-                                    buildContext.newFileOutputStream(vFile.toFile()), StandardCharsets.UTF_8)
-                    )) {
-                        if (builder.getPackageName() != null) {
-                            log.info(String.format("    Generating vocabulary class: %s.%s", builder.getPackageName(), className));
-                        } else {
-                            log.info(String.format("    Generating vocabulary class: %s", className));
-                        }
-                        builder.generate(className, out);
-                    }
-                    if (vocab.isCreateResourceBundlesSet() && vocab.isCreateResourceBundles() || createResourceBundles) {
-                        Path bundleTarget = bundleOutput;
-                        if (builder.getPackageName() != null) {
-                            bundleTarget = bundleTarget.resolve(builder.getPackageName().replaceAll("\\.", "/"));
-                            Files.createDirectories(bundleTarget);
-                        }
-                        final HashMap<String, Properties> bundles = builder.generateResourceBundle(className);
-                        for (String bKey : bundles.keySet()) {
-                            try (final Writer out = new OutputStreamWriter(
-                                    buildContext.newFileOutputStream(bundleTarget.resolve(bKey + ".properties").toFile()), StandardCharsets.UTF_8)) {
-                                log.info(String.format("    Generating ResourceBundle: %s", bKey));
-                                bundles.get(bKey).store(out, String.format("Generated by %s:%s v%s (%s)",
-                                        pluginDescriptor.getGroupId(), pluginDescriptor.getArtifactId(), pluginDescriptor.getVersion(), pluginDescriptor.getName()));
-                            }
-                        }
-
+                    if (result.addResources) {
                         Resource rsc = new Resource();
                         rsc.setDirectory(bundleOutput.toAbsolutePath().toString());
                         rsc.setFiltering(false);
                         log.debug(String.format("Adding %s as additional resource folder", rsc));
                         project.addResource(rsc);
                     }
-                    log.info(String.format("Generated %s", displayName));
-
-                } catch (RDFParseException e) {
-                    throw new MojoFailureException(String.format("Could not parse vocabulary %s: %s", displayName, e.getMessage()));
-                } catch (GenerationException e) {
-                    throw new MojoFailureException(String.format("Could not generate vocabulary %s: %s", displayName, e.getMessage()));
-                } catch (URISyntaxException e) {
-                    throw new MojoFailureException(String.format("Invalid URL for vocabulary %s: %s", displayName, vocab.getUrl()));
+                    if (result.fingerprint != null) {
+                        generation.manifest.record(result.vocabularyId, result.fingerprint, result.files.keySet());
+                    }
+                    if (result.incomplete) {
+                        registryComplete = false;
+                    }
+                    if (registry != null && result.builder != null) {
+                        try {
+                            registry.addVocabulary(result.builder, result.className);
+                        } catch (GenerationException e) {
+                            throw new MojoFailureException(String.format("Could not generate vocabulary %s: %s", result.displayName, e.getMessage()));
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Vocabulary generation was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new MojoExecutionException("Could not generate vocabulary", e.getCause());
+            } finally {
+                executor.shutdownNow();
+                generation.fetcher.close();
+            }
+            for (String stale : generation.manifest.removeStale(vocabularyIds)) {
+                log.info(String.format("Removed outputs of %s, which is no longer configured", stale));
+            }
+            if (registry != null) {
+                if (registryComplete) {
+                    generateRegistry(registry, output, bundleOutput);
+                } else {
+                    log.warn(String.format("Not all vocabularies were generated, %s is not updated", registryClassName));
                 }
             }
             if (project != null) {
@@ -309,101 +349,458 @@ public class VocabularyBuilderMojo extends AbstractMojo {
             log.info("Vocabulary generation complete");
         } catch (IOException e) {
             throw new MojoExecutionException("Could not write Vocabularies", e);
+        } finally {
+            ThreadLocalLog.restore(previousLog);
+        }
+    }
+
+    private static ConcurrentMap<String, FutureTask<RemoteVocabularyCache.Entry>> getFetches(MavenExecutionRequest request) {
+        synchronized (FETCHES) {
+            ConcurrentMap<String, FutureTask<RemoteVocabularyCache.Entry>> fetches = FETCHES.get(request);
+            if (fetches == null) {
+                fetches = new ConcurrentHashMap<>();
+                FETCHES.put(request, fetches);
+            }
+            return fetches;
         }
     }
 
-    private File fetchVocab(URL url, final String displayName, final Vocabulary vocab) throws URISyntaxException, IOException {
-        final HttpClientBuilder clientBuilder = HttpClientBuilder.create()
-                .setUserAgent(
-                        String.format("%s:%s/%s (%s) %s:%s/%s (%s)",
-                                pluginDescriptor.getGroupId(), pluginDescriptor.getArtifactId(), pluginDescriptor.getVersion(), pluginDescriptor.getName(),
-                                project.getGroupId(), project.getArtifactId(), project.getVersion(), project.getName())
-                );
-
-        final Path cache = remoteCacheDir.toPath();
-        Files.createDirectories(cache);
-
-        try (CloseableHttpClient client = clientBuilder.build()) {
-            final HttpUriRequest request = RequestBuilder.get()
-                    .setUri(url.toURI())
-                    .setHeader(HttpHeaders.ACCEPT, getAcceptHeaderValue())
-                    .build();
-
-            return client.execute(request, new ResponseHandler<File>() {
-                @Override
-                public File handleResponse(HttpResponse response) throws IOException {
-                    final Log log = getLog();
-                    // Check the mime-type
-                    String mime = mimeType;
-                    if (vocab.getMimeType() != null) {
-                        mime = vocab.getMimeType();
+    /**
+     * The state shared by the vocabularies of one execution. Executions never share mutable state,
+     * except for the thread-safe caches.
+     */
+    private static final class Generation {
+        private final Path output;
+        private final Path bundleOutput;
+        private final boolean withRegistry;
+        private final ModelCache modelCache;
+        private final VocabularyFetcher fetcher;
+        private final GenerationManifest manifest;
+        private final ConcurrentMap<String, FutureTask<RemoteVocabularyCache.Entry>> fetches;
+
+        private Generation(Path output, Path bundleOutput, boolean withRegistry, ModelCache modelCache,
+                           VocabularyFetcher fetcher, GenerationManifest manifest,
+                           ConcurrentMap<String, FutureTask<RemoteVocabularyCache.Entry>> fetches) {
+            this.output = output;
+            this.bundleOutput = bundleOutput;
+            this.withRegistry = withRegistry;
+            this.modelCache = modelCache;
+            this.fetcher = fetcher;
+            this.manifest = manifest;
+            this.fetches = fetches;
+        }
+    }
+
+    /**
+     * The outcome of generating one vocabulary, applied by the calling thread in configured order.
+     */
+    private static final class VocabularyResult {
+        private final String displayName;
+        private final BufferedLog log;
+        /**
+         * The generated files with their content, in generation order.
+         */
+        private final Map<Path, byte[]> files = new LinkedHashMap<>();
+        private boolean addResources;
+        private String vocabularyId;
+        private String fingerprint;
+        private VocabBuilder builder;
+        private String className;
+        private boolean incomplete;
+        private Exception failure;
+
+        private VocabularyResult(String displayName, BufferedLog log) {
+            this.displayName = displayName;
+            this.log = log;
+        }
+    }
+
+    /**
+     * Load and generate a single vocabulary. Nothing is written, the generated files are collected in the result.
+     *
+     * @param changed whether the input file changed since the last incremental build
+     */
+    private void generateVocabulary(Vocabulary vocab, String displayName, boolean changed, Generation generation, VocabularyResult result)
+            throws IOException, MojoExecutionException, MojoFailureException {
+        final Log log = result.log;
+        final Path output = generation.output;
+        final Path bundleOutput = generation.bundleOutput;
+        final String vocabularyId = getVocabularyId(vocab);
+        final boolean resourceBundles = vocab.isCreateResourceBundlesSet() && vocab.isCreateResourceBundles() || createResourceBundles;
+        // also if the vocabulary is skipped, the bundles and the pack of an earlier build are resources of this one
+        result.addResources = resourceBundles || createPack;
+        try {
+            String language = preferredLanguage;
+            if (vocab.getPreferredLanguage() != null) {
+                language = vocab.getPreferredLanguage();
+            }
+
+            String mime = vocab.getMimeType();
+
+            if (mime == null) {
+                if (vocab.getUrl() != null) {
+                    RDFFormat guess = Rio.getParserFormatForFileName(vocab.getUrl().toString()).orElse(null);
+                    if (guess != null) {
+                        mime = guess.getDefaultMIMEType();
                     }
-                    if (mime == null) {
-                        mime = getHeaderValue(response, HttpHeaders.CONTENT_TYPE);
-                        log.debug("Using mime-type from response-header: " + mime);
+                } else if (vocab.getFile() != null) {
+                    RDFFormat guess = Rio.getParserFormatForFileName(vocab.getFile().toString()).orElse(null);
+                    if (guess != null) {
+                        mime = guess.getDefaultMIMEType();
                     }
+                }
+            }
 
-                    final RDFFormat format = Rio.getParserFormatForMIMEType(mime).orElse(null);
-                    final String fName;
-                    if (format == null) {
-                        fName = displayName + ".cache";
-                        log.debug(String.format("Unknown format, cache will be %s", fName));
-                    } else {
-                        fName = displayName + "." + format.getDefaultFileExtension();
-                        log.debug(String.format("%s format, cache will be %s", format.getName(), fName));
-                    }
+            if (mime == null) {
+                mime = mimeType;
+            }
 
-                    Path cacheFile = cache.resolve(fName);
-                    if (Files.exists(cacheFile)) {
-                        log.debug(String.format("Cache-File %s found, checking if up-to-date", cacheFile));
-                        // Check if the cache is up-to-date
-                        final FileTime fileTime = Files.getLastModifiedTime(cache);
-                        final Date remoteDate = DateUtils.parseDate(getHeaderValue(response, HttpHeaders.LAST_MODIFIED));
-
-                        if (remoteDate != null && remoteDate.getTime() < fileTime.toMillis()) {
-                            // The remote file was changed before the cache, so no action required
-                            log.debug(String.format("%tF %<tT is after %tF %<tT, no action required", new Date(fileTime.toMillis()), remoteDate));
-                            return null;
-                        } else {
-                            log.debug(String.format("remote file is newer - need to rebuild vocabulary"));
-                        }
-                    } else {
-                        log.debug(String.format("No Cache-File %s, need to fetch", cacheFile));
+            final VocabBuilder builder;
+            final Path input;
+            if (vocab.getUrl() != null) {
+                final RemoteVocabularyCache.Entry cached = getRemoteVocabulary(vocab, displayName, mime, log, generation);
+                if (cached == null) {
+                    log.warn(String.format("Offline-Mode: Skipping generation of %s, %s is not cached", displayName, vocab.getUrl()));
+                    result.incomplete = true;
+                    return;
+                }
+                if (mime == null && cached.getContentType() != null) {
+                    mime = getMimeType(cached.getContentType());
+                    log.debug("Using mime-type from response-header: " + mime);
+                }
+                input = cached.getFile();
+                // usually parsed while it was downloaded
+                final Model model = generation.modelCache.get(cached.getHash(), getFormat(mime, vocab.getUrl()));
+                if (model != null) {
+                    builder = new VocabBuilder(model);
+                } else {
+                    // decompressed while parsing
+                    try (InputStream in = cached.openStream()) {
+                        builder = new VocabBuilder(in, getFormat(mime, vocab.getUrl()), generation.modelCache, vocab.getUrl().toString());
                     }
+                }
+            } else if (vocab.getFile() != null) {
+                if (!changed) {
+                    log.debug(String.format("Skipping %s, vocabulary is did not change", displayName));
+                    return;
+                }
+                log.info(String.format("Generating %s vocabulary", displayName));
+
+                input = vocab.getFile().toPath();
+                builder = new VocabBuilder(vocab.getFile().getAbsolutePath(), getFormat(mime), generation.modelCache);
+            } else {
+                final String msg = String.format("Incomplete Configuration for %s: Vocabulary without URL or FILE param!", displayName);
+                log.error(msg);
+                throw new MojoExecutionException(msg);
+            }
+
+            log.debug(String.format("    Setting default preferred language: %s", language));
+            builder.setPreferredLanguage(language);
+
+            if (vocab.getPackageName() != null) {
+                log.debug(String.format("    Setting package: %s", vocab.getPackageName()));
+                builder.setPackageName(vocab.getPackageName());
+            } else if (packageName != null) {
+                log.debug(String.format("    Setting default package: %s", packageName));
+                builder.setPackageName(packageName);
+            } else {
+                log.warn(String.format("%s is using discouraged default package", displayName));
+            }
+
+            if (vocab.getConstantCase() != null) {
+                log.debug(String.format("    Setting constant case: %s", vocab.getConstantCase()));
+                builder.setConstantCase(vocab.getConstantCase());
+            } else {
+                log.debug(String.format("    Setting default constant case: %s", constantCase));
+                builder.setConstantCase(constantCase);
+            }
+
+            if (vocab.getPrefix() != null) {
+                builder.setPrefix(vocab.getPrefix());
+            }
+
+            builder.setName(vocab.getName());
 
-                    final File cf = cacheFile.toFile();
-                    FileUtils.copyInputStreamToFile(response.getEntity().getContent(), cf);
-                    log.info(String.format("Fetched vocabulary definition for %s from %s", displayName, request.getURI()));
-                    return cf;
+            String fName;
+            if (vocab.getClassName() != null) {
+                fName = vocab.getClassName() + ".java";
+            } else if (vocab.getName() != null) {
+                fName = StringUtils.capitalize(vocab.getName()) + ".java";
+            } else {
+                throw new MojoExecutionException("Incomplete Configuration: Vocabulary without className or name");
+            }
+
+            Path target = output;
+            if (builder.getPackageName() != null) {
+                target = target.resolve(builder.getPackageName().replaceAll("\\.", "/"));
+            }
+            // when string constant generation set, specify prefix and suffix
+            if (createStringConstants) {
+                // when prefix set, the builder will generate string constants in addition to the URI's
+                // when no string constant prefix set, use a single underscore by default
+                builder.setStringPropertyPrefix(stringConstantPrefix);
+                builder.setStringPropertySuffix(stringConstantSuffix);
+                builder.setStringConstantCase(stringConstantCase);
+            } else {
+                // be sure to not generate String constants
+                builder.setStringPropertyPrefix(null);
+                builder.setStringPropertySuffix(null);
+                builder.setStringConstantCase(null);
+            }
+            if (vocab.isCreateTermEnumSet()) {
+                builder.setGenerateTermEnum(vocab.isCreateTermEnum());
+            } else {
+                builder.setGenerateTermEnum(createTermEnum);
+            }
+            builder.setCompactIRIs(compactIRIs);
+            builder.setGenerateLookup(createLookup);
+            builder.setGenerateHierarchy(createHierarchy);
+            builder.setGenerateCategories(createCategories);
+            builder.setGenerateSignatures(createSignatures);
+            builder.setGenerateCanonical(createCanonical);
+            builder.setGenerateLabelIndex(createLabelIndex);
+            builder.setGeneratePack(createPack);
+            final Path vFile = target.resolve(fName);
+            final String className = vFile.getFileName().toString().replaceFirst("\\.java$", "");
+            final String fingerprint = GenerationManifest.fingerprint(input, builder,
+                    "resourceBundles=" + resourceBundles, "output=" + output.toAbsolutePath(), "bundleOutput=" + bundleOutput.toAbsolutePath());
+            if (generation.manifest.isUpToDate(vocabularyId, fingerprint)) {
+                log.info(String.format("Skipping %s, vocabulary and configuration did not change", displayName));
+                if (generation.withRegistry) {
+                    result.builder = builder;
+                    result.className = className;
+                }
+                return;
+            }
+            final ByteArrayOutputStream source = new ByteArrayOutputStream();
+            try (final PrintWriter out = new PrintWriter(new OutputStreamWriter(source, StandardCharsets.UTF_8))) {
+                if (builder.getPackageName() != null) {
+                    log.info(String.format("    Generating vocabulary class: %s.%s", builder.getPackageName(), className));
+                } else {
+                    log.info(String.format("    Generating vocabulary class: %s", className));
                 }
+                builder.generate(className, out);
+            }
+            result.files.put(vFile, source.toByteArray());
+            if (createPack) {
+                Path packTarget = bundleOutput;
+                if (builder.getPackageName() != null) {
+                    packTarget = packTarget.resolve(builder.getPackageName().replaceAll("\\.", "/"));
+                }
+                log.info(String.format("    Generating vocabulary pack: %s", VocabBuilder.getPackResourceName(className)));
+                final ByteArrayOutputStream pack = new ByteArrayOutputStream();
+                builder.generatePack(pack);
+                result.files.put(packTarget.resolve(VocabBuilder.getPackResourceName(className)), pack.toByteArray());
+            }
+            if (generation.withRegistry) {
+                result.builder = builder;
+                result.className = className;
+            }
+            if (resourceBundles) {
+                Path bundleTarget = bundleOutput;
+                if (builder.getPackageName() != null) {
+                    bundleTarget = bundleTarget.resolve(builder.getPackageName().replaceAll("\\.", "/"));
+                }
+                final HashMap<String, Properties> bundles = builder.generateResourceBundle(className);
+                for (String bKey : new TreeSet<>(bundles.keySet())) {
+                    log.info(String.format("    Generating ResourceBundle: %s", bKey));
+                    final StringWriter out = new StringWriter();
+                    GeneratedFiles.storeProperties(bundles.get(bKey), out, String.format("Generated by %s:%s v%s (%s)",
+                            pluginDescriptor.getGroupId(), pluginDescriptor.getArtifactId(), pluginDescriptor.getVersion(), pluginDescriptor.getName()));
+                    result.files.put(bundleTarget.resolve(bKey + ".properties"), out.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            result.vocabularyId = vocabularyId;
+            result.fingerprint = fingerprint;
+            log.info(String.format("Generated %s", displayName));
+
+        } catch (RDFParseException e) {
+            throw new MojoFailureException(String.format("Could not parse vocabulary %s: %s", displayName, e.getMessage()));
+        } catch (GenerationException e) {
+            throw new MojoFailureException(String.format("Could not generate vocabulary %s: %s", displayName, e.getMessage()));
+        } catch (URISyntaxException e) {
+            throw new MojoFailureException(String.format("Invalid URL for vocabulary %s: %s", displayName, vocab.getUrl()));
+        }
+    }
 
-                private String getHeaderValue(HttpResponse response, String header) {
-                    final Header h = response.getFirstHeader(header);
-                    if (h != null) {
-                        return h.getValue();
-                    } else {
-                        return null;
+    /**
+     * The cached copy of a remote vocabulary, fetched unless offline. Every URL is fetched only once per build,
+     * vocabulary cache and {@code Accept} header, vocabularies sharing them wait for the first download.
+     *
+     * @return the cached vocabulary, or {@code null} if offline and the URL is not cached
+     */
+    private RemoteVocabularyCache.Entry getRemoteVocabulary(final Vocabulary vocab, final String displayName, final String mime, final Log log, final Generation generation)
+            throws IOException, URISyntaxException, MojoFailureException {
+        final URL url = vocab.getUrl();
+        // the response is parsed as the configured mime-type, so request it
+        final String accept = vocab.getAccept() != null ? vocab.getAccept() : mime;
+        final FutureTask<RemoteVocabularyCache.Entry> fetch = new FutureTask<>(new Callable<RemoteVocabularyCache.Entry>() {
+            @Override
+            public RemoteVocabularyCache.Entry call() throws Exception {
+                final RemoteVocabularyCache cache = generation.fetcher.getCache();
+                if (mavenSession.isOffline()) {
+                    final RemoteVocabularyCache.Entry cached = cache.get(url, accept);
+                    if (cached != null) {
+                        log.info(String.format("Offline-Mode: Using cached %s", url));
                     }
+                    return cached;
+                }
+                try {
+                    return fetchVocab(vocab, displayName, mime, accept, generation, log);
+                } catch (IOException e) {
+                    final RemoteVocabularyCache.Entry cached = cache.get(url, accept);
+                    if (cached == null) {
+                        throw e;
+                    }
+                    log.warn(String.format("Error fetching remote vocabulary %s, using cached copy: %s", displayName, e.getMessage()));
+                    return cached;
+                }
+            }
+        });
+        final String key = vocabularyCacheDir.getAbsolutePath() + " " + accept + " " + url;
+        final FutureTask<RemoteVocabularyCache.Entry> running = generation.fetches.putIfAbsent(key, fetch);
+        if (running == null) {
+            fetch.run();
+        } else {
+            log.debug(String.format("%s is shared with another vocabulary accepting %s", url, accept));
+        }
+        final FutureTask<RemoteVocabularyCache.Entry> shared = running != null ? running : fetch;
+        try {
+            return shared.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching " + url);
+        } catch (ExecutionException e) {
+            // a failure is reported to the waiting vocabularies only, later ones fetch again
+            generation.fetches.remove(key, shared);
+            if (e.getCause() instanceof IOException) {
+                final String msg = String.format("Error fetching remote vocabulary %s: %s", displayName, e.getCause().getMessage());
+                log.error(msg);
+                throw new MojoFailureException(msg, e.getCause());
+            } else if (e.getCause() instanceof URISyntaxException) {
+                throw (URISyntaxException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                // e.g. a RDFParseException while parsing the download
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Write a generated file through the build context, unless it already has this content:
+     * unchanged files keep their modification time and do not trigger recompilation.
+     */
+    private void writeIfChanged(Path file, byte[] content) throws IOException {
+        if (GeneratedFiles.hasContent(file, content)) {
+            getLog().debug(String.format("    %s is unchanged", file.getFileName()));
+            return;
+        }
+        try (final OutputStream out = buildContext.newFileOutputStream(file.toFile())) {
+            out.write(content);
+        }
+    }
+
+    /**
+     * The qualified class name of a vocabulary, identifying it in the {@link GenerationManifest}.
+     */
+    private String getVocabularyId(Vocabulary vocab) {
+        final String vocabClassName = vocab.getClassName() != null ? vocab.getClassName() : StringUtils.capitalize(vocab.getName());
+        final String vocabPackage = vocab.getPackageName() != null ? vocab.getPackageName() : packageName;
+        return vocabPackage != null ? vocabPackage + "." + vocabClassName : vocabClassName;
+    }
+
+    private static RDFFormat getFormat(String mime) {
+        return mime != null ? Rio.getParserFormatForMIMEType(mime).orElse(null) : null;
+    }
+
+    /**
+     * The format of a remote vocabulary, guessed from the URL if the mime-type is unknown.
+     */
+    static RDFFormat getFormat(String mime, URL url) {
+        final RDFFormat format = getFormat(mime);
+        return format != null ? format : Rio.getParserFormatForFileName(url.toString()).orElse(null);
+    }
+
+    private void generateRegistry(RegistryBuilder registry, Path output, Path bundleOutput) throws IOException, MojoFailureException {
+        final Log log = getLog();
+        registry.setPackageName(packageName);
+
+        Path target = output;
+        if (packageName != null) {
+            target = target.resolve(packageName.replaceAll("\\.", "/"));
+            Files.createDirectories(target);
+        }
+        final ByteArrayOutputStream source = new ByteArrayOutputStream();
+        try (final PrintWriter out = new PrintWriter(new OutputStreamWriter(source, StandardCharsets.UTF_8))) {
+            log.info(String.format("Generating vocabulary registry: %s", registry.getQualifiedName(registryClassName)));
+            registry.generate(registryClassName, out);
+        } catch (GenerationException e) {
+            throw new MojoFailureException(String.format("Could not generate vocabulary registry %s: %s", registryClassName, e.getMessage()));
+        }
+        writeIfChanged(target.resolve(registryClassName + ".java"), source.toByteArray());
+
+        // register the service, keeping registries of other executions
+        final Path serviceFile = bundleOutput.resolve("META-INF/services/" + RegistryBuilder.SERVICE_INTERFACE);
+        final Set<String> services = new LinkedHashSet<>();
+        if (Files.exists(serviceFile)) {
+            services.addAll(Files.readAllLines(serviceFile, StandardCharsets.UTF_8));
+        }
+        if (services.add(registry.getQualifiedName(registryClassName))) {
+            Files.createDirectories(serviceFile.getParent());
+            try (final Writer out = new OutputStreamWriter(buildContext.newFileOutputStream(serviceFile.toFile()), StandardCharsets.UTF_8)) {
+                for (String service : services) {
+                    out.write(service);
+                    out.write("\n");
                 }
-            });
+            }
         }
+
+        Resource rsc = new Resource();
+        rsc.setDirectory(bundleOutput.toAbsolutePath().toString());
+        rsc.setFiltering(false);
+        log.debug(String.format("Adding %s as additional resource folder", rsc));
+        project.addResource(rsc);
     }
 
-    private String getAcceptHeaderValue() {
-        final Set<RDFFormat> rdfFormats = RDFParserRegistry.getInstance().getKeys();
-        final Iterator<String> acceptParams = RDFFormat.getAcceptParams(rdfFormats, false, RDFFormat.TURTLE).iterator();
-        if (acceptParams.hasNext()) {
-            final StringBuilder sb = new StringBuilder();
-            while (acceptParams.hasNext()) {
-                sb.append(acceptParams.next());
-                if (acceptParams.hasNext()) {
-                    sb.append(", ");
+    /**
+     * Fetch a remote vocabulary into the vocabulary cache, unless the cached copy is still valid.
+     * A downloaded vocabulary is parsed while it arrives and added to the model cache.
+     *
+     * @param mime   the configured mime-type, may be {@code null} to use the {@code Content-Type} of the response
+     * @param accept the {@code Accept} header, may be {@code null} to use the weighted default
+     */
+    private RemoteVocabularyCache.Entry fetchVocab(final Vocabulary vocab, final String displayName, final String mime, final String accept,
+                                                   final Generation generation, final Log log) throws URISyntaxException, IOException {
+        final URL url = vocab.getUrl();
+        final VocabularyFetcher.Result<Model> fetched = generation.fetcher.fetch(url, accept, vocab.getMirrors(), vocab.getHedgeDelay(), new VocabularyFetcher.ContentHandler<Model>() {
+            @Override
+            public Model handle(InputStream content, String contentType) throws IOException {
+                final RDFFormat format = getFormat(mime != null ? mime : getMimeType(contentType), url);
+                if (format == null) {
+                    // parsed after the download, with the format detected from the file
+                    return null;
                 }
+                log.debug(String.format("Parsing %s while it is downloaded as %s", displayName, format.getName()));
+                return generation.modelCache.parse(content, format, url.toString());
             }
-            return sb.toString();
+        });
+        if (fetched.isModified()) {
+            log.info(String.format("Fetched vocabulary definition for %s from %s", displayName, url));
         } else {
-            return null;
+            log.info(String.format("Vocabulary definition for %s is not modified, using cached %s", displayName, url));
         }
+        return fetched.getEntry();
+    }
+
+    static String getMimeType(String contentType) {
+        return contentType != null ? contentType.replaceFirst(";.*$", "").trim() : null;
+    }
+
+    private String getUserAgent() {
+        return String.format("%s:%s/%s (%s) %s:%s/%s (%s)",
+                pluginDescriptor.getGroupId(), pluginDescriptor.getArtifactId(), pluginDescriptor.getVersion(), pluginDescriptor.getName(),
+                project.getGroupId(), project.getArtifactId(), project.getVersion(), project.getName());
     }
 
 }
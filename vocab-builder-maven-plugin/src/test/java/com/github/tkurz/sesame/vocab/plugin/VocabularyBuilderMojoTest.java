@@ -0,0 +1,90 @@
+package com.github.tkurz.sesame.vocab.plugin;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.project.MavenProject;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link VocabularyBuilderMojo}, configured as maven would inject it.
+ */
+public class VocabularyBuilderMojoTest {
+
+    private static final String VOCABULARY = "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n"
+            + "@prefix owl: <http://www.w3.org/2002/07/owl#> .\n"
+            + "<http://example.com/ns#> a owl:Ontology .\n"
+            + "<http://example.com/ns#Person> a rdfs:Class ; rdfs:label \"Person\"@en .\n";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static void set(Object mojo, String name, Object value) throws Exception {
+        final Field field = mojo.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    private VocabularyBuilderMojo createMojo(File vocabulary, MavenProject project) throws Exception {
+        final VocabularyBuilderMojo mojo = new VocabularyBuilderMojo();
+        set(mojo, "outputDirectory", new File(temp.getRoot(), "target/generated-sources"));
+        set(mojo, "bundleOutputDirectory", new File(temp.getRoot(), "target/generated-resources"));
+        set(mojo, "remoteCacheDir", new File(temp.getRoot(), "target/vocab-cache"));
+        set(mojo, "vocabularyCacheDir", new File(temp.getRoot(), "vocabulary-cache"));
+        set(mojo, "vocabularyCacheSize", 256L);
+        set(mojo, "threads", 1);
+        set(mojo, "file", vocabulary);
+        set(mojo, "className", "Example");
+        set(mojo, "packageName", "com.example");
+        set(mojo, "createResourceBundles", true);
+        set(mojo, "createPack", true);
+        set(mojo, "project", project);
+        set(mojo, "buildContext", new DefaultBuildContext());
+        set(mojo, "mavenSession", new MavenSession(null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult(), project));
+        set(mojo, "pluginDescriptor", new PluginDescriptor());
+        set(mojo, "mojoExecution", new MojoExecution(new MojoDescriptor(), "default"));
+        return mojo;
+    }
+
+    private static List<String> getResourceDirectories(MavenProject project) {
+        final List<String> directories = new ArrayList<>();
+        for (Resource resource : project.getResources()) {
+            directories.add(resource.getDirectory());
+        }
+        return directories;
+    }
+
+    @Test
+    public void testResourcesOfSkippedVocabulary() throws Exception {
+        final File vocabulary = temp.newFile("example.ttl");
+        FileUtils.writeStringToFile(vocabulary, VOCABULARY, StandardCharsets.UTF_8);
+        final String bundleOutput = new File(temp.getRoot(), "target/generated-resources").getAbsolutePath();
+
+        final MavenProject first = new MavenProject();
+        createMojo(vocabulary, first).execute();
+        Assert.assertTrue(new File(bundleOutput, "com/example/Example.properties").isFile());
+        Assert.assertEquals(1, getResourceDirectories(first).size());
+        Assert.assertTrue(getResourceDirectories(first).contains(bundleOutput));
+
+        // nothing changed, but the outputs of the first build are resources of the second one as well
+        final MavenProject second = new MavenProject();
+        createMojo(vocabulary, second).execute();
+        Assert.assertEquals(1, getResourceDirectories(second).size());
+        Assert.assertTrue(getResourceDirectories(second).contains(bundleOutput));
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.tkurz.sesame.vocab.runtime;
+
+import org.eclipse.rdf4j.model.IRI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Access to all {@link VocabularyRegistry VocabularyRegistries} on the classpath.
+ */
+public final class VocabularyRegistries {
+
+    private VocabularyRegistries() {
+        // static access only
+    }
+
+    /**
+     * All registries found via {@link ServiceLoader} in the context classloader.
+     */
+    public static List<VocabularyRegistry> getRegistries() {
+        return Holder.REGISTRIES;
+    }
+
+    /**
+     * Resolve an IRI using all registries, the longest matching namespace wins.
+     *
+     * @param iri the IRI, may be {@code null}
+     * @return the term, or {@code null} if the IRI is not part of any generated vocabulary
+     */
+    public static VocabularyTerm resolve(String iri) {
+        VocabularyTerm result = null;
+        for (VocabularyRegistry registry : Holder.REGISTRIES) {
+            final VocabularyTerm term = registry.resolve(iri);
+            if (term != null && (result == null || term.getNamespace().length() > result.getNamespace().length())) {
+                result = term;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @see #resolve(String)
+     */
+    public static VocabularyTerm resolve(IRI iri) {
+        return iri == null ? null : resolve(iri.stringValue());
+    }
+
+    /**
+     * Canonicalise an IRI using all registries, the first registry that knows an equivalent term wins.
+     *
+     * @param iri the IRI, may be {@code null}
+     * @return the canonical term, or {@code iri} itself if it is not equivalent to any term
+     * @see VocabularyRegistry#canonical(IRI)
+     */
+    public static IRI canonical(IRI iri) {
+        for (VocabularyRegistry registry : Holder.REGISTRIES) {
+            final IRI canonical = registry.canonical(iri);
+            if (canonical != iri) {
+                return canonical;
+            }
+        }
+        return iri;
+    }
+
+    private static final class Holder {
+        private static final List<VocabularyRegistry> REGISTRIES = load();
+
+        private static List<VocabularyRegistry> load() {
+            final List<VocabularyRegistry> registries = new ArrayList<>();
+            for (VocabularyRegistry registry : ServiceLoader.load(VocabularyRegistry.class)) {
+                registries.add(registry);
+            }
+            return Collections.unmodifiableList(registries);
+        }
+    }
+}
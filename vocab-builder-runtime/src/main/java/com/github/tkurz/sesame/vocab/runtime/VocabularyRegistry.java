@@ -0,0 +1,42 @@
+package com.github.tkurz.sesame.vocab.runtime;
+
+import org.eclipse.rdf4j.model.IRI;
+
+/**
+ * Reverse lookup from IRIs to the constants of generated vocabularies.
+ * <p/>
+ * Implementations are generated by the vocab-builder-maven-plugin and registered
+ * via {@link java.util.ServiceLoader}, use {@link VocabularyRegistries} to query all of them.
+ */
+public interface VocabularyRegistry {
+
+    /**
+     * Resolve an IRI to the term of a generated vocabulary.
+     *
+     * @param iri the IRI, may be {@code null}
+     * @return the term, or {@code null} if the IRI is not part of any vocabulary known to this registry
+     */
+    VocabularyTerm resolve(String iri);
+
+    /**
+     * Resolve an IRI to the term of a generated vocabulary.
+     *
+     * @param iri the IRI, may be {@code null}
+     * @return the term, or {@code null} if the IRI is not part of any vocabulary known to this registry
+     */
+    default VocabularyTerm resolve(IRI iri) {
+        return iri == null ? null : resolve(iri.stringValue());
+    }
+
+    /**
+     * Map an IRI to the preferred term of its {@code owl:equivalentClass}, {@code owl:equivalentProperty}
+     * or {@code owl:sameAs} equivalence class.
+     *
+     * @param iri the IRI, may be {@code null}
+     * @return the canonical term, or {@code iri} itself if it is not equivalent to any term known to this registry
+     */
+    default IRI canonical(IRI iri) {
+        return iri;
+    }
+
+}
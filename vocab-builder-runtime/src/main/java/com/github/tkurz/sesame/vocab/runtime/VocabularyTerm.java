@@ -0,0 +1,79 @@
+package com.github.tkurz.sesame.vocab.runtime;
+
+import org.eclipse.rdf4j.model.IRI;
+
+/**
+ * A term of a generated vocabulary, as returned by {@link VocabularyRegistry}.
+ */
+public final class VocabularyTerm {
+
+    private final IRI iri;
+    private final Class<?> vocabulary;
+    private final String namespace;
+    private final String prefix;
+    private final String localName;
+    private final String label;
+
+    public VocabularyTerm(IRI iri, Class<?> vocabulary, String namespace, String prefix, String localName, String label) {
+        this.iri = iri;
+        this.vocabulary = vocabulary;
+        this.namespace = namespace;
+        this.prefix = prefix;
+        this.localName = localName;
+        this.label = label;
+    }
+
+    /**
+     * The constant of the generated vocabulary.
+     */
+    public IRI getIRI() {
+        return iri;
+    }
+
+    /**
+     * The generated vocabulary class.
+     */
+    public Class<?> getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * The {@code NAMESPACE} of the vocabulary.
+     */
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * The {@code PREFIX} of the vocabulary.
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * The name of the term, relative to the namespace.
+     */
+    public String getLocalName() {
+        return localName;
+    }
+
+    /**
+     * The label of the term in the preferred language of the vocabulary, may be {@code null}.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * The term in prefixed notation, e.g. {@code rdfs:label}.
+     */
+    public String getPrefixedName() {
+        return prefix + ":" + localName;
+    }
+
+    @Override
+    public String toString() {
+        return getPrefixedName();
+    }
+}